@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr;
+
+import com.mackenziehigh.sexpr.exceptions.ParsingFailedException;
+import com.mackenziehigh.sexpr.internal.IncrementalDocument;
+
+/**
+ * An instance of this class keeps a text together with its parse-tree,
+ * so that the tree can be updated cheaply, whenever the text is edited.
+ *
+ * <p>
+ * This class is intended for editors and other tools that reparse
+ * the same text after every small change. Only the top-level forms
+ * near the edit are relexed. The top-level forms before the edit are reused by identity.
+ * The top-level forms after the edit are reused by identity, unless their
+ * <code>SourceLocation</code>s changed, in which case they are copied
+ * with shifted locations, but they are still not relexed.
+ * </p>
+ *
+ * <p>
+ * The result of each edit is always equal to the result of <code>SList.parse(String, String)</code>
+ * on the updated text, including the source-locations.
+ * </p>
+ *
+ * <p>
+ * Instances of this class are not thread-safe.
+ * </p>
+ */
+public final class IncrementalParser
+{
+    private final IncrementalDocument internal;
+
+    private IncrementalParser (final IncrementalDocument internal)
+    {
+        this.internal = internal;
+    }
+
+    /**
+     * Create a new parser and parse the initial text.
+     *
+     * <p>
+     * The initial text may be malformed, in which case <code>tree()</code>
+     * will throw an exception, until the text is edited to be well-formed.
+     * </p>
+     *
+     * @param location is a human-readable string indicating where the input came form.
+     * @param text is the initial text.
+     * @return the new parser.
+     */
+    public static IncrementalParser create (final String location,
+                                            final String text)
+    {
+        return new IncrementalParser(new IncrementalDocument(location, text));
+    }
+
+    /**
+     * This method retrieves the current text.
+     *
+     * @return the text, including all of the edits so far.
+     */
+    public String text ()
+    {
+        return internal.text();
+    }
+
+    /**
+     * This method retrieves the parse-tree of the current text.
+     *
+     * @return the parse-tree.
+     * @throws ParsingFailedException if the current text is malformed.
+     * @throws IllegalArgumentException if the current text contains an invalid escape-sequence.
+     */
+    public SList tree ()
+    {
+        return internal.tree();
+    }
+
+    /**
+     * This method replaces a range of the text and then updates the parse-tree.
+     *
+     * <p>
+     * The text is updated, even if the updated text is malformed.
+     * </p>
+     *
+     * @param offset is the index of the first character to replace.
+     * @param removed is the number of characters to remove.
+     * @param inserted will be inserted at the offset.
+     * @return the updated parse-tree.
+     * @throws IndexOutOfBoundsException if the range is not within the text.
+     * @throws ParsingFailedException if the updated text is malformed.
+     * @throws IllegalArgumentException if the updated text contains an invalid escape-sequence.
+     */
+    public SList edit (final int offset,
+                       final int removed,
+                       final String inserted)
+    {
+        return internal.edit(offset, removed, inserted);
+    }
+}
@@ -0,0 +1,444 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr;
+
+import com.mackenziehigh.sexpr.internal.LineReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An instance of this class caches the trees obtained by parsing files and resources,
+ * so that a file, which is loaded repeatedly, is only parsed again, if it changed.
+ *
+ * <p>
+ * A file is identified by its real path. A cached tree is reused,
+ * if the size, the last-modified time, and the file-key (if any) of the file are unchanged.
+ * A resource is identified by its path and a hash of its content;
+ * therefore, a resource is still read each time, but is not parsed again.
+ * </p>
+ *
+ * <p>
+ * The total <code>treeSize()</code> of the cached trees is bounded.
+ * When the bound is exceeded, the least-recently-used trees are evicted.
+ * A tree that is larger than the bound is returned, but not cached.
+ * Optionally, the trees are held by soft-references, which allows
+ * the garbage-collector to evict trees, when memory is low.
+ * </p>
+ *
+ * <p>
+ * Since symbolic-lists are immutable, the cached trees can be shared freely.
+ * Instances of this class are thread-safe. Concurrent requests for the same missing file
+ * may parse the file more than once, since parsing is performed without holding a lock.
+ * </p>
+ */
+public final class ParseCache
+{
+    /**
+     * This is the default maximum total <code>treeSize()</code> of the cached trees.
+     */
+    public static final long DEFAULT_MAX_TREE_SIZE = 1 << 20;
+
+    /**
+     * Use an instance of this class to create a <code>ParseCache</code> object.
+     */
+    public static final class Builder
+    {
+        private long maxTreeSize = DEFAULT_MAX_TREE_SIZE;
+
+        private boolean softReferences = false;
+
+        private ParseOptions options = ParseOptions.DEFAULT;
+
+        /**
+         * Sole Constructor.
+         */
+        private Builder ()
+        {
+            // Pass.
+        }
+
+        /**
+         * Use this method to bound the total <code>treeSize()</code> of the cached trees.
+         *
+         * @param value is the maximum number of nodes retained by the cache.
+         * @return this.
+         * @throws IllegalArgumentException if the value is negative.
+         */
+        public Builder maxTreeSize (final long value)
+        {
+            if (value < 0)
+            {
+                throw new IllegalArgumentException("maxTreeSize < 0");
+            }
+
+            maxTreeSize = value;
+            return this;
+        }
+
+        /**
+         * Use this method to specify whether the cached trees will be held by soft-references.
+         *
+         * <p>
+         * By default, the cached trees are held by strong references.
+         * </p>
+         *
+         * @param value is true, if the garbage-collector may evict cached trees.
+         * @return this.
+         */
+        public Builder softReferences (final boolean value)
+        {
+            softReferences = value;
+            return this;
+        }
+
+        /**
+         * Use this method to specify how the files will be parsed.
+         *
+         * @param value describe how to parse each file.
+         * @return this.
+         */
+        public Builder options (final ParseOptions value)
+        {
+            options = Objects.requireNonNull(value, "options");
+            return this;
+        }
+
+        /**
+         * Use this method to obtain the new cache.
+         *
+         * @return the new cache.
+         */
+        public ParseCache build ()
+        {
+            return new ParseCache(this);
+        }
+    }
+
+    /**
+     * A cached tree, together with the identity of the input that produced it.
+     */
+    private static final class Entry
+    {
+        /**
+         * This identifies the version of the input, such as the size and last-modified time.
+         */
+        public final Object stamp;
+
+        /**
+         * This is the <code>treeSize()</code> of the tree.
+         */
+        public final long weight;
+
+        /**
+         * This is either the tree itself or a soft-reference to the tree.
+         */
+        private final Object tree;
+
+        public Entry (final Object stamp,
+                      final SList tree,
+                      final boolean soft)
+        {
+            this.stamp = stamp;
+            this.weight = tree.treeSize();
+            this.tree = soft ? new SoftReference<>(tree) : tree;
+        }
+
+        @SuppressWarnings ("unchecked")
+        public SList tree ()
+        {
+            return tree instanceof SList ? (SList) tree : ((SoftReference<SList>) tree).get();
+        }
+    }
+
+    private final long maxTreeSize;
+
+    private final boolean softReferences;
+
+    private final ParseOptions options;
+
+    /**
+     * These are the cached trees, in least-recently-used order.
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75F, true);
+
+    private long retainedTreeSize = 0;
+
+    private long hits = 0;
+
+    private long misses = 0;
+
+    private long evictions = 0;
+
+    private ParseCache (final Builder builder)
+    {
+        this.maxTreeSize = builder.maxTreeSize;
+        this.softReferences = builder.softReferences;
+        this.options = builder.options;
+    }
+
+    /**
+     * Builder Factory.
+     *
+     * @return an object that can be used to build a <code>ParseCache</code> object.
+     */
+    public static Builder newBuilder ()
+    {
+        return new Builder();
+    }
+
+    /**
+     * This method retrieves the parsed form of a UTF-8 encoded text file,
+     * parsing the file, only if it is not already cached, or has changed.
+     *
+     * <p>
+     * See method <code>SList.parse(Path, ParseOptions)</code> for more parsing details.
+     * </p>
+     *
+     * @param file is the path to the file.
+     * @return the symbolic-list.
+     * @throws IOException if the file cannot be read or decoded.
+     */
+    public SList parse (final Path file)
+            throws IOException
+    {
+        final String key = "file:" + file.toRealPath();
+        final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        final Object stamp = Arrays.asList(attributes.size(), attributes.lastModifiedTime(), attributes.fileKey());
+
+        final SList cached = lookup(key, stamp);
+
+        if (cached != null)
+        {
+            return cached;
+        }
+
+        final SList tree = SList.parse(file, options);
+        store(key, stamp, tree);
+        return tree;
+    }
+
+    /**
+     * This method retrieves the parsed form of a resource file,
+     * parsing the resource, only if it is not already cached, or has changed.
+     *
+     * <p>
+     * The resource is located and decoded in the same way
+     * as method <code>SList.parseResource(String)</code>.
+     * </p>
+     *
+     * @param path is the path to the resource file.
+     * @return the symbolic-list.
+     * @throws IOException if the resource cannot be read.
+     */
+    public SList parseResource (final String path)
+            throws IOException
+    {
+        final byte[] content;
+
+        try (InputStream in = SList.class.getResourceAsStream(path))
+        {
+            if (in == null)
+            {
+                throw new FileNotFoundException(path);
+            }
+
+            content = in.readAllBytes();
+        }
+
+        final String key = "resource:" + path;
+        final Object stamp = ByteBuffer.wrap(hash(content));
+
+        final SList cached = lookup(key, stamp);
+
+        if (cached != null)
+        {
+            return cached;
+        }
+
+        final Reader text = new LineReader(new StringReader(new String(content, Charset.defaultCharset())), true);
+        final SList tree = SList.parse(path, text, options);
+        store(key, stamp, tree);
+        return tree;
+    }
+
+    private static byte[] hash (final byte[] content)
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        }
+        catch (NoSuchAlgorithmException ex)
+        {
+            /**
+             * Every implementation of the Java platform is required to support SHA-256.
+             */
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private synchronized SList lookup (final String key,
+                                       final Object stamp)
+    {
+        final Entry entry = entries.get(key);
+        final SList tree = entry == null ? null : entry.tree();
+
+        if (tree != null && entry.stamp.equals(stamp))
+        {
+            ++hits;
+            return tree;
+        }
+
+        /**
+         * The entry is stale or was collected.
+         */
+        if (entry != null)
+        {
+            remove(key);
+            ++evictions;
+        }
+
+        ++misses;
+        return null;
+    }
+
+    private synchronized void store (final String key,
+                                     final Object stamp,
+                                     final SList tree)
+    {
+        if (entries.containsKey(key))
+        {
+            remove(key);
+        }
+
+        final Entry entry = new Entry(stamp, tree, softReferences);
+
+        if (entry.weight > maxTreeSize)
+        {
+            return;
+        }
+
+        entries.put(key, entry);
+        retainedTreeSize += entry.weight;
+
+        final Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+
+        while (retainedTreeSize > maxTreeSize)
+        {
+            retainedTreeSize -= eldest.next().getValue().weight;
+            eldest.remove();
+            ++evictions;
+        }
+    }
+
+    private void remove (final String key)
+    {
+        retainedTreeSize -= entries.remove(key).weight;
+    }
+
+    /**
+     * This method removes a file from the cache, if it is present.
+     *
+     * @param file is the path to the file.
+     * @throws IOException if the real path of the file cannot be determined.
+     */
+    public synchronized void invalidate (final Path file)
+            throws IOException
+    {
+        final String key = "file:" + file.toRealPath();
+
+        if (entries.containsKey(key))
+        {
+            remove(key);
+        }
+    }
+
+    /**
+     * This method removes all of the cached trees, but does not reset the counters.
+     */
+    public synchronized void clear ()
+    {
+        entries.clear();
+        retainedTreeSize = 0;
+    }
+
+    /**
+     * This method retrieves the number of cached trees,
+     * including any that were collected, but not yet noticed.
+     *
+     * @return the number of entries in this cache.
+     */
+    public synchronized int size ()
+    {
+        return entries.size();
+    }
+
+    /**
+     * This method retrieves the total <code>treeSize()</code> of the cached trees.
+     *
+     * @return the number of nodes retained by this cache.
+     */
+    public synchronized long retainedTreeSize ()
+    {
+        return retainedTreeSize;
+    }
+
+    /**
+     * This method retrieves the number of requests that were satisfied by a cached tree.
+     *
+     * @return the number of cache hits.
+     */
+    public synchronized long hits ()
+    {
+        return hits;
+    }
+
+    /**
+     * This method retrieves the number of requests that required parsing.
+     *
+     * @return the number of cache misses.
+     */
+    public synchronized long misses ()
+    {
+        return misses;
+    }
+
+    /**
+     * This method retrieves the number of trees that were removed from this cache,
+     * because they were stale, collected, or the least-recently-used.
+     *
+     * @return the number of evictions.
+     */
+    public synchronized long evictions ()
+    {
+        return evictions;
+    }
+}
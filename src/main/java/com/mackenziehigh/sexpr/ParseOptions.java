@@ -0,0 +1,411 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * An instance of this class configures how the parser builds symbolic-expressions.
+ *
+ * <p>
+ * All instances of this class are immutable.
+ * </p>
+ */
+public final class ParseOptions
+{
+    /**
+     * These are the options that the <code>parse()</code> methods use by default.
+     */
+    public static final ParseOptions DEFAULT = newBuilder().build();
+
+    /**
+     * Use an instance of this class to create a <code>ParseOptions</code> object.
+     */
+    public static final class Builder
+    {
+        private boolean internAtoms = false;
+
+        private SymbolTable symbols = null;
+
+        private boolean trackLocations = true;
+
+        private boolean lazyAtoms = false;
+
+        private boolean lazyLists = false;
+
+        private int maxDepth = Integer.MAX_VALUE;
+
+        private int maxAtomLength = Integer.MAX_VALUE;
+
+        private long maxNodeCount = Long.MAX_VALUE;
+
+        private long maxInputSize = Long.MAX_VALUE;
+
+        /**
+         * Sole Constructor.
+         */
+        private Builder ()
+        {
+            // Pass.
+        }
+
+        /**
+         * Use this method to enable, or disable, the interning of atoms.
+         *
+         * <p>
+         * When interning is enabled, atoms with equal content share a single
+         * <code>String</code> object, which reduces the allocation-rate and
+         * the retained memory of inputs that repeat the same atoms many times.
+         * Unless a shared symbol-table is specified, each parse uses a new table.
+         * </p>
+         *
+         * @param value is true, if atoms will be interned.
+         * @return this.
+         */
+        public Builder internAtoms (final boolean value)
+        {
+            internAtoms = value;
+            return this;
+        }
+
+        /**
+         * Use this method to intern atoms using a symbol-table that is shared by multiple parses.
+         *
+         * <p>
+         * This method implicitly enables the interning of atoms.
+         * </p>
+         *
+         * @param table will be used to intern the atoms.
+         * @return this.
+         */
+        public Builder symbolTable (final SymbolTable table)
+        {
+            symbols = Objects.requireNonNull(table, "table");
+            internAtoms = true;
+            return this;
+        }
+
+        /**
+         * Use this method to enable, or disable, the tracking of source-locations.
+         *
+         * <p>
+         * When tracking is disabled, the <code>location()</code> of every parsed
+         * atom and nested list is <code>SourceLocation.DEFAULT</code>, which reduces the memory
+         * needed by the parsed tree. The root list, which implicitly encloses the input,
+         * still has its usual location, that is, line zero and column zero of the source,
+         * so that the source of the tree remains known. If atoms are also interned, then atoms
+         * with equal content will be the same object within each parse.
+         * The locations reported by parsing exceptions are unaffected.
+         * </p>
+         *
+         * @param value is true, if the parsed nodes will record their locations.
+         * @return this.
+         */
+        public Builder trackLocations (final boolean value)
+        {
+            trackLocations = value;
+            return this;
+        }
+
+        /**
+         * Use this method to enable, or disable, the slicing of the content of atoms from the input.
+         *
+         * <p>
+         * When slicing is enabled, the content of an atom refers to a range of the input,
+         * and the <code>String</code> is only created, when the content is first needed.
+         * Methods, such as <code>SAtom.contentEquals(CharSequence)</code>,
+         * can examine the content without creating the <code>String</code> at all.
+         * </p>
+         *
+         * <p>
+         * Slicing is only possible, if the entire input is held in memory,
+         * such as a string, a buffer, or a memory-mapped file,
+         * and the content of an atom does not need to be decoded or unescaped.
+         * Otherwise, the content is created during parsing, as usual.
+         * Slicing does not apply to interned atoms.
+         * Slicing from a buffer requires that the buffer not be modified thereafter.
+         * </p>
+         *
+         * @param value is true, if the content of atoms will be sliced from the input.
+         * @return this.
+         */
+        public Builder lazyAtoms (final boolean value)
+        {
+            lazyAtoms = value;
+            return this;
+        }
+
+        /**
+         * Use this method to enable, or disable, the on-demand creation of the elements of lists.
+         *
+         * <p>
+         * When enabled, parsing only records the positions of the lists,
+         * and the elements of each list are created, when the list is first accessed,
+         * such as by <code>get()</code>, <code>size()</code>, or traversal.
+         * Methods, such as <code>treeSize()</code>, do not create the elements.
+         * This reduces the cost of parsing inputs, of which only a small part is ever examined.
+         * The input is validated in its entirety during parsing, as usual.
+         * </p>
+         *
+         * <p>
+         * On-demand creation is only possible, if the input is a string, which is retained
+         * by the parsed tree, until every list has been accessed. Otherwise, this option is ignored.
+         * </p>
+         *
+         * @param value is true, if the elements of lists will be created on demand.
+         * @return this.
+         */
+        public Builder lazyLists (final boolean value)
+        {
+            lazyLists = value;
+            return this;
+        }
+
+        /**
+         * Use this method to limit how deeply lists can be nested.
+         *
+         * <p>
+         * Limiting the depth also prevents the methods that recursively
+         * traverse the parsed tree from overflowing the stack.
+         * </p>
+         *
+         * @param value is the maximum number of unclosed lists, which is unlimited by default.
+         * @return this.
+         * @throws IllegalArgumentException if the value is not positive.
+         */
+        public Builder maxDepth (final int value)
+        {
+            requirePositive(value, "maxDepth");
+            maxDepth = value;
+            return this;
+        }
+
+        /**
+         * Use this method to limit the length of individual atoms.
+         *
+         * <p>
+         * The length is measured as the atom appears in the input,
+         * including any quotes and escape-sequences, in characters,
+         * or in bytes, when the input is parsed as UTF-8 encoded bytes.
+         * Since comments are buffered in the same way as atoms,
+         * the same limit applies to comments.
+         * The limit is enforced while scanning; therefore,
+         * an overly long atom is never buffered in its entirety.
+         * </p>
+         *
+         * @param value is the maximum length of an atom, which is unlimited by default.
+         * @return this.
+         * @throws IllegalArgumentException if the value is not positive.
+         */
+        public Builder maxAtomLength (final int value)
+        {
+            requirePositive(value, "maxAtomLength");
+            maxAtomLength = value;
+            return this;
+        }
+
+        /**
+         * Use this method to limit the number of atoms and lists in the parsed tree.
+         *
+         * <p>
+         * The list that implicitly encloses the entire input is not counted.
+         * </p>
+         *
+         * @param value is the maximum number of atoms and lists, which is unlimited by default.
+         * @return this.
+         * @throws IllegalArgumentException if the value is not positive.
+         */
+        public Builder maxNodeCount (final long value)
+        {
+            requirePositive(value, "maxNodeCount");
+            maxNodeCount = value;
+            return this;
+        }
+
+        /**
+         * Use this method to limit the size of the input.
+         *
+         * <p>
+         * The size is measured in characters, or in bytes,
+         * when the input is parsed as UTF-8 encoded bytes.
+         * The limit is enforced as the input is read; therefore,
+         * an overly large stream is never read in its entirety.
+         * The violation is reported at the start of the token that extends past the limit.
+         * </p>
+         *
+         * @param value is the maximum size of the input, which is unlimited by default.
+         * @return this.
+         * @throws IllegalArgumentException if the value is not positive.
+         */
+        public Builder maxInputSize (final long value)
+        {
+            requirePositive(value, "maxInputSize");
+            maxInputSize = value;
+            return this;
+        }
+
+        private static void requirePositive (final long value,
+                                             final String name)
+        {
+            if (value <= 0)
+            {
+                throw new IllegalArgumentException(name + " <= 0");
+            }
+        }
+
+        /**
+         * Use this method to obtain the new options object.
+         *
+         * @return the new options.
+         */
+        public ParseOptions build ()
+        {
+            return new ParseOptions(this);
+        }
+    }
+
+    private final boolean internAtoms;
+
+    private final SymbolTable symbols;
+
+    private final boolean trackLocations;
+
+    private final boolean lazyAtoms;
+
+    private final boolean lazyLists;
+
+    private final int maxDepth;
+
+    private final int maxAtomLength;
+
+    private final long maxNodeCount;
+
+    private final long maxInputSize;
+
+    private ParseOptions (final Builder builder)
+    {
+        this.internAtoms = builder.internAtoms;
+        this.symbols = builder.symbols;
+        this.trackLocations = builder.trackLocations;
+        this.lazyAtoms = builder.lazyAtoms;
+        this.lazyLists = builder.lazyLists;
+        this.maxDepth = builder.maxDepth;
+        this.maxAtomLength = builder.maxAtomLength;
+        this.maxNodeCount = builder.maxNodeCount;
+        this.maxInputSize = builder.maxInputSize;
+    }
+
+    /**
+     * This method determines whether atoms will be interned.
+     *
+     * @return true, if interning is enabled.
+     */
+    public boolean internAtoms ()
+    {
+        return internAtoms;
+    }
+
+    /**
+     * This method retrieves the symbol-table that is shared by multiple parses, if any.
+     *
+     * @return the shared symbol-table, or empty, if each parse uses its own table.
+     */
+    public Optional<SymbolTable> symbolTable ()
+    {
+        return Optional.ofNullable(symbols);
+    }
+
+    /**
+     * This method determines whether the parsed nodes will record their locations.
+     *
+     * @return true, if location tracking is enabled.
+     */
+    public boolean trackLocations ()
+    {
+        return trackLocations;
+    }
+
+    /**
+     * This method determines whether the content of atoms will be sliced from the input.
+     *
+     * @return true, if slicing is enabled.
+     */
+    public boolean lazyAtoms ()
+    {
+        return lazyAtoms;
+    }
+
+    /**
+     * This method determines whether the elements of lists will be created on demand.
+     *
+     * @return true, if on-demand creation is enabled.
+     */
+    public boolean lazyLists ()
+    {
+        return lazyLists;
+    }
+
+    /**
+     * This method retrieves the maximum number of unclosed lists.
+     *
+     * @return the maximum depth.
+     */
+    public int maxDepth ()
+    {
+        return maxDepth;
+    }
+
+    /**
+     * This method retrieves the maximum length of an atom, or a comment.
+     *
+     * @return the maximum length.
+     */
+    public int maxAtomLength ()
+    {
+        return maxAtomLength;
+    }
+
+    /**
+     * This method retrieves the maximum number of atoms and lists.
+     *
+     * @return the maximum node count.
+     */
+    public long maxNodeCount ()
+    {
+        return maxNodeCount;
+    }
+
+    /**
+     * This method retrieves the maximum size of the input.
+     *
+     * @return the maximum input size.
+     */
+    public long maxInputSize ()
+    {
+        return maxInputSize;
+    }
+
+    /**
+     * Builder Factory.
+     *
+     * @return an object that can be used to build a <code>ParseOptions</code> object.
+     */
+    public static Builder newBuilder ()
+    {
+        return new Builder();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr;
+
+import com.mackenziehigh.sexpr.exceptions.ParsingFailedException;
+import com.mackenziehigh.sexpr.internal.ChunkParser;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * An instance of this class parses UTF-8 encoded input, which arrives in chunks,
+ * and delivers each top-level form as soon as the form is complete.
+ *
+ * <p>
+ * This class is intended for network protocols, whose messages are symbolic-expressions.
+ * The parser never blocks; rather, the caller pushes each chunk, whenever the chunk arrives,
+ * such as when a selector reports that a channel is readable.
+ * Therefore, a single thread can drive the parsers of many connections.
+ * The chunks may be split anywhere, even in the middle of a literal, an escape-sequence,
+ * or a multi-byte character, and there is no need to frame the messages.
+ * </p>
+ *
+ * <p>
+ * Only the bytes of the incomplete top-level form, if any, are retained between chunks.
+ * A top-level atom that is not quoted is only complete once the byte after it arrives,
+ * since the next chunk could extend the atom.
+ * </p>
+ *
+ * <p>
+ * The forms delivered, and the exceptions thrown, are the same as those of <code>SList.parse()</code>,
+ * on the concatenation of the chunks, including the source-locations.
+ * Once an exception is thrown, the parser cannot be used any further.
+ * </p>
+ *
+ * <p>
+ * Instances of this class are not thread-safe.
+ * </p>
+ */
+public final class PushParser
+{
+    private final ChunkParser internal;
+
+    private PushParser (final ChunkParser internal)
+    {
+        this.internal = internal;
+    }
+
+    /**
+     * Create a new parser.
+     *
+     * <p>
+     * The callback is invoked by <code>feed()</code> and <code>finish()</code>,
+     * once per top-level form, in order. In order to enqueue the forms instead,
+     * simply pass the <code>add</code> method of a queue.
+     * </p>
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param callback will receive the top-level forms.
+     * @return the new parser.
+     */
+    public static PushParser create (final String source,
+                                     final Consumer<Sexpr<?>> callback)
+    {
+        return new PushParser(new ChunkParser(source, callback));
+    }
+
+    /**
+     * This method pushes the next part of the input.
+     *
+     * <p>
+     * The bytes between the position and the limit of the chunk are copied;
+     * therefore, the chunk may be reused afterwards.
+     * The position of the chunk is advanced to the limit.
+     * </p>
+     *
+     * @param chunk contains the next part of the input.
+     * @return this.
+     * @throws ParsingFailedException if the input is malformed.
+     * @throws IOException if the input is not well-formed UTF-8.
+     * @throws IllegalStateException if the input was already finished, or malformed.
+     */
+    public PushParser feed (final ByteBuffer chunk)
+            throws IOException
+    {
+        internal.feed(chunk);
+        return this;
+    }
+
+    /**
+     * This method signals the end of the input, which completes the final top-level form, if any.
+     *
+     * @throws ParsingFailedException if the input is malformed, such as an unbalanced list.
+     * @throws IOException if the input is not well-formed UTF-8.
+     * @throws IllegalStateException if the input was already finished, or malformed.
+     */
+    public void finish ()
+            throws IOException
+    {
+        internal.finish();
+    }
+
+    /**
+     * This method retrieves the size of the incomplete top-level form, if any.
+     *
+     * <p>
+     * A server may use this to limit the size of the messages that it receives.
+     * </p>
+     *
+     * @return the number of bytes that are currently retained.
+     */
+    public int buffered ()
+    {
+        return internal.buffered();
+    }
+}
@@ -18,6 +18,9 @@ package com.mackenziehigh.sexpr;
 import com.mackenziehigh.sexpr.internal.Escaper;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -32,65 +35,114 @@ public final class SAtom
         implements Sexpr<SAtom>
 {
     /**
-     * This is the content() of this atom.
+     * This is the content() of this atom, which is either a <code>String</code>,
+     * or a slice of the input that will be converted to a <code>String</code> on demand.
      */
-    private final String content;
+    private final CharSequence value;
 
     /**
-     * This is the content() in a format that would be recognized by the parser.
+     * This is the content() of this atom, which is computed on demand.
+     *
+     * <p>
+     * Like the hash-code of a <code>String</code>, this field needs no synchronization,
+     * since the computation always produces an equal immutable result.
+     * </p>
+     */
+    private String content;
+
+    /**
+     * This is the content() in a format that would be recognized by the parser,
+     * which is computed on demand.
      */
-    private final String parsableContent;
+    private String parsableContent;
 
     /**
-     * This is the location of this atom in an input-string,
+     * This is the source of the location of this atom in an input-string,
      * if this atom was obtained by parsing an input-string.
+     * The source is shared by all of the nodes from the same input.
+     */
+    private final String source;
+
+    /**
+     * This is the line-number and column-number of the location,
+     * which are packed into a single value, so that a parsed tree
+     * does not need a separate <code>SourceLocation</code> object per node.
      */
-    private final SourceLocation location;
+    private final long position;
 
     /**
-     * Cached Value.
+     * Numeric Kind: the content() was not converted to a number in advance.
      */
-    private Optional<Boolean> valueAsBoolean = Optional.empty();
+    private static final byte NOT_NUMERIC = 0;
 
     /**
-     * Cached Value.
+     * Numeric Kind: the content() is an integer, which is stored as a long.
      */
-    private Optional<Character> valueAsChar = Optional.empty();
+    private static final byte INTEGRAL = 1;
 
     /**
-     * Cached Value.
+     * Numeric Kind: the content() is a decimal number, which is stored as the bits of a double.
      */
-    private Optional<Byte> valueAsByte = Optional.empty();
+    private static final byte DECIMAL = 2;
 
     /**
-     * Cached Value.
+     * This value means that the content() is not an integer that fits in 18 digits,
+     * which cannot be mistaken for such an integer, since it has 19 digits.
      */
-    private Optional<Short> valueAsShort = Optional.empty();
+    private static final long NOT_INTEGRAL = Long.MIN_VALUE;
 
     /**
-     * Cached Value.
+     * These are the powers of ten that are exactly representable as doubles.
      */
-    private Optional<Integer> valueAsInt = Optional.empty();
+    private static final double[] POWERS_OF_TEN =
+    {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
 
     /**
-     * Cached Value.
+     * Translates ASCII characters to true, if the character cannot be part of a bare atom,
+     * which are the whitespace, parentheses, at-signs, single-quotes, and double-quotes.
      */
-    private Optional<Long> valueAsLong = Optional.empty();
+    private static final boolean[] SPECIAL = new boolean[128];
+
+    static
+    {
+        SPECIAL[' '] = true;
+        SPECIAL['\t'] = true;
+        SPECIAL['\n'] = true;
+        SPECIAL[0x0B] = true;
+        SPECIAL['\f'] = true;
+        SPECIAL['\r'] = true;
+        SPECIAL['('] = true;
+        SPECIAL[')'] = true;
+        SPECIAL['@'] = true;
+        SPECIAL['\''] = true;
+        SPECIAL['"'] = true;
+    }
 
     /**
-     * Cached Value.
+     * This is the kind of number that the content() is, if it was converted in advance.
      */
-    private Optional<Float> valueAsFloat = Optional.empty();
+    private final byte numeric;
 
     /**
-     * Cached Value.
+     * This is the content() converted to a number, when this atom was created,
+     * so that the numeric conversions need not reparse the content().
      */
-    private Optional<Double> valueAsDouble = Optional.empty();
+    private final long number;
 
     /**
-     * Cached Hash Code.
+     * This is the result of converting the content() to each of the primitive types,
+     * including the conversions that failed, which is computed on demand.
+     *
+     * <p>
+     * Like the content(), this field needs no synchronization,
+     * since the computation always produces an equivalent immutable result,
+     * whose fields are all final, and thus are safely published.
+     * </p>
      */
-    private final int hash;
+    private Profile profile;
 
     /**
      * Constructor.
@@ -99,12 +151,375 @@ public final class SAtom
      * @param location will be the location() of this atom.
      */
     private SAtom (final SourceLocation location,
-                   final String value)
+                   final CharSequence value)
+    {
+        this.value = Objects.requireNonNull(value);
+        this.content = value instanceof String ? (String) value : null;
+        this.source = Objects.requireNonNull(location).source();
+        this.position = SourceLocation.pack(location);
+
+        /**
+         * Numbers are converted now, typically while the input is being parsed,
+         * since the characters were just scanned, and numeric atoms are usually converted later.
+         * Only the integers and decimals that can be converted exactly and quickly are converted now.
+         * The other atoms are converted on demand, as before.
+         */
+        final long integral = parseIntegral(value);
+
+        if (integral != NOT_INTEGRAL)
+        {
+            this.numeric = INTEGRAL;
+            this.number = integral;
+            return;
+        }
+
+        final double decimal = parseDecimal(value);
+
+        if (Double.isNaN(decimal))
+        {
+            this.numeric = NOT_NUMERIC;
+            this.number = 0;
+        }
+        else
+        {
+            this.numeric = DECIMAL;
+            this.number = Double.doubleToRawLongBits(decimal);
+        }
+    }
+
+    /**
+     * This method converts an integer of the form [+-]?[0-9]+ to a long.
+     *
+     * <p>
+     * Integers of more than 18 significant digits are not converted, since they may overflow.
+     * Negative zero is not converted, since it is not the same as zero, as a double.
+     * </p>
+     *
+     * @param text may be an integer.
+     * @return the integer, or NOT_INTEGRAL, if the text was not converted.
+     */
+    private static long parseIntegral (final CharSequence text)
+    {
+        final int length = text.length();
+
+        if (length == 0 || length > 20)
+        {
+            return NOT_INTEGRAL;
+        }
+
+        final char first = text.charAt(0);
+        final boolean negative = first == '-';
+        final int start = first == '-' || first == '+' ? 1 : 0;
+
+        if (start == length)
+        {
+            return NOT_INTEGRAL;
+        }
+
+        long result = 0;
+
+        for (int i = start; i < length; i++)
+        {
+            final int digit = text.charAt(i) - '0';
+
+            if (digit < 0 || digit > 9)
+            {
+                return NOT_INTEGRAL;
+            }
+
+            if (result >= 100_000_000_000_000_000L)
+            {
+                return NOT_INTEGRAL;
+            }
+
+            result = result * 10 + digit;
+        }
+
+        if (negative && result == 0)
+        {
+            return NOT_INTEGRAL;
+        }
+
+        return negative ? -result : result;
+    }
+
+    /**
+     * This method converts a decimal number of the form [+-]?[0-9]*[.]?[0-9]*([eE][+-]?[0-9]+)?,
+     * which has a decimal point, or an exponent, or both, to a double,
+     * if the conversion is exact using a single multiplication or division.
+     *
+     * <p>
+     * If the significand has at most 15 digits, and the power of ten is at most 22,
+     * then both are exactly representable as doubles; therefore, a single correctly-rounded
+     * operation produces the same result as <code>Double.valueOf()</code>.
+     * </p>
+     *
+     * @param text may be a decimal number.
+     * @return the number, or NaN, if the text was not converted.
+     */
+    private static double parseDecimal (final CharSequence text)
+    {
+        final int length = text.length();
+
+        if (length == 0 || length > 40)
+        {
+            return Double.NaN;
+        }
+
+        final char first = text.charAt(0);
+        final boolean negative = first == '-';
+        int i = first == '-' || first == '+' ? 1 : 0;
+
+        long significand = 0;
+        int significantDigits = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean fraction = false;
+
+        for (; i < length; i++)
+        {
+            final char c = text.charAt(i);
+
+            if (c == '.' && fraction == false)
+            {
+                fraction = true;
+                continue;
+            }
+            else if (c < '0' || c > '9')
+            {
+                break;
+            }
+
+            ++digits;
+            scale -= fraction ? 1 : 0;
+            significand = significand * 10 + (c - '0');
+            significantDigits += significand == 0 ? 0 : 1;
+
+            if (significantDigits > 15)
+            {
+                return Double.NaN;
+            }
+        }
+
+        /**
+         * An integer is not a decimal, since it could still be converted to an integer type.
+         */
+        if (digits == 0 || (fraction == false && i == length))
+        {
+            return Double.NaN;
+        }
+
+        if (i < length)
+        {
+            final char marker = text.charAt(i++);
+            final char sign = i < length ? text.charAt(i) : 0;
+            i += sign == '-' || sign == '+' ? 1 : 0;
+
+            if ((marker != 'e' && marker != 'E') || i == length || length - i > 3)
+            {
+                return Double.NaN;
+            }
+
+            int exponent = 0;
+
+            for (; i < length; i++)
+            {
+                final int digit = text.charAt(i) - '0';
+
+                if (digit < 0 || digit > 9)
+                {
+                    return Double.NaN;
+                }
+
+                exponent = exponent * 10 + digit;
+            }
+
+            scale += sign == '-' ? -exponent : exponent;
+        }
+
+        final double magnitude;
+
+        if (significand == 0)
+        {
+            magnitude = 0;
+        }
+        else if (scale >= 0 && scale < POWERS_OF_TEN.length)
+        {
+            magnitude = significand * POWERS_OF_TEN[scale];
+        }
+        else if (scale < 0 && -scale < POWERS_OF_TEN.length)
+        {
+            magnitude = significand / POWERS_OF_TEN[-scale];
+        }
+        else
+        {
+            return Double.NaN;
+        }
+
+        return negative ? -magnitude : magnitude;
+    }
+
+    /**
+     * This method determines whether <code>Long.parseLong()</code> would accept a string,
+     * and whether the result would be within a given range, without throwing an exception.
+     *
+     * <p>
+     * Like <code>Long.parseLong()</code>, the result is accumulated negatively,
+     * so that the most negative value does not overflow.
+     * </p>
+     *
+     * @param text may be an integer.
+     * @param min is the least acceptable value.
+     * @param max is the greatest acceptable value.
+     * @return true, if the text is an integer within the range.
+     */
+    private static boolean isInteger (final String text,
+                                      final long min,
+                                      final long max)
+    {
+        final int length = text.length();
+
+        if (length == 0)
+        {
+            return false;
+        }
+
+        final char first = text.charAt(0);
+        final long limit = first == '-' ? min : -max;
+        final long multiplyLimit = limit / 10;
+        int i = first == '-' || first == '+' ? 1 : 0;
+
+        if (i == length)
+        {
+            return false;
+        }
+
+        long result = 0;
+
+        for (; i < length; i++)
+        {
+            final int digit = Character.digit(text.charAt(i), 10);
+
+            if (digit < 0 || result < multiplyLimit)
+            {
+                return false;
+            }
+
+            result *= 10;
+
+            if (result < limit + digit)
+            {
+                return false;
+            }
+
+            result -= digit;
+        }
+
+        return true;
+    }
+
+    /**
+     * This method determines whether <code>Double.valueOf()</code> would accept a string,
+     * without throwing an exception.
+     *
+     * @param text may be a floating-point number.
+     * @return true, if the text is a decimal or hexadecimal floating-point number, NaN, or Infinity.
+     */
+    private static boolean isDecimal (final String text)
+    {
+        /**
+         * Like Double.valueOf(), ignore the leading and trailing whitespace.
+         */
+        int i = 0;
+        int end = text.length();
+
+        while (i < end && text.charAt(i) <= ' ')
+        {
+            ++i;
+        }
+
+        while (end > i && text.charAt(end - 1) <= ' ')
+        {
+            --end;
+        }
+
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+'))
+        {
+            ++i;
+        }
+
+        if ((text.startsWith("NaN", i) && i + 3 == end) || (text.startsWith("Infinity", i) && i + 8 == end))
+        {
+            return true;
+        }
+
+        final boolean hex = text.startsWith("0x", i) || text.startsWith("0X", i);
+        final int radix = hex ? 16 : 10;
+        int digits = 0;
+        i += hex ? 2 : 0;
+
+        while (i < end && isDigit(text.charAt(i), radix))
+        {
+            ++i;
+            ++digits;
+        }
+
+        if (i < end && text.charAt(i) == '.')
+        {
+            ++i;
+
+            while (i < end && isDigit(text.charAt(i), radix))
+            {
+                ++i;
+                ++digits;
+            }
+        }
+
+        /**
+         * The exponent is required in hexadecimal, but optional in decimal.
+         */
+        final char marker = i < end ? text.charAt(i) : 0;
+        final boolean exponent = hex ? marker == 'p' || marker == 'P' : marker == 'e' || marker == 'E';
+
+        if (digits == 0 || (hex && exponent == false))
+        {
+            return false;
+        }
+        else if (exponent)
+        {
+            ++i;
+
+            if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+'))
+            {
+                ++i;
+            }
+
+            int exponentDigits = 0;
+
+            while (i < end && isDigit(text.charAt(i), 10))
+            {
+                ++i;
+                ++exponentDigits;
+            }
+
+            if (exponentDigits == 0)
+            {
+                return false;
+            }
+        }
+
+        if (i < end && "fFdD".indexOf(text.charAt(i)) >= 0)
+        {
+            ++i;
+        }
+
+        return i == end;
+    }
+
+    private static boolean isDigit (final char c,
+                                    final int radix)
     {
-        this.content = Objects.requireNonNull(value);
-        this.location = Objects.requireNonNull(location);
-        this.hash = value.hashCode();
-        this.parsableContent = createParsableContent();
+        return (c >= '0' && c <= '9') || (radix == 16 && ((c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F')));
     }
 
     /**
@@ -323,6 +738,24 @@ public final class SAtom
         return new SAtom(location, value);
     }
 
+    /**
+     * Factory Method.
+     *
+     * <p>
+     * The sequence will not be converted to a <code>String</code> until the content is needed;
+     * therefore, the sequence must never change.
+     * </p>
+     *
+     * @param location will be the <code>location()</code> of the new atom.
+     * @param value will be the <code>content()</code> of the new atom.
+     * @return the new atom.
+     */
+    public static SAtom fromCharSequence (final SourceLocation location,
+                                          final CharSequence value)
+    {
+        return new SAtom(location, value);
+    }
+
     private String createParsableContent ()
     {
         /**
@@ -331,11 +764,11 @@ public final class SAtom
          * then escape and quote the string; otherwise,
          * return the content() itself.
          */
-        if (content.isEmpty())
+        if (content().isEmpty())
         {
             return "''";
         }
-        else if (content.matches("[^\\s\\t\\r\\n()@'\"]+"))
+        else if (isBare(content()))
         {
             return content();
         }
@@ -346,37 +779,107 @@ public final class SAtom
     }
 
     /**
-     * This method retrieves the series of characters
-     * that this atom contains.
+     * This method determines whether a string can be printed without quotes.
      *
-     * @return the content of this atom.
+     * <p>
+     * This method is equivalent to matching the regular-expression <code>[^\s()@'"]*</code>;
+     * however, this method allocates nothing.
+     * </p>
+     *
+     * @param text is the content() of an atom.
+     * @return true, if the text contains none of the special characters.
      */
-    public String content ()
+    private static boolean isBare (final String text)
     {
-        return content;
+        for (int i = 0; i < text.length(); i++)
+        {
+            final char c = text.charAt(i);
+
+            if (c < SPECIAL.length && SPECIAL[c])
+            {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     /**
-     * This method returns the content() with all
-     * special characters escaped.
+     * This method retrieves the series of characters
+     * that this atom contains.
      *
-     * @return the escaped content().
+     * @return the content of this atom.
      */
-    public String escaped ()
+    public String content ()
     {
-        return Escaper.instance.escape(content().toCharArray());
+        String result = content;
+
+        if (result == null)
+        {
+            result = value.toString();
+            content = result;
+        }
+
+        return result;
     }
 
     /**
-     * {@inheritDoc}
+     * This method determines whether the content() of this atom
+     * is equal to the given series of characters.
+     *
+     * <p>
+     * If the content was sliced from the input, then this method
+     * compares the characters without creating the content() itself.
+     * </p>
+     *
+     * @param chars is the series of characters to compare to.
+     * @return true, if the content() equals the characters.
      */
-    @Override
-    public boolean isAtom ()
+    public boolean contentEquals (final CharSequence chars)
     {
-        return true;
-    }
+        final String result = content;
 
-    /**
+        if (result != null)
+        {
+            return result.contentEquals(chars);
+        }
+        else if (value.length() != chars.length())
+        {
+            return false;
+        }
+
+        for (int i = 0; i < chars.length(); i++)
+        {
+            if (value.charAt(i) != chars.charAt(i))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * This method returns the content() with all
+     * special characters escaped.
+     *
+     * @return the escaped content().
+     */
+    public String escaped ()
+    {
+        return Escaper.instance.escape(content().toCharArray());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isAtom ()
+    {
+        return true;
+    }
+
+    /**
      * {@inheritDoc}
      */
     @Override
@@ -432,6 +935,24 @@ public final class SAtom
         after.accept(this);
     }
 
+    /**
+     * This method retrieves the profile of this atom, computing the profile, if necessary.
+     *
+     * @return the conversions of the content() to each of the primitive types.
+     */
+    private Profile profile ()
+    {
+        Profile result = profile;
+
+        if (result == null)
+        {
+            result = new Profile(this);
+            profile = result;
+        }
+
+        return result;
+    }
+
     /**
      * This method retrieves this value, as a boolean.
      *
@@ -449,28 +970,7 @@ public final class SAtom
      */
     public Optional<Boolean> asBoolean ()
     {
-        if (valueAsBoolean.isPresent())
-        {
-            return valueAsBoolean;
-        }
-
-        switch (toString().toLowerCase())
-        {
-            case "true":
-            case "yes":
-            case "on":
-            case "t":
-            case "1":
-                return valueAsBoolean = Optional.of(Boolean.TRUE);
-            case "false":
-            case "no":
-            case "off":
-            case "f":
-            case "0":
-                return valueAsBoolean = Optional.of(Boolean.FALSE);
-            default:
-                return Optional.empty();
-        }
+        return profile().booleanValue;
     }
 
     /**
@@ -480,35 +980,7 @@ public final class SAtom
      */
     public Optional<Character> asChar ()
     {
-        if (valueAsChar.isPresent())
-        {
-            return valueAsChar;
-        }
-        else if ("max".equalsIgnoreCase(content()))
-        {
-            return Optional.of(Character.MAX_VALUE);
-        }
-        else if ("maximum".equalsIgnoreCase(content()))
-        {
-            return Optional.of(Character.MAX_VALUE);
-        }
-        else if ("min".equalsIgnoreCase(content()))
-        {
-            return Optional.of(Character.MIN_VALUE);
-        }
-        else if ("minimum".equalsIgnoreCase(content()))
-        {
-            return Optional.of(Character.MIN_VALUE);
-        }
-        else if (asInt().isPresent() && asInt().get() >= Character.MIN_VALUE && asInt().get() <= Character.MAX_VALUE)
-        {
-            valueAsChar = Optional.of((char) (int) asInt().get());
-            return valueAsChar;
-        }
-        else
-        {
-            return Optional.empty();
-        }
+        return profile().charValue;
     }
 
     /**
@@ -518,38 +990,7 @@ public final class SAtom
      */
     public Optional<Byte> asByte ()
     {
-        if (valueAsByte.isPresent())
-        {
-            return valueAsByte;
-        }
-        else if ("max".equalsIgnoreCase(content()))
-        {
-            return Optional.of(Byte.MAX_VALUE);
-        }
-        else if ("maximum".equalsIgnoreCase(content()))
-        {
-            return Optional.of(Byte.MAX_VALUE);
-        }
-        else if ("min".equalsIgnoreCase(content()))
-        {
-            return Optional.of(Byte.MIN_VALUE);
-        }
-        else if ("minimum".equalsIgnoreCase(content()))
-        {
-            return Optional.of(Byte.MIN_VALUE);
-        }
-        else
-        {
-            try
-            {
-                valueAsByte = Optional.of(Byte.valueOf(content()));
-                return valueAsByte;
-            }
-            catch (RuntimeException ex)
-            {
-                return Optional.empty();
-            }
-        }
+        return profile().byteValue;
     }
 
     /**
@@ -559,38 +1000,7 @@ public final class SAtom
      */
     public Optional<Short> asShort ()
     {
-        if (valueAsShort.isPresent())
-        {
-            return valueAsShort;
-        }
-        else if ("max".equalsIgnoreCase(content()))
-        {
-            return Optional.of(Short.MAX_VALUE);
-        }
-        else if ("maximum".equalsIgnoreCase(content()))
-        {
-            return Optional.of(Short.MAX_VALUE);
-        }
-        else if ("min".equalsIgnoreCase(content()))
-        {
-            return Optional.of(Short.MIN_VALUE);
-        }
-        else if ("minimum".equalsIgnoreCase(content()))
-        {
-            return Optional.of(Short.MIN_VALUE);
-        }
-        else
-        {
-            try
-            {
-                valueAsShort = Optional.of(Short.valueOf(content()));
-                return valueAsShort;
-            }
-            catch (RuntimeException ex)
-            {
-                return Optional.empty();
-            }
-        }
+        return profile().shortValue;
     }
 
     /**
@@ -600,38 +1010,7 @@ public final class SAtom
      */
     public Optional<Integer> asInt ()
     {
-        if (valueAsInt.isPresent())
-        {
-            return valueAsInt;
-        }
-        else if ("max".equalsIgnoreCase(content()))
-        {
-            return Optional.of(Integer.MAX_VALUE);
-        }
-        else if ("maximum".equalsIgnoreCase(content()))
-        {
-            return Optional.of(Integer.MAX_VALUE);
-        }
-        else if ("min".equalsIgnoreCase(content()))
-        {
-            return Optional.of(Integer.MIN_VALUE);
-        }
-        else if ("minimum".equalsIgnoreCase(content()))
-        {
-            return Optional.of(Integer.MIN_VALUE);
-        }
-        else
-        {
-            try
-            {
-                valueAsInt = Optional.of(Integer.valueOf(content()));
-                return valueAsInt;
-            }
-            catch (RuntimeException ex)
-            {
-                return Optional.empty();
-            }
-        }
+        return profile().intValue;
     }
 
     /**
@@ -641,39 +1020,7 @@ public final class SAtom
      */
     public Optional<Long> asLong ()
     {
-
-        if (valueAsLong.isPresent())
-        {
-            return valueAsLong;
-        }
-        else if ("max".equalsIgnoreCase(content()))
-        {
-            return Optional.of(Long.MAX_VALUE);
-        }
-        else if ("maximum".equalsIgnoreCase(content()))
-        {
-            return Optional.of(Long.MAX_VALUE);
-        }
-        else if ("min".equalsIgnoreCase(content()))
-        {
-            return Optional.of(Long.MIN_VALUE);
-        }
-        else if ("minimum".equalsIgnoreCase(content()))
-        {
-            return Optional.of(Long.MIN_VALUE);
-        }
-        else
-        {
-            try
-            {
-                valueAsLong = Optional.of(Long.valueOf(content()));
-                return valueAsLong;
-            }
-            catch (RuntimeException ex)
-            {
-                return Optional.empty();
-            }
-        }
+        return profile().longValue;
     }
 
     /**
@@ -683,16 +1030,7 @@ public final class SAtom
      */
     public Optional<Float> asFloat ()
     {
-        if (valueAsFloat.isPresent())
-        {
-            return valueAsFloat;
-        }
-        else
-        {
-            final Optional<Double> number = asDouble();
-            valueAsFloat = number.isPresent() ? Optional.of(number.get().floatValue()) : Optional.empty();
-            return valueAsFloat;
-        }
+        return profile().floatValue;
     }
 
     /**
@@ -702,46 +1040,133 @@ public final class SAtom
      */
     public Optional<Double> asDouble ()
     {
-        try
+        return profile().doubleValue;
+    }
+
+    /**
+     * This method determines whether this value can be converted to an integer.
+     *
+     * <p>
+     * This method is equivalent to <code>asInt().isPresent()</code>;
+     * however, this method allocates nothing, if the content() is a number.
+     * </p>
+     *
+     * @return true, if <code>asInt()</code> would return a value.
+     */
+    public boolean isInt ()
+    {
+        return numeric == INTEGRAL ? number == (int) number : numeric == NOT_NUMERIC && profile().intValue.isPresent();
+    }
+
+    /**
+     * This method determines whether this value can be converted to a long.
+     *
+     * <p>
+     * This method is equivalent to <code>asLong().isPresent()</code>;
+     * however, this method allocates nothing, if the content() is a number.
+     * </p>
+     *
+     * @return true, if <code>asLong()</code> would return a value.
+     */
+    public boolean isLong ()
+    {
+        return numeric == INTEGRAL || (numeric == NOT_NUMERIC && profile().longValue.isPresent());
+    }
+
+    /**
+     * This method determines whether this value can be converted to a double.
+     *
+     * <p>
+     * This method is equivalent to <code>asDouble().isPresent()</code>;
+     * however, this method allocates nothing, if the content() is a number.
+     * </p>
+     *
+     * @return true, if <code>asDouble()</code> would return a value.
+     */
+    public boolean isDouble ()
+    {
+        return numeric != NOT_NUMERIC || profile().doubleValue.isPresent();
+    }
+
+    /**
+     * This method retrieves this value, as an integer, without boxing it.
+     *
+     * @param otherwise will be returned, if this value cannot be converted.
+     * @return the value of <code>asInt()</code>, if present, or the given value.
+     */
+    public int asIntOrElse (final int otherwise)
+    {
+        if (numeric != NOT_NUMERIC)
         {
-            if (valueAsDouble.isPresent())
-            {
-                return valueAsDouble;
-            }
-            else if ("infinity".equalsIgnoreCase(content()))
-            {
-                return Optional.of(Double.POSITIVE_INFINITY);
-            }
-            else if ("inf".equalsIgnoreCase(content()))
-            {
-                return Optional.of(Double.POSITIVE_INFINITY);
-            }
-            else if ("-infinity".equalsIgnoreCase(content()))
-            {
-                return Optional.of(Double.NEGATIVE_INFINITY);
-            }
-            else if ("-inf".equalsIgnoreCase(content()))
-            {
-                return Optional.of(Double.NEGATIVE_INFINITY);
-            }
-            else if ("nan".equalsIgnoreCase(content()))
-            {
-                return Optional.of(Double.NaN);
-            }
-            else if ("-nan".equalsIgnoreCase(content()))
-            {
-                return Optional.of(-Double.NaN);
-            }
-            else
-            {
-                valueAsDouble = Optional.of(Double.valueOf(toString()));
-                return valueAsDouble;
-            }
+            return numeric == INTEGRAL && number == (int) number ? (int) number : otherwise;
         }
-        catch (RuntimeException ex)
+
+        final Optional<Integer> value = profile().intValue;
+        return value.isPresent() ? value.get() : otherwise;
+    }
+
+    /**
+     * This method retrieves this value, as a long, without boxing it.
+     *
+     * @param otherwise will be returned, if this value cannot be converted.
+     * @return the value of <code>asLong()</code>, if present, or the given value.
+     */
+    public long asLongOrElse (final long otherwise)
+    {
+        if (numeric != NOT_NUMERIC)
         {
-            return Optional.empty();
+            return numeric == INTEGRAL ? number : otherwise;
         }
+
+        final Optional<Long> value = profile().longValue;
+        return value.isPresent() ? value.get() : otherwise;
+    }
+
+    /**
+     * This method retrieves this value, as a double, without boxing it.
+     *
+     * @param otherwise will be returned, if this value cannot be converted.
+     * @return the value of <code>asDouble()</code>, if present, or the given value.
+     */
+    public double asDoubleOrElse (final double otherwise)
+    {
+        if (numeric != NOT_NUMERIC)
+        {
+            return numeric == INTEGRAL ? (double) number : Double.longBitsToDouble(number);
+        }
+
+        final Optional<Double> value = profile().doubleValue;
+        return value.isPresent() ? value.get() : otherwise;
+    }
+
+    /**
+     * This method retrieves this value, as an integer, without boxing it.
+     *
+     * @return the value, if possible.
+     */
+    public OptionalInt asIntValue ()
+    {
+        return isInt() ? OptionalInt.of(asIntOrElse(0)) : OptionalInt.empty();
+    }
+
+    /**
+     * This method retrieves this value, as a long, without boxing it.
+     *
+     * @return the value, if possible.
+     */
+    public OptionalLong asLongValue ()
+    {
+        return isLong() ? OptionalLong.of(asLongOrElse(0)) : OptionalLong.empty();
+    }
+
+    /**
+     * This method retrieves this value, as a double, without boxing it.
+     *
+     * @return the value, if possible.
+     */
+    public OptionalDouble asDoubleValue ()
+    {
+        return isDouble() ? OptionalDouble.of(asDoubleOrElse(0)) : OptionalDouble.empty();
     }
 
     /**
@@ -777,7 +1202,7 @@ public final class SAtom
     @Override
     public SourceLocation location ()
     {
-        return location;
+        return SourceLocation.unpack(source, position);
     }
 
     /**
@@ -786,7 +1211,7 @@ public final class SAtom
     @Override
     public int hashCode ()
     {
-        return hash;
+        return content().hashCode();
     }
 
     /**
@@ -810,7 +1235,7 @@ public final class SAtom
         else
         {
             final SAtom other = (SAtom) obj;
-            final boolean result = hash == other.hash && toString().equals(other.toString());
+            final boolean result = content().equals(other.content());
             return result;
         }
     }
@@ -821,6 +1246,229 @@ public final class SAtom
     @Override
     public final String toString ()
     {
-        return parsableContent;
+        String result = parsableContent;
+
+        if (result == null)
+        {
+            result = createParsableContent();
+            parsableContent = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * An instance of this class is the result of converting the content() of an atom
+     * to each of the primitive types, which records the failed conversions too,
+     * so that an atom is classified at most once, regardless of how many times
+     * the atom is converted, such as by the rules of a schema.
+     *
+     * <p>
+     * Instances of this class are immutable; therefore, an instance
+     * can be shared by threads without synchronization.
+     * </p>
+     */
+    private static final class Profile
+    {
+        /**
+         * Kind: the content() names the maximum value of a type.
+         */
+        private static final int MAXIMUM = 1;
+
+        /**
+         * Kind: the content() names the minimum value of a type.
+         */
+        private static final int MINIMUM = 2;
+
+        /**
+         * Kind: the content() is an integer that fits in a long.
+         */
+        private static final int INTEGER = 3;
+
+        /**
+         * Kind: the content() is not integral.
+         */
+        private static final int OTHER = 4;
+
+        /**
+         * This is the content() as a boolean, or empty, if the conversion failed.
+         */
+        final Optional<Boolean> booleanValue;
+
+        /**
+         * This is the content() as a char, or empty, if the conversion failed.
+         */
+        final Optional<Character> charValue;
+
+        /**
+         * This is the content() as a byte, or empty, if the conversion failed.
+         */
+        final Optional<Byte> byteValue;
+
+        /**
+         * This is the content() as a short, or empty, if the conversion failed.
+         */
+        final Optional<Short> shortValue;
+
+        /**
+         * This is the content() as a int, or empty, if the conversion failed.
+         */
+        final Optional<Integer> intValue;
+
+        /**
+         * This is the content() as a long, or empty, if the conversion failed.
+         */
+        final Optional<Long> longValue;
+
+        /**
+         * This is the content() as a float, or empty, if the conversion failed.
+         */
+        final Optional<Float> floatValue;
+
+        /**
+         * This is the content() as a double, or empty, if the conversion failed.
+         */
+        final Optional<Double> doubleValue;
+
+        /**
+         * Constructor.
+         *
+         * @param atom is the atom whose content() will be classified.
+         */
+        Profile (final SAtom atom)
+        {
+            final String text = atom.content();
+            int kind = OTHER;
+            long integer = 0;
+            Optional<Double> real = Optional.empty();
+
+            if (atom.numeric == INTEGRAL)
+            {
+                /**
+                 * The content() was already converted, when the atom was created.
+                 */
+                kind = INTEGER;
+                integer = atom.number;
+                real = Optional.of((double) atom.number);
+            }
+            else if (atom.numeric == DECIMAL)
+            {
+                real = Optional.of(Double.longBitsToDouble(atom.number));
+            }
+            else if ("max".equalsIgnoreCase(text) || "maximum".equalsIgnoreCase(text))
+            {
+                kind = MAXIMUM;
+            }
+            else if ("min".equalsIgnoreCase(text) || "minimum".equalsIgnoreCase(text))
+            {
+                kind = MINIMUM;
+            }
+            else if ("infinity".equalsIgnoreCase(text) || "inf".equalsIgnoreCase(text))
+            {
+                real = Optional.of(Double.POSITIVE_INFINITY);
+            }
+            else if ("-infinity".equalsIgnoreCase(text) || "-inf".equalsIgnoreCase(text))
+            {
+                real = Optional.of(Double.NEGATIVE_INFINITY);
+            }
+            else if ("nan".equalsIgnoreCase(text) || "-nan".equalsIgnoreCase(text))
+            {
+                real = Optional.of(Double.NaN);
+            }
+            else
+            {
+                if (isInteger(text, Long.MIN_VALUE, Long.MAX_VALUE))
+                {
+                    kind = INTEGER;
+                    integer = Long.parseLong(text);
+                }
+
+                if (isDecimal(atom.toString()))
+                {
+                    real = Optional.of(Double.parseDouble(atom.toString()));
+                }
+            }
+
+            this.booleanValue = toBoolean(atom.toString().toLowerCase());
+            this.charValue = fits(kind, integer, Character.MIN_VALUE, Character.MAX_VALUE)
+                    ? Optional.of((char) narrow(kind, integer, Character.MIN_VALUE, Character.MAX_VALUE))
+                    : Optional.empty();
+            this.byteValue = fits(kind, integer, Byte.MIN_VALUE, Byte.MAX_VALUE)
+                    ? Optional.of((byte) narrow(kind, integer, Byte.MIN_VALUE, Byte.MAX_VALUE))
+                    : Optional.empty();
+            this.shortValue = fits(kind, integer, Short.MIN_VALUE, Short.MAX_VALUE)
+                    ? Optional.of((short) narrow(kind, integer, Short.MIN_VALUE, Short.MAX_VALUE))
+                    : Optional.empty();
+            this.intValue = fits(kind, integer, Integer.MIN_VALUE, Integer.MAX_VALUE)
+                    ? Optional.of((int) narrow(kind, integer, Integer.MIN_VALUE, Integer.MAX_VALUE))
+                    : Optional.empty();
+            this.longValue = kind == OTHER
+                    ? Optional.empty()
+                    : Optional.of(narrow(kind, integer, Long.MIN_VALUE, Long.MAX_VALUE));
+            this.floatValue = real.isPresent() ? Optional.of(real.get().floatValue()) : Optional.empty();
+            this.doubleValue = real;
+        }
+
+        /**
+         * This method converts the lower-case toString() of an atom to a boolean.
+         *
+         * @param text is the lower-case toString().
+         * @return the boolean, if possible.
+         */
+        private static Optional<Boolean> toBoolean (final String text)
+        {
+            switch (text)
+            {
+                case "true":
+                case "yes":
+                case "on":
+                case "t":
+                case "1":
+                    return Optional.of(Boolean.TRUE);
+                case "false":
+                case "no":
+                case "off":
+                case "f":
+                case "0":
+                    return Optional.of(Boolean.FALSE);
+                default:
+                    return Optional.empty();
+            }
+        }
+
+        /**
+         * This method determines whether the content() can be converted to an integral type.
+         *
+         * @param kind indicates whether the content() is integral.
+         * @param integer is the content(), if the content() is an integer.
+         * @param min is the minimum value of the type.
+         * @param max is the maximum value of the type.
+         * @return true, if the content() names an extreme value, or is an integer in range.
+         */
+        private static boolean fits (final int kind,
+                                     final long integer,
+                                     final long min,
+                                     final long max)
+        {
+            return kind == MAXIMUM || kind == MINIMUM || (kind == INTEGER && integer >= min && integer <= max);
+        }
+
+        /**
+         * This method converts the content() to an integral type,
+         * assuming that <code>fits()</code> is true.
+         *
+         * @param kind indicates whether the content() is integral.
+         * @param integer is the content(), if the content() is an integer.
+         * @param min is the minimum value of the type.
+         * @param max is the maximum value of the type.
+         * @return the content() as the integral type.
+         */
+        private static long narrow (final int kind,
+                                    final long integer,
+                                    final long min,
+                                    final long max)
+        {
+            return kind == MAXIMUM ? max : kind == MINIMUM ? min : integer;
+        }
     }
 }
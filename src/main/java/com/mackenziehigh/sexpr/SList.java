@@ -15,16 +15,26 @@
  */
 package com.mackenziehigh.sexpr;
 
+import com.mackenziehigh.sexpr.internal.Compression;
+import com.mackenziehigh.sexpr.internal.LineReader;
 import com.mackenziehigh.sexpr.internal.Parser;
-import java.io.BufferedInputStream;
+import com.mackenziehigh.sexpr.internal.TokenReader;
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -33,10 +43,12 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Queue;
-import java.util.Scanner;
+import java.util.RandomAccess;
 import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -57,9 +69,49 @@ public final class SList
         extends AbstractList<Sexpr<?>>
         implements Sexpr<SList>
 {
-    private final ArrayList<Sexpr> elements;
+    /**
+     * Obtains the elements of a lazy list, when they are first needed.
+     */
+    private static final class Lazy
+    {
+        /**
+         * This will supply the elements, until they have been obtained,
+         * and is only accessed while holding the lock of this object.
+         */
+        private Supplier<? extends Iterable<? extends Sexpr<?>>> supplier;
+
+        /**
+         * These are the elements, or null, if they have not yet been obtained.
+         */
+        private volatile Sexpr<?>[] elements;
 
-    private final SourceLocation location;
+        private Lazy (final Supplier<? extends Iterable<? extends Sexpr<?>>> supplier)
+        {
+            this.supplier = supplier;
+        }
+    }
+
+    /**
+     * These are the elements of this list, which are either an array,
+     * or a <code>Lazy</code>, if the elements are obtained on demand.
+     *
+     * <p>
+     * The array is exactly the size of this list, and is never exposed; therefore, the array is never modified.
+     * Since this field is final, the elements, or the means to obtain them, are visible to every thread,
+     * even if this list was shared without synchronization.
+     * </p>
+     */
+    private final Object content;
+
+    /**
+     * This is the source of the location() of this list.
+     */
+    private final String source;
+
+    /**
+     * This is the line-number and column-number of the location(), packed together.
+     */
+    private final long position;
 
     private final int treeLeafCount;
 
@@ -68,27 +120,169 @@ public final class SList
     private final int treeSize;
 
     /**
-     * Precomputed hashCode(), per the contract in the List interface.
+     * Cached hashCode(), per the contract in the List interface,
+     * which is computed on demand, since computing it requires
+     * the content of every atom, which may be sliced from the input.
+     *
+     * <p>
+     * Like the hash-code of a <code>String</code>, zero means not yet computed,
+     * and no synchronization is needed, since the result is always the same.
+     * </p>
      */
-    private final int hash;
+    private int hash;
 
     /**
      * Sole Constructor.
      *
      * @param location will be the location() of this list.
-     * @param elements will be the elements in this list.
+     * @param elements will be the elements in this list, which must not be shared.
      */
     private SList (final SourceLocation location,
-                   final Iterator<? extends Sexpr<?>> elements)
+                   final Sexpr<?>[] elements)
     {
-        this.location = Objects.requireNonNull(location);
-        this.elements = new ArrayList<>();
-        elements.forEachRemaining(x -> this.elements.add(Objects.requireNonNull(x, "A symbolic-list cannot contain null.")));
-        this.elements.trimToSize();
-        this.treeSize = this.elements.stream().mapToInt(x -> x.treeSize()).sum() + 1;
-        this.treeHeight = this.elements.stream().mapToInt(x -> x.treeHeight()).max().orElse(0) + 1;
-        this.treeLeafCount = this.elements.stream().mapToInt(x -> x.treeLeafCount()).sum();
-        this.hash = 31 * this.elements.stream().mapToInt(x -> x.hashCode()).sum();
+        this.source = Objects.requireNonNull(location).source();
+        this.position = SourceLocation.pack(location);
+        this.content = elements;
+
+        /**
+         * Compute all of the metrics in a single pass.
+         */
+        int size = 1;
+        int height = 0;
+        int leaves = 0;
+
+        for (Sexpr<?> element : elements)
+        {
+            Objects.requireNonNull(element, "A symbolic-list cannot contain null.");
+            size += element.treeSize();
+            height = Math.max(height, element.treeHeight());
+            leaves += element.treeLeafCount();
+        }
+
+        this.treeSize = size;
+        this.treeHeight = height + 1;
+        this.treeLeafCount = leaves;
+    }
+
+    /**
+     * Lazy Constructor.
+     *
+     * @param location will be the location() of this list.
+     * @param treeSize will be the treeSize() of this list.
+     * @param treeHeight will be the treeHeight() of this list.
+     * @param treeLeafCount will be the treeLeafCount() of this list.
+     * @param elements will supply the elements in this list, when first needed.
+     */
+    private SList (final SourceLocation location,
+                   final int treeSize,
+                   final int treeHeight,
+                   final int treeLeafCount,
+                   final Supplier<? extends Iterable<? extends Sexpr<?>>> elements)
+    {
+        this.source = Objects.requireNonNull(location).source();
+        this.position = SourceLocation.pack(location);
+        this.content = new Lazy(Objects.requireNonNull(elements, "elements"));
+        this.treeSize = treeSize;
+        this.treeHeight = treeHeight;
+        this.treeLeafCount = treeLeafCount;
+    }
+
+    /**
+     * This method copies elements into a new array, which is exactly the size of the result.
+     *
+     * @param elements will be copied.
+     * @param expected is the expected number of elements, which avoids resizing, if correct.
+     * @return the new array.
+     */
+    private static Sexpr<?>[] collect (final Iterator<? extends Sexpr<?>> elements,
+                                       final int expected)
+    {
+        Sexpr<?>[] array = new Sexpr<?>[expected];
+        int count = 0;
+
+        while (elements.hasNext())
+        {
+            if (count == array.length)
+            {
+                array = Arrays.copyOf(array, Math.max(8, count * 2));
+            }
+
+            array[count++] = elements.next();
+        }
+
+        return count == array.length ? array : Arrays.copyOf(array, count);
+    }
+
+    private static Sexpr<?>[] collect (final Iterable<? extends Sexpr<?>> elements)
+    {
+        /**
+         * Copy a random-access list, such as a range of an array, without an iterator.
+         */
+        if (elements instanceof List && elements instanceof RandomAccess)
+        {
+            final List<? extends Sexpr<?>> list = (List<? extends Sexpr<?>>) elements;
+            final Sexpr<?>[] array = new Sexpr<?>[list.size()];
+
+            for (int i = 0; i < array.length; i++)
+            {
+                array[i] = list.get(i);
+            }
+
+            return array;
+        }
+
+        final int expected = elements instanceof Collection ? ((Collection<?>) elements).size() : 0;
+        return collect(elements.iterator(), expected);
+    }
+
+    /**
+     * This method retrieves the elements of this list, obtaining them first, if necessary.
+     *
+     * @return the elements.
+     */
+    private Sexpr<?>[] elements ()
+    {
+        final Object value = content;
+
+        if (value instanceof Sexpr[])
+        {
+            return (Sexpr<?>[]) value;
+        }
+
+        final Lazy lazy = (Lazy) value;
+        final Sexpr<?>[] array = lazy.elements;
+        return array != null ? array : materialize(lazy);
+    }
+
+    private Sexpr<?>[] materialize (final Lazy lazy)
+    {
+        synchronized (lazy)
+        {
+            if (lazy.elements != null)
+            {
+                return lazy.elements;
+            }
+
+            final Sexpr<?>[] array = collect(lazy.supplier.get());
+            final SList actual = new SList(location(), array);
+
+            /**
+             * The metrics were promised in advance; therefore, verify them.
+             */
+            if (treeSize != actual.treeSize || treeHeight != actual.treeHeight || treeLeafCount != actual.treeLeafCount)
+            {
+                throw new IllegalStateException("The elements do not match the metrics of the lazy list.");
+            }
+
+            /**
+             * The supplier may retain the entire input; therefore, release it.
+             * Any thread that could still need it must first acquire the lock,
+             * which guarantees that the thread will see the elements instead.
+             */
+            lazy.elements = array;
+            lazy.supplier = null;
+            return array;
+        }
     }
 
     /**
@@ -99,7 +293,7 @@ public final class SList
      */
     public static SList of (final Sexpr<?>... elements)
     {
-        return new SList(SourceLocation.DEFAULT, Arrays.asList(elements).iterator());
+        return new SList(SourceLocation.DEFAULT, elements.clone());
     }
 
     /**
@@ -112,7 +306,7 @@ public final class SList
     public static SList of (final SourceLocation location,
                             final Sexpr<?>... elements)
     {
-        return new SList(location, Arrays.asList(elements).iterator());
+        return new SList(location, elements.clone());
     }
 
     /**
@@ -123,7 +317,7 @@ public final class SList
      */
     public static SList copyOf (final Iterable<? extends Sexpr<?>> list)
     {
-        return new SList(SourceLocation.DEFAULT, list.iterator());
+        return new SList(SourceLocation.DEFAULT, collect(list));
     }
 
     /**
@@ -136,7 +330,7 @@ public final class SList
     public static SList copyOf (final SourceLocation location,
                                 final Iterable<? extends Sexpr<?>> list)
     {
-        return new SList(location, list.iterator());
+        return new SList(location, collect(list));
     }
 
     /**
@@ -147,7 +341,7 @@ public final class SList
      */
     public static SList copyOf (final Stream<? extends Sexpr<?>> stream)
     {
-        return new SList(SourceLocation.DEFAULT, stream.iterator());
+        return new SList(SourceLocation.DEFAULT, collect(stream.iterator(), 0));
     }
 
     /**
@@ -160,7 +354,7 @@ public final class SList
     public static SList copyOf (final SourceLocation location,
                                 final Stream<? extends Sexpr<?>> stream)
     {
-        return new SList(location, stream.iterator());
+        return new SList(location, collect(stream.iterator(), 0));
     }
 
     /**
@@ -171,7 +365,46 @@ public final class SList
      */
     public static SList copyOf (final Iterator<? extends Sexpr<?>> stream)
     {
-        return new SList(SourceLocation.DEFAULT, stream);
+        return new SList(SourceLocation.DEFAULT, collect(stream, 0));
+    }
+
+    /**
+     * Factory Method.
+     *
+     * <p>
+     * The elements of the new list are obtained from the supplier, only when they are first needed,
+     * such as by <code>get()</code>, <code>size()</code>, or <code>iterator()</code>.
+     * The supplier is invoked once, while holding a lock that is private to the new list,
+     * unless the supplier throws an exception, in which case the supplier will be invoked again,
+     * when the elements are needed again. Since the metrics of the tree are given in advance,
+     * obtaining them does not require the elements; however, the metrics are verified,
+     * once the elements are obtained.
+     * </p>
+     *
+     * <p>
+     * Like every other list, the new list is immutable; therefore, the supplier must be pure.
+     * In other words, the supplier must always supply the same elements, must not depend
+     * on mutable state, and should not throw, since the equals() and hashCode() of the new list,
+     * as well as every other method that examines the elements, depend upon it.
+     * The supplier may be invoked by any thread that uses the new list.
+     * This method is intended for parsers, whose suppliers obtain the elements from immutable input.
+     * </p>
+     *
+     * @param location will be the location() of this list.
+     * @param treeSize will be the treeSize() of this list.
+     * @param treeHeight will be the treeHeight() of this list.
+     * @param treeLeafCount will be the treeLeafCount() of this list.
+     * @param elements will supply the elements in this list, when first needed.
+     * @return the new symbolic-list.
+     * @throws IllegalStateException later, if the elements do not match the metrics.
+     */
+    public static SList lazyOf (final SourceLocation location,
+                                final int treeSize,
+                                final int treeHeight,
+                                final int treeLeafCount,
+                                final Supplier<? extends Iterable<? extends Sexpr<?>>> elements)
+    {
+        return new SList(location, treeSize, treeHeight, treeLeafCount, elements);
     }
 
     /**
@@ -184,7 +417,7 @@ public final class SList
     public static SList copyOf (final SourceLocation location,
                                 final Iterator<? extends Sexpr<?>> stream)
     {
-        return new SList(location, stream);
+        return new SList(location, collect(stream, 0));
     }
 
     /**
@@ -255,7 +488,20 @@ public final class SList
     @Override
     public Sexpr get (final int i)
     {
-        return elements.get(i);
+        return elements()[i];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<Sexpr<?>> iterator ()
+    {
+        /**
+         * Unlike the iterator of the superclass, this iterator
+         * does not need to access the volatile array on each step.
+         */
+        return Arrays.<Sexpr<?>>asList(elements()).iterator();
     }
 
     /**
@@ -302,7 +548,7 @@ public final class SList
     @Override
     public SourceLocation location ()
     {
-        return location;
+        return SourceLocation.unpack(source, position);
     }
 
     /**
@@ -322,7 +568,7 @@ public final class SList
     @Override
     public int size ()
     {
-        return elements.size();
+        return elements().length;
     }
 
     /**
@@ -333,7 +579,7 @@ public final class SList
      */
     public SList tail ()
     {
-        return isEmpty() ? this : copyOf(location, subList(1, size()));
+        return isEmpty() ? this : copyOf(location(), subList(1, size()));
     }
 
     /**
@@ -480,7 +726,7 @@ public final class SList
         {
             return false;
         }
-        else if (hash != other.hashCode())
+        else if (hashCode() != other.hashCode())
         {
             return false;
         }
@@ -491,7 +737,7 @@ public final class SList
         else
         {
             final SList otherList = (SList) other;
-            final boolean result = elements.equals(otherList.elements);
+            final boolean result = Arrays.equals(elements(), otherList.elements());
             return result;
         }
     }
@@ -502,7 +748,22 @@ public final class SList
     @Override
     public int hashCode ()
     {
-        return hash;
+        int result = hash;
+
+        if (result == 0)
+        {
+            result = 0;
+
+            for (Sexpr<?> element : elements())
+            {
+                result += element.hashCode();
+            }
+
+            result *= 31;
+            hash = result;
+        }
+
+        return result;
     }
 
     /**
@@ -557,12 +818,624 @@ public final class SList
         return root;
     }
 
+    /**
+     * This method converts the textual representation of a SList
+     * to an actual corresponding SList object.
+     *
+     * <p>
+     * The characters are streamed from the reader into the parser incrementally.
+     * Thus, the input is never held in memory as a whole.
+     * The caller is responsible for closing the reader.
+     * </p>
+     *
+     * <p>
+     * This method inserts an implicit symbolic-list into the input.
+     * For example, the input "(1 2) (3 4)" will produce a SList equivalent to "((1 2) (3 4))".
+     * </p>
+     *
+     * @param location is a human-readable string indicating where the input came form.
+     * @param input will supply the input to parse.
+     * @return the resulting symbolic-list.
+     * @throws IOException if the input cannot be read.
+     */
+    public static SList parse (final String location,
+                               final Reader input)
+            throws IOException
+    {
+        final SList root = Parser.parse(location, input);
+        return root;
+    }
+
+    /**
+     * This method converts the textual representation of a SList
+     * to an actual corresponding SList object, using the given options.
+     *
+     * <p>
+     * See method parse(String, Reader) for more parsing details.
+     * </p>
+     *
+     * @param location is a human-readable string indicating where the input came form.
+     * @param input is the input to parse.
+     * @param options describe how to parse the input.
+     * @return the resulting symbolic-list.
+     */
+    public static SList parse (final String location,
+                               final String input,
+                               final ParseOptions options)
+    {
+        return Parser.parse(location, input, options);
+    }
+
+    /**
+     * This method converts the textual representation of a SList,
+     * which is held in any sequence of characters, such as a <code>StringBuilder</code>,
+     * to an actual corresponding SList object.
+     *
+     * <p>
+     * The sequence is not converted to a string first; rather, the characters are
+     * copied directly into the buffer of the lexer, in bulk, one buffer at a time.
+     * The sequence must not be modified during the parse.
+     * See method parse(String, Reader) for more parsing details.
+     * </p>
+     *
+     * @param location is a human-readable string indicating where the input came form.
+     * @param input is the input to parse.
+     * @return the resulting symbolic-list.
+     */
+    public static SList parse (final String location,
+                               final CharSequence input)
+    {
+        return Parser.parse(location, input, ParseOptions.DEFAULT);
+    }
+
+    /**
+     * This method converts the textual representation of a SList,
+     * which is held in any sequence of characters, such as a <code>StringBuilder</code>,
+     * to an actual corresponding SList object, using the given options.
+     *
+     * <p>
+     * See method parse(String, CharSequence) for more parsing details.
+     * </p>
+     *
+     * @param location is a human-readable string indicating where the input came form.
+     * @param input is the input to parse.
+     * @param options describe how to parse the input.
+     * @return the resulting symbolic-list.
+     */
+    public static SList parse (final String location,
+                               final CharSequence input,
+                               final ParseOptions options)
+    {
+        return Parser.parse(location, input, options);
+    }
+
+    /**
+     * This method converts the UTF-8 encoded textual representation of a SList
+     * to an actual corresponding SList object.
+     *
+     * <p>
+     * The bytes between the position and the limit of the buffer are scanned in place,
+     * without copying or decoding them first, whether the buffer is a heap buffer or a direct buffer.
+     * The position and limit of the buffer are not modified.
+     * If the atoms are lazy, then their content may refer directly to the buffer;
+     * therefore, the buffer must not be modified, while such atoms are in use.
+     * See method parse(String, Reader) for more parsing details.
+     * </p>
+     *
+     * @param location is a human-readable string indicating where the input came form.
+     * @param utf8 contains the input to parse.
+     * @return the resulting symbolic-list.
+     * @throws IOException if the input is not well-formed UTF-8.
+     */
+    public static SList parse (final String location,
+                               final ByteBuffer utf8)
+            throws IOException
+    {
+        return Parser.parse(location, utf8, ParseOptions.DEFAULT);
+    }
+
+    /**
+     * This method converts the UTF-8 encoded textual representation of a SList
+     * to an actual corresponding SList object, using the given options.
+     *
+     * <p>
+     * See method parse(String, ByteBuffer) for more parsing details.
+     * </p>
+     *
+     * @param location is a human-readable string indicating where the input came form.
+     * @param utf8 contains the input to parse.
+     * @param options describe how to parse the input.
+     * @return the resulting symbolic-list.
+     * @throws IOException if the input is not well-formed UTF-8.
+     */
+    public static SList parse (final String location,
+                               final ByteBuffer utf8,
+                               final ParseOptions options)
+            throws IOException
+    {
+        return Parser.parse(location, utf8, options);
+    }
+
+    /**
+     * This method converts the UTF-8 encoded textual representation of a SList,
+     * which is held in a range of an array, to an actual corresponding SList object.
+     *
+     * <p>
+     * The bytes are scanned in place, without copying or decoding them first.
+     * See method parse(String, ByteBuffer) for more parsing details.
+     * </p>
+     *
+     * @param location is a human-readable string indicating where the input came form.
+     * @param utf8 contains the input to parse.
+     * @param offset is the index of the first byte of the input.
+     * @param length is the number of bytes in the input.
+     * @return the resulting symbolic-list.
+     * @throws IOException if the input is not well-formed UTF-8.
+     */
+    public static SList parse (final String location,
+                               final byte[] utf8,
+                               final int offset,
+                               final int length)
+            throws IOException
+    {
+        return Parser.parse(location, utf8, offset, length, ParseOptions.DEFAULT);
+    }
+
+    /**
+     * This method converts the UTF-8 encoded textual representation of a SList,
+     * which is held in a range of an array, to an actual corresponding SList object,
+     * using the given options.
+     *
+     * <p>
+     * See method parse(String, ByteBuffer) for more parsing details.
+     * </p>
+     *
+     * @param location is a human-readable string indicating where the input came form.
+     * @param utf8 contains the input to parse.
+     * @param offset is the index of the first byte of the input.
+     * @param length is the number of bytes in the input.
+     * @param options describe how to parse the input.
+     * @return the resulting symbolic-list.
+     * @throws IOException if the input is not well-formed UTF-8.
+     */
+    public static SList parse (final String location,
+                               final byte[] utf8,
+                               final int offset,
+                               final int length,
+                               final ParseOptions options)
+            throws IOException
+    {
+        return Parser.parse(location, utf8, offset, length, options);
+    }
+
+    /**
+     * This method converts the textual representation of a SList
+     * to an actual corresponding SList object, using the given options.
+     *
+     * <p>
+     * See method parse(String, Reader) for more parsing details.
+     * </p>
+     *
+     * @param location is a human-readable string indicating where the input came form.
+     * @param input will supply the input to parse.
+     * @param options describe how to parse the input.
+     * @return the resulting symbolic-list.
+     * @throws IOException if the input cannot be read.
+     */
+    public static SList parse (final String location,
+                               final Reader input,
+                               final ParseOptions options)
+            throws IOException
+    {
+        return Parser.parse(location, input, options);
+    }
+
+    /**
+     * This method converts the textual representation of a SList
+     * to an actual corresponding SList object.
+     *
+     * <p>
+     * See method parse(String, Reader) for more parsing details.
+     * </p>
+     *
+     * @param input will supply the input to parse.
+     * @return the resulting symbolic-list.
+     * @throws IOException if the input cannot be read.
+     */
+    public static SList parse (final Reader input)
+            throws IOException
+    {
+        return parse("null", input);
+    }
+
+    /**
+     * This method converts the textual representation of a SList
+     * to an actual corresponding SList object.
+     *
+     * <p>
+     * The bytes are parsed incrementally, as they are read from the stream.
+     * UTF-8 input is scanned as bytes, without decoding it first.
+     * The caller is responsible for closing the stream.
+     * See method parse(String, Reader) for more parsing details.
+     * </p>
+     *
+     * @param input will supply the input to parse.
+     * @param charset describes how to decode the input.
+     * @return the resulting symbolic-list.
+     * @throws IOException if the input cannot be read or decoded.
+     */
+    public static SList parse (final InputStream input,
+                               final Charset charset)
+            throws IOException
+    {
+        return Parser.parse("null", input, charset);
+    }
+
+    /**
+     * This method converts the textual representation of a UTF-8 encoded text file
+     * to an actual corresponding SList object.
+     *
+     * <p>
+     * The file is scanned as UTF-8 bytes incrementally, as it is read.
+     * Unlike method parseFile(File), the line terminators are not converted to line-feeds;
+     * therefore, a quoted atom that spans lines contains the line terminators of the file.
+     * See method parse(String, Reader) for more parsing details.
+     * </p>
+     *
+     * @param file is the path to the file.
+     * @return the new symbolic-list.
+     * @throws IOException if the file cannot be read or decoded.
+     */
+    public static SList parse (final Path file)
+            throws IOException
+    {
+        return parse(file, ParseOptions.DEFAULT);
+    }
+
+    /**
+     * This method converts the textual representation of a UTF-8 encoded text file
+     * to an actual corresponding SList object, using the given options.
+     *
+     * <p>
+     * See method parse(Path) for more parsing details.
+     * </p>
+     *
+     * @param file is the path to the file.
+     * @param options describe how to parse the input.
+     * @return the new symbolic-list.
+     * @throws IOException if the file cannot be read or decoded.
+     */
+    public static SList parse (final Path file,
+                               final ParseOptions options)
+            throws IOException
+    {
+        try (InputStream in = Files.newInputStream(file))
+        {
+            return Parser.parse(file.toString(), in, StandardCharsets.UTF_8, options);
+        }
+    }
+
+    /**
+     * This method converts the textual representation of a UTF-8 encoded text file,
+     * which may be compressed, to an actual corresponding SList object.
+     *
+     * <p>
+     * Whether the file is compressed is determined by its leading magic bytes,
+     * rather than by its name. GZIP files are supported.
+     * The file is decompressed incrementally directly into the buffer of the lexer;
+     * therefore, neither the decompressed text, nor a temporary file, is ever created.
+     * The locations of the nodes refer to the decompressed text.
+     * See method parse(Path) for more parsing details.
+     * </p>
+     *
+     * @param file is the path to the file, which may be compressed.
+     * @return the new symbolic-list.
+     * @throws IOException if the file cannot be read, decompressed, or decoded.
+     */
+    public static SList parseCompressed (final Path file)
+            throws IOException
+    {
+        return parseCompressed(file, ParseOptions.DEFAULT);
+    }
+
+    /**
+     * This method converts the textual representation of a UTF-8 encoded text file,
+     * which may be compressed, to an actual corresponding SList object, using the given options.
+     *
+     * <p>
+     * The <code>maxInputSize</code> option limits the size of the decompressed text.
+     * See method parseCompressed(Path) for more details.
+     * </p>
+     *
+     * @param file is the path to the file, which may be compressed.
+     * @param options describe how to parse the input.
+     * @return the new symbolic-list.
+     * @throws IOException if the file cannot be read, decompressed, or decoded.
+     */
+    public static SList parseCompressed (final Path file,
+                                         final ParseOptions options)
+            throws IOException
+    {
+        try (InputStream in = Files.newInputStream(file))
+        {
+            return parseCompressed(file.toString(), in, options);
+        }
+    }
+
+    /**
+     * This method converts the textual representation of UTF-8 encoded text,
+     * which may be compressed, to an actual corresponding SList object, using the given options.
+     *
+     * <p>
+     * The caller is responsible for closing the stream.
+     * See method parseCompressed(Path) for more details.
+     * </p>
+     *
+     * @param location is a human-readable string indicating where the input came from.
+     * @param input will supply the input, which may be compressed.
+     * @param options describe how to parse the input.
+     * @return the new symbolic-list.
+     * @throws IOException if the input cannot be read, decompressed, or decoded.
+     */
+    public static SList parseCompressed (final String location,
+                                         final InputStream input,
+                                         final ParseOptions options)
+            throws IOException
+    {
+        return Parser.parse(location, Compression.decompress(input), StandardCharsets.UTF_8, options);
+    }
+
+    /**
+     * This method converts the textual representation of a UTF-8 encoded text file
+     * to an actual corresponding SList object by mapping the file into memory.
+     *
+     * <p>
+     * This method is intended for very large files.
+     * The bytes are scanned directly in the mapped memory,
+     * which avoids the intermediate buffers of the stream-based methods.
+     * See method parse(String, Reader) for more parsing details.
+     * </p>
+     *
+     * @param file is the path to the file.
+     * @return the new symbolic-list.
+     * @throws IOException if the file cannot be read or decoded.
+     */
+    public static SList parseMapped (final Path file)
+            throws IOException
+    {
+        return Parser.parseMapped(file.toString(), file, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * This method converts the textual representation of a UTF-8 encoded text file
+     * to an actual corresponding SList object by mapping the file into memory,
+     * using the given options.
+     *
+     * <p>
+     * If the atoms are lazy, then their content refers directly to the mapped memory.
+     * See method parseMapped(Path) for more parsing details.
+     * </p>
+     *
+     * @param file is the path to the file.
+     * @param options describe how to parse the input.
+     * @return the new symbolic-list.
+     * @throws IOException if the file cannot be read or decoded.
+     */
+    public static SList parseMapped (final Path file,
+                                     final ParseOptions options)
+            throws IOException
+    {
+        return Parser.parseMapped(file.toString(), file, StandardCharsets.UTF_8, options);
+    }
+
+    /**
+     * This method converts the textual representation of a SList
+     * to an actual corresponding SList object, using multiple threads.
+     *
+     * <p>
+     * The input is split into chunks of top-level forms, which are parsed
+     * concurrently using the common fork-join pool. The result, including
+     * the source-locations, is the same as the result of parse(String, String).
+     * This method is intended for large inputs that consist of many top-level forms.
+     * See method parse(String, Reader) for more parsing details.
+     * </p>
+     *
+     * @param location is a human-readable string indicating where the input came form.
+     * @param input is the input to parse.
+     * @return the resulting symbolic-list.
+     */
+    public static SList parseParallel (final String location,
+                                       final String input)
+    {
+        try
+        {
+            final ByteBuffer bytes = ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8));
+            return Parser.parseParallel(location, bytes, ForkJoinPool.commonPool());
+        }
+        catch (IOException ex)
+        {
+            /**
+             * This should never actually happen, since the bytes were just encoded.
+             */
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * This method converts the textual representation of a UTF-8 encoded text file
+     * to an actual corresponding SList object, using multiple threads.
+     *
+     * <p>
+     * See method parseParallel(String, String) for more details.
+     * </p>
+     *
+     * @param file is the path to the file.
+     * @return the new symbolic-list.
+     * @throws IOException if the file cannot be read or decoded.
+     */
+    public static SList parseParallel (final Path file)
+            throws IOException
+    {
+        return Parser.parseParallel(file.toString(), file, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * This method lazily converts the textual representation of a series of symbolic-expressions
+     * to the corresponding Sexpr objects, one top-level form at a time.
+     *
+     * <p>
+     * Unlike parse(String, Reader), no implicit symbolic-list is inserted into the input.
+     * Instead, each top-level form is yielded as soon as it has been completely read.
+     * For example, the input "(1 2) X (3 4)" will produce "(1 2)", "X", and then "(3 4)".
+     * Therefore, the memory needed is proportional to the size of the largest form,
+     * rather than the size of the entire input.
+     * </p>
+     *
+     * <p>
+     * If the input cannot be read, then the stream will throw an <code>UncheckedIOException</code>.
+     * If the input is malformed, then the stream will throw a <code>ParsingFailedException</code>,
+     * once the malformed form is reached; however, any preceding forms will have already been yielded.
+     * Closing the stream closes the reader.
+     * </p>
+     *
+     * @param location is a human-readable string indicating where the input came form.
+     * @param input will supply the input to parse.
+     * @return the top-level forms.
+     */
+    public static Stream<Sexpr<?>> forms (final String location,
+                                          final Reader input)
+    {
+        return Parser.forms(TokenReader.of(location, input));
+    }
+
+    /**
+     * This method lazily converts the textual representation of a series of symbolic-expressions
+     * to the corresponding Sexpr objects, one top-level form at a time.
+     *
+     * <p>
+     * See method forms(String, Reader) for more details.
+     * </p>
+     *
+     * @param input will supply the input to parse.
+     * @return the top-level forms.
+     */
+    public static Stream<Sexpr<?>> forms (final Reader input)
+    {
+        return forms("null", input);
+    }
+
+    /**
+     * This method lazily converts the textual representation of a UTF-8 encoded text file
+     * to the corresponding Sexpr objects, one top-level form at a time.
+     *
+     * <p>
+     * The caller is responsible for closing the stream, which closes the file.
+     * See method forms(String, Reader) for more details.
+     * </p>
+     *
+     * @param file is the path to the file.
+     * @return the top-level forms.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static Stream<Sexpr<?>> forms (final Path file)
+            throws IOException
+    {
+        return Parser.forms(TokenReader.of(file.toString(), Files.newInputStream(file), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * This method lazily converts the textual representation of a UTF-8 encoded text file,
+     * which may be compressed, to the corresponding Sexpr objects, one top-level form at a time.
+     *
+     * <p>
+     * Since only one top-level form is held at a time, and the file is decompressed incrementally,
+     * this method can scan compressed files that are far larger than the heap.
+     * The caller is responsible for closing the stream, which closes the file.
+     * See methods forms(Path) and parseCompressed(Path) for more details.
+     * </p>
+     *
+     * @param file is the path to the file, which may be compressed.
+     * @return the top-level forms.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static Stream<Sexpr<?>> formsCompressed (final Path file)
+            throws IOException
+    {
+        final InputStream in = Files.newInputStream(file);
+
+        try
+        {
+            return Parser.forms(TokenReader.of(file.toString(), Compression.decompress(in), StandardCharsets.UTF_8));
+        }
+        catch (IOException | RuntimeException ex)
+        {
+            in.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * This method counts the top-level forms in a UTF-8 encoded text file, without parsing them.
+     *
+     * <p>
+     * The file is scanned by a structural pre-scan, which classifies eight bytes at a time,
+     * and skips nested lists using bit-counts; therefore, counting the forms is much faster than parsing them.
+     * The atoms are not decoded; therefore, malformed atoms are not detected.
+     * However, if the parentheses are unbalanced, then the same <code>ParsingFailedException</code>
+     * is thrown as would be thrown by parseMapped(Path).
+     * See method forms(String, Reader) for the meaning of a top-level form.
+     * </p>
+     *
+     * @param file is the path to the file.
+     * @return the number of top-level forms.
+     * @throws IOException if the file cannot be read.
+     */
+    public static long countForms (final Path file)
+            throws IOException
+    {
+        return Parser.countForms(file.toString(), file);
+    }
+
+    /**
+     * This method lazily converts the top-level lists of a UTF-8 encoded text file,
+     * whose first element is a given atom, to the corresponding SList objects.
+     *
+     * <p>
+     * This method is intended for grep-like scans of very large files.
+     * The boundaries of the top-level forms are found by the same structural pre-scan
+     * as that of countForms(Path). Only the lists whose first element matches are parsed;
+     * therefore, malformed atoms in the other forms are not detected.
+     * The caller is responsible for closing the stream.
+     * See method forms(String, Reader) for more details.
+     * </p>
+     *
+     * @param file is the path to the file.
+     * @param head is the content of the first element of the desired lists.
+     * @return the matching top-level lists.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static Stream<Sexpr<?>> formsWithHead (final Path file,
+                                                  final String head)
+            throws IOException
+    {
+        return Parser.formsWithHead(file.toString(), file, head);
+    }
+
     /**
      * This method converts the textual representation of a resource file
      * to an actual corresponding SList object.
      *
      * <p>
+     * The resource is decoded using the default charset, and is read line-by-line,
+     * where a line is terminated by CR, LF, CR LF, NEL, LS, or PS, like <code>Scanner.nextLine()</code>.
+     * The lines are joined using line-feeds, and the last line is terminated by a line-feed too;
+     * therefore, a quoted atom that spans lines always contains line-feeds.
+     * The lines are streamed to the parser, rather than held in memory at once.
+     * </p>
+     *
+     * <p>
      * See method parse(*) for more parsing details.
+     * See class ParseCache in order to avoid parsing the same resource repeatedly.
      * </p>
      *
      * @param path is the path to the resource file.
@@ -572,23 +1445,18 @@ public final class SList
     public static SList parseResource (final String path)
             throws IOException
     {
-        final StringBuilder text = new StringBuilder();
+        final InputStream resource = SList.class.getResourceAsStream(path);
 
-        try (InputStream in = SList.class.getResourceAsStream(path);
-             BufferedInputStream bin = new BufferedInputStream(in);
-             Scanner scanner = new Scanner(bin))
+        if (resource == null)
         {
-            while (scanner.hasNextLine())
-            {
-                text.append(scanner.nextLine()).append('\n');
-            }
+            throw new FileNotFoundException(path);
         }
-        catch (IOException | RuntimeException ex)
+
+        try (InputStream in = resource;
+             Reader reader = new LineReader(new InputStreamReader(in, Charset.defaultCharset()), true))
         {
-            throw ex;
+            return parse(path, reader);
         }
-
-        return parse(path, text.toString());
     }
 
     /**
@@ -596,7 +1464,17 @@ public final class SList
      * to an actual corresponding SList object.
      *
      * <p>
+     * The file is decoded as UTF-8, and is read line-by-line,
+     * where a line is terminated by CR, LF, or CR LF, like <code>Files.readAllLines()</code>.
+     * The lines are joined using line-feeds, and the last line is terminated by a line-feed too;
+     * therefore, a quoted atom that spans lines always contains line-feeds.
+     * The lines are streamed to the parser, rather than held in memory at once.
+     * In order to parse the file exactly as is, which is also faster, use method parse(Path) instead.
+     * </p>
+     *
+     * <p>
      * See method parse(*) for more parsing details.
+     * See class ParseCache in order to avoid parsing the same file repeatedly.
      * </p>
      *
      * @param file is the path to the file.
@@ -606,11 +1484,10 @@ public final class SList
     public static SList parseFile (final File file)
             throws IOException
     {
-        final String source = file.toString();
-        final StringBuilder content = new StringBuilder();
-        Files.readAllLines(file.toPath(), Charset.forName("UTF-8"))
-                .forEach(line -> content.append(line).append('\n'));
-        return parse(source, content.toString());
+        try (Reader reader = new LineReader(Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8), false))
+        {
+            return parse(file.toString(), reader);
+        }
     }
 
     /**
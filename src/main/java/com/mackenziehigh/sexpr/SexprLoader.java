@@ -0,0 +1,593 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An instance of this class parses many UTF-8 encoded files concurrently.
+ *
+ * <p>
+ * Loading many small files one at a time is bound by the latency of the file-system,
+ * rather than by the speed of the parser; therefore, a loader overlaps the reading of the files.
+ * The files are parsed using an executor, which can be any executor, such as a pool of threads.
+ * When running on a JVM that supports virtual threads, an executor that creates
+ * a new virtual thread for each task is a good choice.
+ * </p>
+ *
+ * <p>
+ * The total size of the files that are being parsed at any moment is bounded.
+ * Files that would exceed the bound wait, in the order in which they were submitted,
+ * until enough of the preceding files have been parsed.
+ * A file that is larger than the bound is parsed by itself.
+ * The sizes of the files are measured using the executor too.
+ * </p>
+ *
+ * <p>
+ * An <code>Error</code>, such as an <code>OutOfMemoryError</code>, is reported as
+ * the outcome of loading the file, so that no caller waits forever;
+ * thereafter, the <code>Error</code> is rethrown, so that it propagates to the executor.
+ * </p>
+ *
+ * <p>
+ * Instances of this class are thread-safe.
+ * </p>
+ */
+public final class SexprLoader
+{
+    /**
+     * This is the number of threads in the default executor.
+     */
+    public static final int DEFAULT_THREADS = 16;
+
+    /**
+     * This is the default maximum number of bytes that are being parsed at once.
+     */
+    public static final long DEFAULT_MAX_IN_FLIGHT_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * The outcome of loading a single file.
+     */
+    public static final class Result
+    {
+        private final Path file;
+
+        private final SList tree;
+
+        private final Throwable error;
+
+        private Result (final Path file,
+                        final SList tree,
+                        final Throwable error)
+        {
+            this.file = file;
+            this.tree = tree;
+            this.error = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        }
+
+        /**
+         * This method retrieves the path to the file that was loaded.
+         *
+         * @return the file.
+         */
+        public Path file ()
+        {
+            return file;
+        }
+
+        /**
+         * This method retrieves the parsed file.
+         *
+         * @return the parsed file, or empty, if the file could not be loaded.
+         */
+        public Optional<SList> tree ()
+        {
+            return Optional.ofNullable(tree);
+        }
+
+        /**
+         * This method retrieves the reason that the file could not be loaded.
+         *
+         * @return the error, such as a <code>ParsingFailedException</code>
+         * or an <code>IOException</code>, or empty, if the file was loaded.
+         */
+        public Optional<Throwable> error ()
+        {
+            return Optional.ofNullable(error);
+        }
+
+        /**
+         * This method determines whether the file was loaded.
+         *
+         * @return true, if the file was parsed successfully.
+         */
+        public boolean isSuccess ()
+        {
+            return error == null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString ()
+        {
+            return file + (error == null ? " (OK)" : " (" + error + ")");
+        }
+    }
+
+    /**
+     * Use an instance of this class to create a <code>SexprLoader</code> object.
+     */
+    public static final class Builder
+    {
+        private Executor executor = null;
+
+        private long maxInFlightBytes = DEFAULT_MAX_IN_FLIGHT_BYTES;
+
+        private ParseOptions options = ParseOptions.DEFAULT;
+
+        /**
+         * Sole Constructor.
+         */
+        private Builder ()
+        {
+            // Pass.
+        }
+
+        /**
+         * Use this method to specify the executor that will parse the files.
+         *
+         * <p>
+         * Each file is parsed by a separate task, which performs blocking I/O.
+         * By default, a pool of <code>DEFAULT_THREADS</code> daemon threads is used,
+         * which are discarded, when they are idle.
+         * </p>
+         *
+         * @param value will parse the files.
+         * @return this.
+         */
+        public Builder executor (final Executor value)
+        {
+            executor = Objects.requireNonNull(value, "executor");
+            return this;
+        }
+
+        /**
+         * Use this method to bound the total size of the files that are being parsed at once,
+         * which bounds the memory needed by the parser, but not by the parsed trees.
+         *
+         * @param value is the maximum number of bytes in flight.
+         * @return this.
+         * @throws IllegalArgumentException if the value is not positive.
+         */
+        public Builder maxInFlightBytes (final long value)
+        {
+            if (value <= 0)
+            {
+                throw new IllegalArgumentException("maxInFlightBytes <= 0");
+            }
+
+            maxInFlightBytes = value;
+            return this;
+        }
+
+        /**
+         * Use this method to specify how the files will be parsed.
+         *
+         * @param value describe how to parse each file.
+         * @return this.
+         */
+        public Builder options (final ParseOptions value)
+        {
+            options = Objects.requireNonNull(value, "options");
+            return this;
+        }
+
+        /**
+         * Use this method to obtain the new loader.
+         *
+         * @return the new loader.
+         */
+        public SexprLoader build ()
+        {
+            return new SexprLoader(this);
+        }
+    }
+
+    /**
+     * A file that was submitted, but may not have started yet.
+     */
+    private static final class Task
+    {
+        private final Path file;
+
+        /**
+         * This is the size of the file, or negative, if it has not been measured yet.
+         * This field is guarded by the lock on the queue of waiting tasks.
+         */
+        private long size = -1;
+
+        private final CompletableFuture<SList> future = new CompletableFuture<>();
+
+        private Task (final Path file)
+        {
+            this.file = file;
+        }
+    }
+
+    private final Executor executor;
+
+    private final long maxInFlightBytes;
+
+    private final ParseOptions options;
+
+    /**
+     * These are the tasks that are waiting for the bytes in flight to decrease.
+     */
+    private final ArrayDeque<Task> waiting = new ArrayDeque<>();
+
+    /**
+     * This is the total size of the files that are being parsed.
+     */
+    private long inFlightBytes = 0;
+
+    private SexprLoader (final Builder builder)
+    {
+        this.executor = builder.executor != null ? builder.executor : defaultExecutor();
+        this.maxInFlightBytes = builder.maxInFlightBytes;
+        this.options = builder.options;
+    }
+
+    private static Executor defaultExecutor ()
+    {
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(DEFAULT_THREADS,
+                                                               DEFAULT_THREADS,
+                                                               1,
+                                                               TimeUnit.SECONDS,
+                                                               new LinkedBlockingQueue<>(),
+                                                               SexprLoader::newThread);
+
+        /**
+         * Idle threads will terminate; therefore, the loader need not be closed.
+         */
+        pool.allowCoreThreadTimeOut(true);
+
+        return pool;
+    }
+
+    private static Thread newThread (final Runnable task)
+    {
+        final Thread thread = new Thread(task, "SexprLoader");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Builder Factory.
+     *
+     * @return an object that can be used to build a <code>SexprLoader</code> object.
+     */
+    public static Builder newBuilder ()
+    {
+        return new Builder();
+    }
+
+    /**
+     * This method begins loading a single file.
+     *
+     * @param file is the path to the UTF-8 encoded file.
+     * @return a future that will complete with the parsed file,
+     * or exceptionally, if the file cannot be read or parsed.
+     */
+    public CompletableFuture<SList> load (final Path file)
+    {
+        Objects.requireNonNull(file, "file");
+
+        final Task task = new Task(file);
+
+        /**
+         * The task holds its place in the queue while it is being measured.
+         */
+        synchronized (waiting)
+        {
+            waiting.add(task);
+        }
+
+        try
+        {
+            executor.execute(() -> measure(task));
+        }
+        catch (RuntimeException | Error ex)
+        {
+            task.future.completeExceptionally(ex);
+            withdraw(task);
+
+            if (ex instanceof Error)
+            {
+                throw (Error) ex;
+            }
+        }
+
+        return task.future;
+    }
+
+    /**
+     * This method loads multiple files concurrently.
+     *
+     * <p>
+     * All of the files are submitted immediately. The stream blocks,
+     * as it is consumed, until the next file has been loaded.
+     * An error that occurs while loading one of the files
+     * is reported by the corresponding result, rather than by the stream.
+     * </p>
+     *
+     * @param files are the paths to the UTF-8 encoded files.
+     * @return the outcomes, in the order in which the files finish loading.
+     */
+    public Stream<Result> loadAll (final Collection<Path> files)
+    {
+        final List<Path> paths = new ArrayList<>(files);
+        final BlockingQueue<Result> completed = new LinkedBlockingQueue<>();
+
+        for (Path file : paths)
+        {
+            load(file).whenComplete((tree, error) -> completed.add(new Result(file, tree, error)));
+        }
+
+        final Iterator<Result> iterator = new Iterator<Result>()
+        {
+            private int remaining = paths.size();
+
+            @Override
+            public boolean hasNext ()
+            {
+                return remaining > 0;
+            }
+
+            @Override
+            public Result next ()
+            {
+                if (remaining == 0)
+                {
+                    throw new NoSuchElementException();
+                }
+
+                try
+                {
+                    final Result result = completed.take();
+                    --remaining;
+                    return result;
+                }
+                catch (InterruptedException ex)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new CompletionException(ex);
+                }
+            }
+        };
+
+        final Spliterator<Result> results = Spliterators.spliterator(iterator,
+                                                                     paths.size(),
+                                                                     Spliterator.NONNULL | Spliterator.SIZED);
+        return StreamSupport.stream(results, false);
+    }
+
+    /**
+     * This method loads the files in a directory, and its sub-directories, concurrently.
+     *
+     * <p>
+     * See method <code>loadAll(Collection)</code> for more details.
+     * </p>
+     *
+     * @param directory contains the UTF-8 encoded files.
+     * @param glob selects which files to load, such as <code>"**.sexpr"</code>.
+     * @return the outcomes, in the order in which the files finish loading.
+     * @throws IOException if the directory cannot be listed.
+     */
+    public Stream<Result> loadDirectory (final Path directory,
+                                         final String glob)
+            throws IOException
+    {
+        final PathMatcher matcher = directory.getFileSystem().getPathMatcher("glob:" + glob);
+
+        try (Stream<Path> paths = Files.walk(directory))
+        {
+            final List<Path> files = paths
+                    .filter(Files::isRegularFile)
+                    .filter(x -> matcher.matches(directory.relativize(x)))
+                    .collect(Collectors.toList());
+
+            return loadAll(files);
+        }
+        catch (UncheckedIOException ex)
+        {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * This method starts as many of the waiting tasks as the bound on the bytes in flight permits.
+     */
+    private void dispatch ()
+    {
+        final List<Task> ready = new ArrayList<>();
+
+        synchronized (waiting)
+        {
+            while (waiting.isEmpty() == false)
+            {
+                final long size = waiting.peek().size;
+
+                /**
+                 * The tasks start in order; therefore, wait until the next task has been measured.
+                 */
+                if (size < 0)
+                {
+                    break;
+                }
+
+                /**
+                 * A file that is larger than the bound can only start by itself.
+                 */
+                if (inFlightBytes > 0 && inFlightBytes + size > maxInFlightBytes)
+                {
+                    break;
+                }
+
+                inFlightBytes += size;
+                ready.add(waiting.poll());
+            }
+        }
+
+        Error error = null;
+
+        /**
+         * The executor may run the task in this thread; therefore, do not hold the lock.
+         */
+        for (Task task : ready)
+        {
+            try
+            {
+                executor.execute(() -> run(task));
+            }
+            catch (RuntimeException | Error ex)
+            {
+                task.future.completeExceptionally(ex);
+                release(task);
+
+                /**
+                 * Submit the rest of the tasks, before rethrowing, so that none of them are lost.
+                 */
+                if (ex instanceof Error && error == null)
+                {
+                    error = (Error) ex;
+                }
+            }
+        }
+
+        if (error != null)
+        {
+            throw error;
+        }
+    }
+
+    private void measure (final Task task)
+    {
+        long size = -1;
+
+        try
+        {
+            size = Files.size(task.file);
+        }
+        catch (Throwable ex)
+        {
+            /**
+             * Report the failure, even if it is an Error, since otherwise the future would never complete.
+             */
+            task.future.completeExceptionally(ex);
+
+            if (ex instanceof Error)
+            {
+                throw (Error) ex;
+            }
+        }
+        finally
+        {
+            /**
+             * A task that could not be measured must not block the tasks behind it.
+             */
+            if (size < 0)
+            {
+                withdraw(task);
+            }
+            else
+            {
+                synchronized (waiting)
+                {
+                    task.size = size;
+                }
+
+                dispatch();
+            }
+        }
+    }
+
+    private void run (final Task task)
+    {
+        try
+        {
+            task.future.complete(SList.parse(task.file, options));
+        }
+        catch (Throwable ex)
+        {
+            task.future.completeExceptionally(ex);
+
+            if (ex instanceof Error)
+            {
+                throw (Error) ex;
+            }
+        }
+        finally
+        {
+            release(task);
+        }
+    }
+
+    private void withdraw (final Task task)
+    {
+        synchronized (waiting)
+        {
+            waiting.remove(task);
+        }
+
+        dispatch();
+    }
+
+    private void release (final Task task)
+    {
+        synchronized (waiting)
+        {
+            inFlightBytes -= task.size;
+        }
+
+        dispatch();
+    }
+}
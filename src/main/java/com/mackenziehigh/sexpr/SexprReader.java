@@ -0,0 +1,300 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr;
+
+import com.mackenziehigh.sexpr.exceptions.ParsingFailedException;
+import com.mackenziehigh.sexpr.internal.Compression;
+import com.mackenziehigh.sexpr.internal.TokenReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * An instance of this class reads symbolic-expressions as a stream of events,
+ * without creating any <code>SAtom</code> or <code>SList</code> objects.
+ *
+ * <p>
+ * Unlike the <code>parse()</code> methods of <code>SList</code>, which always build a whole tree,
+ * a reader only needs enough memory to keep track of the depth of the nesting.
+ * Therefore, a reader can be used to aggregate, count, or filter inputs
+ * that are too large to parse into a tree.
+ * </p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * try (SexprReader reader = SexprReader.open(path))
+ * {
+ *     while (reader.next() != SexprReader.Event.END)
+ *     {
+ *         if (reader.event() == SexprReader.Event.ATOM)
+ *         {
+ *             System.out.println(reader.atomText());
+ *         }
+ *     }
+ * }
+ * </pre>
+ * </p>
+ *
+ * <p>
+ * Instances of this class are not thread-safe.
+ * </p>
+ */
+public final class SexprReader
+        implements Closeable
+{
+    /**
+     * The kinds of events that a reader produces.
+     */
+    public enum Event
+    {
+        /**
+         * An opening parenthesis was read.
+         */
+        START_LIST,
+
+        /**
+         * An atom was read.
+         */
+        ATOM,
+
+        /**
+         * A closing parenthesis was read.
+         */
+        END_LIST,
+
+        /**
+         * The end of the input was reached.
+         */
+        END,
+    }
+
+    private final TokenReader internal;
+
+    private SexprReader (final TokenReader internal)
+    {
+        this.internal = internal;
+    }
+
+    /**
+     * Create a reader that reads the characters obtained from a reader.
+     *
+     * @param location is a human-readable string indicating where the input came form.
+     * @param input will supply the input, and will be closed by <code>close()</code>.
+     * @return the new reader.
+     */
+    public static SexprReader open (final String location,
+                                    final Reader input)
+    {
+        return new SexprReader(TokenReader.of(location, input));
+    }
+
+    /**
+     * Create a reader that reads the characters obtained from a reader, using the given options.
+     *
+     * <p>
+     * The limits that are specified by the options are enforced as the events are read.
+     * </p>
+     *
+     * @param location is a human-readable string indicating where the input came form.
+     * @param input will supply the input, and will be closed by <code>close()</code>.
+     * @param options describe how to read the input.
+     * @return the new reader.
+     */
+    public static SexprReader open (final String location,
+                                    final Reader input,
+                                    final ParseOptions options)
+    {
+        return new SexprReader(TokenReader.of(location, input).withOptions(options));
+    }
+
+    /**
+     * Create a reader that reads the characters obtained from a reader.
+     *
+     * @param input will supply the input, and will be closed by <code>close()</code>.
+     * @return the new reader.
+     */
+    public static SexprReader open (final Reader input)
+    {
+        return open("null", input);
+    }
+
+    /**
+     * Create a reader that reads the bytes obtained from an input-stream.
+     *
+     * @param input will supply the input, and will be closed by <code>close()</code>.
+     * @param charset describes how to decode the input.
+     * @return the new reader.
+     */
+    public static SexprReader open (final InputStream input,
+                                    final Charset charset)
+    {
+        return new SexprReader(TokenReader.of("null", input, charset));
+    }
+
+    /**
+     * Create a reader that reads a UTF-8 encoded file.
+     *
+     * @param file is the path to the file to read.
+     * @return the new reader.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static SexprReader open (final Path file)
+            throws IOException
+    {
+        return new SexprReader(TokenReader.of(file.toString(), Files.newInputStream(file), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Create a reader that reads a UTF-8 encoded file, which may be compressed.
+     *
+     * <p>
+     * See method <code>SList.parseCompressed(Path)</code> for details regarding compression.
+     * </p>
+     *
+     * @param file is the path to the file to read, which may be compressed.
+     * @return the new reader.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static SexprReader openCompressed (final Path file)
+            throws IOException
+    {
+        final InputStream in = Files.newInputStream(file);
+
+        try
+        {
+            return new SexprReader(TokenReader.of(file.toString(), Compression.decompress(in), StandardCharsets.UTF_8));
+        }
+        catch (IOException | RuntimeException ex)
+        {
+            in.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * This method advances to the next event.
+     *
+     * <p>
+     * Once the END has been reached, this method will continue to return END.
+     * </p>
+     *
+     * @return the next event.
+     * @throws ParsingFailedException if the parentheses are unbalanced.
+     * @throws IOException if the input cannot be read or decoded.
+     */
+    public Event next ()
+            throws IOException
+    {
+        return internal.next();
+    }
+
+    /**
+     * This method retrieves the most recent event.
+     *
+     * @return the event most recently returned by <code>next()</code>,
+     * or null, if <code>next()</code> was never invoked.
+     */
+    public Event event ()
+    {
+        return internal.event();
+    }
+
+    /**
+     * This method retrieves the content of the current atom.
+     *
+     * <p>
+     * The content excludes the surrounding quotes and has any escape-sequences expanded;
+     * in other words, this is the <code>content()</code> that the corresponding <code>SAtom</code> would have.
+     * The content is only materialized when this method is invoked.
+     * </p>
+     *
+     * @return the content of the atom.
+     * @throws IllegalStateException if the current event is not an ATOM.
+     * @throws IOException if the atom cannot be decoded.
+     */
+    public String atomText ()
+            throws IOException
+    {
+        return internal.atomText();
+    }
+
+    /**
+     * This method retrieves the location of the current event.
+     *
+     * <p>
+     * The location of a START_LIST is the location of the opening parenthesis,
+     * which is also the location that the corresponding <code>SList</code> would have.
+     * The location of an END_LIST is the location of the closing parenthesis.
+     * </p>
+     *
+     * @return the location of the current event.
+     */
+    public SourceLocation location ()
+    {
+        return internal.location();
+    }
+
+    /**
+     * This method retrieves the number of lists that enclose the current event.
+     *
+     * <p>
+     * After a START_LIST, the depth includes the list that just started.
+     * After an END_LIST, the depth excludes the list that just ended.
+     * </p>
+     *
+     * @return the current nesting depth.
+     */
+    public int depth ()
+    {
+        return internal.depth();
+    }
+
+    /**
+     * This method skips the elements of the current list.
+     *
+     * <p>
+     * If the current event is a START_LIST, then this reader advances
+     * to the matching END_LIST, without materializing any atoms.
+     * Otherwise, this method has no effect.
+     * </p>
+     *
+     * @throws ParsingFailedException if the parentheses are unbalanced.
+     * @throws IOException if the input cannot be read or decoded.
+     */
+    public void skipChildren ()
+            throws IOException
+    {
+        internal.skipChildren();
+    }
+
+    /**
+     * This method closes the underlying input.
+     *
+     * @throws IOException if the input cannot be closed.
+     */
+    @Override
+    public void close ()
+            throws IOException
+    {
+        internal.close();
+    }
+}
@@ -81,6 +81,39 @@ public final class SourceLocation
         return column;
     }
 
+    /**
+     * This method packs the line-number and column-number of a location into a single value.
+     *
+     * @param location is the location to pack.
+     * @return the packed line-number and column-number.
+     */
+    static long pack (final SourceLocation location)
+    {
+        return ((long) location.line << 32) | (location.column & 0xFFFFFFFFL);
+    }
+
+    /**
+     * This method recreates a location from its source and packed position.
+     *
+     * @param source is the source of the location.
+     * @param position was obtained from <code>pack()</code>.
+     * @return the equivalent location.
+     */
+    static SourceLocation unpack (final String source,
+                                  final long position)
+    {
+        final SourceLocation initial = DEFAULT;
+
+        if (position == 0 && source == initial.source) // identity equality
+        {
+            return initial;
+        }
+        else
+        {
+            return new SourceLocation(source, (int) (position >>> 32), (int) position);
+        }
+    }
+
     /**
      * This method returns a human-readable message
      * based on this location.
@@ -92,6 +125,35 @@ public final class SourceLocation
         return String.format("Line: %d, Column: %d, Source: %s", line(), column(), source());
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals (final Object other)
+    {
+        if (this == other)
+        {
+            return true;
+        }
+        else if (other instanceof SourceLocation == false)
+        {
+            return false;
+        }
+
+        final SourceLocation location = (SourceLocation) other;
+
+        return line == location.line && column == location.column && source.equals(location.source);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode ()
+    {
+        return Objects.hash(source, line, column);
+    }
+
     /**
      * {@inheritDoc}
      */
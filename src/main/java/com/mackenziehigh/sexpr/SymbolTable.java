@@ -0,0 +1,351 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An instance of this class interns the content of atoms during parsing,
+ * so that repeated atoms share a single <code>String</code> object.
+ *
+ * <p>
+ * The parser looks up each atom directly in the buffer of the lexer;
+ * therefore, no <code>String</code> is allocated for an atom that is already in the table.
+ * </p>
+ *
+ * <p>
+ * A table stops growing, once it contains the maximum number of symbols.
+ * Thereafter, new symbols are returned without being added to the table.
+ * This prevents inputs that contain many unique atoms, such as numbers,
+ * from causing a table to grow without bound.
+ * </p>
+ *
+ * <p>
+ * Instances of this class are thread-safe; therefore,
+ * a single table can be shared by concurrent parses.
+ * </p>
+ */
+public final class SymbolTable
+{
+    /**
+     * This is the default maximum number of symbols in a table.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final int INITIAL_SLOTS = 64;
+
+    /**
+     * This is the maximum number of symbols that this table will contain.
+     */
+    private final int capacity;
+
+    /**
+     * This is an open-addressing hash-table, whose length is a power-of-two.
+     *
+     * <p>
+     * Lookups read the table without locking. Since strings are immutable,
+     * a lookup sees either a complete string or an empty slot.
+     * A lookup that finds an empty slot confirms the absence while holding the lock.
+     * </p>
+     */
+    private volatile String[] slots = new String[INITIAL_SLOTS];
+
+    /**
+     * This is the number of symbols in the table.
+     */
+    private int size = 0;
+
+    /**
+     * Sole Constructor.
+     *
+     * @param capacity is the maximum number of symbols that this table will contain.
+     * @throws IllegalArgumentException if the capacity is negative.
+     */
+    public SymbolTable (final int capacity)
+    {
+        if (capacity < 0)
+        {
+            throw new IllegalArgumentException("capacity < 0");
+        }
+
+        this.capacity = capacity;
+    }
+
+    /**
+     * Constructor.
+     *
+     * <p>
+     * The table will contain at most <code>DEFAULT_CAPACITY</code> symbols.
+     * </p>
+     */
+    public SymbolTable ()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * This method retrieves the number of symbols in this table.
+     *
+     * @return the current size.
+     */
+    public synchronized int size ()
+    {
+        return size;
+    }
+
+    /**
+     * This method retrieves the maximum number of symbols in this table.
+     *
+     * @return the capacity.
+     */
+    public int capacity ()
+    {
+        return capacity;
+    }
+
+    /**
+     * This method retrieves the symbol that is equal to a string.
+     *
+     * @param symbol is the symbol to find.
+     * @return the symbol in this table, or the given string, if no such symbol exists yet.
+     */
+    public String intern (final String symbol)
+    {
+        final int hash = symbol.hashCode();
+        final String[] table = slots;
+        final int mask = table.length - 1;
+
+        for (int i = mix(hash) & mask; table[i] != null; i = (i + 1) & mask)
+        {
+            if (table[i].hashCode() == hash && table[i].equals(symbol))
+            {
+                return table[i];
+            }
+        }
+
+        return insert(symbol);
+    }
+
+    /**
+     * This method retrieves the symbol that is equal to a range of characters.
+     *
+     * <p>
+     * A new string is only allocated, if no such symbol exists yet.
+     * </p>
+     *
+     * @param chars contains the symbol.
+     * @param offset is the index of the first character of the symbol.
+     * @param length is the number of characters in the symbol.
+     * @return the symbol.
+     */
+    public String intern (final char[] chars,
+                          final int offset,
+                          final int length)
+    {
+        int hash = 0;
+
+        for (int k = 0; k < length; k++)
+        {
+            hash = 31 * hash + chars[offset + k];
+        }
+
+        final String[] table = slots;
+        final int mask = table.length - 1;
+
+        for (int i = mix(hash) & mask; table[i] != null; i = (i + 1) & mask)
+        {
+            if (table[i].hashCode() == hash && matches(table[i], chars, offset, length))
+            {
+                return table[i];
+            }
+        }
+
+        return insert(new String(chars, offset, length));
+    }
+
+    /**
+     * This method retrieves the symbol that is equal to a range of ASCII bytes.
+     *
+     * <p>
+     * A new string is only allocated, if no such symbol exists yet.
+     * The position and limit of the buffer are not modified.
+     * </p>
+     *
+     * @param ascii contains the symbol, which must only contain bytes less than 128.
+     * @param offset is the absolute index of the first byte of the symbol.
+     * @param length is the number of bytes in the symbol.
+     * @return the symbol.
+     */
+    public String intern (final ByteBuffer ascii,
+                          final int offset,
+                          final int length)
+    {
+        int hash = 0;
+
+        for (int k = 0; k < length; k++)
+        {
+            hash = 31 * hash + ascii.get(offset + k);
+        }
+
+        final String[] table = slots;
+        final int mask = table.length - 1;
+
+        for (int i = mix(hash) & mask; table[i] != null; i = (i + 1) & mask)
+        {
+            if (table[i].hashCode() == hash && matches(table[i], ascii, offset, length))
+            {
+                return table[i];
+            }
+        }
+
+        final char[] chars = new char[length];
+
+        for (int k = 0; k < length; k++)
+        {
+            chars[k] = (char) ascii.get(offset + k);
+        }
+
+        return insert(new String(chars));
+    }
+
+    private synchronized String insert (final String symbol)
+    {
+        /**
+         * Another thread may have inserted the symbol since the lookup.
+         */
+        final int hash = symbol.hashCode();
+        String[] table = slots;
+        int mask = table.length - 1;
+
+        for (int i = mix(hash) & mask; table[i] != null; i = (i + 1) & mask)
+        {
+            if (table[i].hashCode() == hash && table[i].equals(symbol))
+            {
+                return table[i];
+            }
+        }
+
+        if (size == capacity)
+        {
+            return symbol;
+        }
+
+        /**
+         * Keep the load-factor at or below one half, so that the probe sequences remain short.
+         */
+        if (2 * (size + 1) > table.length)
+        {
+            table = rehash(table);
+            mask = table.length - 1;
+        }
+
+        int i = mix(hash) & mask;
+
+        while (table[i] != null)
+        {
+            i = (i + 1) & mask;
+        }
+
+        table[i] = symbol;
+        ++size;
+        slots = table;
+
+        return symbol;
+    }
+
+    private static String[] rehash (final String[] table)
+    {
+        final String[] result = new String[table.length * 2];
+        final int mask = result.length - 1;
+
+        for (String symbol : table)
+        {
+            if (symbol != null)
+            {
+                int i = mix(symbol.hashCode()) & mask;
+
+                while (result[i] != null)
+                {
+                    i = (i + 1) & mask;
+                }
+
+                result[i] = symbol;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * This method spreads the high bits of a hash into the low bits,
+     * since the low bits alone determine the slot.
+     */
+    private static int mix (final int hash)
+    {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches (final String symbol,
+                                    final char[] chars,
+                                    final int offset,
+                                    final int length)
+    {
+        if (symbol.length() != length)
+        {
+            return false;
+        }
+
+        for (int k = 0; k < length; k++)
+        {
+            if (symbol.charAt(k) != chars[offset + k])
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean matches (final String symbol,
+                                    final ByteBuffer ascii,
+                                    final int offset,
+                                    final int length)
+    {
+        if (symbol.length() != length)
+        {
+            return false;
+        }
+
+        for (int k = 0; k < length; k++)
+        {
+            if (symbol.charAt(k) != ascii.get(offset + k))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString ()
+    {
+        return String.format("SymbolTable(size = %d, capacity = %d)", size(), capacity);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.exceptions;
+
+import com.mackenziehigh.sexpr.SourceLocation;
+import java.util.Objects;
+
+/**
+ * This type of exception indicates that the input exceeded one of the limits
+ * that were specified by the <code>ParseOptions</code>.
+ */
+public class ParseLimitExceededException
+        extends ParsingFailedException
+{
+    /**
+     * These are the limits that can be exceeded.
+     */
+    public enum Limit
+    {
+        /**
+         * The lists were nested too deeply.
+         */
+        MAX_DEPTH,
+
+        /**
+         * An atom, or a comment, was too long.
+         */
+        MAX_ATOM_LENGTH,
+
+        /**
+         * The input contained too many atoms and lists.
+         */
+        MAX_NODE_COUNT,
+
+        /**
+         * The input was too large.
+         */
+        MAX_INPUT_SIZE,
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    private final Limit limit;
+
+    public ParseLimitExceededException (final SourceLocation location,
+                                        final Limit limit)
+    {
+        super(location, "Parse Limit Exceeded (" + limit + ")");
+        this.limit = Objects.requireNonNull(limit);
+    }
+
+    /**
+     * This method retrieves the limit that was exceeded.
+     *
+     * @return the exceeded limit.
+     */
+    public Limit limit ()
+    {
+        return limit;
+    }
+}
@@ -28,8 +28,20 @@ public class ParsingFailedException
 
     public ParsingFailedException (final SourceLocation location)
     {
-        super(String.format("Parsing Failed At Line: %d, Column: %d, Source: %s",
-                            location.line(), location.column(), location.source()));
+        this(location, "Parsing Failed");
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param location is where the problem was detected.
+     * @param reason describes the problem, which will be followed by the location in the message.
+     */
+    protected ParsingFailedException (final SourceLocation location,
+                                      final String reason)
+    {
+        super(String.format("%s At Line: %d, Column: %d, Source: %s",
+                            reason, location.line(), location.column(), location.source()));
         this.location = Objects.requireNonNull(location);
     }
 
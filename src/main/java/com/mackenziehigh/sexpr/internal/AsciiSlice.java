@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The content of an atom, which refers to a range of ASCII bytes
+ * in the input buffer, rather than a copy of the characters.
+ *
+ * <p>
+ * The buffer may be a region of a memory-mapped file,
+ * in which case the content remains in the file until it is needed.
+ * </p>
+ */
+final class AsciiSlice
+        implements CharSequence
+{
+    private final ByteBuffer bytes;
+
+    private final int offset;
+
+    private final int length;
+
+    AsciiSlice (final ByteBuffer bytes,
+                final int offset,
+                final int length)
+    {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int length ()
+    {
+        return length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public char charAt (final int index)
+    {
+        if (index < 0 || index >= length)
+        {
+            throw new IndexOutOfBoundsException(Integer.toString(index));
+        }
+        else
+        {
+            return (char) bytes.get(offset + index);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CharSequence subSequence (final int start,
+                                     final int end)
+    {
+        return toString().subSequence(start, end);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString ()
+    {
+        if (bytes.hasArray())
+        {
+            return new String(bytes.array(), bytes.arrayOffset() + offset, length, StandardCharsets.ISO_8859_1);
+        }
+        else
+        {
+            final byte[] copy = new byte[length];
+            bytes.duplicate().position(offset).get(copy);
+            return new String(copy, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
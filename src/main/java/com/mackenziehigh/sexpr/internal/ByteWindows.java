@@ -0,0 +1,57 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Supplies the input of a <code>Utf8Lexer</code> as a series of overlapping windows.
+ *
+ * <p>
+ * The lexer indexes each window absolutely, from zero up to the limit of the window.
+ * </p>
+ */
+interface ByteWindows
+{
+    /**
+     * This method obtains the window that follows the current window.
+     *
+     * <p>
+     * Index zero of the next window must correspond to index (keep) of the current window,
+     * since the lexer still needs the bytes of the token that it is currently scanning.
+     * The next window must contain at least the bytes from (keep) through the end of the current window.
+     * </p>
+     *
+     * @param current is the window that the lexer has scanned to the end of.
+     * @param keep is the index of the first byte in the current window that is still needed.
+     * @return the next window, or null, if the input is exhausted and the current window is unchanged.
+     * @throws IOException if the input cannot be read.
+     */
+    public ByteBuffer next (ByteBuffer current,
+                            int keep)
+            throws IOException;
+
+    /**
+     * This method creates an object that supplies the given buffer as the one and only window.
+     *
+     * @return the windows.
+     */
+    public static ByteWindows none ()
+    {
+        return (current, keep) -> null;
+    }
+}
@@ -0,0 +1,900 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import com.mackenziehigh.sexpr.SourceLocation;
+import com.mackenziehigh.sexpr.SymbolTable;
+import com.mackenziehigh.sexpr.exceptions.ParseLimitExceededException.Limit;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * A hand-written lexer that scans characters obtained from a reader.
+ *
+ * <p>
+ * This lexer replaces the lexer that was generated by JFlex from <code>Lexer.txt</code>.
+ * The grammar is small enough that a table of character classes for the ASCII range,
+ * plus a dedicated loop per token type, is all that is needed.
+ * The tokens, the line and column numbers, the offsets, and the look-ahead
+ * are the same as those of the generated lexer, except that characters,
+ * which do not begin any token, are silently skipped, rather than echoed to standard-output.
+ * </p>
+ */
+final class CharLexer
+        implements Tokenizer
+{
+    /**
+     * This is the initial size of the buffer, which grows to hold the longest token.
+     */
+    private static final int BUFFER_SIZE = 16384;
+
+    /**
+     * Character Class: characters that can be part of a bare atom (FORM5).
+     */
+    private static final byte ATOM = 0;
+
+    /**
+     * Character Class: space, tab, carriage-return, and line-feed.
+     */
+    private static final byte SPACE = 1;
+
+    private static final byte LPAREN = 2;
+
+    private static final byte RPAREN = 3;
+
+    private static final byte QUOTE = 4;
+
+    private static final byte AT = 5;
+
+    private static final byte HASH = 6;
+
+    /**
+     * Translates ASCII characters to character classes.
+     * All other characters can be part of a bare atom.
+     */
+    private static final byte[] CLASSES = new byte[128];
+
+    /**
+     * Translates ASCII characters to true, if the character affects line-numbers.
+     */
+    private static final boolean[] NEWLINES = new boolean[128];
+
+    static
+    {
+        CLASSES[' '] = SPACE;
+        CLASSES['\t'] = SPACE;
+        CLASSES['\r'] = SPACE;
+        CLASSES['\n'] = SPACE;
+        CLASSES['('] = LPAREN;
+        CLASSES[')'] = RPAREN;
+        CLASSES['\''] = QUOTE;
+        CLASSES['"'] = QUOTE;
+        CLASSES['@'] = AT;
+        CLASSES['#'] = HASH;
+
+        NEWLINES['\n'] = true;
+        NEWLINES['\r'] = true;
+        NEWLINES[0x0B] = true;
+        NEWLINES[0x0C] = true;
+    }
+
+    private Reader reader;
+
+    private char[] buffer = new char[BUFFER_SIZE];
+
+    /**
+     * This is the number of characters in the buffer.
+     */
+    private int limit;
+
+    /**
+     * This is the absolute offset of the first character in the buffer.
+     */
+    private int base;
+
+    /**
+     * This is the index of the first character of the current token.
+     */
+    private int start;
+
+    /**
+     * This is the index of the character that follows the most recent token.
+     */
+    private int position;
+
+    /**
+     * This flag is true, if the current token contains any characters that affect line-numbers.
+     */
+    private boolean lines;
+
+    /**
+     * This is the zero-based line-number of the next token.
+     */
+    private int yyline;
+
+    /**
+     * This is the zero-based column-number of the next token.
+     */
+    private int yycolumn;
+
+    /**
+     * This flag is true, if the most recent character was a carriage-return,
+     * since a carriage-return followed by a line-feed is a single line terminator.
+     */
+    private boolean afterCR;
+
+    /**
+     * This flag becomes true, once the reader is exhausted.
+     */
+    private boolean eof;
+
+    /**
+     * This is one past the absolute offset of the furthest character that was examined,
+     * where the end of the input counts as a character.
+     */
+    private int reach;
+
+    /**
+     * This is the entire input, if it is retained, so that tokens can be sliced from it.
+     */
+    private CharSequence input = null;
+
+    /**
+     * This is the maximum length of a single token, including any look-ahead.
+     */
+    private int maxTokenLength = Integer.MAX_VALUE;
+
+    /**
+     * This is the maximum number of characters in the input.
+     */
+    private long maxInputSize = Long.MAX_VALUE;
+
+    /**
+     * This flag is true, if the buffer was truncated at the maximum size of the input.
+     */
+    private boolean oversized = false;
+
+    /**
+     * Creates a new scanner.
+     *
+     * @param reader will supply the input, or null, if <code>reset()</code> will supply the input.
+     */
+    CharLexer (final Reader reader)
+    {
+        this.reader = reader;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int yylex ()
+            throws IOException
+    {
+        while (true)
+        {
+            /**
+             * The position is not moved past the previous token,
+             * until the next token is requested, because the caller may still need the line and column.
+             */
+            advance();
+
+            start = position;
+            lines = false;
+
+            truncate();
+
+            if (start >= limit)
+            {
+                refill();
+                position = start;
+
+                if (start >= limit)
+                {
+                    examined(limit);
+                    return YYEOF;
+                }
+            }
+
+            final char first = buffer[start];
+
+            switch (first < 128 ? CLASSES[first] : ATOM)
+            {
+                case LPAREN:
+                    position = start + 1;
+                    examined(start);
+                    return OPEN;
+                case RPAREN:
+                    position = start + 1;
+                    examined(start);
+                    return CLOSE;
+                case SPACE:
+                    position = scanSpace();
+                    break;
+                case HASH:
+                    position = scanComment();
+                    break;
+                case AT:
+                    position = scanVerbatim();
+                    if (position > 0)
+                    {
+                        return buffer[start + 1] == '\'' ? FORM1 : FORM2;
+                    }
+                    break;
+                case QUOTE:
+                    position = scanQuoted(first);
+                    if (position > 0)
+                    {
+                        return first == '\'' ? FORM3 : FORM4;
+                    }
+                    break;
+                default:
+                    position = scanAtom();
+                    return FORM5;
+            }
+
+            /**
+             * No token matched, which only happens at an '@', a single-quote, or a double-quote
+             * that does not begin a complete string literal. Skip the character.
+             */
+            if (position < 0)
+            {
+                position = start + 1;
+                lines = false;
+            }
+        }
+    }
+
+    /**
+     * This method sets the position of the first character of the input.
+     *
+     * <p>
+     * This is used when the input is a fragment of a larger input,
+     * so that the reported positions are relative to the larger input.
+     * This method must be invoked before the first token is requested.
+     * </p>
+     *
+     * @param line is the one-based line-number of the first character.
+     * @param column is the one-based column-number of the first character.
+     */
+    void setPosition (final int line,
+                      final int column)
+    {
+        yyline = line - 1;
+        yycolumn = column - 1;
+    }
+
+    /**
+     * This method retrieves the index of the first character of the most recent token.
+     *
+     * @return the index of the token.
+     */
+    int offset ()
+    {
+        return base + start;
+    }
+
+    /**
+     * This method retrieves the index of the character after the most recent token.
+     *
+     * @return one past the index of the last character of the token.
+     */
+    int end ()
+    {
+        return base + position;
+    }
+
+    /**
+     * This method retrieves the location of the character after the most recent token.
+     *
+     * @param source is the source of the location.
+     * @return the location of the character after the token.
+     */
+    SourceLocation endLocation (final String source)
+    {
+        final int line = yyline;
+        final int column = yycolumn;
+        final boolean cr = afterCR;
+
+        /**
+         * The line and column are normally only advanced, when the next token is requested.
+         */
+        advance();
+        final SourceLocation result = new SourceLocation(source, yyline + 1, yycolumn + 1);
+
+        yyline = line;
+        yycolumn = column;
+        afterCR = cr;
+        return result;
+    }
+
+    /**
+     * This method retrieves how far the lexer has looked ahead so far.
+     *
+     * <p>
+     * The tokens that have been matched so far only depend on the characters before this index.
+     * </p>
+     *
+     * @return one past the index of the furthest character that was examined.
+     */
+    int reach ()
+    {
+        return reach;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int line ()
+    {
+        return yyline + 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int column ()
+    {
+        return yycolumn + 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int length ()
+    {
+        return position - start;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setLimits (final int maxTokenLength,
+                           final long maxInputSize)
+    {
+        this.maxTokenLength = maxTokenLength;
+        this.maxInputSize = maxInputSize;
+    }
+
+    /**
+     * This method restarts this lexer at the beginning of a character sequence.
+     *
+     * <p>
+     * The buffer is reused; therefore, a sequence that fits in the buffer is scanned
+     * without allocating anything at all. A longer sequence is read in pieces, as usual.
+     * If the sequence is a string, then it is retained, so that tokens can be sliced from it.
+     * Any other sequence may be modified later; therefore, it is not retained.
+     * </p>
+     *
+     * @param text is the new input.
+     */
+    void reset (final CharSequence text)
+    {
+        /**
+         * Do not let a single long token permanently enlarge the buffer of a reused lexer.
+         */
+        if (buffer.length > BUFFER_SIZE)
+        {
+            buffer = new char[BUFFER_SIZE];
+        }
+
+        if (text.length() <= buffer.length)
+        {
+            CharSequenceReader.getChars(text, 0, text.length(), buffer, 0);
+            reader = null;
+            limit = text.length();
+            eof = true;
+        }
+        else
+        {
+            reader = new CharSequenceReader(text);
+            limit = 0;
+            eof = false;
+        }
+
+        base = 0;
+        start = 0;
+        position = 0;
+        lines = false;
+        yyline = 0;
+        yycolumn = 0;
+        afterCR = false;
+        reach = 0;
+        oversized = false;
+        input = text instanceof String ? text : null;
+    }
+
+    /**
+     * This method moves this lexer to an earlier, or later, position in the retained input.
+     *
+     * <p>
+     * The position must be the start of a token, or whitespace, that was previously scanned,
+     * and must not follow a carriage-return, which is always true after a parenthesis.
+     * If the position is still in the buffer, then nothing is read again.
+     * </p>
+     *
+     * @param offset is the absolute index of the next character to scan.
+     * @param line is the one-based line-number of that character.
+     * @param column is the one-based column-number of that character.
+     */
+    void seek (final int offset,
+               final int line,
+               final int column)
+    {
+        if (offset >= base && offset <= base + limit)
+        {
+            start = offset - base;
+        }
+        else
+        {
+            try
+            {
+                reader = new CharSequenceReader(input);
+                reader.skip(offset);
+            }
+            catch (IOException ex)
+            {
+                /**
+                 * This should never actually happen, since the reader is open.
+                 */
+                throw new UncheckedIOException(ex);
+            }
+
+            limit = 0;
+            base = offset;
+            start = 0;
+            eof = false;
+            oversized = false;
+        }
+
+        position = start;
+        lines = false;
+        yyline = line - 1;
+        yycolumn = column - 1;
+        afterCR = false;
+        reach = offset;
+    }
+
+    /**
+     * This method retains the entire input, so that tokens can be sliced from it.
+     *
+     * @param text is the same text that the reader of this lexer supplies.
+     */
+    void retain (final CharSequence text)
+    {
+        input = text;
+    }
+
+    /**
+     * This method reads more of the input into the buffer.
+     *
+     * <p>
+     * The current token is moved to the front of the buffer first,
+     * and the buffer is enlarged, if the current token fills it entirely.
+     * Check whether the limit increased, in order to detect the end of the input.
+     * </p>
+     *
+     * @return how far the indexes shifted.
+     */
+    private int refill ()
+            throws IOException
+    {
+        if (oversized)
+        {
+            throw new TokenLimitException(Limit.MAX_INPUT_SIZE);
+        }
+        else if (eof)
+        {
+            return 0;
+        }
+        else if (limit - start > maxTokenLength)
+        {
+            throw new TokenLimitException(Limit.MAX_ATOM_LENGTH);
+        }
+
+        final int shift = start;
+
+        if (shift > 0)
+        {
+            System.arraycopy(buffer, shift, buffer, 0, limit - shift);
+            limit -= shift;
+            base += shift;
+            start = 0;
+        }
+        else if (limit == buffer.length)
+        {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+
+        final int count = reader.read(buffer, limit, buffer.length - limit);
+
+        if (count > 0)
+        {
+            limit += count;
+        }
+        else if (count == 0)
+        {
+            /**
+             * A reader may read nothing without being at the end; in which case, block.
+             */
+            final int next = reader.read();
+            eof = next < 0;
+            buffer[limit] = (char) next;
+            limit += eof ? 0 : 1;
+        }
+        else
+        {
+            eof = true;
+        }
+
+        truncate();
+
+        return shift;
+    }
+
+    /**
+     * This method truncates the buffer at the maximum size of the input, if the buffer extends past it.
+     *
+     * <p>
+     * The violation is reported by <code>refill()</code>, when a token needs the characters that were cut off;
+     * therefore, it is reported at the start of that token, regardless of how the input is divided into buffers.
+     * </p>
+     */
+    private void truncate ()
+    {
+        if ((long) base + limit > maxInputSize)
+        {
+            limit = (int) (maxInputSize - base);
+            oversized = true;
+        }
+    }
+
+    /**
+     * This method records that the character at an index was examined.
+     *
+     * @param index is the index of the character, or the limit, at the end of the input.
+     */
+    private void examined (final int index)
+    {
+        reach = Math.max(reach, base + index + 1);
+    }
+
+    /**
+     * SPACE = [ \t\r\n]
+     *
+     * <p>
+     * A run of whitespace is skipped at once, since it cannot affect any other token.
+     * </p>
+     *
+     * @return the index of the character after the whitespace.
+     */
+    private int scanSpace ()
+    {
+        int i = start;
+
+        while (true)
+        {
+            /**
+             * End the run at the end of the buffer, rather than refill,
+             * so that a long run of whitespace is never buffered as a whole.
+             */
+            if (i >= limit)
+            {
+                examined(i - 1);
+                return i;
+            }
+
+            final char c = buffer[i];
+
+            if (c >= 128 || CLASSES[c] != SPACE)
+            {
+                examined(i);
+                return i;
+            }
+
+            lines |= c == '\n' || c == '\r';
+            ++i;
+        }
+    }
+
+    /**
+     * COMMENT = #[^\n\r]*
+     *
+     * @return the index of the character after the comment.
+     */
+    private int scanComment ()
+            throws IOException
+    {
+        int i = start + 1;
+
+        while (true)
+        {
+            if (i >= limit)
+            {
+                i -= refill();
+
+                if (i >= limit)
+                {
+                    examined(i);
+                    return i;
+                }
+            }
+
+            final char c = buffer[i];
+
+            if (c == '\n' || c == '\r')
+            {
+                examined(i);
+                return i;
+            }
+
+            lines |= isNewline(c);
+            ++i;
+        }
+    }
+
+    /**
+     * FORM1 = @[\'][^\']*[\'] and FORM2 = @[\"][^\"]*[\"]
+     *
+     * @return the index of the character after the atom, or -1, if there is no match.
+     */
+    private int scanVerbatim ()
+            throws IOException
+    {
+        int quote = -1;
+        int i = start + 1;
+
+        while (true)
+        {
+            if (i >= limit)
+            {
+                i -= refill();
+
+                if (i >= limit)
+                {
+                    examined(i);
+                    return -1;
+                }
+            }
+
+            final char c = buffer[i];
+            examined(i);
+
+            if (quote < 0 && c != '\'' && c != '"')
+            {
+                return -1;
+            }
+            else if (quote < 0)
+            {
+                quote = c;
+            }
+            else if (c == quote)
+            {
+                return i + 1;
+            }
+            else
+            {
+                lines |= isNewline(c);
+            }
+
+            ++i;
+        }
+    }
+
+    /**
+     * FORM3 = [\']((\\\')|[^\'])*[\'] and FORM4 = [\"]((\\\")|[^\"])*[\"]
+     *
+     * <p>
+     * Like the generated lexer, this method finds the longest match.
+     * A quote that is not preceded by a backslash always terminates the literal.
+     * However, a quote that is preceded by a backslash may either be an escaped quote
+     * or the closing quote; therefore, the scan continues past it,
+     * in case a longer match is possible.
+     * </p>
+     *
+     * @param quote is the opening quote.
+     * @return the index of the character after the atom, or -1, if there is no match.
+     */
+    private int scanQuoted (final char quote)
+            throws IOException
+    {
+        int accept = -1;
+        int i = start + 1;
+        boolean escaped = false;
+        boolean acceptLines = false;
+
+        while (true)
+        {
+            if (i >= limit)
+            {
+                final int shift = refill();
+                i -= shift;
+                accept -= accept < 0 ? 0 : shift;
+
+                if (i >= limit)
+                {
+                    examined(i);
+                    break;
+                }
+            }
+
+            final char c = buffer[i];
+            ++i;
+
+            if (c == quote)
+            {
+                accept = i;
+                acceptLines = lines;
+
+                if (escaped == false)
+                {
+                    examined(i - 1);
+                    break;
+                }
+            }
+
+            escaped = c == '\\';
+            lines |= isNewline(c);
+        }
+
+        lines = acceptLines;
+        return accept;
+    }
+
+    /**
+     * FORM5 = [^ \t\r\n\"\'#@\(\)]+
+     *
+     * @return the index of the character after the atom.
+     */
+    private int scanAtom ()
+            throws IOException
+    {
+        int i = start;
+
+        while (true)
+        {
+            if (i >= limit)
+            {
+                i -= refill();
+
+                if (i >= limit)
+                {
+                    examined(i);
+                    return i;
+                }
+            }
+
+            final char c = buffer[i];
+
+            if (c < 128 && CLASSES[c] != ATOM)
+            {
+                examined(i);
+                return i;
+            }
+
+            lines |= isNewline(c);
+            ++i;
+        }
+    }
+
+    private static boolean isNewline (final char c)
+    {
+        return c < 128 ? NEWLINES[c] : c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * This method updates the line-number and column-number,
+     * based on the characters in the most recent token.
+     */
+    private void advance ()
+    {
+        if (position == start)
+        {
+            return;
+        }
+        else if (lines == false)
+        {
+            yycolumn += position - start;
+            afterCR = false;
+            return;
+        }
+
+        for (int i = start; i < position; i++)
+        {
+            final char c = buffer[i];
+
+            if (c == '\n')
+            {
+                if (afterCR == false)
+                {
+                    ++yyline;
+                    yycolumn = 0;
+                }
+                afterCR = false;
+            }
+            else if (c == '\r')
+            {
+                ++yyline;
+                yycolumn = 0;
+                afterCR = true;
+            }
+            else if (isNewline(c))
+            {
+                ++yyline;
+                yycolumn = 0;
+                afterCR = false;
+            }
+            else
+            {
+                ++yycolumn;
+                afterCR = false;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String yytext ()
+    {
+        return new String(buffer, start, position - start);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String yytext (final SymbolTable symbols,
+                          final int prefix,
+                          final int suffix)
+    {
+        return symbols.intern(buffer, start + prefix, position - start - prefix - suffix);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CharSequence slice (final int prefix,
+                               final int suffix,
+                               final boolean escapes)
+    {
+        final int begin = start + prefix;
+        final int end = position - suffix;
+
+        if (input == null)
+        {
+            return null;
+        }
+
+        for (int i = begin; escapes && i < end; i++)
+        {
+            if (buffer[i] == '\\')
+            {
+                return null;
+            }
+        }
+
+        return new TextSlice(input, base + begin, end - begin);
+    }
+}
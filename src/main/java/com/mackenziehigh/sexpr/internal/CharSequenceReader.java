@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+/**
+ * A reader that transfers the characters of a <code>CharSequence</code>
+ * directly into the buffer of the caller.
+ *
+ * <p>
+ * Unlike <code>StringReader</code>, the sequence is not converted to a string first.
+ * The common implementations of <code>CharSequence</code> are copied in bulk.
+ * The sequence must not be modified while it is being read.
+ * </p>
+ */
+final class CharSequenceReader
+        extends Reader
+{
+    private final CharSequence input;
+
+    private int position = 0;
+
+    CharSequenceReader (final CharSequence input)
+    {
+        this.input = input;
+    }
+
+    /**
+     * This method copies a range of characters from a sequence into an array.
+     *
+     * @param source contains the characters to copy.
+     * @param begin is the index of the first character to copy.
+     * @param end is the index that follows the last character to copy.
+     * @param destination will receive the characters.
+     * @param offset is where to store the first character in the destination.
+     */
+    static void getChars (final CharSequence source,
+                          final int begin,
+                          final int end,
+                          final char[] destination,
+                          final int offset)
+    {
+        if (source instanceof String)
+        {
+            ((String) source).getChars(begin, end, destination, offset);
+        }
+        else if (source instanceof StringBuilder)
+        {
+            ((StringBuilder) source).getChars(begin, end, destination, offset);
+        }
+        else if (source instanceof StringBuffer)
+        {
+            ((StringBuffer) source).getChars(begin, end, destination, offset);
+        }
+        else if (source instanceof CharBuffer)
+        {
+            final CharBuffer chars = ((CharBuffer) source).duplicate();
+            chars.position(chars.position() + begin);
+            chars.get(destination, offset, end - begin);
+        }
+        else
+        {
+            for (int i = begin; i < end; i++)
+            {
+                destination[offset + i - begin] = source.charAt(i);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read (final char[] buffer,
+                     final int offset,
+                     final int length)
+    {
+        if (length == 0)
+        {
+            return 0;
+        }
+        else if (position >= input.length())
+        {
+            return -1;
+        }
+
+        final int count = Math.min(length, input.length() - position);
+        getChars(input, position, position + count, buffer, offset);
+        position += count;
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long skip (final long count)
+    {
+        final int skipped = (int) Math.min(Math.max(count, 0), input.length() - position);
+        position += skipped;
+        return skipped;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close ()
+    {
+        // Pass.
+    }
+}
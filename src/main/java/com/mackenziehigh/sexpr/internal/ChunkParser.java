@@ -0,0 +1,550 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import com.mackenziehigh.sexpr.Sexpr;
+import com.mackenziehigh.sexpr.SexprReader.Event;
+import com.mackenziehigh.sexpr.exceptions.ParsingFailedException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Parses UTF-8 encoded input, which is pushed in chunks of any size,
+ * and delivers each top-level form as soon as the form is complete.
+ *
+ * <p>
+ * Each chunk is scanned by a resumable state-machine, which finds the end of each top-level form.
+ * The state-machine resolves the literals and comments exactly as the lexer does;
+ * therefore, a chunk may end anywhere, including within a literal, or an escape-sequence,
+ * or a multi-byte character. The state-machine also computes the line-number and column-number
+ * of each byte, in the same way that the lexer does.
+ * </p>
+ *
+ * <p>
+ * Only the bytes of the current top-level form are retained between chunks.
+ * Once the form is complete, the bytes are parsed by the byte lexer,
+ * which begins at the line-number and column-number of the form;
+ * therefore, the forms, and the exceptions, are the same as those of the sequential parser.
+ * </p>
+ *
+ * <p>
+ * A quoted literal that is never terminated is treated specially by the lexer,
+ * which can only be known at the end of the input. In that case, the remaining bytes
+ * are retained until the end of the input, and then lexed all at once.
+ * </p>
+ *
+ * <p>
+ * Instances of this class are not thread-safe.
+ * </p>
+ */
+public final class ChunkParser
+{
+    private static final int OTHER = 0;
+
+    private static final int SPACE = 1;
+
+    private static final int LPAREN = 2;
+
+    private static final int RPAREN = 3;
+
+    private static final int QUOTE = 4;
+
+    private static final int HASH = 5;
+
+    private static final int AT = 6;
+
+    /**
+     * Translates bytes to byte classes, in the same way as the lexer.
+     */
+    private static final byte[] CLASSES = new byte[256];
+
+    static
+    {
+        CLASSES[' '] = SPACE;
+        CLASSES['\t'] = SPACE;
+        CLASSES['\r'] = SPACE;
+        CLASSES['\n'] = SPACE;
+        CLASSES['('] = LPAREN;
+        CLASSES[')'] = RPAREN;
+        CLASSES['\''] = QUOTE;
+        CLASSES['"'] = QUOTE;
+        CLASSES['@'] = AT;
+        CLASSES['#'] = HASH;
+    }
+
+    /**
+     * These are the states of the scanner.
+     */
+    private static final int NORMAL = 0;
+
+    private static final int BARE = 1;
+
+    private static final int COMMENT = 2;
+
+    private static final int AT_SIGN = 3;
+
+    private static final int VERBATIM = 4;
+
+    private static final int QUOTED = 5;
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private final String source;
+
+    private final Consumer<Sexpr<?>> callback;
+
+    private final Utf8Lexer lexer = new Utf8Lexer(EMPTY, ByteWindows.none());
+
+    private final TokenReader reader = new TokenReader(null, lexer, () -> {});
+
+    /**
+     * This buffer contains the bytes that have been pushed, but not yet discarded.
+     */
+    private byte[] buffer = new byte[256];
+
+    /**
+     * This is the number of bytes in the buffer.
+     */
+    private int count = 0;
+
+    /**
+     * This is the index of the next byte to scan.
+     */
+    private int scan = 0;
+
+    /**
+     * This is the index of the first byte of the current top-level form,
+     * or top-level comment, or -1, if the scanner is between the top-level forms.
+     */
+    private int pending = -1;
+
+    /**
+     * These are the line-number and column-number of the pending byte.
+     */
+    private int pendingLine;
+
+    private int pendingColumn;
+
+    private int mode = NORMAL;
+
+    /**
+     * This is the nesting depth of the lists within the current top-level form.
+     */
+    private int depth = 0;
+
+    /**
+     * This is the quote that will end the current literal.
+     */
+    private int quote;
+
+    /**
+     * This is true, if the previous byte was a backslash.
+     */
+    private boolean escaped = false;
+
+    /**
+     * This is true, if the current top-level comment contains non-ASCII bytes.
+     */
+    private boolean multibyte = false;
+
+    /**
+     * These describe the line-number and column-number of the next byte to scan,
+     * along with the previous two bytes, which are needed to find multi-byte newlines.
+     */
+    private int line = 1;
+
+    private int column = 1;
+
+    private boolean afterCR = false;
+
+    private int previous1 = 0;
+
+    private int previous2 = 0;
+
+    private boolean closed = false;
+
+    public ChunkParser (final String source,
+                        final Consumer<Sexpr<?>> callback)
+    {
+        this.source = Objects.requireNonNull(source, "source");
+        this.callback = Objects.requireNonNull(callback, "callback");
+    }
+
+    /**
+     * Scan the bytes between the position and the limit of a chunk,
+     * and deliver each top-level form that is completed by the chunk.
+     *
+     * <p>
+     * The bytes are copied; therefore, the chunk may be reused afterwards.
+     * The position of the chunk is advanced to the limit.
+     * </p>
+     *
+     * @param chunk contains the next part of the input.
+     * @throws ParsingFailedException if the input is malformed.
+     * @throws IOException if the input is not well-formed UTF-8.
+     * @throws IllegalStateException if the input was already finished, or malformed.
+     */
+    public void feed (final ByteBuffer chunk)
+            throws ParsingFailedException,
+                   IOException
+    {
+        requireOpen();
+
+        try
+        {
+            compact();
+            append(chunk);
+            scan();
+        }
+        catch (IOException | RuntimeException ex)
+        {
+            closed = true;
+            throw ex;
+        }
+    }
+
+    /**
+     * Signal the end of the input, and deliver the final top-level forms, if any.
+     *
+     * @throws ParsingFailedException if the input is malformed.
+     * @throws IOException if the input is not well-formed UTF-8.
+     * @throws IllegalStateException if the input was already finished, or malformed.
+     */
+    public void finish ()
+            throws ParsingFailedException,
+                   IOException
+    {
+        requireOpen();
+        closed = true;
+
+        if (pending >= 0)
+        {
+            /**
+             * The final bytes may be an unterminated literal, or an unbalanced list, etc.
+             * Whatever the case, the lexer resolves them exactly as the sequential parser would.
+             */
+            parse(pending, count, pendingLine, pendingColumn);
+        }
+
+        buffer = new byte[0];
+        count = 0;
+        scan = 0;
+        pending = -1;
+    }
+
+    /**
+     * Getter.
+     *
+     * <p>
+     * This is the size of the incomplete top-level form, if any,
+     * which bounds the memory needed to receive the rest of the form.
+     * </p>
+     *
+     * @return the number of bytes that are currently retained.
+     */
+    public int buffered ()
+    {
+        return pending < 0 ? 0 : count - pending;
+    }
+
+    private void requireOpen ()
+    {
+        if (closed)
+        {
+            throw new IllegalStateException("The input was already finished, or malformed.");
+        }
+    }
+
+    /**
+     * This method discards the bytes that are no longer needed.
+     */
+    private void compact ()
+    {
+        final int keep = pending < 0 ? scan : pending;
+
+        if (keep == 0)
+        {
+            return;
+        }
+
+        System.arraycopy(buffer, keep, buffer, 0, count - keep);
+        count -= keep;
+        scan -= keep;
+        pending = pending < 0 ? -1 : 0;
+    }
+
+    private void append (final ByteBuffer chunk)
+    {
+        final int length = chunk.remaining();
+
+        if (count + length > buffer.length)
+        {
+            final long capacity = Math.max(buffer.length * 2L, (long) count + length);
+            buffer = Arrays.copyOf(buffer, (int) Math.min(capacity, Integer.MAX_VALUE - 8));
+        }
+
+        chunk.get(buffer, count, length);
+        count += length;
+    }
+
+    /**
+     * This method scans the bytes that have been appended since the last scan.
+     */
+    private void scan ()
+            throws IOException
+    {
+        while (scan < count)
+        {
+            final int b = buffer[scan] & 0xFF;
+
+            switch (mode)
+            {
+                case NORMAL:
+                    normal(b);
+                    break;
+                case BARE:
+                    if (CLASSES[b] != OTHER)
+                    {
+                        /**
+                         * The delimiter is not part of the atom; therefore, the delimiter is scanned again.
+                         */
+                        mode = NORMAL;
+                        parse(pending, scan, pendingLine, pendingColumn);
+                        pending = -1;
+                        continue;
+                    }
+                    consume(b);
+                    break;
+                case COMMENT:
+                    if (b == '\n' || b == '\r')
+                    {
+                        mode = NORMAL;
+                        endComment();
+                    }
+                    else
+                    {
+                        multibyte |= b >= 0x80;
+                    }
+                    consume(b);
+                    break;
+                case AT_SIGN:
+                    if (b == '\'' || b == '"')
+                    {
+                        mode = VERBATIM;
+                        quote = b;
+                        consume(b);
+                    }
+                    else
+                    {
+                        /**
+                         * The at-sign is skipped, as the lexer would; therefore, the byte is scanned again.
+                         */
+                        mode = NORMAL;
+                        pending = depth == 0 ? -1 : pending;
+                    }
+                    break;
+                case VERBATIM:
+                    consume(b);
+                    if (b == quote)
+                    {
+                        mode = NORMAL;
+                        endForm();
+                    }
+                    break;
+                default:
+                    consume(b);
+                    if (b == quote && escaped == false)
+                    {
+                        mode = NORMAL;
+                        endForm();
+                    }
+                    escaped = b == '\\';
+                    break;
+            }
+        }
+    }
+
+    /**
+     * This method scans a byte that is not within an atom or comment.
+     */
+    private void normal (final int b)
+            throws IOException
+    {
+        final int kind = CLASSES[b];
+
+        if (depth == 0 && kind != SPACE)
+        {
+            /**
+             * This byte begins a top-level form, or a top-level comment.
+             */
+            pending = scan;
+            pendingLine = line;
+            pendingColumn = column;
+        }
+
+        switch (kind)
+        {
+            case SPACE:
+                break;
+            case LPAREN:
+                ++depth;
+                break;
+            case RPAREN:
+                consume(b);
+                /**
+                 * If the parenthesis is unbalanced, then the lexer will throw the exception.
+                 */
+                depth = Math.max(0, depth - 1);
+                endForm();
+                return;
+            case QUOTE:
+                mode = QUOTED;
+                quote = b;
+                escaped = false;
+                break;
+            case HASH:
+                mode = COMMENT;
+                multibyte = false;
+                break;
+            case AT:
+                mode = AT_SIGN;
+                break;
+            default:
+                mode = depth == 0 ? BARE : NORMAL;
+                break;
+        }
+
+        consume(b);
+    }
+
+    /**
+     * This method parses the current top-level form, if it just ended.
+     */
+    private void endForm ()
+            throws IOException
+    {
+        if (depth == 0)
+        {
+            parse(pending, scan, pendingLine, pendingColumn);
+            pending = -1;
+        }
+    }
+
+    /**
+     * This method verifies that a top-level comment is well-formed UTF-8,
+     * since the lexer verifies comments, even though they are discarded.
+     */
+    private void endComment ()
+            throws IOException
+    {
+        if (depth == 0)
+        {
+            if (multibyte)
+            {
+                parse(pending, scan, pendingLine, pendingColumn);
+            }
+
+            pending = -1;
+        }
+    }
+
+    /**
+     * This method moves past a byte, updating the line-number and column-number,
+     * in the same way that the lexer does.
+     */
+    private void consume (final int b)
+    {
+        if (b == '\n')
+        {
+            if (afterCR == false)
+            {
+                ++line;
+                column = 1;
+            }
+            afterCR = false;
+        }
+        else if (b == '\r')
+        {
+            ++line;
+            column = 1;
+            afterCR = true;
+        }
+        else if (b == 0x0B || b == 0x0C)
+        {
+            ++line;
+            column = 1;
+            afterCR = false;
+        }
+        else if (b < 0x80)
+        {
+            ++column;
+            afterCR = false;
+        }
+        else if (b >= 0xC0)
+        {
+            column += b >= 0xF0 ? 2 : 1;
+            afterCR = false;
+        }
+        else if (b == 0x85 && previous1 == 0xC2)
+        {
+            // U+0085 (Next Line)
+            ++line;
+            column = 1;
+        }
+        else if ((b == 0xA8 || b == 0xA9) && previous1 == 0x80 && previous2 == 0xE2)
+        {
+            // U+2028 (Line Separator) and U+2029 (Paragraph Separator)
+            ++line;
+            column = 1;
+        }
+
+        previous2 = previous1;
+        previous1 = b;
+        ++scan;
+    }
+
+    /**
+     * This method parses a range of the buffer, delivering each form therein.
+     */
+    private void parse (final int from,
+                        final int to,
+                        final int line,
+                        final int column)
+            throws IOException
+    {
+        lexer.reset(ByteBuffer.wrap(buffer, from, to - from).slice());
+        lexer.setPosition(line, column);
+        reader.reset(source);
+
+        try
+        {
+            while (reader.next() != Event.END)
+            {
+                callback.accept(Parser.form(reader));
+            }
+        }
+        finally
+        {
+            /**
+             * Do not retain the buffer, which will be overwritten.
+             */
+            lexer.reset(EMPTY);
+        }
+    }
+}
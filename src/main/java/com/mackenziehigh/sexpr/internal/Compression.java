@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Detects whether an input-stream is compressed, based on its magic bytes,
+ * and decompresses it, if so.
+ *
+ * <p>
+ * The decompressed bytes are read by the lexer directly into its own buffer;
+ * therefore, the decompressed input is never held in memory in its entirety.
+ * </p>
+ */
+public final class Compression
+{
+    /**
+     * This is the size of the buffer that holds the compressed input.
+     */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * These are the magic bytes that begin a GZIP member (RFC 1952).
+     */
+    private static final int GZIP_MAGIC_1 = 0x1F;
+
+    private static final int GZIP_MAGIC_2 = 0x8B;
+
+    private Compression ()
+    {
+        // Pass.
+    }
+
+    /**
+     * This method wraps an input-stream, so that it will be decompressed, if necessary.
+     *
+     * <p>
+     * GZIP inputs, including those that consist of concatenated members, are decompressed.
+     * Any other input is returned unchanged.
+     * Since the second magic byte of GZIP is not valid as the second byte of UTF-8 text,
+     * no UTF-8 text is mistaken for compressed input.
+     * </p>
+     *
+     * @param input may be compressed, and will be closed, when the result is closed.
+     * @return the decompressed input.
+     * @throws IOException if the input cannot be read.
+     */
+    public static InputStream decompress (final InputStream input)
+            throws IOException
+    {
+        final PushbackInputStream in = new PushbackInputStream(input, 2);
+
+        final int byte1 = in.read();
+        final int byte2 = byte1 < 0 ? -1 : in.read();
+
+        if (byte2 >= 0)
+        {
+            in.unread(byte2);
+        }
+
+        if (byte1 >= 0)
+        {
+            in.unread(byte1);
+        }
+
+        if (byte1 == GZIP_MAGIC_1 && byte2 == GZIP_MAGIC_2)
+        {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        }
+        else
+        {
+            return in;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import com.mackenziehigh.sexpr.Sexpr;
+import com.mackenziehigh.sexpr.SexprReader.Event;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the top-level forms of an input,
+ * building each form only when it is requested.
+ *
+ * <p>
+ * Since the <code>Iterator</code> interface does not permit checked exceptions,
+ * any <code>IOException</code> is rethrown as an <code>UncheckedIOException</code>.
+ * </p>
+ */
+final class FormIterator
+        implements Iterator<Sexpr<?>>
+{
+    private final TokenReader reader;
+
+    /**
+     * This is the form that will be returned by the next call to <code>next()</code>.
+     */
+    private Sexpr<?> form = null;
+
+    FormIterator (final TokenReader reader)
+    {
+        this.reader = reader;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext ()
+    {
+        if (form != null)
+        {
+            return true;
+        }
+
+        try
+        {
+            if (reader.next() == Event.END)
+            {
+                return false;
+            }
+
+            form = Parser.form(reader);
+            return true;
+        }
+        catch (IOException ex)
+        {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Sexpr<?> next ()
+    {
+        if (hasNext() == false)
+        {
+            throw new NoSuchElementException();
+        }
+
+        final Sexpr<?> result = form;
+        form = null;
+        return result;
+    }
+}
@@ -0,0 +1,405 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import com.mackenziehigh.sexpr.SAtom;
+import com.mackenziehigh.sexpr.SList;
+import com.mackenziehigh.sexpr.Sexpr;
+import com.mackenziehigh.sexpr.SexprReader.Event;
+import com.mackenziehigh.sexpr.SourceLocation;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps a text together with its parse-tree, so that the tree
+ * can be updated incrementally, whenever the text is edited.
+ *
+ * <p>
+ * For each top-level form, this class records where the form ends,
+ * and how far the lexer looked ahead while reading the form.
+ * The scan of each form begins at the end of the preceding form,
+ * or at the start of the text, which are the only places where
+ * the lexer can be restarted, since no token spans them.
+ * When the text is edited, the forms whose lexing could not have been
+ * affected by the edit are kept as they are. The lexer restarts
+ * where the scan of the first form that could have been affected began,
+ * so that any comments or stray characters before that form are lexed again,
+ * and stops as soon as it reaches the place where the scan of an old form
+ * after the edit began, since the lexer would produce exactly the same tokens from there on.
+ * </p>
+ *
+ * <p>
+ * The forms after the edit are reused, as long as their locations did not change.
+ * If the edit inserted or removed lines, then the forms after the edit
+ * must be copied, since their locations are immutable; however, they are not relexed.
+ * </p>
+ */
+public final class IncrementalDocument
+{
+    /**
+     * Describes a single top-level form.
+     */
+    private static final class Form
+    {
+        public final Sexpr<?> tree;
+
+        /**
+         * This is one past the index of the last character of the form,
+         * which is where the scan of the next form begins.
+         */
+        public final int end;
+
+        /**
+         * This is the location of the character after the form.
+         */
+        public final SourceLocation endLocation;
+
+        /**
+         * This is one past the index of the furthest character that the lexer examined
+         * while reading this form or any of the preceding forms,
+         * including any comments or stray characters in between.
+         */
+        public final int reach;
+
+        public Form (final Sexpr<?> tree,
+                     final int end,
+                     final SourceLocation endLocation,
+                     final int reach)
+        {
+            this.tree = tree;
+            this.end = end;
+            this.endLocation = endLocation;
+            this.reach = reach;
+        }
+    }
+
+    private final String source;
+
+    private String text;
+
+    /**
+     * These are the top-level forms, or null, if the text is malformed.
+     */
+    private List<Form> forms;
+
+    private SList tree;
+
+    /**
+     * This is the reason that the text is malformed, if it is malformed.
+     */
+    private RuntimeException failure;
+
+    public IncrementalDocument (final String source,
+                                final String text)
+    {
+        this.source = source;
+        this.text = text;
+        reparse(-1, 0, 0);
+    }
+
+    /**
+     * This method retrieves the current text.
+     *
+     * @return the text.
+     */
+    public String text ()
+    {
+        return text;
+    }
+
+    /**
+     * This method retrieves the parse-tree of the current text.
+     *
+     * @return the parse-tree.
+     * @throws RuntimeException if the current text is malformed.
+     */
+    public SList tree ()
+    {
+        if (failure != null)
+        {
+            throw failure;
+        }
+
+        return tree;
+    }
+
+    /**
+     * This method replaces a range of the text and then updates the parse-tree.
+     *
+     * @param offset is the index of the first character to replace.
+     * @param removed is the number of characters to remove.
+     * @param inserted will be inserted at the offset.
+     * @return the updated parse-tree.
+     * @throws IndexOutOfBoundsException if the range is not within the text.
+     * @throws RuntimeException if the updated text is malformed.
+     */
+    public SList edit (final int offset,
+                       final int removed,
+                       final String inserted)
+    {
+        if (offset < 0 || removed < 0 || offset + removed > text.length())
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        text = text.substring(0, offset) + inserted + text.substring(offset + removed);
+
+        if (forms == null)
+        {
+            /**
+             * The previous text was malformed; therefore, there is nothing to reuse.
+             */
+            reparse(-1, 0, 0);
+        }
+        else
+        {
+            reparse(offset + inserted.length(), inserted.length() - removed, firstAffected(offset));
+        }
+
+        return tree();
+    }
+
+    /**
+     * This method finds the first form whose lexing may have examined the given offset.
+     */
+    private int firstAffected (final int offset)
+    {
+        /**
+         * The reaches are non-decreasing; therefore, use a binary search.
+         */
+        int low = 0;
+        int high = forms.size();
+
+        while (low < high)
+        {
+            final int middle = (low + high) >>> 1;
+
+            if (forms.get(middle).reach > offset)
+            {
+                high = middle;
+            }
+            else
+            {
+                low = middle + 1;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * This method relexes the text, starting where the scan of the first form,
+     * which may have been affected by an edit, began.
+     *
+     * @param editEnd is where the edit ends in the updated text, or -1, if everything must be relexed.
+     * @param delta is the change in the length of the text.
+     * @param affected is the index of the first form that may have been affected.
+     */
+    private void reparse (final int editEnd,
+                          final int delta,
+                          final int affected)
+    {
+        final List<Form> old = editEnd < 0 ? new ArrayList<>() : forms;
+        forms = null;
+        tree = null;
+        failure = null;
+
+        /**
+         * The lexer must restart where the scan of a form began, since the line-number and column-number
+         * are only known at those points. The affected form may be preceded by comments or
+         * stray characters, whose look-ahead may have been affected too; therefore,
+         * the lexer restarts at the end of the preceding form, rather than at the affected form itself.
+         */
+        final int begin = scanStart(old, affected);
+        SourceLocation location = scanLocation(old, affected);
+        int reach = affected == 0 ? 0 : old.get(affected - 1).reach;
+
+        final List<Form> result = new ArrayList<>(old.subList(0, affected));
+
+        try
+        {
+            final StringReader input = new StringReader(text);
+            input.skip(begin);
+
+            final CharLexer lexer = new CharLexer(input);
+            lexer.setPosition(location.line(), location.column());
+
+            final TokenReader reader = new TokenReader(source, lexer, () -> {});
+
+            int scan = begin;
+            int next = affected;
+
+            while (true)
+            {
+                /**
+                 * Once the lexer reaches the place where the scan of an old form after the edit began,
+                 * the rest of the old forms can be reused, since the rest of the text is unchanged.
+                 */
+                if (editEnd >= 0 && scan >= editEnd)
+                {
+                    while (next < old.size() && scanStart(old, next) + delta < scan)
+                    {
+                        ++next;
+                    }
+
+                    if (next < old.size() && scanStart(old, next) + delta == scan)
+                    {
+                        resync(old, next, delta, location, reach, result);
+                        break;
+                    }
+                }
+
+                if (reader.next() == Event.END)
+                {
+                    break;
+                }
+
+                final Sexpr<?> form = Parser.form(reader);
+
+                scan = begin + lexer.end();
+                location = lexer.endLocation(source);
+                reach = Math.max(reach, begin + lexer.reach());
+
+                result.add(new Form(form, scan, location, reach));
+            }
+        }
+        catch (IOException ex)
+        {
+            /**
+             * This should never actually happen.
+             */
+            throw new UncheckedIOException(ex);
+        }
+        catch (RuntimeException ex)
+        {
+            failure = ex;
+            return;
+        }
+
+        final List<Sexpr<?>> elements = new ArrayList<>(result.size());
+        result.forEach(x -> elements.add(x.tree));
+
+        forms = result;
+        tree = SList.copyOf(new SourceLocation(source, 0, 0), elements);
+    }
+
+    /**
+     * This method retrieves the index where the scan of a form began.
+     */
+    private static int scanStart (final List<Form> forms,
+                                  final int index)
+    {
+        return index == 0 ? 0 : forms.get(index - 1).end;
+    }
+
+    /**
+     * This method retrieves the location where the scan of a form began.
+     */
+    private SourceLocation scanLocation (final List<Form> forms,
+                                         final int index)
+    {
+        return index == 0 ? new SourceLocation(source, 1, 1) : forms.get(index - 1).endLocation;
+    }
+
+    /**
+     * This method appends the old forms, which follow the edit, to the new forms.
+     *
+     * @param old are the forms before the edit.
+     * @param first is the index of the first old form to reuse.
+     * @param delta is the change in the length of the text.
+     * @param location is where the scan of the first old form begins now.
+     * @param reach is how far the lexer looked ahead before the first old form.
+     * @param result will receive the reused forms.
+     */
+    private void resync (final List<Form> old,
+                         final int first,
+                         final int delta,
+                         final SourceLocation location,
+                         final int reach,
+                         final List<Form> result)
+    {
+        final SourceLocation anchor = scanLocation(old, first);
+        final int lineShift = location.line() - anchor.line();
+        final int columnShift = location.column() - anchor.column();
+
+        int furthest = reach;
+
+        for (int i = first; i < old.size(); i++)
+        {
+            final Form form = old.get(i);
+            final Sexpr<?> tree = relocate(form.tree, anchor.line(), lineShift, columnShift);
+            final SourceLocation end = relocate(form.endLocation, anchor.line(), lineShift, columnShift);
+            furthest = Math.max(furthest, form.reach + delta);
+            result.add(new Form(tree, form.end + delta, end, furthest));
+        }
+    }
+
+    /**
+     * This method shifts a location, like <code>relocate(Sexpr, int, int, int)</code>.
+     */
+    private static SourceLocation relocate (final SourceLocation location,
+                                            final int anchor,
+                                            final int lineShift,
+                                            final int columnShift)
+    {
+        final int column = location.column() + (location.line() == anchor ? columnShift : 0);
+        return new SourceLocation(location.source(), location.line() + lineShift, column);
+    }
+
+    /**
+     * This method shifts the locations in a tree, without relexing.
+     *
+     * <p>
+     * Only the elements on the anchor line are shifted horizontally,
+     * since the column-numbers restart on each subsequent line.
+     * Any subtree whose location does not change is reused as is.
+     * </p>
+     */
+    private static Sexpr<?> relocate (final Sexpr<?> tree,
+                                      final int anchor,
+                                      final int lineShift,
+                                      final int columnShift)
+    {
+        final SourceLocation location = tree.location();
+
+        if (lineShift == 0 && (columnShift == 0 || location.line() != anchor))
+        {
+            return tree;
+        }
+
+        final int column = location.column() + (location.line() == anchor ? columnShift : 0);
+        final SourceLocation shifted = new SourceLocation(location.source(), location.line() + lineShift, column);
+
+        if (tree.isAtom())
+        {
+            return SAtom.fromString(shifted, tree.asAtom().content());
+        }
+        else
+        {
+            final List<Sexpr<?>> elements = new ArrayList<>(tree.asList().size());
+
+            for (Sexpr<?> element : tree.asList())
+            {
+                elements.add(relocate(element, anchor, lineShift, columnShift));
+            }
+
+            return SList.copyOf(shifted, elements);
+        }
+    }
+}
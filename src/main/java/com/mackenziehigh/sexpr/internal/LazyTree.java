@@ -0,0 +1,329 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import com.mackenziehigh.sexpr.ParseOptions;
+import com.mackenziehigh.sexpr.SList;
+import com.mackenziehigh.sexpr.Sexpr;
+import com.mackenziehigh.sexpr.SexprReader.Event;
+import com.mackenziehigh.sexpr.SourceLocation;
+import com.mackenziehigh.sexpr.exceptions.ParsingFailedException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A structural index of a string, from which the lists are created on demand.
+ *
+ * <p>
+ * The first pass validates the entire input, including the escape-sequences,
+ * but only records the position of each list,
+ * the position that follows it, and the metrics of the tree rooted at it.
+ * The lists are numbered in pre-order, with zero being the list that implicitly encloses the input.
+ * The elements of a list are created by scanning the input again, starting after its opening parenthesis.
+ * Whenever a nested list is encountered, the lexer jumps past the nested list;
+ * therefore, the cost of creating the elements of a list is proportional to the number of elements,
+ * rather than the size of the tree rooted at the list.
+ * </p>
+ */
+final class LazyTree
+{
+    private final String source;
+
+    private final CharLexer lexer;
+
+    private final TokenReader reader;
+
+    private final boolean locations;
+
+    /**
+     * These are the offsets of the opening parentheses.
+     */
+    private int[] opens = new int[64];
+
+    /**
+     * These are the line-numbers of the opening parentheses.
+     */
+    private int[] lines = new int[64];
+
+    /**
+     * These are the column-numbers of the opening parentheses.
+     */
+    private int[] columns = new int[64];
+
+    /**
+     * These are the offsets of the characters that follow the closing parentheses.
+     */
+    private int[] closes = new int[64];
+
+    /**
+     * These are the line-numbers of the closing parentheses.
+     */
+    private int[] closeLines = new int[64];
+
+    /**
+     * These are the column-numbers of the characters that follow the closing parentheses.
+     */
+    private int[] closeColumns = new int[64];
+
+    /**
+     * These are the numbers of the lists that follow each tree, in pre-order.
+     */
+    private int[] skips = new int[64];
+
+    private int[] sizes = new int[64];
+
+    private int[] heights = new int[64];
+
+    private int[] leaves = new int[64];
+
+    /**
+     * This is the number of lists.
+     */
+    private int count = 0;
+
+    private LazyTree (final String source,
+                      final CharLexer lexer,
+                      final TokenReader reader,
+                      final boolean locations)
+    {
+        this.source = source;
+        this.lexer = lexer;
+        this.reader = reader;
+        this.locations = locations;
+    }
+
+    /**
+     * Parse a string, such that the elements of each list are created on demand.
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param text is the input to parse.
+     * @param options describe how to parse the input.
+     * @return the parsed input, as a symbolic-list.
+     * @throws ParsingFailedException if the input is malformed.
+     * @throws IOException if the input cannot be read.
+     */
+    static SList parse (final String source,
+                        final String text,
+                        final ParseOptions options)
+            throws ParsingFailedException,
+                   IOException
+    {
+        final CharLexer lexer = new CharLexer(new StringReader(text));
+        lexer.retain(text);
+
+        final TokenReader reader = new TokenReader(source, lexer, () -> {}).withOptions(options);
+        final LazyTree tree = new LazyTree(source, lexer, reader, options.trackLocations());
+        tree.index();
+        return tree.list(0);
+    }
+
+    /**
+     * This method performs the first pass, which validates the input and records the lists.
+     */
+    private void index ()
+            throws ParsingFailedException,
+                   IOException
+    {
+        /**
+         * These are the numbers of the unclosed lists,
+         * along with the metrics of their elements so far.
+         */
+        int[] stack = new int[16];
+        int[] stackSizes = new int[16];
+        int[] stackHeights = new int[16];
+        int[] stackLeaves = new int[16];
+        int depth = 0;
+
+        add(-1, 0, 0);
+
+        while (true)
+        {
+            final Event event = reader.next();
+
+            if (event == Event.START_LIST)
+            {
+                if (depth + 1 == stack.length)
+                {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                    stackSizes = Arrays.copyOf(stackSizes, stack.length);
+                    stackHeights = Arrays.copyOf(stackHeights, stack.length);
+                    stackLeaves = Arrays.copyOf(stackLeaves, stack.length);
+                }
+
+                ++depth;
+                stack[depth] = add(lexer.offset(), lexer.line(), lexer.column());
+                stackSizes[depth] = 0;
+                stackHeights[depth] = 0;
+                stackLeaves[depth] = 0;
+            }
+            else if (event == Event.ATOM)
+            {
+                reader.validate();
+                stackSizes[depth] += 1;
+                stackHeights[depth] = Math.max(stackHeights[depth], 1);
+                stackLeaves[depth] += 1;
+            }
+            else
+            {
+                final int list = stack[depth];
+                sizes[list] = stackSizes[depth] + 1;
+                heights[list] = stackHeights[depth] + 1;
+                leaves[list] = stackLeaves[depth];
+                skips[list] = count;
+
+                if (event == Event.END)
+                {
+                    trim();
+                    return;
+                }
+
+                closes[list] = lexer.offset() + 1;
+                closeLines[list] = lexer.line();
+                closeColumns[list] = lexer.column() + 1;
+
+                --depth;
+                stackSizes[depth] += sizes[list];
+                stackHeights[depth] = Math.max(stackHeights[depth], heights[list]);
+                stackLeaves[depth] += leaves[list];
+            }
+        }
+    }
+
+    private void trim ()
+    {
+        opens = Arrays.copyOf(opens, count);
+        lines = Arrays.copyOf(lines, count);
+        columns = Arrays.copyOf(columns, count);
+        closes = Arrays.copyOf(closes, count);
+        closeLines = Arrays.copyOf(closeLines, count);
+        closeColumns = Arrays.copyOf(closeColumns, count);
+        skips = Arrays.copyOf(skips, count);
+        sizes = Arrays.copyOf(sizes, count);
+        heights = Arrays.copyOf(heights, count);
+        leaves = Arrays.copyOf(leaves, count);
+    }
+
+    private int add (final int offset,
+                     final int line,
+                     final int column)
+    {
+        if (count == opens.length)
+        {
+            final int length = count * 2;
+            opens = Arrays.copyOf(opens, length);
+            lines = Arrays.copyOf(lines, length);
+            columns = Arrays.copyOf(columns, length);
+            closes = Arrays.copyOf(closes, length);
+            closeLines = Arrays.copyOf(closeLines, length);
+            closeColumns = Arrays.copyOf(closeColumns, length);
+            skips = Arrays.copyOf(skips, length);
+            sizes = Arrays.copyOf(sizes, length);
+            heights = Arrays.copyOf(heights, length);
+            leaves = Arrays.copyOf(leaves, length);
+        }
+
+        opens[count] = offset;
+        lines[count] = line;
+        columns[count] = column;
+        return count++;
+    }
+
+    /**
+     * This method creates a list, whose elements will be created on demand.
+     *
+     * @param list is the number of the list.
+     * @return the new list.
+     */
+    private SList list (final int list)
+    {
+        final SourceLocation location;
+
+        if (list == 0)
+        {
+            location = new SourceLocation(source, 0, 0);
+        }
+        else if (locations)
+        {
+            location = new SourceLocation(source, lines[list], columns[list]);
+        }
+        else
+        {
+            location = SourceLocation.DEFAULT;
+        }
+
+        return SList.lazyOf(location, sizes[list], heights[list], leaves[list], () -> elements(list));
+    }
+
+    /**
+     * This method creates the elements of a list by scanning the input again.
+     *
+     * @param list is the number of the list.
+     * @return the elements of the list.
+     */
+    private synchronized List<Sexpr<?>> elements (final int list)
+    {
+        final List<Sexpr<?>> result = new ArrayList<>();
+        final boolean nested = list != 0;
+
+        if (nested)
+        {
+            lexer.seek(opens[list] + 1, lines[list], columns[list] + 1);
+        }
+        else
+        {
+            lexer.seek(0, 1, 1);
+        }
+
+        reader.restart(nested);
+
+        int next = list + 1;
+
+        try
+        {
+            while (true)
+            {
+                final Event event = reader.next();
+
+                if (event == Event.ATOM)
+                {
+                    result.add(reader.atom());
+                }
+                else if (event == Event.START_LIST)
+                {
+                    result.add(list(next));
+                    lexer.seek(closes[next], closeLines[next], closeColumns[next]);
+                    reader.restart(nested);
+                    next = skips[next];
+                }
+                else
+                {
+                    return result;
+                }
+            }
+        }
+        catch (IOException ex)
+        {
+            /**
+             * This should never actually happen, since the input is a string.
+             */
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
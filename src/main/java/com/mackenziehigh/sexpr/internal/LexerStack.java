@@ -19,120 +19,110 @@ import com.mackenziehigh.sexpr.SAtom;
 import com.mackenziehigh.sexpr.SList;
 import com.mackenziehigh.sexpr.Sexpr;
 import com.mackenziehigh.sexpr.SourceLocation;
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.LinkedList;
+import java.util.Arrays;
 
 /**
- * Used by the Lexer in order to transform <code>String</code>s into <code>SList</code>s.
+ * Used by the Parser in order to transform parsing events into <code>SList</code>s.
+ *
+ * <p>
+ * An instance of this class can be reused, after it is cleared.
+ * </p>
  */
 final class LexerStack
 {
-    private final Sexpr MARKER = SAtom.fromString("BEGIN");
-
-    private final Deque<Sexpr<?>> stack = new ArrayDeque<>();
-
-    private final Deque<SourceLocation> locations = new ArrayDeque<>();
-
-    private volatile String source;
-
-    public void setSource (final String source)
+    /**
+     * These are the elements of the unclosed lists, from the outermost to the innermost.
+     */
+    private Sexpr<?>[] stack = new Sexpr<?>[64];
+
+    /**
+     * This is the number of elements in the stack.
+     */
+    private int size = 0;
+
+    /**
+     * These are the indexes in the stack of the first element of each unclosed list.
+     */
+    private int[] marks = new int[16];
+
+    /**
+     * These are the locations of the unclosed lists.
+     */
+    private SourceLocation[] locations = new SourceLocation[16];
+
+    /**
+     * This is the number of unclosed lists.
+     */
+    private int depth = 0;
+
+    public void parenOpen (final SourceLocation location)
     {
-        this.source = source;
-    }
+        if (depth == marks.length)
+        {
+            marks = Arrays.copyOf(marks, depth * 2);
+            locations = Arrays.copyOf(locations, depth * 2);
+        }
 
-    public void parenOpen (final int line,
-                           final int column)
-    {
-        stack.push(MARKER);
-        locations.push(new SourceLocation(source, line, column));
+        marks[depth] = size;
+        locations[depth] = location;
+        ++depth;
     }
 
     public void parenClose ()
     {
-        final LinkedList<Sexpr<?>> elements = new LinkedList<>();
-
-        while (!stack.isEmpty() && stack.peek() != MARKER) // identity equality
-        {
-            elements.addFirst(stack.pop());
-        }
-
-        if (stack.isEmpty())
+        if (depth == 0)
         {
             throw new IllegalStateException("Unbalanced call to end()");
         }
-        else
-        {
-            stack.pop();
-        }
-        final SourceLocation location = locations.pop();
-        final SList list = SList.copyOf(location, elements);
-        stack.push(list);
+
+        --depth;
+        final int mark = marks[depth];
+
+        /**
+         * The elements are copied from the stack exactly once, into an array of the exact size,
+         * since the size of the range is known in advance.
+         */
+        final SList list = SList.copyOf(locations[depth], Arrays.asList(stack).subList(mark, size));
+        Arrays.fill(stack, mark, size, null);
+        locations[depth] = null;
+        size = mark;
+        push(list);
     }
 
     public Sexpr<?> top ()
     {
-        final Sexpr<?> result = stack.isEmpty() ? null : stack.peek();
+        final Sexpr<?> result = size == 0 ? null : stack[size - 1];
         return result;
     }
 
     public int size ()
     {
-        return stack.size();
+        return size;
     }
 
-    public void pushAtomForm1 (final String yytext,
-                               final int yyline,
-                               final int yycolum)
+    public void pushAtom (final SAtom atom)
     {
-        final int length = yytext.length();
-        final String text = yytext.substring(2, length - 1);
-        final SourceLocation location = new SourceLocation(source, yyline, yycolum);
-        final SAtom atom = SAtom.fromString(location, text);
-        stack.push(atom);
+        push(atom);
     }
 
-    public void pushAtomForm2 (final String yytext,
-                               final int yyline,
-                               final int yycolum)
+    private void push (final Sexpr<?> node)
     {
-        final int length = yytext.length();
-        final String text = yytext.substring(2, length - 1);
-        final SourceLocation location = new SourceLocation(source, yyline, yycolum);
-        final SAtom atom = SAtom.fromString(location, text);
-        stack.push(atom);
-    }
-
-    public void pushAtomForm3 (final String yytext,
-                               final int yyline,
-                               final int yycolum)
-    {
-        final int length = yytext.length();
-        final String text = yytext.substring(1, length - 1);
-        final String expanded = new String(Escaper.instance.expand(text));
-        final SourceLocation location = new SourceLocation(source, yyline, yycolum);
-        final SAtom atom = SAtom.fromString(location, expanded);
-        stack.push(atom);
-    }
+        if (size == stack.length)
+        {
+            stack = Arrays.copyOf(stack, size * 2);
+        }
 
-    public void pushAtomForm4 (final String yytext,
-                               final int yyline,
-                               final int yycolum)
-    {
-        final int length = yytext.length();
-        final String text = yytext.substring(1, length - 1);
-        final String expanded = new String(Escaper.instance.expand(text));
-        final SourceLocation location = new SourceLocation(source, yyline, yycolum);
-        final SAtom atom = SAtom.fromString(location, expanded);
-        stack.push(atom);
+        stack[size++] = node;
     }
 
-    public void pushAtomForm5 (final String yytext,
-                               final int yyline,
-                               final int yycolum)
+    /**
+     * This method discards the contents of this stack, so that it can be reused.
+     */
+    public void clear ()
     {
-        final SourceLocation location = new SourceLocation(source, yyline, yycolum);
-        final SAtom atom = SAtom.fromString(location, yytext);
-        stack.push(atom);
+        Arrays.fill(stack, 0, size, null);
+        Arrays.fill(locations, 0, depth, null);
+        size = 0;
+        depth = 0;
     }
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A reader that converts each line terminator to a line-feed, and terminates the last line,
+ * as if the input were read line-by-line and then joined using line-feeds.
+ *
+ * <p>
+ * Originally, <code>SList.parseFile()</code> read the lines using <code>Files.readAllLines()</code>,
+ * and <code>SList.parseResource()</code> read them using <code>Scanner.nextLine()</code>,
+ * which recognize different line terminators. This class reproduces the text that they produced,
+ * without holding all of the lines in memory at once.
+ * </p>
+ */
+public final class LineReader
+        extends Reader
+{
+    private final Reader input;
+
+    /**
+     * This flag is true, if NEL, LS, and PS are line terminators too, like <code>Scanner</code>;
+     * otherwise, only CR, LF, and CR LF are, like <code>BufferedReader</code>.
+     */
+    private final boolean unicode;
+
+    /**
+     * This flag is true, if the most recent character was a carriage-return,
+     * since a carriage-return followed by a line-feed is a single line terminator.
+     */
+    private boolean afterCR = false;
+
+    /**
+     * This flag is true, if the most recent character was a line terminator,
+     * or there have been no characters at all.
+     */
+    private boolean terminated = true;
+
+    /**
+     * This flag becomes true, once the input is exhausted.
+     */
+    private boolean eof = false;
+
+    /**
+     * Sole Constructor.
+     *
+     * @param input will supply the characters.
+     * @param unicode is true, if NEL, LS, and PS are line terminators too.
+     */
+    public LineReader (final Reader input,
+                       final boolean unicode)
+    {
+        this.input = input;
+        this.unicode = unicode;
+    }
+
+    private boolean isTerminator (final char c)
+    {
+        return c == '\n' || c == '\r' || (unicode && (c == '\u0085' || c == '\u2028' || c == '\u2029'));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read (final char[] buffer,
+                     final int offset,
+                     final int length)
+            throws IOException
+    {
+        if (length == 0)
+        {
+            return 0;
+        }
+
+        while (eof == false)
+        {
+            final int count = input.read(buffer, offset, length);
+
+            if (count < 0)
+            {
+                /**
+                 * Terminate the last line, unless it was already terminated.
+                 */
+                eof = true;
+
+                if (terminated == false)
+                {
+                    terminated = true;
+                    buffer[offset] = '\n';
+                    return 1;
+                }
+            }
+            else if (count == 0)
+            {
+                return 0;
+            }
+            else
+            {
+                /**
+                 * Convert the characters in place, dropping the line-feed of each CR LF.
+                 */
+                int end = offset;
+
+                for (int i = offset; i < offset + count; i++)
+                {
+                    final char c = buffer[i];
+
+                    if (c == '\n' && afterCR)
+                    {
+                        afterCR = false;
+                        continue;
+                    }
+
+                    afterCR = c == '\r';
+                    terminated = isTerminator(c);
+                    buffer[end++] = terminated ? '\n' : c;
+                }
+
+                /**
+                 * If only the line-feed of a CR LF was read, then read again.
+                 */
+                if (end > offset)
+                {
+                    return end - offset;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close ()
+            throws IOException
+    {
+        input.close();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.file.Path;
+
+/**
+ * A <code>Reader</code> that decodes a memory-mapped file.
+ *
+ * <p>
+ * The file is mapped one window at a time, since a single mapping
+ * cannot exceed two gigabytes. The bytes are decoded straight from
+ * the mapping into the buffer of the caller (i.e. the lexer),
+ * without any intermediate byte-array or char-array.
+ * </p>
+ */
+final class MappedFileReader
+        extends Reader
+{
+    private final MappedFileWindows windows;
+
+    private final CharsetDecoder decoder;
+
+    /**
+     * This is the currently mapped region of the file.
+     */
+    private ByteBuffer window;
+
+    /**
+     * This flag becomes true, once the decoder has been flushed.
+     */
+    private boolean flushed = false;
+
+    MappedFileReader (final Path file,
+                      final Charset charset,
+                      final int windowSize)
+            throws IOException
+    {
+        this.windows = new MappedFileWindows(file, windowSize);
+        this.window = windows.first();
+        this.decoder = charset.newDecoder();
+    }
+
+    MappedFileReader (final Path file,
+                      final Charset charset)
+            throws IOException
+    {
+        this(file, charset, MappedFileWindows.WINDOW_SIZE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read (final char[] cbuf,
+                     final int off,
+                     final int len)
+            throws IOException
+    {
+        if (len == 0)
+        {
+            return 0;
+        }
+        else if (flushed)
+        {
+            return -1;
+        }
+
+        final CharBuffer output = CharBuffer.wrap(cbuf, off, len);
+
+        while (true)
+        {
+            /**
+             * The end of the input is reached, once the window covers the end of the file.
+             */
+            final boolean last = windows.isLast(window);
+
+            final CoderResult result = decoder.decode(window, output, last);
+
+            if (result.isError())
+            {
+                result.throwException();
+            }
+
+            if (last && result.isUnderflow())
+            {
+                /**
+                 * Decoders may hold characters internally, until they are flushed.
+                 */
+                flushed = decoder.flush(output).isUnderflow();
+            }
+
+            if (output.position() > off)
+            {
+                return output.position() - off;
+            }
+            else if (flushed)
+            {
+                return -1;
+            }
+            else
+            {
+                /**
+                 * Any bytes that remain in the window are the prefix of a multi-byte sequence.
+                 * Therefore, the next window must begin with those bytes.
+                 */
+                window = windows.next(window, window.position());
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close ()
+            throws IOException
+    {
+        window = windows.first();
+        windows.close();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Maps a file into memory one window at a time,
+ * since a single mapping cannot exceed two gigabytes.
+ */
+final class MappedFileWindows
+        implements ByteWindows,
+                   Closeable
+{
+    /**
+     * This is the default maximum number of bytes that will be mapped at once.
+     */
+    static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final FileChannel channel;
+
+    private final long size;
+
+    private final int windowSize;
+
+    /**
+     * This is the offset in the file, where the current window begins.
+     */
+    private long windowStart = 0;
+
+    MappedFileWindows (final Path file,
+                       final int windowSize)
+            throws IOException
+    {
+        if (windowSize < 16)
+        {
+            throw new IllegalArgumentException("windowSize < 16");
+        }
+
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * This method creates an empty window that precedes the first real window.
+     *
+     * @return the empty window.
+     */
+    ByteBuffer first ()
+    {
+        return ByteBuffer.allocate(0);
+    }
+
+    /**
+     * This method determines whether the given window extends through the end of the file.
+     *
+     * @param current is the most recent window.
+     * @return true, if no more windows follow.
+     */
+    boolean isLast (final ByteBuffer current)
+    {
+        return windowStart + current.limit() == size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ByteBuffer next (final ByteBuffer current,
+                            final int keep)
+            throws IOException
+    {
+        if (isLast(current))
+        {
+            return null;
+        }
+
+        /**
+         * Usually, the windows are a fixed size; however, if a single token
+         * is larger than a window, then the window must grow to hold it.
+         */
+        final long start = windowStart + keep;
+        final long needed = Math.max(windowSize, 2L * (current.limit() - keep));
+        final long length = Math.min(Math.min(needed, Integer.MAX_VALUE), size - start);
+
+        final ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        windowStart = start;
+        return window;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close ()
+            throws IOException
+    {
+        channel.close();
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import com.mackenziehigh.sexpr.Sexpr;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the top-level lists of an input, whose first element is a given atom,
+ * using a <code>StructuralIndex</code> to skip all of the other forms without parsing them.
+ *
+ * <p>
+ * If the first element of a list is a bare atom, then its bytes are compared directly.
+ * Otherwise, the first element may contain escape-sequences; therefore, the list is
+ * parsed, in order to compare the content of the atom.
+ * </p>
+ */
+final class MatchingFormIterator
+        implements Iterator<Sexpr<?>>
+{
+    private final String source;
+
+    private final ByteBuffer input;
+
+    private final StructuralIndex index;
+
+    private final String head;
+
+    private final byte[] pattern;
+
+    /**
+     * This is the offset of the next top-level form to examine.
+     */
+    private int position;
+
+    /**
+     * This is the form that will be returned by the next call to <code>next()</code>.
+     */
+    private Sexpr<?> form = null;
+
+    MatchingFormIterator (final String source,
+                          final ByteBuffer utf8,
+                          final StructuralIndex index,
+                          final String head)
+    {
+        this.source = source;
+        this.input = utf8.slice();
+        this.index = index;
+        this.head = head;
+        this.pattern = head.getBytes(StandardCharsets.UTF_8);
+        this.position = index.first();
+    }
+
+    /**
+     * This method determines whether a form is a list, whose first element is a given atom.
+     *
+     * @param form may match.
+     * @param head is the content of the atom.
+     * @return true, if the form matches.
+     */
+    static boolean matches (final Sexpr<?> form,
+                            final String head)
+    {
+        return form.isList()
+               && form.asList().isEmpty() == false
+               && form.asList().get(0).isAtom()
+               && form.asList().get(0).asAtom().content().equals(head);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext ()
+    {
+        try
+        {
+            while (form == null && position >= 0)
+            {
+                final int offset = position;
+                position = index.next(offset);
+                form = examine(offset);
+            }
+
+            return form != null;
+        }
+        catch (IOException ex)
+        {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Sexpr<?> next ()
+    {
+        if (hasNext() == false)
+        {
+            throw new NoSuchElementException();
+        }
+
+        final Sexpr<?> result = form;
+        form = null;
+        return result;
+    }
+
+    /**
+     * This method examines a single top-level form.
+     *
+     * @param offset is the offset of the form.
+     * @return the form, if it matches, or null.
+     */
+    private Sexpr<?> examine (final int offset)
+            throws IOException
+    {
+        if (index.isList(offset) == false)
+        {
+            return null;
+        }
+
+        final int first = index.following(offset + 1);
+
+        if (index.isAtom(first) == false)
+        {
+            return null;
+        }
+
+        final int b = input.get(first);
+
+        if (b != '\'' && b != '"' && b != '@' && isBareMatch(first) == false)
+        {
+            return null;
+        }
+
+        final Sexpr<?> list = parse(offset);
+        return matches(list, head) ? list : null;
+    }
+
+    /**
+     * This method compares the bytes of a bare atom to the bytes of the head.
+     */
+    private boolean isBareMatch (final int offset)
+    {
+        final int end = offset + pattern.length;
+
+        if (end > input.limit())
+        {
+            return false;
+        }
+
+        for (int i = 0; i < pattern.length; i++)
+        {
+            if (input.get(offset + i) != pattern[i])
+            {
+                return false;
+            }
+        }
+
+        /**
+         * The atom must not be longer than the head.
+         */
+        return end == input.limit() || " \t\r\n()'\"#@".indexOf(input.get(end)) >= 0;
+    }
+
+    /**
+     * This method parses a single top-level list.
+     */
+    private Sexpr<?> parse (final int offset)
+            throws IOException
+    {
+        final ByteBuffer bytes = input.duplicate();
+        bytes.limit(index.skip(offset)).position(offset);
+
+        index.locate(offset);
+
+        final Utf8Lexer lexer = new Utf8Lexer(bytes.slice(), ByteWindows.none());
+        lexer.setPosition(index.line(), index.column());
+
+        final TokenReader reader = new TokenReader(source, lexer, () -> {});
+        reader.next();
+        return Parser.form(reader);
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import com.mackenziehigh.sexpr.SList;
+import com.mackenziehigh.sexpr.Sexpr;
+import com.mackenziehigh.sexpr.SexprReader.Event;
+import com.mackenziehigh.sexpr.SourceLocation;
+import com.mackenziehigh.sexpr.exceptions.ParsingFailedException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Parses UTF-8 encoded bytes by splitting the input into chunks of top-level forms,
+ * which are then parsed concurrently.
+ *
+ * <p>
+ * First, a structural pre-scan finds the boundaries of the top-level forms.
+ * The pre-scan builds a <code>StructuralIndex</code>, which resolves the quoted strings
+ * and comments exactly as the lexer would; therefore, their parentheses are skipped.
+ * Since the index classifies eight bytes at a time, and skips the nested lists
+ * using bit-counts, the pre-scan is much faster than lexing the input.
+ * The pre-scan also computes the line-number and column-number at each boundary,
+ * so that the locations reported by each chunk are relative to the whole input.
+ * </p>
+ *
+ * <p>
+ * Second, the chunks are parsed in parallel, and the resulting forms
+ * are concatenated into the implicit root list, in order.
+ * </p>
+ *
+ * <p>
+ * If the pre-scan finds that the parentheses are unbalanced,
+ * then the input is parsed sequentially instead,
+ * so that the exception is exactly the same as that of the sequential parser.
+ * </p>
+ */
+final class ParallelParser
+{
+    /**
+     * This is the minimum number of bytes in a chunk,
+     * since very small chunks are not worth the overhead of a task.
+     */
+    static final int MIN_CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * This is the number of chunks per worker thread,
+     * since having more chunks than workers smooths out any imbalances.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final String source;
+
+    private final ByteBuffer input;
+
+    /**
+     * These are the indexes where each chunk begins, followed by the limit of the input.
+     */
+    private int[] offsets = new int[16];
+
+    /**
+     * These are the line-numbers where each chunk begins.
+     */
+    private int[] lines = new int[16];
+
+    /**
+     * These are the column-numbers where each chunk begins.
+     */
+    private int[] columns = new int[16];
+
+    /**
+     * This is the number of chunks.
+     */
+    private int count = 0;
+
+    /**
+     * These are the exceptions that were thrown by each chunk, if any.
+     *
+     * <p>
+     * The exceptions are stored here, rather than being propagated by the tasks,
+     * because a fork-join task may rethrow a copy of the exception instead of the original.
+     * </p>
+     */
+    private Exception[] failures;
+
+    private ParallelParser (final String source,
+                            final ByteBuffer input)
+    {
+        this.source = source;
+        this.input = input;
+    }
+
+    /**
+     * Parse the UTF-8 encoded bytes between the position and the limit of a buffer.
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param utf8 contains the input to parse.
+     * @param pool will parse the chunks.
+     * @return the parsed input, as a symbolic-list.
+     * @throws ParsingFailedException if the input is malformed.
+     * @throws IOException if the input is not well-formed UTF-8.
+     */
+    static SList parse (final String source,
+                        final ByteBuffer utf8,
+                        final ForkJoinPool pool)
+            throws ParsingFailedException,
+                   IOException
+    {
+        final int chunks = pool.getParallelism() * CHUNKS_PER_THREAD;
+        final int chunkSize = Math.max(MIN_CHUNK_SIZE, utf8.remaining() / chunks);
+        return parse(source, utf8, pool, chunkSize);
+    }
+
+    /**
+     * Parse the UTF-8 encoded bytes between the position and the limit of a buffer.
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param utf8 contains the input to parse.
+     * @param pool will parse the chunks.
+     * @param chunkSize is the minimum number of bytes per chunk.
+     * @return the parsed input, as a symbolic-list.
+     * @throws ParsingFailedException if the input is malformed.
+     * @throws IOException if the input is not well-formed UTF-8.
+     */
+    static SList parse (final String source,
+                        final ByteBuffer utf8,
+                        final ForkJoinPool pool,
+                        final int chunkSize)
+            throws ParsingFailedException,
+                   IOException
+    {
+        final ParallelParser parser = new ParallelParser(source, utf8.slice());
+
+        if (parser.split(chunkSize) == false)
+        {
+            return Parser.parse(source, utf8);
+        }
+
+        final List<ForkJoinTask<List<Sexpr<?>>>> tasks = new ArrayList<>(parser.count);
+
+        for (int i = 0; i < parser.count; i++)
+        {
+            final int chunk = i;
+            tasks.add(pool.submit(() -> parser.parseChunk(chunk)));
+        }
+
+        final List<Sexpr<?>> forms = new ArrayList<>();
+
+        for (int i = 0; i < parser.count; i++)
+        {
+            forms.addAll(tasks.get(i).join());
+
+            /**
+             * Rethrow the exception of the first chunk that failed,
+             * which is the same exception that the sequential parser would throw.
+             */
+            final Exception failure = parser.failures[i];
+
+            if (failure instanceof IOException)
+            {
+                throw (IOException) failure;
+            }
+            else if (failure != null)
+            {
+                throw (RuntimeException) failure;
+            }
+        }
+
+        return SList.copyOf(new SourceLocation(source, 0, 0), forms);
+    }
+
+    /**
+     * This method performs the structural pre-scan.
+     *
+     * @param chunkSize is the minimum number of bytes per chunk.
+     * @return true, if the parentheses are balanced.
+     */
+    private boolean split (final int chunkSize)
+    {
+        final StructuralIndex index = StructuralIndex.of(input);
+
+        if (index.isBalanced() == false)
+        {
+            return false;
+        }
+
+        for (int form = index.first(); form >= 0; form = index.next(form))
+        {
+            if (count == 0 || form - offsets[count - 1] >= chunkSize)
+            {
+                index.locate(form);
+                add(form, index.line(), index.column());
+            }
+        }
+
+        /**
+         * The limit of the input is the end of the last chunk.
+         */
+        add(input.limit(), 0, 0);
+        --count;
+
+        failures = new Exception[count];
+
+        return true;
+    }
+
+    private void add (final int offset,
+                      final int line,
+                      final int column)
+    {
+        if (count == offsets.length)
+        {
+            offsets = Arrays.copyOf(offsets, count * 2);
+            lines = Arrays.copyOf(lines, count * 2);
+            columns = Arrays.copyOf(columns, count * 2);
+        }
+
+        offsets[count] = offset;
+        lines[count] = line;
+        columns[count] = column;
+        ++count;
+    }
+
+    private List<Sexpr<?>> parseChunk (final int chunk)
+    {
+        try
+        {
+            return parseForms(chunk);
+        }
+        catch (IOException | RuntimeException ex)
+        {
+            failures[chunk] = ex;
+            return Collections.emptyList();
+        }
+    }
+
+    private List<Sexpr<?>> parseForms (final int chunk)
+            throws IOException
+    {
+        final ByteBuffer bytes = input.duplicate();
+        bytes.limit(offsets[chunk + 1]).position(offsets[chunk]);
+
+        final Utf8Lexer lexer = new Utf8Lexer(bytes.slice(), ByteWindows.none());
+        lexer.setPosition(lines[chunk], columns[chunk]);
+
+        final TokenReader reader = new TokenReader(source, lexer, () -> {});
+        final List<Sexpr<?>> forms = new ArrayList<>();
+
+        while (reader.next() != Event.END)
+        {
+            forms.add(Parser.form(reader));
+        }
+
+        return forms;
+    }
+}
@@ -15,52 +15,120 @@
  */
 package com.mackenziehigh.sexpr.internal;
 
+import com.mackenziehigh.sexpr.ParseOptions;
 import com.mackenziehigh.sexpr.SList;
 import com.mackenziehigh.sexpr.Sexpr;
+import com.mackenziehigh.sexpr.SexprReader.Event;
+import com.mackenziehigh.sexpr.SourceLocation;
 import com.mackenziehigh.sexpr.exceptions.ParsingFailedException;
 import java.io.IOException;
-import java.io.StringReader;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * Converts a <code>String</code> to a <code>SList</code>.
+ * Converts a <code>String</code>, a <code>Reader</code>, or UTF-8 bytes to a <code>SList</code>.
  */
 public final class Parser
 {
+    /**
+     * These are the reusable contexts, one per thread, which parse short strings.
+     */
+    private static final ThreadLocal<ParserContext> CONTEXTS = ThreadLocal.withInitial(ParserContext::new);
+
     public static SList parse (final String source,
                                final String text)
             throws ParsingFailedException
     {
-        final Lexer lexer = new Lexer(new StringReader(text));
-        lexer.stack.setSource(source);
+        return parse(source, text, ParseOptions.DEFAULT);
+    }
+
+    /**
+     * Parse a string, using the given options.
+     *
+     * <p>
+     * Short strings are parsed using a context that belongs to the current thread,
+     * which is reused by each parse; therefore, only the resulting tree is allocated.
+     * If the elements of lists are created on demand, then the lexer is retained by the tree instead.
+     * </p>
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param text is the input to parse.
+     * @param options describe how to parse the input.
+     * @return the parsed input, as a symbolic-list.
+     * @throws ParsingFailedException if the input is malformed.
+     */
+    public static SList parse (final String source,
+                               final String text,
+                               final ParseOptions options)
+            throws ParsingFailedException
+    {
+        if (options.lazyLists() == false && text.length() <= ParserContext.MAX_POOLED_LENGTH)
+        {
+            return CONTEXTS.get().parse(source, text, options);
+        }
 
         try
+        {
+            return options.lazyLists()
+                    ? LazyTree.parse(source, text, options)
+                    : parse(TokenReader.of(source, text).withOptions(options));
+        }
+        catch (IOException ex)
         {
             /**
-             * Keep invoking the lexer, until it reaches the End-Of-Input.
-             * The lexer has embedded actions that will execute upon token matches.
-             * The actions manipulate an internal stack of tokens.
+             * This should never actually happen.
              */
-            lexer.stack.parenOpen(0, 0);
-            while (Lexer.YYEOF != lexer.yylex())
-            {
-                // Pass
-            }
-            lexer.stack.parenClose();
+            throw new RuntimeException(ex);
+        }
+    }
 
-            /**
-             * If the stack is not empty, then the input is missing a closing parenthesis.
-             */
-            final Sexpr<?> top = lexer.stack.top();
-            if (lexer.stack.size() > 1)
-            {
-                throw new ParsingFailedException(top.location());
-            }
+    /**
+     * Parse a sequence of characters, such as a <code>StringBuilder</code>, using the given options.
+     *
+     * <p>
+     * The sequence is not converted to a string; rather, the characters are copied in bulk
+     * directly into the buffer of the lexer. Since the sequence may be modified later,
+     * it is not retained by the resulting tree; therefore, the content of lazy atoms is copied.
+     * However, if the elements of lists are created on demand, then the input must be retained;
+     * therefore, the sequence is converted to a string in that case.
+     * The sequence must not be modified during the parse.
+     * </p>
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param text is the input to parse.
+     * @param options describe how to parse the input.
+     * @return the parsed input, as a symbolic-list.
+     * @throws ParsingFailedException if the input is malformed.
+     */
+    public static SList parse (final String source,
+                               final CharSequence text,
+                               final ParseOptions options)
+            throws ParsingFailedException
+    {
+        if (text instanceof String || options.lazyLists())
+        {
+            return parse(source, text.toString(), options);
+        }
+        else if (text.length() <= ParserContext.MAX_POOLED_LENGTH)
+        {
+            return CONTEXTS.get().parse(source, text, options);
+        }
 
-            /**
-             * Parsing was successful.
-             */
-            final SList root = (SList) top;
-            return root;
+        try
+        {
+            return parse(TokenReader.of(source, new CharSequenceReader(text)).withOptions(options));
         }
         catch (IOException ex)
         {
@@ -71,6 +139,518 @@ public final class Parser
         }
     }
 
+    /**
+     * Parse the characters obtained from a reader.
+     *
+     * <p>
+     * The lexer pulls the characters directly from the reader into its own buffer;
+     * therefore, the input is never materialized as a whole in memory.
+     * The caller retains ownership of the reader and must close it.
+     * </p>
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param reader will supply the input to parse.
+     * @return the parsed input, as a symbolic-list.
+     * @throws ParsingFailedException if the input is malformed.
+     * @throws IOException if the reader cannot be read.
+     */
+    public static SList parse (final String source,
+                               final Reader reader)
+            throws ParsingFailedException,
+                   IOException
+    {
+        return parse(TokenReader.of(source, reader));
+    }
+
+    /**
+     * Parse the characters obtained from a reader, using the given options.
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param reader will supply the input to parse.
+     * @param options describe how to parse the input.
+     * @return the parsed input, as a symbolic-list.
+     * @throws ParsingFailedException if the input is malformed.
+     * @throws IOException if the reader cannot be read.
+     */
+    public static SList parse (final String source,
+                               final Reader reader,
+                               final ParseOptions options)
+            throws ParsingFailedException,
+                   IOException
+    {
+        return parse(TokenReader.of(source, reader).withOptions(options));
+    }
+
+    /**
+     * Parse the UTF-8 encoded bytes between the position and the limit of a buffer.
+     *
+     * <p>
+     * The bytes are scanned in place, without copying or decoding them first,
+     * whether the buffer is a heap buffer, a direct buffer, or a mapped buffer.
+     * Short inputs are parsed using a context that belongs to the current thread,
+     * which is reused by each parse; therefore, only the resulting tree is allocated.
+     * The position and limit of the buffer are not modified.
+     * </p>
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param utf8 contains the input to parse.
+     * @return the parsed input, as a symbolic-list.
+     * @throws ParsingFailedException if the input is malformed.
+     * @throws IOException if the input is not well-formed UTF-8.
+     */
+    public static SList parse (final String source,
+                               final ByteBuffer utf8)
+            throws ParsingFailedException,
+                   IOException
+    {
+        return parse(source, utf8, ParseOptions.DEFAULT);
+    }
+
+    /**
+     * Parse the UTF-8 encoded bytes between the position and the limit of a buffer,
+     * using the given options.
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param utf8 contains the input to parse.
+     * @param options describe how to parse the input.
+     * @return the parsed input, as a symbolic-list.
+     * @throws ParsingFailedException if the input is malformed.
+     * @throws IOException if the input is not well-formed UTF-8.
+     */
+    public static SList parse (final String source,
+                               final ByteBuffer utf8,
+                               final ParseOptions options)
+            throws ParsingFailedException,
+                   IOException
+    {
+        if (utf8.remaining() <= ParserContext.MAX_POOLED_LENGTH)
+        {
+            return CONTEXTS.get().parse(source, utf8, options);
+        }
+
+        return parse(TokenReader.of(source, utf8).withOptions(options));
+    }
+
+    /**
+     * Parse a range of UTF-8 encoded bytes in an array, using the given options.
+     *
+     * <p>
+     * The bytes are scanned in place, without copying or decoding them first;
+     * therefore, the array must not be modified, while any lazy atoms are in use.
+     * </p>
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param utf8 contains the input to parse.
+     * @param offset is the index of the first byte of the input.
+     * @param length is the number of bytes in the input.
+     * @param options describe how to parse the input.
+     * @return the parsed input, as a symbolic-list.
+     * @throws ParsingFailedException if the input is malformed.
+     * @throws IOException if the input is not well-formed UTF-8.
+     */
+    public static SList parse (final String source,
+                               final byte[] utf8,
+                               final int offset,
+                               final int length,
+                               final ParseOptions options)
+            throws ParsingFailedException,
+                   IOException
+    {
+        return parse(source, ByteBuffer.wrap(utf8, offset, length), options);
+    }
+
+    /**
+     * Parse the bytes obtained from an input-stream.
+     *
+     * <p>
+     * UTF-8 input is scanned as bytes, without decoding it first.
+     * Any other input is decoded into the lexer incrementally.
+     * The caller retains ownership of the stream and must close it.
+     * </p>
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param input will supply the input to parse.
+     * @param charset describes how to decode the input.
+     * @return the parsed input, as a symbolic-list.
+     * @throws ParsingFailedException if the input is malformed.
+     * @throws IOException if the input cannot be read or decoded.
+     */
+    public static SList parse (final String source,
+                               final InputStream input,
+                               final Charset charset)
+            throws ParsingFailedException,
+                   IOException
+    {
+        return parse(TokenReader.of(source, input, charset));
+    }
+
+    /**
+     * Parse the bytes obtained from an input-stream, using the given options.
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param input will supply the input to parse.
+     * @param charset describes how to decode the input.
+     * @param options describe how to parse the input.
+     * @return the parsed input, as a symbolic-list.
+     * @throws ParsingFailedException if the input is malformed.
+     * @throws IOException if the input cannot be read or decoded.
+     */
+    public static SList parse (final String source,
+                               final InputStream input,
+                               final Charset charset,
+                               final ParseOptions options)
+            throws ParsingFailedException,
+                   IOException
+    {
+        return parse(TokenReader.of(source, input, charset).withOptions(options));
+    }
+
+    /**
+     * Parse a file by mapping it into memory.
+     *
+     * <p>
+     * The file is mapped one window at a time; therefore,
+     * files larger than two gigabytes are supported.
+     * UTF-8 files are scanned as bytes directly in the mapped region.
+     * Any other file is decoded from the mapped region into the buffer of the lexer.
+     * </p>
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param file is the path to the file to parse.
+     * @param charset describes how to decode the file.
+     * @return the parsed input, as a symbolic-list.
+     * @throws ParsingFailedException if the input is malformed.
+     * @throws IOException if the file cannot be read or decoded.
+     */
+    public static SList parseMapped (final String source,
+                                     final Path file,
+                                     final Charset charset)
+            throws ParsingFailedException,
+                   IOException
+    {
+        return parseMapped(source, file, charset, ParseOptions.DEFAULT);
+    }
+
+    /**
+     * Parse a file by mapping it into memory, using the given options.
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param file is the path to the file to parse.
+     * @param charset describes how to decode the file.
+     * @param options describe how to parse the input.
+     * @return the parsed input, as a symbolic-list.
+     * @throws ParsingFailedException if the input is malformed.
+     * @throws IOException if the file cannot be read or decoded.
+     */
+    public static SList parseMapped (final String source,
+                                     final Path file,
+                                     final Charset charset,
+                                     final ParseOptions options)
+            throws ParsingFailedException,
+                   IOException
+    {
+        try (TokenReader reader = TokenReader.ofMapped(source, file, charset))
+        {
+            return parse(reader.withOptions(options));
+        }
+    }
+
+    /**
+     * Parse the UTF-8 encoded bytes between the position and the limit of a buffer,
+     * using multiple threads.
+     *
+     * <p>
+     * The input is split into chunks at the boundaries of the top-level forms,
+     * which are found by a structural pre-scan, and then the chunks are parsed concurrently.
+     * The result is the same as the result of <code>parse(String, ByteBuffer)</code>.
+     * </p>
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param utf8 contains the input to parse.
+     * @param pool will parse the chunks.
+     * @return the parsed input, as a symbolic-list.
+     * @throws ParsingFailedException if the input is malformed.
+     * @throws IOException if the input is not well-formed UTF-8.
+     */
+    public static SList parseParallel (final String source,
+                                       final ByteBuffer utf8,
+                                       final ForkJoinPool pool)
+            throws ParsingFailedException,
+                   IOException
+    {
+        return ParallelParser.parse(source, utf8, pool);
+    }
+
+    /**
+     * Parse a UTF-8 encoded file, using multiple threads.
+     *
+     * <p>
+     * The file is mapped into memory as a whole, since every thread needs access to it.
+     * Files that are too large to be mapped at once are parsed sequentially instead.
+     * </p>
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param file is the path to the file to parse.
+     * @param pool will parse the chunks.
+     * @return the parsed input, as a symbolic-list.
+     * @throws ParsingFailedException if the input is malformed.
+     * @throws IOException if the file cannot be read or decoded.
+     */
+    public static SList parseParallel (final String source,
+                                       final Path file,
+                                       final ForkJoinPool pool)
+            throws ParsingFailedException,
+                   IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            final long size = channel.size();
+
+            if (size > Integer.MAX_VALUE)
+            {
+                return parseMapped(source, file, StandardCharsets.UTF_8);
+            }
+
+            final ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return parseParallel(source, bytes, pool);
+        }
+    }
+
+    /**
+     * Count the top-level forms in a UTF-8 encoded file.
+     *
+     * <p>
+     * The file is mapped into memory, and the forms are counted using a <code>StructuralIndex</code>,
+     * which avoids creating any tokens or forms.
+     * The atoms are not decoded; therefore, malformed atoms are not detected.
+     * Files that are too large to be mapped at once are parsed one form at a time instead.
+     * </p>
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param file is the path to the file to scan.
+     * @return the number of top-level forms.
+     * @throws ParsingFailedException if the parentheses are unbalanced.
+     * @throws IOException if the file cannot be read.
+     */
+    public static long countForms (final String source,
+                                   final Path file)
+            throws ParsingFailedException,
+                   IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            final long size = channel.size();
+
+            if (size > Integer.MAX_VALUE)
+            {
+                try (Stream<Sexpr<?>> forms = forms(TokenReader.ofMapped(source, file, StandardCharsets.UTF_8)))
+                {
+                    return forms.count();
+                }
+                catch (UncheckedIOException ex)
+                {
+                    throw ex.getCause();
+                }
+            }
+
+            final StructuralIndex index = StructuralIndex.of(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+
+            if (index.isBalanced() == false)
+            {
+                /**
+                 * Parse the file, in order to throw the same exception as the parser.
+                 */
+                return parseMapped(source, file, StandardCharsets.UTF_8).size();
+            }
+
+            return index.forms();
+        }
+    }
+
+    /**
+     * Lazily build the top-level lists of a UTF-8 encoded file, whose first element is a given atom.
+     *
+     * <p>
+     * The file is mapped into memory, and the lists are found using a <code>StructuralIndex</code>;
+     * therefore, only the matching lists are parsed. Since the other forms are skipped,
+     * any malformed atoms in them are not detected.
+     * If the parentheses are unbalanced, or the file is too large to be mapped at once,
+     * then every form is parsed, one at a time, and the stream throws the same exception as
+     * <code>forms(TokenReader)</code> would, once the malformed form is reached.
+     * The caller is responsible for closing the stream.
+     * </p>
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param file is the path to the file to scan.
+     * @param head is the content of the first element of the matching lists.
+     * @return the matching top-level lists.
+     * @throws IOException if the file cannot be read.
+     */
+    public static Stream<Sexpr<?>> formsWithHead (final String source,
+                                                  final Path file,
+                                                  final String head)
+            throws IOException
+    {
+        final ByteBuffer bytes;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            final long size = channel.size();
+            bytes = size > Integer.MAX_VALUE ? null : channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        final StructuralIndex index = bytes == null ? null : StructuralIndex.of(bytes);
+
+        if (index == null || index.isBalanced() == false)
+        {
+            return forms(TokenReader.ofMapped(source, file, StandardCharsets.UTF_8)).filter(x -> MatchingFormIterator.matches(x, head));
+        }
+
+        final Spliterator<Sexpr<?>> forms = Spliterators.spliteratorUnknownSize(new MatchingFormIterator(source, bytes, index, head),
+                                                                                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(forms, false);
+    }
+
+    static SList parse (final String source,
+                        final Tokenizer lexer)
+            throws ParsingFailedException,
+                   IOException
+    {
+        return parse(new TokenReader(source, lexer, () -> {}));
+    }
+
+    /**
+     * Build a tree from the events of a reader.
+     *
+     * @param reader will supply the events.
+     * @return the parsed input, as a symbolic-list.
+     * @throws ParsingFailedException if the input is malformed.
+     * @throws IOException if the input cannot be read or decoded.
+     */
+    public static SList parse (final TokenReader reader)
+            throws ParsingFailedException,
+                   IOException
+    {
+        return parse(reader, new LexerStack());
+    }
+
+    /**
+     * Build a tree from the events of a reader, using the given (empty) stack.
+     *
+     * @param reader will supply the events.
+     * @param stack will be used to build the tree.
+     * @return the parsed input, as a symbolic-list.
+     * @throws ParsingFailedException if the input is malformed.
+     * @throws IOException if the input cannot be read or decoded.
+     */
+    static SList parse (final TokenReader reader,
+                        final LexerStack stack)
+            throws ParsingFailedException,
+                   IOException
+    {
+        /**
+         * The input is implicitly enclosed in a list.
+         */
+        stack.parenOpen(new SourceLocation(reader.source(), 0, 0));
+
+        while (true)
+        {
+            switch (reader.next())
+            {
+                case START_LIST:
+                    stack.parenOpen(reader.location());
+                    break;
+                case ATOM:
+                    stack.pushAtom(reader.atom());
+                    break;
+                case END_LIST:
+                    stack.parenClose();
+                    break;
+                default:
+                    stack.parenClose();
+                    return (SList) stack.top();
+            }
+        }
+    }
+
+    /**
+     * Build the form that begins at the current event of a reader.
+     *
+     * <p>
+     * If the current event is a START_LIST, then the reader
+     * will be advanced to the matching END_LIST.
+     * </p>
+     *
+     * @param reader is positioned at either an ATOM or a START_LIST.
+     * @return the form.
+     * @throws ParsingFailedException if the input is malformed.
+     * @throws IOException if the input cannot be read or decoded.
+     */
+    static Sexpr<?> form (final TokenReader reader)
+            throws ParsingFailedException,
+                   IOException
+    {
+        if (reader.event() == Event.ATOM)
+        {
+            return reader.atom();
+        }
+
+        final LexerStack stack = new LexerStack();
+        final int depth = reader.depth() - 1;
+
+        stack.parenOpen(reader.location());
+
+        while (true)
+        {
+            switch (reader.next())
+            {
+                case START_LIST:
+                    stack.parenOpen(reader.location());
+                    break;
+                case ATOM:
+                    stack.pushAtom(reader.atom());
+                    break;
+                default:
+                    stack.parenClose();
+                    if (reader.depth() == depth)
+                    {
+                        return stack.top();
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Lazily build the top-level forms of the input, one at a time.
+     *
+     * <p>
+     * Each form is built as soon as it has been completely read;
+     * therefore, the memory needed is proportional to the size of the largest form,
+     * rather than the size of the entire input.
+     * Closing the stream closes the reader.
+     * </p>
+     *
+     * @param reader will supply the events.
+     * @return the top-level forms.
+     */
+    public static Stream<Sexpr<?>> forms (final TokenReader reader)
+    {
+        final Spliterator<Sexpr<?>> forms = Spliterators.spliteratorUnknownSize(new FormIterator(reader),
+                                                                                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(forms, false).onClose(() ->
+        {
+            try
+            {
+                reader.close();
+            }
+            catch (IOException ex)
+            {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
     public static void main (String[] args)
     {
         final SList list = SList.parse("1 (2");
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import com.mackenziehigh.sexpr.ParseOptions;
+import com.mackenziehigh.sexpr.SList;
+import com.mackenziehigh.sexpr.exceptions.ParsingFailedException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A reusable parser, which parses strings, or UTF-8 encoded bytes, one after another.
+ *
+ * <p>
+ * The lexers, the token-readers, and the stack are created once, and then reset before each parse;
+ * therefore, parsing a string that fits in the buffer of the lexer only allocates the resulting tree.
+ * Likewise, the bytes are scanned in place, and only the resulting tree is allocated.
+ * This is worthwhile when many small strings, such as commands, are parsed in quick succession.
+ * </p>
+ *
+ * <p>
+ * Instances of this class are not thread-safe.
+ * </p>
+ */
+public final class ParserContext
+{
+    /**
+     * This is the length of the longest string that <code>Parser</code> parses
+     * using the context of the current thread, which bounds the memory retained by each context.
+     */
+    static final int MAX_POOLED_LENGTH = 16384;
+
+    private final CharLexer lexer = new CharLexer(null);
+
+    private final TokenReader reader = new TokenReader(null, lexer, () -> {});
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private final Utf8Lexer byteLexer = new Utf8Lexer(EMPTY, ByteWindows.none());
+
+    private final TokenReader byteReader = new TokenReader(null, byteLexer, () -> {});
+
+    private final LexerStack stack = new LexerStack();
+
+    public ParserContext ()
+    {
+        byteLexer.setStable(true);
+    }
+
+    /**
+     * Parse a string, or any other sequence of characters.
+     *
+     * <p>
+     * The characters are copied into the buffer of the lexer in bulk,
+     * without converting the sequence to a string first.
+     * </p>
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param text is the input to parse.
+     * @param options describe how to parse the input.
+     * @return the parsed input, as a symbolic-list.
+     * @throws ParsingFailedException if the input is malformed.
+     */
+    public SList parse (final String source,
+                        final CharSequence text,
+                        final ParseOptions options)
+            throws ParsingFailedException
+    {
+        /**
+         * A previous parse may have failed midway; therefore, reset everything.
+         */
+        lexer.reset(text);
+        reader.reset(source).withOptions(options);
+        stack.clear();
+
+        try
+        {
+            return Parser.parse(reader, stack);
+        }
+        catch (IOException ex)
+        {
+            /**
+             * This should never actually happen.
+             */
+            throw new RuntimeException(ex);
+        }
+        finally
+        {
+            /**
+             * Do not retain the tree, which now belongs to the caller.
+             */
+            stack.clear();
+        }
+    }
+
+    /**
+     * Parse the UTF-8 encoded bytes between the position and the limit of a buffer.
+     *
+     * <p>
+     * The bytes are scanned in place; therefore, lazy atoms refer directly to the buffer.
+     * The position and limit of the buffer are not modified.
+     * </p>
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param utf8 contains the input to parse.
+     * @param options describe how to parse the input.
+     * @return the parsed input, as a symbolic-list.
+     * @throws ParsingFailedException if the input is malformed.
+     * @throws IOException if the input is not well-formed UTF-8.
+     */
+    public SList parse (final String source,
+                        final ByteBuffer utf8,
+                        final ParseOptions options)
+            throws ParsingFailedException,
+                   IOException
+    {
+        /**
+         * A previous parse may have failed midway; therefore, reset everything.
+         */
+        byteLexer.reset(utf8.slice());
+        byteReader.reset(source).withOptions(options);
+        stack.clear();
+
+        try
+        {
+            return Parser.parse(byteReader, stack);
+        }
+        finally
+        {
+            /**
+             * Do not retain the tree, or the input, which now belong to the caller.
+             */
+            stack.clear();
+            byteLexer.reset(EMPTY);
+        }
+    }
+}
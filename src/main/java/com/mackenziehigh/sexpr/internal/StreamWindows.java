@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads an input-stream into a single reusable buffer,
+ * which only grows when a single token exceeds its size.
+ */
+final class StreamWindows
+        implements ByteWindows
+{
+    /**
+     * This is the initial size of the buffer.
+     */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream input;
+
+    private byte[] buffer;
+
+    private boolean eof = false;
+
+    StreamWindows (final InputStream input,
+                   final int bufferSize)
+    {
+        if (bufferSize < 1)
+        {
+            throw new IllegalArgumentException("bufferSize < 1");
+        }
+
+        this.input = input;
+        this.buffer = new byte[bufferSize];
+    }
+
+    StreamWindows (final InputStream input)
+    {
+        this(input, BUFFER_SIZE);
+    }
+
+    /**
+     * This method creates an empty window that precedes the first real window.
+     *
+     * @return the empty window.
+     */
+    ByteBuffer first ()
+    {
+        return ByteBuffer.wrap(buffer, 0, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ByteBuffer next (final ByteBuffer current,
+                            final int keep)
+            throws IOException
+    {
+        if (eof)
+        {
+            return null;
+        }
+
+        /**
+         * Move the bytes that are still needed to the front of the buffer.
+         * If the buffer is entirely full of needed bytes, then grow it.
+         */
+        final int remaining = current.limit() - keep;
+
+        if (remaining == buffer.length)
+        {
+            final byte[] larger = new byte[buffer.length * 2];
+            System.arraycopy(buffer, keep, larger, 0, remaining);
+            buffer = larger;
+        }
+        else if (keep > 0)
+        {
+            System.arraycopy(buffer, keep, buffer, 0, remaining);
+        }
+
+        final int count = input.read(buffer, remaining, buffer.length - remaining);
+
+        /**
+         * At the end of the stream, return the compacted window anyway,
+         * since the current window is no longer intact.
+         * The next invocation of this method will return null.
+         */
+        eof = count < 0;
+
+        return ByteBuffer.wrap(buffer, 0, remaining + Math.max(0, count));
+    }
+}
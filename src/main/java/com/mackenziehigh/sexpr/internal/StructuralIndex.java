@@ -0,0 +1,776 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A bitmap index of the structural characters in UTF-8 encoded bytes.
+ *
+ * <p>
+ * The input is scanned 64 bytes at a time, eight bytes per <code>long</code>,
+ * using word-parallel (SWAR) comparisons, which find the bytes that may be significant.
+ * Only those bytes are classified individually, which yields one bit per byte for
+ * each interesting class of bytes (parentheses, quotes, backslashes, etc).
+ * The string literals and comments are then resolved by a scalar state-machine,
+ * which only visits the bits of the quotes, hashes, and at-signs that begin them,
+ * and the bits of the bytes that could end them.
+ * The result is three bitmaps, namely the structural opening parentheses,
+ * the structural closing parentheses, and the first byte of each atom.
+ * </p>
+ *
+ * <p>
+ * The literals are resolved exactly as the lexers resolve them, including the corner cases.
+ * A quoted literal ends at the first quote that is not preceded by a backslash.
+ * If there is no such quote, then the literal ends at the last quote of the same kind;
+ * otherwise, the opening quote is skipped. Likewise, the at-sign of an unterminated
+ * verbatim literal is skipped. In both cases, the scan restarts at the next byte.
+ * </p>
+ *
+ * <p>
+ * Once the index is built, skipping a subtree only needs a bit-count per 64 bytes,
+ * unless the subtree may end within those 64 bytes.
+ * The line-numbers and column-numbers are not part of the index,
+ * because most uses only need them at a few offsets.
+ * Instead, they are computed on demand by a forward-only cursor.
+ * </p>
+ *
+ * <p>
+ * The atoms are not decoded; therefore, neither malformed UTF-8 nor
+ * malformed escape-sequences are detected by the index.
+ * </p>
+ */
+final class StructuralIndex
+{
+    private static final long ONES = 0x0101010101010101L;
+
+    private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+
+    private static final long HIGH = 0x8080808080808080L;
+
+    /**
+     * Multiplying the low bits of eight bytes by this constant
+     * gathers them into the most-significant byte, in order.
+     */
+    private static final long GATHER = 0x0102040810204080L;
+
+    /**
+     * These are the classes of the candidate bytes, which index the bitmaps of a block.
+     */
+    private static final int OTHER = 0;
+
+    private static final int SPACE = 1;
+
+    private static final int NEWLINE = 2;
+
+    private static final int LPAREN = 3;
+
+    private static final int RPAREN = 4;
+
+    private static final int SQUOTE = 5;
+
+    private static final int DQUOTE = 6;
+
+    private static final int HASH = 7;
+
+    private static final int AT = 8;
+
+    private static final int BACKSLASH = 9;
+
+    /**
+     * Translates bytes to byte classes.
+     */
+    private static final byte[] CLASSES = new byte[256];
+
+    static
+    {
+        CLASSES[' '] = SPACE;
+        CLASSES['\t'] = SPACE;
+        CLASSES['\n'] = NEWLINE;
+        CLASSES['\r'] = NEWLINE;
+        CLASSES['('] = LPAREN;
+        CLASSES[')'] = RPAREN;
+        CLASSES['\''] = SQUOTE;
+        CLASSES['"'] = DQUOTE;
+        CLASSES['#'] = HASH;
+        CLASSES['@'] = AT;
+        CLASSES['\\'] = BACKSLASH;
+    }
+
+    private static final int NORMAL = 0;
+
+    private static final int COMMENT = 1;
+
+    private static final int VERBATIM = 2;
+
+    private static final int QUOTED = 3;
+
+    private final ByteBuffer input;
+
+    private final int length;
+
+    private final int blocks;
+
+    /**
+     * Bit (N) is set, if byte (N) is an opening parenthesis outside of any literal or comment.
+     */
+    private final long[] opens;
+
+    /**
+     * Bit (N) is set, if byte (N) is a closing parenthesis outside of any literal or comment.
+     */
+    private final long[] closes;
+
+    /**
+     * Bit (N) is set, if byte (N) is the first byte of an atom.
+     */
+    private final long[] atoms;
+
+    private final boolean balanced;
+
+    /**
+     * These are the bitmaps of the current block, indexed by byte class.
+     */
+    private final long[] maps = new long[10];
+
+    /**
+     * These describe the position of the line-number and column-number cursor.
+     */
+    private int cursor = 0;
+
+    private int cursorLine = 1;
+
+    private int cursorColumn = 1;
+
+    private boolean afterCR = false;
+
+    private StructuralIndex (final ByteBuffer utf8)
+    {
+        this.input = utf8.slice().order(ByteOrder.LITTLE_ENDIAN);
+        this.length = input.limit();
+        this.blocks = (length + 63) >>> 6;
+        this.opens = new long[blocks];
+        this.closes = new long[blocks];
+        this.atoms = new long[blocks];
+
+        /**
+         * Each restart begins after a literal that was found to be unterminated.
+         */
+        int restart = 0;
+
+        while (restart >= 0)
+        {
+            restart = scan(restart);
+        }
+
+        this.balanced = balance();
+    }
+
+    /**
+     * Index the UTF-8 encoded bytes between the position and the limit of a buffer.
+     *
+     * <p>
+     * The offsets used by the index are relative to the position of the buffer.
+     * </p>
+     *
+     * @param utf8 contains the input to index.
+     * @return the new index.
+     */
+    static StructuralIndex of (final ByteBuffer utf8)
+    {
+        return new StructuralIndex(utf8);
+    }
+
+    /**
+     * This method classifies eight bytes at once.
+     *
+     * @param word contains eight bytes, in little-endian order.
+     * @param pattern is the byte to search for, repeated eight times.
+     * @return a bitmap containing one bit per byte, which is set if the byte equals the pattern.
+     */
+    private static long match (final long word,
+                               final long pattern)
+    {
+        final long x = word ^ pattern;
+        final long zeros = ~(((x & LOW7) + LOW7) | x) & HIGH;
+        return ((zeros >>> 7) * GATHER) >>> 56;
+    }
+
+    /**
+     * This method finds the candidate bytes among eight bytes at once.
+     *
+     * <p>
+     * Every byte that is significant to the structure is below 0x2A,
+     * except for the at-sign and the backslash. The bytes below 0x2A
+     * are found using a subtraction that cannot borrow between bytes.
+     * </p>
+     *
+     * @param word contains eight bytes, in little-endian order.
+     * @return a bitmap containing one bit per byte, which is set if the byte is a candidate.
+     */
+    private static long candidates (final long word)
+    {
+        final long below = ~((word | HIGH) - 0x2A * ONES) & ~word & HIGH;
+        final long ats = word ^ ('@' * ONES);
+        final long backslashes = word ^ ('\\' * ONES);
+        final long equal = ~((((ats & LOW7) + LOW7) | ats) & (((backslashes & LOW7) + LOW7) | backslashes)) & HIGH;
+        return (((below | equal) >>> 7) * GATHER) >>> 56;
+    }
+
+    /**
+     * This method reads eight bytes, padding the end of the input with spaces.
+     */
+    private long word (final int offset)
+    {
+        if (offset + 8 <= length)
+        {
+            return input.getLong(offset);
+        }
+
+        long result = 0;
+
+        for (int i = 7; i >= 0; i--)
+        {
+            result = (result << 8) | (offset + i < length ? input.get(offset + i) & 0xFF : ' ');
+        }
+
+        return result;
+    }
+
+    /**
+     * This method scans the input, starting at a given offset,
+     * which must not be inside of a literal or comment.
+     *
+     * <p>
+     * The bits that precede the offset, in the first block, are retained.
+     * </p>
+     *
+     * @param from is where to begin the scan.
+     * @return the offset to restart the scan at, or -1, if the scan is complete.
+     */
+    private int scan (final int from)
+    {
+        int mode = NORMAL;
+        int quote = 0;
+        int start = -1;
+        int lastQuote = -1;
+        int next = from;
+        long escapeCarry = 0;
+        long atomCarry = 0;
+
+        final int first = from >>> 6;
+        final long retained = (1L << (from & 63)) - 1;
+
+        for (int block = first; block < blocks; block++)
+        {
+            final int base = block << 6;
+
+            /**
+             * The spaces and parentheses are classified eight bytes at a time,
+             * since they are common. Only the other candidate bytes are classified individually.
+             */
+            final long[] maps = this.maps;
+            Arrays.fill(maps, 0);
+
+            long spaces = 0;
+            long lparens = 0;
+            long rparens = 0;
+
+            for (int i = 0; i < 64; i += 8)
+            {
+                final long word = word(base + i);
+                final long space = match(word, ' ' * ONES);
+                final long lparen = match(word, '(' * ONES);
+                final long rparen = match(word, ')' * ONES);
+
+                spaces |= space << i;
+                lparens |= lparen << i;
+                rparens |= rparen << i;
+
+                for (long bits = candidates(word) & ~(space | lparen | rparen); bits != 0; bits &= bits - 1)
+                {
+                    final int k = Long.numberOfTrailingZeros(bits);
+                    maps[CLASSES[(int) (word >>> (k << 3)) & 0xFF]] |= 1L << (i + k);
+                }
+            }
+
+            spaces |= maps[SPACE];
+            final long squotes = maps[SQUOTE];
+            final long dquotes = maps[DQUOTE];
+            final long backslashes = maps[BACKSLASH];
+            final long hashes = maps[HASH];
+            final long ats = maps[AT];
+            final long newlines = maps[NEWLINE];
+
+            /**
+             * Bit (N) is set, if byte (N - 1) is a backslash.
+             */
+            final long escaped = (backslashes << 1) | escapeCarry;
+            escapeCarry = backslashes >>> 63;
+
+            long interior = block == first ? retained : 0;
+            long literals = 0;
+
+            while (true)
+            {
+                final int bit = next - base;
+
+                if (bit >= 64)
+                {
+                    break;
+                }
+
+                final long after = bit <= 0 ? -1L : -1L << bit;
+
+                if (mode == NORMAL)
+                {
+                    final long openers = (squotes | dquotes | hashes | ats) & after;
+
+                    if (openers == 0)
+                    {
+                        break;
+                    }
+
+                    final int offset = base + Long.numberOfTrailingZeros(openers);
+                    final int opener = input.get(offset);
+                    start = offset;
+
+                    if (opener == '#')
+                    {
+                        mode = COMMENT;
+                        next = offset + 1;
+                    }
+                    else if (opener == '@')
+                    {
+                        final int following = offset + 1 < length ? input.get(offset + 1) : 0;
+
+                        if (following == '\'' || following == '"')
+                        {
+                            mode = VERBATIM;
+                            quote = following;
+                            next = offset + 2;
+                        }
+                        else
+                        {
+                            next = offset + 1;
+                        }
+                    }
+                    else
+                    {
+                        mode = QUOTED;
+                        quote = opener;
+                        lastQuote = -1;
+                        next = offset + 1;
+                    }
+
+                    continue;
+                }
+
+                final long candidates = (quote == '"' ? dquotes : squotes) & after;
+                final long ends;
+
+                if (mode == COMMENT)
+                {
+                    ends = newlines & after;
+                }
+                else if (mode == VERBATIM)
+                {
+                    ends = candidates;
+                }
+                else
+                {
+                    ends = candidates & ~escaped;
+
+                    if (candidates != 0)
+                    {
+                        lastQuote = base + 63 - Long.numberOfLeadingZeros(candidates);
+                    }
+                }
+
+                final long inside = start <= base ? -1L : -1L << (start - base);
+
+                if (ends == 0)
+                {
+                    interior |= inside;
+                    break;
+                }
+
+                final int end = Long.numberOfTrailingZeros(ends);
+
+                if (mode == COMMENT)
+                {
+                    interior |= inside & ((1L << end) - 1);
+                    next = base + end;
+                }
+                else
+                {
+                    interior |= inside & (-1L >>> (63 - end));
+                    literals |= literal(start, base);
+                    next = base + end + 1;
+                }
+
+                mode = NORMAL;
+            }
+
+            final long valid = base + 64 <= length ? -1L : (1L << (length - base)) - 1;
+            final long plain = ~interior & valid;
+            final long delimiters = spaces | newlines | lparens | rparens | squotes | dquotes | hashes | ats;
+            final long chars = ~delimiters & plain;
+            final long bare = chars & ~((chars << 1) | atomCarry);
+            atomCarry = chars >>> 63;
+
+            final long kept = block == first ? retained : 0;
+            opens[block] = (opens[block] & kept) | (lparens & plain);
+            closes[block] = (closes[block] & kept) | (rparens & plain);
+            atoms[block] = (atoms[block] & kept) | bare | literals;
+        }
+
+        if (mode == QUOTED && lastQuote >= 0)
+        {
+            /**
+             * The literal ends at the last quote, even though that quote is preceded by a backslash.
+             */
+            atoms[start >>> 6] |= 1L << start;
+            return lastQuote + 1;
+        }
+        else if (mode == QUOTED || mode == VERBATIM)
+        {
+            return start + 1;
+        }
+        else
+        {
+            return -1;
+        }
+    }
+
+    /**
+     * This method marks the first byte of a literal.
+     *
+     * @return the bit to set in the current block, if any.
+     */
+    private long literal (final int start,
+                          final int base)
+    {
+        if (start >= base)
+        {
+            return 1L << (start - base);
+        }
+
+        atoms[start >>> 6] |= 1L << start;
+        return 0;
+    }
+
+    /**
+     * This method determines whether the parentheses are balanced.
+     */
+    private boolean balance ()
+    {
+        int depth = 0;
+
+        for (int block = 0; block < blocks; block++)
+        {
+            final long open = opens[block];
+            final long close = closes[block];
+
+            if (depth > Long.bitCount(close))
+            {
+                /**
+                 * The depth cannot reach zero within this block.
+                 */
+                depth += Long.bitCount(open) - Long.bitCount(close);
+                continue;
+            }
+
+            for (long events = open | close; events != 0; events &= events - 1)
+            {
+                final long lowest = events & -events;
+                depth += (open & lowest) != 0 ? 1 : -1;
+
+                if (depth < 0)
+                {
+                    return false;
+                }
+            }
+        }
+
+        return depth == 0;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return the number of bytes in the input.
+     */
+    int length ()
+    {
+        return length;
+    }
+
+    /**
+     * This method determines whether every closing parenthesis has a matching opening parenthesis,
+     * and vice versa. The other methods presume that the parentheses are balanced.
+     *
+     * @return true, if the parentheses are balanced.
+     */
+    boolean isBalanced ()
+    {
+        return balanced;
+    }
+
+    /**
+     * This method determines whether a byte is the opening parenthesis of a list.
+     *
+     * @param offset identifies the byte.
+     * @return true, if the byte begins a list.
+     */
+    boolean isList (final int offset)
+    {
+        return (opens[offset >>> 6] & (1L << offset)) != 0;
+    }
+
+    /**
+     * This method determines whether a byte is the first byte of an atom.
+     *
+     * @param offset identifies the byte.
+     * @return true, if the byte begins an atom.
+     */
+    boolean isAtom (final int offset)
+    {
+        return (atoms[offset >>> 6] & (1L << offset)) != 0;
+    }
+
+    /**
+     * This method finds the next opening parenthesis, closing parenthesis, or atom.
+     *
+     * @param offset is where to begin searching.
+     * @return the offset of the structural byte, or -1, if there is none.
+     */
+    int following (final int offset)
+    {
+        if (offset >= length)
+        {
+            return -1;
+        }
+
+        int block = offset >>> 6;
+        long events = (opens[block] | closes[block] | atoms[block]) & (-1L << offset);
+
+        while (events == 0)
+        {
+            if (++block == blocks)
+            {
+                return -1;
+            }
+
+            events = opens[block] | closes[block] | atoms[block];
+        }
+
+        return (block << 6) + Long.numberOfTrailingZeros(events);
+    }
+
+    /**
+     * This method skips past a list, including all of the nested lists.
+     *
+     * @param offset is the offset of the opening parenthesis of the list.
+     * @return the offset of the byte after the matching closing parenthesis.
+     */
+    int skip (final int offset)
+    {
+        int block = offset >>> 6;
+        long open = opens[block] & (-1L << offset);
+        long close = closes[block] & (-1L << offset);
+        int depth = 0;
+
+        while (true)
+        {
+            if (depth > Long.bitCount(close))
+            {
+                depth += Long.bitCount(open) - Long.bitCount(close);
+            }
+            else
+            {
+                for (long events = open | close; events != 0; events &= events - 1)
+                {
+                    final long lowest = events & -events;
+                    depth += (open & lowest) != 0 ? 1 : -1;
+
+                    if (depth == 0)
+                    {
+                        return (block << 6) + Long.numberOfTrailingZeros(lowest) + 1;
+                    }
+                }
+            }
+
+            ++block;
+            open = opens[block];
+            close = closes[block];
+        }
+    }
+
+    /**
+     * This method finds the first top-level form.
+     *
+     * @return the offset of the first form, or -1, if there are no forms.
+     */
+    int first ()
+    {
+        return following(0);
+    }
+
+    /**
+     * This method finds the top-level form that follows a given top-level form.
+     *
+     * @param form is the offset of a top-level form.
+     * @return the offset of the next form, or -1, if there are no more forms.
+     */
+    int next (final int form)
+    {
+        return following(isList(form) ? skip(form) : form + 1);
+    }
+
+    /**
+     * This method counts the top-level forms.
+     *
+     * @return the number of forms.
+     */
+    int forms ()
+    {
+        int count = 0;
+
+        for (int form = first(); form >= 0; form = next(form))
+        {
+            ++count;
+        }
+
+        return count;
+    }
+
+    /**
+     * This method moves the cursor forward to a given offset,
+     * computing the line-number and column-number of that offset,
+     * in the same way that the lexer does.
+     *
+     * <p>
+     * If the offset precedes the cursor, then the cursor restarts at the beginning of the input.
+     * </p>
+     *
+     * @param offset is the offset to locate.
+     */
+    void locate (final int offset)
+    {
+        if (offset < cursor)
+        {
+            cursor = 0;
+            cursorLine = 1;
+            cursorColumn = 1;
+            afterCR = false;
+        }
+
+        int i = cursor;
+
+        while (i < offset)
+        {
+            if (i + 8 <= offset)
+            {
+                final long word = input.getLong(i);
+
+                /**
+                 * If none of the eight bytes are below 0x0E or above 0x7F,
+                 * then none of them affect the line-number.
+                 */
+                if ((((word - 0x0E * ONES) | word) & HIGH) == 0)
+                {
+                    cursorColumn += 8;
+                    afterCR = false;
+                    i += 8;
+                    continue;
+                }
+            }
+
+            final int b = input.get(i) & 0xFF;
+
+            if (b == '\n')
+            {
+                if (afterCR == false)
+                {
+                    ++cursorLine;
+                    cursorColumn = 1;
+                }
+                afterCR = false;
+            }
+            else if (b == '\r')
+            {
+                ++cursorLine;
+                cursorColumn = 1;
+                afterCR = true;
+            }
+            else if (b == 0x0B || b == 0x0C)
+            {
+                ++cursorLine;
+                cursorColumn = 1;
+                afterCR = false;
+            }
+            else if (b < 0x80)
+            {
+                ++cursorColumn;
+                afterCR = false;
+            }
+            else if (b >= 0xC0)
+            {
+                cursorColumn += b >= 0xF0 ? 2 : 1;
+                afterCR = false;
+            }
+            else if (b == 0x85 && i >= 1 && (input.get(i - 1) & 0xFF) == 0xC2)
+            {
+                // U+0085 (Next Line)
+                ++cursorLine;
+                cursorColumn = 1;
+            }
+            else if ((b == 0xA8 || b == 0xA9) && i >= 2 && (input.get(i - 1) & 0xFF) == 0x80 && (input.get(i - 2) & 0xFF) == 0xE2)
+            {
+                // U+2028 (Line Separator) and U+2029 (Paragraph Separator)
+                ++cursorLine;
+                cursorColumn = 1;
+            }
+
+            ++i;
+        }
+
+        cursor = offset;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return the one-based line-number of the cursor.
+     */
+    int line ()
+    {
+        return cursorLine;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return the one-based column-number of the cursor.
+     */
+    int column ()
+    {
+        return cursorColumn;
+    }
+}
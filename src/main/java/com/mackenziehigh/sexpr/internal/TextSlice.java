@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+/**
+ * The content of an atom, which refers to a range of the input text,
+ * rather than a copy of the characters.
+ */
+final class TextSlice
+        implements CharSequence
+{
+    private final CharSequence text;
+
+    private final int offset;
+
+    private final int length;
+
+    TextSlice (final CharSequence text,
+               final int offset,
+               final int length)
+    {
+        this.text = text;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int length ()
+    {
+        return length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public char charAt (final int index)
+    {
+        if (index < 0 || index >= length)
+        {
+            throw new IndexOutOfBoundsException(Integer.toString(index));
+        }
+        else
+        {
+            return text.charAt(offset + index);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CharSequence subSequence (final int start,
+                                     final int end)
+    {
+        return toString().subSequence(start, end);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString ()
+    {
+        return text.subSequence(offset, offset + length).toString();
+    }
+}
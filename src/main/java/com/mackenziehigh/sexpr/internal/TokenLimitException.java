@@ -0,0 +1,46 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import com.mackenziehigh.sexpr.exceptions.ParseLimitExceededException.Limit;
+
+/**
+ * Thrown by a lexer, when the input exceeds a limit.
+ *
+ * <p>
+ * The lexer does not know the name of the source; therefore,
+ * the <code>TokenReader</code> converts this exception into
+ * a <code>ParseLimitExceededException</code>.
+ * </p>
+ */
+final class TokenLimitException
+        extends RuntimeException
+{
+    private static final long serialVersionUID = 1L;
+
+    private final Limit limit;
+
+    TokenLimitException (final Limit limit)
+    {
+        super(limit.toString(), null, false, false);
+        this.limit = limit;
+    }
+
+    Limit limit ()
+    {
+        return limit;
+    }
+}
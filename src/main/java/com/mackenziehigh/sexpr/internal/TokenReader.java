@@ -0,0 +1,627 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import com.mackenziehigh.sexpr.ParseOptions;
+import com.mackenziehigh.sexpr.SAtom;
+import com.mackenziehigh.sexpr.SexprReader.Event;
+import com.mackenziehigh.sexpr.SourceLocation;
+import com.mackenziehigh.sexpr.SymbolTable;
+import com.mackenziehigh.sexpr.exceptions.ParseLimitExceededException;
+import com.mackenziehigh.sexpr.exceptions.ParseLimitExceededException.Limit;
+import com.mackenziehigh.sexpr.exceptions.ParsingFailedException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Converts the tokens of a lexer into a stream of parsing events.
+ *
+ * <p>
+ * This class keeps track of the nesting of the lists, but nothing else;
+ * therefore, the memory needed is proportional to the depth of the input, not the size.
+ * </p>
+ */
+public final class TokenReader
+        implements Closeable
+{
+    private String source;
+
+    private final Tokenizer lexer;
+
+    private final Closeable resource;
+
+    /**
+     * This table interns the content of the atoms, if interning is enabled.
+     */
+    private SymbolTable symbols = null;
+
+    /**
+     * This flag is true, if the events report their locations.
+     */
+    private boolean locations = true;
+
+    /**
+     * These are the atoms that were already created, which are shared,
+     * if the atoms are interned and the locations are not tracked,
+     * since such atoms are indistinguishable from one another.
+     */
+    private Map<String, SAtom> atoms = null;
+
+    /**
+     * This flag is true, if the content of atoms is sliced from the input, when possible.
+     */
+    private boolean lazy = false;
+
+    /**
+     * This is the maximum number of unclosed lists.
+     */
+    private int maxDepth = Integer.MAX_VALUE;
+
+    /**
+     * This is the maximum length of an atom.
+     */
+    private int maxAtomLength = Integer.MAX_VALUE;
+
+    /**
+     * This is the maximum number of atoms and lists.
+     */
+    private long maxNodeCount = Long.MAX_VALUE;
+
+    /**
+     * This is the number of atoms and lists so far.
+     */
+    private long nodeCount = 0;
+
+    private Event event = null;
+
+    private int token;
+
+    /**
+     * This is the content of the current atom, which is computed on demand.
+     */
+    private String text;
+
+    /**
+     * These are the line-numbers of the unclosed opening parentheses.
+     */
+    private int[] lines = new int[16];
+
+    /**
+     * These are the column-numbers of the unclosed opening parentheses.
+     */
+    private int[] columns = new int[16];
+
+    /**
+     * This is the number of unclosed opening parentheses.
+     */
+    private int depth = 0;
+
+    TokenReader (final String source,
+                 final Tokenizer lexer,
+                 final Closeable resource)
+    {
+        this.source = source;
+        this.lexer = lexer;
+        this.resource = resource;
+    }
+
+    /**
+     * Read the characters obtained from a reader.
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param reader will supply the input, and will be closed by <code>close()</code>.
+     * @return the new reader.
+     */
+    public static TokenReader of (final String source,
+                                  final Reader reader)
+    {
+        return new TokenReader(source, new CharLexer(reader), reader);
+    }
+
+    /**
+     * Read the characters of a string.
+     *
+     * <p>
+     * Since the string is retained, the content of atoms can be sliced from it.
+     * </p>
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param text is the input.
+     * @return the new reader.
+     */
+    public static TokenReader of (final String source,
+                                  final String text)
+    {
+        final CharLexer lexer = new CharLexer(new StringReader(text));
+        lexer.retain(text);
+        return new TokenReader(source, lexer, () -> {});
+    }
+
+    /**
+     * Read the UTF-8 encoded bytes between the position and the limit of a buffer.
+     *
+     * <p>
+     * Since the buffer is retained, the content of atoms can be sliced from it;
+     * therefore, the buffer must not be modified, while such atoms are in use.
+     * </p>
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param utf8 contains the input, which will not be modified.
+     * @return the new reader.
+     */
+    public static TokenReader of (final String source,
+                                  final ByteBuffer utf8)
+    {
+        final Utf8Lexer lexer = new Utf8Lexer(utf8.slice(), ByteWindows.none());
+        lexer.setStable(true);
+        return new TokenReader(source, lexer, () -> {});
+    }
+
+    /**
+     * Read the bytes obtained from an input-stream.
+     *
+     * <p>
+     * UTF-8 input is scanned as bytes, without decoding it first.
+     * </p>
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param input will supply the input, and will be closed by <code>close()</code>.
+     * @param charset describes how to decode the input.
+     * @return the new reader.
+     */
+    public static TokenReader of (final String source,
+                                  final InputStream input,
+                                  final Charset charset)
+    {
+        if (StandardCharsets.UTF_8.equals(charset))
+        {
+            final StreamWindows windows = new StreamWindows(input);
+            return new TokenReader(source, new Utf8Lexer(windows.first(), windows), input);
+        }
+        else
+        {
+            return of(source, new InputStreamReader(input, charset.newDecoder()));
+        }
+    }
+
+    /**
+     * Read a file by mapping it into memory.
+     *
+     * @param source is a human-readable string indicating where the input came form.
+     * @param file is the path to the file to read.
+     * @param charset describes how to decode the file.
+     * @return the new reader.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static TokenReader ofMapped (final String source,
+                                        final Path file,
+                                        final Charset charset)
+            throws IOException
+    {
+        if (StandardCharsets.UTF_8.equals(charset))
+        {
+            final MappedFileWindows windows = new MappedFileWindows(file, MappedFileWindows.WINDOW_SIZE);
+            final Utf8Lexer lexer = new Utf8Lexer(windows.first(), windows);
+            lexer.setStable(true);
+            return new TokenReader(source, lexer, windows);
+        }
+        else
+        {
+            return of(source, new MappedFileReader(file, charset));
+        }
+    }
+
+    /**
+     * This method restarts this reader, after the lexer was restarted.
+     *
+     * <p>
+     * The options revert to the defaults.
+     * </p>
+     *
+     * @param source is a human-readable string indicating where the new input came form.
+     * @return this.
+     */
+    TokenReader reset (final String source)
+    {
+        this.source = source;
+        symbols = null;
+        locations = true;
+        atoms = null;
+        lazy = false;
+        maxDepth = Integer.MAX_VALUE;
+        maxAtomLength = Integer.MAX_VALUE;
+        maxNodeCount = Long.MAX_VALUE;
+        nodeCount = 0;
+        lexer.setLimits(maxAtomLength, Long.MAX_VALUE);
+        event = null;
+        token = 0;
+        text = null;
+        depth = 0;
+        return this;
+    }
+
+    /**
+     * This method restarts this reader, after the lexer was moved to another position
+     * in an input that was already read successfully, keeping the options.
+     *
+     * @param inList is true, if the new position is inside of a list,
+     * in which case, the reader stops at the END_LIST of that list.
+     */
+    void restart (final boolean inList)
+    {
+        nodeCount = 0;
+        event = null;
+        token = 0;
+        text = null;
+        depth = 0;
+
+        if (inList)
+        {
+            push();
+        }
+    }
+
+    /**
+     * This method applies the given options to the events that this reader produces.
+     *
+     * @param options describe how to read the input.
+     * @return this.
+     */
+    public TokenReader withOptions (final ParseOptions options)
+    {
+        symbols = options.internAtoms() ? options.symbolTable().orElseGet(SymbolTable::new) : null;
+        locations = options.trackLocations();
+        atoms = symbols != null && !locations ? new HashMap<>() : null;
+        lazy = options.lazyAtoms();
+        maxDepth = options.maxDepth();
+        maxAtomLength = options.maxAtomLength();
+        maxNodeCount = options.maxNodeCount();
+        lexer.setLimits(maxAtomLength, options.maxInputSize());
+        return this;
+    }
+
+    /**
+     * This method advances to the next event.
+     *
+     * @return the next event.
+     * @throws ParsingFailedException if the parentheses are unbalanced.
+     * @throws IOException if the input cannot be read.
+     */
+    public Event next ()
+            throws ParsingFailedException,
+                   IOException
+    {
+        if (event == Event.END)
+        {
+            return event;
+        }
+
+        text = null;
+
+        try
+        {
+            token = lexer.yylex();
+        }
+        catch (TokenLimitException ex)
+        {
+            throw exceeded(ex.limit());
+        }
+
+        switch (token)
+        {
+            case Tokenizer.OPEN:
+                count();
+                push();
+                event = Event.START_LIST;
+                break;
+            case Tokenizer.CLOSE:
+                if (depth == 0)
+                {
+                    throw new ParsingFailedException(new SourceLocation(source, lexer.line(), lexer.column()));
+                }
+                --depth;
+                event = Event.END_LIST;
+                break;
+            case Tokenizer.YYEOF:
+                if (depth > 0)
+                {
+                    throw new ParsingFailedException(new SourceLocation(source, lines[depth - 1], columns[depth - 1]));
+                }
+                event = Event.END;
+                break;
+            default:
+                if (lexer.length() > maxAtomLength)
+                {
+                    throw exceeded(Limit.MAX_ATOM_LENGTH);
+                }
+                count();
+                event = Event.ATOM;
+                break;
+        }
+
+        return event;
+    }
+
+    private void count ()
+    {
+        if (++nodeCount > maxNodeCount)
+        {
+            throw exceeded(Limit.MAX_NODE_COUNT);
+        }
+    }
+
+    private ParseLimitExceededException exceeded (final Limit limit)
+    {
+        return new ParseLimitExceededException(new SourceLocation(source, lexer.line(), lexer.column()), limit);
+    }
+
+    private void push ()
+    {
+        if (depth == maxDepth)
+        {
+            throw exceeded(Limit.MAX_DEPTH);
+        }
+
+        if (depth == lines.length)
+        {
+            lines = Arrays.copyOf(lines, depth * 2);
+            columns = Arrays.copyOf(columns, depth * 2);
+        }
+
+        lines[depth] = lexer.line();
+        columns[depth] = lexer.column();
+        ++depth;
+    }
+
+    /**
+     * This method skips the remainder of the current list.
+     *
+     * <p>
+     * If the current event is a START_LIST, then the reader advances to the matching END_LIST,
+     * without materializing any of the atoms in between.
+     * Otherwise, this method has no effect.
+     * </p>
+     *
+     * @throws ParsingFailedException if the parentheses are unbalanced.
+     * @throws IOException if the input cannot be read.
+     */
+    public void skipChildren ()
+            throws ParsingFailedException,
+                   IOException
+    {
+        if (event != Event.START_LIST)
+        {
+            return;
+        }
+
+        final int target = depth - 1;
+
+        while (next() != Event.END_LIST || depth != target)
+        {
+            // Pass
+        }
+    }
+
+    /**
+     * This method retrieves the most recent event.
+     *
+     * @return the current event, or null, if <code>next()</code> was never invoked.
+     */
+    public Event event ()
+    {
+        return event;
+    }
+
+    /**
+     * This method retrieves the content of the current atom.
+     *
+     * <p>
+     * The content excludes the surrounding quotes and has any escape-sequences expanded;
+     * in other words, it is the content of the <code>SAtom</code> that the parser would create.
+     * </p>
+     *
+     * @return the content of the atom.
+     * @throws IllegalStateException if the current event is not an ATOM.
+     * @throws IOException if the atom cannot be decoded.
+     */
+    public String atomText ()
+            throws IOException
+    {
+        if (event != Event.ATOM)
+        {
+            throw new IllegalStateException("Not an atom.");
+        }
+        else if (text == null && symbols == null)
+        {
+            text = content(token, lexer.yytext());
+        }
+        else if (text == null)
+        {
+            text = intern(token);
+        }
+
+        return text;
+    }
+
+    /**
+     * This method verifies that the escape-sequences of the current atom, if any, are valid,
+     * so that the atom can be created later, without failing.
+     *
+     * @throws IllegalArgumentException if an escape-sequence is invalid.
+     * @throws IOException if the atom cannot be decoded.
+     */
+    void validate ()
+            throws IOException
+    {
+        if (event == Event.ATOM && (token == Tokenizer.FORM3 || token == Tokenizer.FORM4))
+        {
+            atomText();
+        }
+    }
+
+    private static String content (final int token,
+                                   final String yytext)
+    {
+        final int length = yytext.length();
+
+        switch (token)
+        {
+            case Tokenizer.FORM1:
+            case Tokenizer.FORM2:
+                return yytext.substring(2, length - 1);
+            case Tokenizer.FORM3:
+            case Tokenizer.FORM4:
+                return new String(Escaper.instance.expand(yytext.substring(1, length - 1)));
+            default:
+                return yytext;
+        }
+    }
+
+    private CharSequence slice (final int token)
+    {
+        switch (token)
+        {
+            case Tokenizer.FORM1:
+            case Tokenizer.FORM2:
+                return lexer.slice(2, 1, false);
+            case Tokenizer.FORM3:
+            case Tokenizer.FORM4:
+                return lexer.slice(1, 1, true);
+            default:
+                return lexer.slice(0, 0, false);
+        }
+    }
+
+    private String intern (final int token)
+            throws IOException
+    {
+        switch (token)
+        {
+            case Tokenizer.FORM1:
+            case Tokenizer.FORM2:
+                return lexer.yytext(symbols, 2, 1);
+            case Tokenizer.FORM3:
+            case Tokenizer.FORM4:
+                return symbols.intern(content(token, lexer.yytext()));
+            default:
+                return lexer.yytext(symbols, 0, 0);
+        }
+    }
+
+    /**
+     * This method creates the atom that the parser would create for the current event.
+     *
+     * @return the new atom, or a previously created equivalent atom.
+     * @throws IllegalStateException if the current event is not an ATOM.
+     * @throws IOException if the atom cannot be decoded.
+     */
+    public SAtom atom ()
+            throws IOException
+    {
+        final CharSequence slice = lazy && symbols == null && event == Event.ATOM ? slice(token) : null;
+
+        if (slice != null)
+        {
+            return SAtom.fromCharSequence(location(), slice);
+        }
+        else if (atoms == null)
+        {
+            return SAtom.fromString(location(), atomText());
+        }
+
+        final String content = atomText();
+        final SAtom shared = atoms.get(content);
+
+        if (shared != null)
+        {
+            return shared;
+        }
+
+        final SAtom atom = SAtom.fromString(SourceLocation.DEFAULT, content);
+
+        /**
+         * Do not let an input that contains many unique atoms cause the map to grow without bound.
+         */
+        if (atoms.size() < symbols.capacity())
+        {
+            atoms.put(content, atom);
+        }
+
+        return atom;
+    }
+
+    /**
+     * This method retrieves the location of the current event.
+     *
+     * <p>
+     * The location of an END is the location of the end of the input.
+     * If the locations are not being tracked, then the location is always the default location.
+     * </p>
+     *
+     * @return the location of the current token.
+     */
+    public SourceLocation location ()
+    {
+        return locations ? new SourceLocation(source, lexer.line(), lexer.column()) : SourceLocation.DEFAULT;
+    }
+
+    /**
+     * This method retrieves the number of lists that enclose the current position.
+     *
+     * <p>
+     * After a START_LIST, the depth includes the list that just started.
+     * After an END_LIST, the depth excludes the list that just ended.
+     * </p>
+     *
+     * @return the current depth.
+     */
+    public int depth ()
+    {
+        return depth;
+    }
+
+    /**
+     * This method retrieves the human-readable string that indicates where the input came from.
+     *
+     * @return the source of the input.
+     */
+    public String source ()
+    {
+        return source;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close ()
+            throws IOException
+    {
+        event = Event.END;
+        resource.close();
+    }
+}
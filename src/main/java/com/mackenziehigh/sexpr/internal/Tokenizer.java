@@ -0,0 +1,165 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import com.mackenziehigh.sexpr.SymbolTable;
+import java.io.IOException;
+
+/**
+ * A source of tokens, which is implemented by each of the lexers.
+ *
+ * <p>
+ * The line-number, column-number, and text of a token remain valid
+ * until the next invocation of <code>yylex()</code>.
+ * </p>
+ */
+interface Tokenizer
+{
+    /**
+     * Token: the end of the input.
+     */
+    public static final int YYEOF = -1;
+
+    /**
+     * Token: an opening parenthesis.
+     */
+    public static final int OPEN = 1;
+
+    /**
+     * Token: a closing parenthesis.
+     */
+    public static final int CLOSE = 2;
+
+    /**
+     * Token: FORM1 = @[\'][^\']*[\']
+     */
+    public static final int FORM1 = 3;
+
+    /**
+     * Token: FORM2 = @[\"][^\"]*[\"]
+     */
+    public static final int FORM2 = 4;
+
+    /**
+     * Token: FORM3 = [\']((\\\')|[^\'])*[\']
+     */
+    public static final int FORM3 = 5;
+
+    /**
+     * Token: FORM4 = [\"]((\\\")|[^\"])*[\"]
+     */
+    public static final int FORM4 = 6;
+
+    /**
+     * Token: FORM5 = [^ \t\r\n\"\'#@\(\)]+
+     */
+    public static final int FORM5 = 7;
+
+    /**
+     * This method scans the input until the next token is found.
+     *
+     * <p>
+     * Comments and whitespace are skipped, since they are not tokens.
+     * </p>
+     *
+     * @return the next token, or YYEOF, if no tokens remain.
+     * @throws IOException if the input cannot be read.
+     */
+    public int yylex ()
+            throws IOException;
+
+    /**
+     * This method retrieves the text of the most recent token.
+     *
+     * @return the text of the token, including any quotes.
+     * @throws IOException if the text cannot be decoded.
+     */
+    public String yytext ()
+            throws IOException;
+
+    /**
+     * This method retrieves part of the text of the most recent token from a symbol-table.
+     *
+     * <p>
+     * The text is looked up directly in the buffer of the lexer;
+     * therefore, no <code>String</code> is allocated, if the table already contains the text.
+     * </p>
+     *
+     * @param symbols will intern the text.
+     * @param prefix is the number of leading characters to exclude, such as quotes.
+     * @param suffix is the number of trailing characters to exclude, such as quotes.
+     * @return the interned text of the token.
+     * @throws IOException if the text cannot be decoded.
+     */
+    public String yytext (SymbolTable symbols,
+                          int prefix,
+                          int suffix)
+            throws IOException;
+
+    /**
+     * This method retrieves part of the text of the most recent token,
+     * as a range of the input, without copying the text.
+     *
+     * <p>
+     * A slice is only possible, if the entire input is retained in memory,
+     * and the range need not be decoded; otherwise, null is returned.
+     * </p>
+     *
+     * @param prefix is the number of leading characters to exclude, such as quotes.
+     * @param suffix is the number of trailing characters to exclude, such as quotes.
+     * @param escapes is true, if the range may contain escape-sequences,
+     * in which case null is returned, if the range contains a backslash.
+     * @return the slice, or null, if the text cannot be sliced.
+     */
+    public CharSequence slice (int prefix,
+                               int suffix,
+                               boolean escapes);
+
+    /**
+     * This method retrieves the length of the most recent token.
+     *
+     * @return the length of the token, in the units of the input, such as characters or bytes.
+     */
+    public int length ();
+
+    /**
+     * This method specifies the limits that the lexer enforces while scanning.
+     *
+     * <p>
+     * When a limit is exceeded, <code>yylex()</code> throws a <code>TokenLimitException</code>,
+     * after the line-number and column-number have been moved to the offending token.
+     * </p>
+     *
+     * @param maxTokenLength is the maximum length of a single token, including any look-ahead.
+     * @param maxInputSize is the maximum number of units in the entire input.
+     */
+    public void setLimits (int maxTokenLength,
+                           long maxInputSize);
+
+    /**
+     * This method retrieves the line-number of the most recent token.
+     *
+     * @return the one-based line-number.
+     */
+    public int line ();
+
+    /**
+     * This method retrieves the column-number of the most recent token.
+     *
+     * @return the one-based column-number.
+     */
+    public int column ();
+}
@@ -0,0 +1,816 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import com.mackenziehigh.sexpr.SymbolTable;
+import com.mackenziehigh.sexpr.exceptions.ParseLimitExceededException.Limit;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A lexer that scans UTF-8 encoded bytes directly.
+ *
+ * <p>
+ * This lexer recognizes the same tokens as the <code>CharLexer</code>,
+ * and reports the same line and column numbers.
+ * However, no charset decoder is needed in order to find the tokens,
+ * because every character that has a structural meaning is an ASCII character,
+ * and the bytes of multi-byte UTF-8 sequences are never in the ASCII range.
+ * A token is only decoded when it is actually materialized as a <code>String</code>.
+ * </p>
+ *
+ * <p>
+ * Malformed UTF-8 is detected in atoms and comments, which is where non-ASCII bytes can occur.
+ * </p>
+ */
+final class Utf8Lexer
+        implements Tokenizer
+{
+    /**
+     * Byte Class: bytes that can be part of a bare atom (FORM5).
+     */
+    private static final byte ATOM = 0;
+
+    /**
+     * Byte Class: space, tab, carriage-return, and line-feed.
+     */
+    private static final byte SPACE = 1;
+
+    private static final byte LPAREN = 2;
+
+    private static final byte RPAREN = 3;
+
+    private static final byte QUOTE = 4;
+
+    private static final byte AT = 5;
+
+    private static final byte HASH = 6;
+
+    /**
+     * Translates bytes to byte classes.
+     */
+    private static final byte[] CLASSES = new byte[256];
+
+    /**
+     * Flag: the byte affects line-numbers, rather than just column-numbers.
+     */
+    private static final byte NEWLINE = 1;
+
+    /**
+     * Flag: the byte is part of a multi-byte UTF-8 sequence.
+     */
+    private static final byte MULTIBYTE = 2;
+
+    /**
+     * Translates bytes to flags, which describe the effect of the byte on the position.
+     */
+    private static final byte[] FLAGS = new byte[256];
+
+    static
+    {
+        CLASSES[' '] = SPACE;
+        CLASSES['\t'] = SPACE;
+        CLASSES['\r'] = SPACE;
+        CLASSES['\n'] = SPACE;
+        CLASSES['('] = LPAREN;
+        CLASSES[')'] = RPAREN;
+        CLASSES['\''] = QUOTE;
+        CLASSES['"'] = QUOTE;
+        CLASSES['@'] = AT;
+        CLASSES['#'] = HASH;
+
+        FLAGS['\n'] = NEWLINE;
+        FLAGS['\r'] = NEWLINE;
+        FLAGS[0x0B] = NEWLINE;
+        FLAGS[0x0C] = NEWLINE;
+
+        for (int i = 0x80; i < 0x100; i++)
+        {
+            FLAGS[i] = NEWLINE | MULTIBYTE;
+        }
+    }
+
+    private final ByteWindows windows;
+
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+
+    /**
+     * This buffer is used to materialize tokens from buffers that are not backed by an array.
+     */
+    private byte[] scratch = new byte[128];
+
+    /**
+     * This is the current window of the input.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * This is the limit of the current window.
+     */
+    private int limit;
+
+    /**
+     * This is the index of the first byte of the current token.
+     */
+    private int start;
+
+    /**
+     * This is the index of the byte that follows the most recent token.
+     */
+    private int position;
+
+    /**
+     * This is the union of the flags of the bytes in the current token.
+     */
+    private int flags;
+
+    /**
+     * This is the zero-based line-number of the next token.
+     */
+    private int yyline;
+
+    /**
+     * This is the zero-based column-number of the next token.
+     */
+    private int yycolumn;
+
+    /**
+     * This flag is true, if the most recent character was a carriage-return,
+     * since a carriage-return followed by a line-feed is a single line terminator.
+     */
+    private boolean afterCR;
+
+    /**
+     * This flag becomes true, once the input is exhausted.
+     */
+    private boolean eof;
+
+    /**
+     * This flag is true, if the windows are never overwritten,
+     * so that tokens can refer to the windows directly.
+     */
+    private boolean stable = false;
+
+    /**
+     * This is the absolute offset of the first byte of the current window.
+     */
+    private long base = 0;
+
+    /**
+     * This is the maximum length of a single token, including any look-ahead.
+     */
+    private int maxTokenLength = Integer.MAX_VALUE;
+
+    /**
+     * This is the maximum number of bytes in the input.
+     */
+    private long maxInputSize = Long.MAX_VALUE;
+
+    /**
+     * This flag is true, if the buffer was truncated at the maximum size of the input.
+     */
+    private boolean oversized = false;
+
+    /**
+     * Creates a new scanner.
+     *
+     * @param first is the first window of the input, which will be indexed absolutely.
+     * @param windows will supply the subsequent windows of the input.
+     */
+    Utf8Lexer (final ByteBuffer first,
+               final ByteWindows windows)
+    {
+        this.buffer = first;
+        this.limit = first.limit();
+        this.windows = windows;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int yylex ()
+            throws IOException
+    {
+        while (true)
+        {
+            /**
+             * Like the character lexer, the position is not moved past the previous token,
+             * until the next token is requested, because the caller may still need the line and column.
+             */
+            advance();
+
+            start = position;
+            flags = 0;
+
+            truncate();
+
+            if (start >= limit)
+            {
+                if (refill() < 0)
+                {
+                    return YYEOF;
+                }
+                position = start;
+                continue;
+            }
+
+            final int first = buffer.get(start) & 0xFF;
+
+            switch (CLASSES[first])
+            {
+                case LPAREN:
+                    position = start + 1;
+                    return OPEN;
+                case RPAREN:
+                    position = start + 1;
+                    return CLOSE;
+                case SPACE:
+                    flags = FLAGS[first];
+                    position = start + 1;
+                    break;
+                case HASH:
+                    position = scanComment();
+                    if ((flags & MULTIBYTE) != 0)
+                    {
+                        validate();
+                    }
+                    break;
+                case AT:
+                    position = scanVerbatim();
+                    if (position > 0)
+                    {
+                        return buffer.get(start + 1) == '\'' ? FORM1 : FORM2;
+                    }
+                    break;
+                case QUOTE:
+                    position = scanQuoted(first);
+                    if (position > 0)
+                    {
+                        return first == '\'' ? FORM3 : FORM4;
+                    }
+                    break;
+                default:
+                    position = scanAtom();
+                    return FORM5;
+            }
+
+            /**
+             * No token matched, which only happens at an '@', a single-quote, or a double-quote
+             * that does not begin a complete string literal. Skip the character,
+             * which is consistent with the character lexer.
+             */
+            if (position < 0)
+            {
+                position = start + 1;
+            }
+        }
+    }
+
+    /**
+     * This method sets the position of the first byte of the input.
+     *
+     * <p>
+     * This is used when the input is a fragment of a larger input,
+     * so that the reported positions are relative to the larger input.
+     * This method must be invoked before the first token is requested.
+     * </p>
+     *
+     * @param line is the one-based line-number of the first byte.
+     * @param column is the one-based column-number of the first byte.
+     */
+    void setPosition (final int line,
+                      final int column)
+    {
+        yyline = line - 1;
+        yycolumn = column - 1;
+    }
+
+    /**
+     * This method restarts this lexer at the beginning of a buffer,
+     * which is the one and only window of the new input.
+     *
+     * <p>
+     * This lexer must have been created without any subsequent windows.
+     * The bytes are scanned in place; therefore, only the resulting tokens are allocated.
+     * </p>
+     *
+     * @param utf8 is the new input, which will be indexed absolutely.
+     */
+    void reset (final ByteBuffer utf8)
+    {
+        /**
+         * Do not let a single long token permanently enlarge the scratch buffer of a reused lexer.
+         */
+        if (scratch.length > 128)
+        {
+            scratch = new byte[128];
+        }
+
+        buffer = utf8;
+        limit = utf8.limit();
+        start = 0;
+        position = 0;
+        flags = 0;
+        yyline = 0;
+        yycolumn = 0;
+        afterCR = false;
+        eof = false;
+        oversized = false;
+        base = 0;
+    }
+
+    /**
+     * This method retrieves the index of the first byte of the most recent token.
+     *
+     * <p>
+     * The index is relative to the current window.
+     * </p>
+     *
+     * @return the index of the token.
+     */
+    int offset ()
+    {
+        return start;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int length ()
+    {
+        return position - start;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setLimits (final int maxTokenLength,
+                           final long maxInputSize)
+    {
+        this.maxTokenLength = maxTokenLength;
+        this.maxInputSize = maxInputSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int line ()
+    {
+        return yyline + 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int column ()
+    {
+        return yycolumn + 1;
+    }
+
+    /**
+     * This method obtains the next window, if the end of the current window was reached.
+     *
+     * @return how far the indexes shifted, or -1 at the end of the input.
+     */
+    private int refill ()
+            throws IOException
+    {
+        if (oversized)
+        {
+            throw new TokenLimitException(Limit.MAX_INPUT_SIZE);
+        }
+        else if (eof)
+        {
+            return -1;
+        }
+        else if (limit - start > maxTokenLength)
+        {
+            throw new TokenLimitException(Limit.MAX_ATOM_LENGTH);
+        }
+
+        final ByteBuffer next = windows.next(buffer, start);
+
+        if (next == null)
+        {
+            eof = true;
+            return -1;
+        }
+
+        final int shift = start;
+        buffer = next;
+        limit = next.limit();
+        start = 0;
+        base += shift;
+
+        truncate();
+
+        return shift;
+    }
+
+    /**
+     * This method truncates the window at the maximum size of the input, if the window extends past it.
+     *
+     * <p>
+     * The violation is reported by <code>refill()</code>, when a token needs the bytes that were cut off;
+     * therefore, it is reported at the start of that token, regardless of how the input is divided into windows.
+     * </p>
+     */
+    private void truncate ()
+    {
+        if (base + limit > maxInputSize)
+        {
+            limit = (int) (maxInputSize - base);
+            oversized = true;
+        }
+    }
+
+    /**
+     * COMMENT = #[^\n\r]*
+     *
+     * @return the index of the byte after the comment.
+     */
+    private int scanComment ()
+            throws IOException
+    {
+        int i = start + 1;
+
+        while (true)
+        {
+            if (i >= limit)
+            {
+                final int shift = refill();
+
+                if (shift < 0)
+                {
+                    return i;
+                }
+
+                i -= shift;
+                continue;
+            }
+
+            final int b = buffer.get(i) & 0xFF;
+
+            if (b == '\n' || b == '\r')
+            {
+                return i;
+            }
+
+            flags |= FLAGS[b];
+            ++i;
+        }
+    }
+
+    /**
+     * FORM1 = @[\'][^\']*[\'] and FORM2 = @[\"][^\"]*[\"]
+     *
+     * @return the index of the byte after the atom, or -1, if there is no match.
+     */
+    private int scanVerbatim ()
+            throws IOException
+    {
+        int quote = -1;
+        int i = start + 1;
+
+        while (true)
+        {
+            if (i >= limit)
+            {
+                final int shift = refill();
+
+                if (shift < 0)
+                {
+                    return -1;
+                }
+
+                i -= shift;
+                continue;
+            }
+
+            final int b = buffer.get(i) & 0xFF;
+
+            if (quote < 0 && b != '\'' && b != '"')
+            {
+                return -1;
+            }
+            else if (quote < 0)
+            {
+                quote = b;
+            }
+            else if (b == quote)
+            {
+                return i + 1;
+            }
+            else
+            {
+                flags |= FLAGS[b];
+            }
+
+            ++i;
+        }
+    }
+
+    /**
+     * FORM3 = [\']((\\\')|[^\'])*[\'] and FORM4 = [\"]((\\\")|[^\"])*[\"]
+     *
+     * <p>
+     * Like the character lexer, this method finds the longest match.
+     * A quote that is not preceded by a backslash always terminates the literal.
+     * However, a quote that is preceded by a backslash may either be an escaped quote
+     * or the closing quote; therefore, the scan continues past it,
+     * in case a longer match is possible.
+     * </p>
+     *
+     * @param quote is the opening quote.
+     * @return the index of the byte after the atom, or -1, if there is no match.
+     */
+    private int scanQuoted (final int quote)
+            throws IOException
+    {
+        int accept = -1;
+        int i = start + 1;
+        boolean escaped = false;
+        int acceptFlags = 0;
+
+        while (true)
+        {
+            if (i >= limit)
+            {
+                final int shift = refill();
+
+                if (shift < 0)
+                {
+                    break;
+                }
+
+                i -= shift;
+                accept -= accept < 0 ? 0 : shift;
+                continue;
+            }
+
+            final int b = buffer.get(i) & 0xFF;
+            ++i;
+
+            if (b == quote)
+            {
+                accept = i;
+                acceptFlags = flags;
+
+                if (escaped == false)
+                {
+                    break;
+                }
+            }
+
+            escaped = b == '\\';
+            flags |= FLAGS[b];
+        }
+
+        flags = acceptFlags;
+        return accept;
+    }
+
+    /**
+     * FORM5 = [^ \t\r\n\"\'#@\(\)]+
+     *
+     * @return the index of the byte after the atom.
+     */
+    private int scanAtom ()
+            throws IOException
+    {
+        int i = start;
+
+        while (true)
+        {
+            if (i >= limit)
+            {
+                final int shift = refill();
+
+                if (shift < 0)
+                {
+                    return i;
+                }
+
+                i -= shift;
+                continue;
+            }
+
+            final int b = buffer.get(i) & 0xFF;
+
+            if (CLASSES[b] != ATOM)
+            {
+                return i;
+            }
+
+            flags |= FLAGS[b];
+            ++i;
+        }
+    }
+
+    /**
+     * This method updates the line-number and column-number,
+     * based on the characters in the most recent token.
+     */
+    private void advance ()
+    {
+        if (position == start)
+        {
+            return;
+        }
+        else if (flags == 0)
+        {
+            yycolumn += position - start;
+            afterCR = false;
+            return;
+        }
+
+        int previous1 = 0;
+        int previous2 = 0;
+
+        for (int i = start; i < position; i++)
+        {
+            final int b = buffer.get(i) & 0xFF;
+
+            if (b == '\n')
+            {
+                if (afterCR == false)
+                {
+                    ++yyline;
+                    yycolumn = 0;
+                }
+                afterCR = false;
+            }
+            else if (b == '\r')
+            {
+                ++yyline;
+                yycolumn = 0;
+                afterCR = true;
+            }
+            else if (b == 0x0B || b == 0x0C)
+            {
+                ++yyline;
+                yycolumn = 0;
+                afterCR = false;
+            }
+            else if (b < 0x80)
+            {
+                ++yycolumn;
+                afterCR = false;
+            }
+            else if (b >= 0xC0)
+            {
+                /**
+                 * Lead Byte: four-byte sequences encode supplementary characters,
+                 * which are two UTF-16 chars, and thus occupy two columns.
+                 */
+                yycolumn += b >= 0xF0 ? 2 : 1;
+                afterCR = false;
+            }
+            else if (b == 0x85 && previous1 == 0xC2)
+            {
+                // U+0085 (Next Line)
+                ++yyline;
+                yycolumn = 0;
+            }
+            else if ((b == 0xA8 || b == 0xA9) && previous1 == 0x80 && previous2 == 0xE2)
+            {
+                // U+2028 (Line Separator) and U+2029 (Paragraph Separator)
+                ++yyline;
+                yycolumn = 0;
+            }
+
+            previous2 = previous1;
+            previous1 = b;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String yytext ()
+            throws IOException
+    {
+        final int length = position - start;
+
+        if ((flags & MULTIBYTE) != 0)
+        {
+            final ByteBuffer slice = buffer.duplicate();
+            slice.limit(position).position(start);
+            return decoder.decode(slice).toString();
+        }
+        else if (buffer.hasArray())
+        {
+            return new String(buffer.array(), buffer.arrayOffset() + start, length, StandardCharsets.ISO_8859_1);
+        }
+        else
+        {
+            if (scratch.length < length)
+            {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+
+            for (int i = 0; i < length; i++)
+            {
+                scratch[i] = buffer.get(start + i);
+            }
+
+            return new String(scratch, 0, length, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String yytext (final SymbolTable symbols,
+                          final int prefix,
+                          final int suffix)
+            throws IOException
+    {
+        if ((flags & MULTIBYTE) != 0)
+        {
+            final String text = yytext();
+            return symbols.intern(text.substring(prefix, text.length() - suffix));
+        }
+        else
+        {
+            /**
+             * The token is ASCII; therefore, each byte is one character.
+             */
+            return symbols.intern(buffer, start + prefix, position - start - prefix - suffix);
+        }
+    }
+
+    /**
+     * This method specifies whether the windows are never overwritten,
+     * which is true of buffers and memory-mapped files, but not streams.
+     *
+     * @param value is true, if tokens can be sliced from the windows.
+     */
+    void setStable (final boolean value)
+    {
+        stable = value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CharSequence slice (final int prefix,
+                               final int suffix,
+                               final boolean escapes)
+    {
+        final int begin = start + prefix;
+        final int end = position - suffix;
+
+        /**
+         * Multi-byte characters would need to be decoded.
+         */
+        if (!stable || (flags & MULTIBYTE) != 0)
+        {
+            return null;
+        }
+
+        for (int i = begin; escapes && i < end; i++)
+        {
+            if (buffer.get(i) == '\\')
+            {
+                return null;
+            }
+        }
+
+        return new AsciiSlice(buffer, begin, end - begin);
+    }
+
+    /**
+     * This method verifies that a token, which will not be materialized, is well-formed UTF-8.
+     *
+     * @throws IOException if the token is not well-formed UTF-8.
+     */
+    private void validate ()
+            throws IOException
+    {
+        yytext();
+    }
+}
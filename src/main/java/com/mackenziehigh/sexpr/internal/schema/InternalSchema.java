@@ -277,10 +277,10 @@ public final class InternalSchema
         rules.put("$CHAR", defineRuleByPredicate(x -> x.isAtom() && x.asAtom().asChar().isPresent()));
         rules.put("$BYTE", defineRuleByPredicate(x -> x.isAtom() && x.asAtom().asByte().isPresent()));
         rules.put("$SHORT", defineRuleByPredicate(x -> x.isAtom() && x.asAtom().asShort().isPresent()));
-        rules.put("$INT", defineRuleByPredicate(x -> x.isAtom() && x.asAtom().asInt().isPresent()));
-        rules.put("$LONG", defineRuleByPredicate(x -> x.isAtom() && x.asAtom().asLong().isPresent()));
+        rules.put("$INT", defineRuleByPredicate(x -> x.isAtom() && x.asAtom().isInt()));
+        rules.put("$LONG", defineRuleByPredicate(x -> x.isAtom() && x.asAtom().isLong()));
         rules.put("$FLOAT", defineRuleByPredicate(x -> x.isAtom() && x.asAtom().asFloat().isPresent()));
-        rules.put("$DOUBLE", defineRuleByPredicate(x -> x.isAtom() && x.asAtom().asDouble().isPresent()));
+        rules.put("$DOUBLE", defineRuleByPredicate(x -> x.isAtom() && x.asAtom().isDouble()));
         rules.put("$ATOM", defineRuleByPredicate(x -> x.isAtom()));
         rules.put("$LIST", defineRuleByPredicate(x -> x.isList()));
     }
@@ -680,7 +680,7 @@ seq:    for (SequenceElement operand : operands)
     {
         Objects.requireNonNull(value, "value");
 
-        return defineRuleByPredicate(x -> x.isAtom() && x.asAtom().content().equals(value));
+        return defineRuleByPredicate(x -> x.isAtom() && x.asAtom().contentEquals(value));
     }
 
     /**
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr;
+
+import com.mackenziehigh.sexpr.exceptions.ParsingFailedException;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class IncrementalParserTest
+{
+    private static final String[] SNIPPETS =
+    {
+        "(", ")", "'", "\"", "@", "#", "\\", " ", "\n", "\r", "\r\n", "\u2028", "a", "bc", "12", "'x'", "(y z)", "\\'"
+    };
+
+    /**
+     * This method creates a string that describes a tree, including the locations.
+     */
+    private static String describe (final Sexpr<?> tree)
+    {
+        final StringBuilder result = new StringBuilder();
+
+        tree.traverse(x ->
+        {
+            result.append(x.isAtom() ? x.asAtom().content() : "(");
+            result.append(" @").append(x.location().line()).append(':').append(x.location().column()).append(' ');
+        },
+                      x -> result.append(x.isList() ? ")" : ""));
+
+        return result.toString();
+    }
+
+    private static String expected (final String text)
+    {
+        try
+        {
+            return describe(SList.parse("X", text));
+        }
+        catch (RuntimeException ex)
+        {
+            return ex.toString();
+        }
+    }
+
+    private static String actual (final IncrementalParser parser,
+                                  final int offset,
+                                  final int removed,
+                                  final String inserted)
+    {
+        try
+        {
+            return describe(parser.edit(offset, removed, inserted));
+        }
+        catch (RuntimeException ex)
+        {
+            return ex.toString();
+        }
+    }
+
+    /**
+     * Test: 20261018161522734501
+     *
+     * <p>
+     * Method: <code>edit(int, int, String)</code>
+     * </p>
+     *
+     * <p>
+     * Case: After every random edit, the tree is the same as the result of a full parse.
+     * </p>
+     */
+    @Test
+    public void test20261018161522734501 ()
+    {
+        System.out.println("Test: 20261018161522734501");
+
+        final Random random = new Random(23);
+
+        for (int round = 0; round < 20; round++)
+        {
+            final StringBuilder initial = new StringBuilder();
+
+            for (int i = 0; i < 40; i++)
+            {
+                initial.append("(form ").append(i).append(" 'text' (nested \"x\"))");
+                initial.append(random.nextBoolean() ? "\n" : " ");
+            }
+
+            final IncrementalParser parser = IncrementalParser.create("X", initial.toString());
+            String text = initial.toString();
+
+            for (int i = 0; i < 200; i++)
+            {
+                final int offset = random.nextInt(text.length() + 1);
+                final int removed = random.nextInt(4) == 0 ? random.nextInt(Math.min(8, text.length() - offset) + 1) : 0;
+                final String inserted = random.nextInt(5) == 0 ? "" : SNIPPETS[random.nextInt(SNIPPETS.length)];
+
+                text = text.substring(0, offset) + inserted + text.substring(offset + removed);
+
+                assertEquals(text, expected(text), actual(parser, offset, removed, inserted));
+                assertEquals(text, parser.text());
+            }
+        }
+    }
+
+    /**
+     * Test: 20261018161522734502
+     *
+     * <p>
+     * Method: <code>edit(int, int, String)</code>
+     * </p>
+     *
+     * <p>
+     * Case: The unaffected forms are reused by identity.
+     * </p>
+     */
+    @Test
+    public void test20261018161522734502 ()
+    {
+        System.out.println("Test: 20261018161522734502");
+
+        final IncrementalParser parser = IncrementalParser.create("X", "(A 1)\n(B 2) (C 3)\n(D 4)\n(E 5)");
+        final SList tree1 = parser.tree();
+
+        /**
+         * Edit the second line, without adding any lines.
+         */
+        final SList tree2 = parser.edit(8, 0, "XYZ");
+        assertEquals("((A 1) (BXYZ 2) (C 3) (D 4) (E 5))", tree2.toString());
+        assertSame(tree1.get(0), tree2.get(0));
+        assertSame(tree1.get(3), tree2.get(3));
+        assertSame(tree1.get(4), tree2.get(4));
+        assertEquals(tree1.get(2), tree2.get(2));
+        assertEquals(10, tree2.get(2).location().column());
+        assertEquals(describe(SList.parse("X", parser.text())), describe(tree2));
+
+        /**
+         * Add a line, which shifts the forms that follow.
+         */
+        final SList tree3 = parser.edit(0, 0, "\n");
+        assertEquals(tree2, tree3);
+        assertEquals(2, tree3.get(0).location().line());
+        assertEquals(4, tree3.get(3).location().line());
+        assertEquals(5, tree3.get(4).location().line());
+        assertEquals(describe(SList.parse("X", parser.text())), describe(tree3));
+    }
+
+    /**
+     * Test: 20261018161522734503
+     *
+     * <p>
+     * Method: <code>edit(int, int, String)</code>
+     * </p>
+     *
+     * <p>
+     * Case: The text becomes malformed and then becomes well-formed again.
+     * </p>
+     */
+    @Test
+    public void test20261018161522734503 ()
+    {
+        System.out.println("Test: 20261018161522734503");
+
+        final IncrementalParser parser = IncrementalParser.create("X", "(A) (B)");
+
+        try
+        {
+            parser.edit(7, 0, "(");
+            fail();
+        }
+        catch (ParsingFailedException ex)
+        {
+            assertEquals("(A) (B)(", parser.text());
+        }
+
+        try
+        {
+            parser.tree();
+            fail();
+        }
+        catch (ParsingFailedException ex)
+        {
+            assertEquals(8, ex.location().column());
+        }
+
+        assertEquals("((A) (B) (C))", parser.edit(8, 0, "C)").toString());
+    }
+
+    /**
+     * Test: 20261018161522734504
+     *
+     * <p>
+     * Method: <code>edit(int, int, String)</code>
+     * </p>
+     *
+     * <p>
+     * Case: The edit completes a string literal, whose opening quote precedes the edit by several forms.
+     * </p>
+     */
+    @Test
+    public void test20261018161522734504 ()
+    {
+        System.out.println("Test: 20261018161522734504");
+
+        final IncrementalParser parser = IncrementalParser.create("X", "(A) ' (B) (C) (D)");
+        assertEquals("((A) (B) (C) (D))", parser.tree().toString());
+
+        final SList tree = parser.edit(17, 0, "'");
+        assertEquals("((A) ' (B) (C) (D)')", tree.toString());
+    }
+
+    /**
+     * Test: 20261018161522734505
+     *
+     * <p>
+     * Method: <code>edit(int, int, String)</code>
+     * </p>
+     *
+     * <p>
+     * Case: invalid range
+     * </p>
+     */
+    @Test (expected = IndexOutOfBoundsException.class)
+    public void test20261018161522734505 ()
+    {
+        System.out.println("Test: 20261018161522734505");
+
+        IncrementalParser.create("X", "(A)").edit(2, 2, "");
+    }
+
+
+    /**
+     * Test: 20261019034207115601
+     *
+     * <p>
+     * Method: <code>edit(int, int, String)</code>
+     * </p>
+     *
+     * <p>
+     * Case: After every edit of a sequence of random edits, the tree is the same as the result of a full parse.
+     * The texts are short, and consist mostly of comments, stray quotes, and line terminators,
+     * so that the characters, which precede each form, are edited often.
+     * </p>
+     */
+    @Test
+    public void test20261019034207115601 ()
+    {
+        System.out.println("Test: 20261019034207115601");
+
+        final String[] snippets =
+        {
+            "'", "\"", "@", "#c\n", "#", "\n", "\r", "\r\n", " ", "a", "(", ")", "(b)", "\\"
+        };
+
+        final Random random = new Random(41);
+
+        for (int round = 0; round < 4000; round++)
+        {
+            final IncrementalParser parser = IncrementalParser.create("X", "a\n");
+            String text = "a\n";
+
+            for (int i = 0; i < 8; i++)
+            {
+                final int offset = random.nextInt(text.length() + 1);
+                final int removed = random.nextInt(3) == 0 ? random.nextInt(Math.min(3, text.length() - offset) + 1) : 0;
+                final String inserted = random.nextInt(6) == 0 ? "" : snippets[random.nextInt(snippets.length)];
+
+                text = text.substring(0, offset) + inserted + text.substring(offset + removed);
+
+                assertEquals(text, expected(text), actual(parser, offset, removed, inserted));
+            }
+        }
+
+        /**
+         * This is the sequence that originally exposed the need to relex the stray quote.
+         */
+        final IncrementalParser parser = IncrementalParser.create("X", "a\n");
+        parser.edit(0, 0, "'");
+        parser.edit(3, 0, "#c\n");
+        final SList tree = parser.edit(5, 1, "'");
+        assertEquals(1, tree.size());
+        assertEquals("a\n#c", tree.get(0).asAtom().content());
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class ParseCacheTest
+{
+    /**
+     * Test: 20261018205846113501
+     *
+     * <p>
+     * Method: <code>parse(Path)</code>
+     * </p>
+     *
+     * <p>
+     * Case: A file is only parsed again, if it changes.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018205846113501 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018205846113501");
+
+        final Path file = Files.createTempFile("test20261018205846113501", ".sexpr");
+
+        try
+        {
+            Files.write(file, "(A B)".getBytes(StandardCharsets.UTF_8));
+
+            final ParseCache cache = ParseCache.newBuilder().build();
+
+            final SList tree1 = cache.parse(file);
+            final SList tree2 = cache.parse(file);
+            assertEquals("((A B))", tree1.toString());
+            assertSame(tree1, tree2);
+            assertEquals(1, cache.hits());
+            assertEquals(1, cache.misses());
+            assertEquals(1, cache.size());
+            assertEquals(tree1.treeSize(), cache.retainedTreeSize());
+
+            Files.write(file, "(A B C)".getBytes(StandardCharsets.UTF_8));
+
+            final SList tree3 = cache.parse(file);
+            assertEquals("((A B C))", tree3.toString());
+            assertSame(tree3, cache.parse(file));
+            assertEquals(2, cache.hits());
+            assertEquals(2, cache.misses());
+            assertEquals(1, cache.evictions());
+            assertEquals(tree3.treeSize(), cache.retainedTreeSize());
+
+            cache.invalidate(file);
+            assertEquals(0, cache.size());
+            assertEquals(0, cache.retainedTreeSize());
+            assertNotSame(tree3, cache.parse(file));
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Test: 20261018205846113502
+     *
+     * <p>
+     * Method: <code>parse(Path)</code>
+     * </p>
+     *
+     * <p>
+     * Case: The least-recently-used trees are evicted, when the bound is exceeded,
+     * and a tree that is larger than the bound is not cached.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018205846113502 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018205846113502");
+
+        final Path file1 = Files.createTempFile("test20261018205846113502", ".sexpr");
+        final Path file2 = Files.createTempFile("test20261018205846113502", ".sexpr");
+        final Path file3 = Files.createTempFile("test20261018205846113502", ".sexpr");
+        final Path large = Files.createTempFile("test20261018205846113502", ".sexpr");
+
+        try
+        {
+            /**
+             * Each of these trees contains three nodes.
+             */
+            Files.write(file1, "(A)".getBytes(StandardCharsets.UTF_8));
+            Files.write(file2, "(B)".getBytes(StandardCharsets.UTF_8));
+            Files.write(file3, "(C)".getBytes(StandardCharsets.UTF_8));
+            Files.write(large, "(A B C D E F)".getBytes(StandardCharsets.UTF_8));
+
+            final ParseCache cache = ParseCache.newBuilder().maxTreeSize(6).build();
+
+            final SList tree1 = cache.parse(file1);
+            cache.parse(file2);
+            assertSame(tree1, cache.parse(file1));
+            cache.parse(file3);
+
+            /**
+             * File #2 was the least-recently-used.
+             */
+            assertEquals(2, cache.size());
+            assertEquals(6, cache.retainedTreeSize());
+            assertEquals(1, cache.evictions());
+            assertSame(tree1, cache.parse(file1));
+
+            cache.parse(large);
+            assertEquals(2, cache.size());
+            assertEquals(1, cache.evictions());
+
+            cache.clear();
+            assertEquals(0, cache.size());
+            assertEquals(0, cache.retainedTreeSize());
+            assertEquals(2, cache.hits());
+            assertEquals(4, cache.misses());
+        }
+        finally
+        {
+            Files.delete(file1);
+            Files.delete(file2);
+            Files.delete(file3);
+            Files.delete(large);
+        }
+    }
+
+    /**
+     * Test: 20261018205846113503
+     *
+     * <p>
+     * Method: <code>parseResource(String)</code>
+     * </p>
+     *
+     * <p>
+     * Case: A resource is identified by the hash of its content.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018205846113503 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018205846113503");
+
+        final ParseCache cache = ParseCache.newBuilder().softReferences(true).build();
+        final String path = "/com/mackenziehigh/sexpr/ParseCacheTest.sexpr";
+
+        final SList tree = cache.parseResource(path);
+        assertEquals(SList.parseResource(path), tree);
+        assertSame(tree, cache.parseResource(path));
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+
+        try
+        {
+            cache.parseResource("/com/mackenziehigh/sexpr/Missing.sexpr");
+            fail();
+        }
+        catch (FileNotFoundException ex)
+        {
+            assertEquals("/com/mackenziehigh/sexpr/Missing.sexpr", ex.getMessage());
+        }
+    }
+}
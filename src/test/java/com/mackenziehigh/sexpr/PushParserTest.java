@@ -0,0 +1,195 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class PushParserTest
+{
+    private static final String[] SNIPPETS =
+    {
+        "(", "(", ")", ")", "'", "\"", "@", "#", "\\", "\\\\", " ", "\t", "\n", "\r", "\r\n", "\u000B",
+        "a", "bc", "12", "\u00E9", "\u0085", "\u2028", "\uD83D\uDE00", "'x y'", "\"p\\\"q\"", "'\\u0041'",
+        "@'r s'", "@\"(\"", "# note )\n", "# \u00E9\n", "(y z)"
+    };
+
+    /**
+     * This method creates a string that describes a tree, including the locations.
+     */
+    private static void describe (final Sexpr<?> tree,
+                                  final StringBuilder result)
+    {
+        tree.traverse(x ->
+        {
+            result.append(x.isAtom() ? x.asAtom().content() : "(");
+            result.append(" @").append(x.location().line()).append(':').append(x.location().column()).append(' ');
+        },
+                      x -> result.append(x.isList() ? ")" : ""));
+    }
+
+    private static String expected (final byte[] input)
+    {
+        try
+        {
+            final StringBuilder result = new StringBuilder();
+            SList.parse("X", ByteBuffer.wrap(input)).forEach(x -> describe(x, result));
+            return result.toString();
+        }
+        catch (IOException | RuntimeException ex)
+        {
+            return ex.toString();
+        }
+    }
+
+    /**
+     * This method pushes the input in chunks of random sizes.
+     */
+    private static String actual (final byte[] input,
+                                  final Random random,
+                                  final int maxChunk)
+    {
+        final StringBuilder result = new StringBuilder();
+        final PushParser parser = PushParser.create("X", x -> describe(x, result));
+
+        try
+        {
+            for (int i = 0; i < input.length;)
+            {
+                final int length = Math.min(input.length - i, 1 + random.nextInt(maxChunk));
+                parser.feed(ByteBuffer.wrap(input, i, length));
+                i += length;
+            }
+
+            parser.finish();
+            return result.toString();
+        }
+        catch (IOException | RuntimeException ex)
+        {
+            return ex.toString();
+        }
+    }
+
+    /**
+     * Test: 20261018235012440101
+     *
+     * <p>
+     * Method: <code>feed(ByteBuffer)</code> and <code>finish()</code>
+     * </p>
+     *
+     * <p>
+     * Case: The forms, including their locations, and the exceptions, are the same
+     * as those of the sequential parser, regardless of where the chunks are split.
+     * The inputs include unterminated literals, unbalanced lists, and malformed UTF-8.
+     * </p>
+     */
+    @Test
+    public void test20261018235012440101 ()
+    {
+        System.out.println("Test: 20261018235012440101");
+
+        final Random random = new Random(31);
+
+        for (int i = 0; i < 3000; i++)
+        {
+            final ByteArrayOutputStream text = new ByteArrayOutputStream();
+            final int length = random.nextInt(i % 2 == 0 ? 12 : 60);
+
+            for (int k = 0; k < length; k++)
+            {
+                if (random.nextInt(200) == 0)
+                {
+                    text.write(0xFF);
+                }
+                else
+                {
+                    text.writeBytes(SNIPPETS[random.nextInt(SNIPPETS.length)].getBytes(StandardCharsets.UTF_8));
+                }
+            }
+
+            final byte[] input = text.toByteArray();
+            final String expected = expected(input);
+            final String description = new String(input, StandardCharsets.UTF_8);
+
+            assertEquals(description, expected, actual(input, random, 1));
+            assertEquals(description, expected, actual(input, random, 4));
+            assertEquals(description, expected, actual(input, random, 64));
+        }
+    }
+
+    /**
+     * Test: 20261018235012440102
+     *
+     * <p>
+     * Method: <code>feed(ByteBuffer)</code> and <code>finish()</code>
+     * </p>
+     *
+     * <p>
+     * Case: Each form is delivered as soon as the form is complete,
+     * and only the incomplete form is retained.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018235012440102 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018235012440102");
+
+        final List<Sexpr<?>> forms = new ArrayList<>();
+        final PushParser parser = PushParser.create("X", forms::add);
+
+        parser.feed(ByteBuffer.wrap("(ping 1)\n(echo 'a b".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(1, forms.size());
+        assertEquals("(ping 1)", forms.get(0).toString());
+        assertEquals(10, parser.buffered());
+
+        parser.feed(ByteBuffer.wrap("\\' c')\n# (x\n".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(2, forms.size());
+        assertEquals(2, forms.get(1).location().line());
+        assertEquals("a b' c", forms.get(1).asList().get(1).asAtom().content());
+        assertEquals(0, parser.buffered());
+
+        /**
+         * A bare atom may continue in the next chunk.
+         */
+        parser.feed(ByteBuffer.wrap("quit".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(2, forms.size());
+
+        parser.finish();
+        assertEquals(3, forms.size());
+        assertEquals("quit", forms.get(2).toString());
+        assertEquals(4, forms.get(2).location().line());
+
+        try
+        {
+            parser.feed(ByteBuffer.allocate(0));
+            fail();
+        }
+        catch (IllegalStateException ex)
+        {
+            assertTrue(true);
+        }
+    }
+}
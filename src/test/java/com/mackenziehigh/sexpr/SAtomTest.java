@@ -16,9 +16,15 @@
 package com.mackenziehigh.sexpr;
 
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
 import java.util.Random;
 import java.util.function.Consumer;
 import java.util.stream.IntStream;
@@ -981,4 +987,359 @@ public class SAtomTest
         final SAtom result = original.asAtom();
         assertTrue(original == result); // identity
     }
+
+    /**
+     * Test: 20261018182236410601
+     *
+     * <p>
+     * Method: <code>fromCharSequence</code> and <code>contentEquals</code>
+     * </p>
+     *
+     * <p>
+     * Case: The content is created from the sequence on demand.
+     * </p>
+     */
+    @Test
+    public void test20261018182236410601 ()
+    {
+        System.out.println("Test: 20261018182236410601");
+
+        final StringBuilder calls = new StringBuilder();
+
+        final CharSequence sequence = new CharSequence()
+        {
+            @Override
+            public int length ()
+            {
+                return 3;
+            }
+
+            @Override
+            public char charAt (final int index)
+            {
+                return "a b".charAt(index);
+            }
+
+            @Override
+            public CharSequence subSequence (final int start,
+                                             final int end)
+            {
+                return "a b".subSequence(start, end);
+            }
+
+            @Override
+            public String toString ()
+            {
+                calls.append('X');
+                return "a b";
+            }
+        };
+
+        final SAtom atom = SAtom.fromCharSequence(SourceLocation.DEFAULT, sequence);
+
+        assertTrue(atom.contentEquals("a b"));
+        assertFalse(atom.contentEquals("a c"));
+        assertFalse(atom.contentEquals("a"));
+        assertEquals("", calls.toString());
+
+        assertEquals("a b", atom.content());
+        assertEquals("'a b'", atom.toString());
+        assertEquals(SAtom.fromString("a b"), atom);
+        assertEquals(SAtom.fromString("a b").hashCode(), atom.hashCode());
+        assertSame(atom.content(), atom.content());
+        assertTrue(atom.contentEquals("a b"));
+        assertEquals("X", calls.toString());
+    }
+
+
+    private static String describeNumbers (final SAtom atom)
+    {
+        final StringBuilder result = new StringBuilder();
+        result.append(atom.asByte()).append(' ').append(atom.asShort()).append(' ');
+        result.append(atom.asInt()).append(' ').append(atom.asLong()).append(' ');
+        result.append(atom.asDouble().map(Double::doubleToRawLongBits)).append(' ').append(atom.asFloat());
+        return result.toString();
+    }
+
+    private static String expectedNumbers (final String text)
+    {
+        final StringBuilder result = new StringBuilder();
+
+        for (int i = 0; i < 5; i++)
+        {
+            try
+            {
+                switch (i)
+                {
+                    case 0:
+                        result.append(Optional.of(Byte.valueOf(text)));
+                        break;
+                    case 1:
+                        result.append(Optional.of(Short.valueOf(text)));
+                        break;
+                    case 2:
+                        result.append(Optional.of(Integer.valueOf(text)));
+                        break;
+                    case 3:
+                        result.append(Optional.of(Long.valueOf(text)));
+                        break;
+                    default:
+                        result.append(Optional.of(Double.doubleToRawLongBits(Double.valueOf(text))));
+                        result.append(' ').append(Optional.of(Double.valueOf(text).floatValue()));
+                        break;
+                }
+            }
+            catch (NumberFormatException ex)
+            {
+                result.append(Optional.empty()).append(i == 4 ? " " + Optional.empty() : "");
+            }
+
+            result.append(i == 4 ? "" : " ");
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Test: 20261019001204517301
+     *
+     * <p>
+     * Method: <code>asByte()</code>, <code>asShort()</code>, <code>asInt()</code>,
+     * <code>asLong()</code>, <code>asDouble()</code>, and <code>asFloat()</code>
+     * </p>
+     *
+     * <p>
+     * Case: The numbers that are converted when the atom is created
+     * are exactly the same as those converted by <code>valueOf()</code>.
+     * </p>
+     */
+    @Test
+    public void test20261019001204517301 ()
+    {
+        System.out.println("Test: 20261019001204517301");
+
+        final List<String> inputs = new LinkedList<>(Arrays.asList("0", "-0", "+0", "-0.0", "007", "+5", "-", "+", ".", "1.", ".5",
+                                                                   "1e", "1e+", "1e5", "1E-5", "1.e3", ".e3", "1.5.3", "1e5e", "1e0005",
+                                                                   "127", "128", "-128", "-129", "32768", "2147483648", "-2147483648",
+                                                                   "999999999999999999", "-999999999999999999", "9223372036854775807",
+                                                                   "-9223372036854775808", "9223372036854775808", "123456789012345.6",
+                                                                   "1234567890123456.7", "9007199254740993", "1e22", "1e23", "1e-22",
+                                                                   "3.14159", "0.000000000000000000000000001", "1d", "0x10"));
+
+        final Random random = new Random(37);
+        final String alphabet = "0123456789.eE+-";
+
+        for (int i = 0; i < 20000; i++)
+        {
+            final StringBuilder text = new StringBuilder();
+            final int length = 1 + random.nextInt(i % 2 == 0 ? 6 : 24);
+
+            for (int k = 0; k < length; k++)
+            {
+                text.append(random.nextInt(4) == 0 ? alphabet.charAt(random.nextInt(alphabet.length())) : alphabet.charAt(random.nextInt(10)));
+            }
+
+            inputs.add(text.toString());
+        }
+
+        for (String text : inputs)
+        {
+            assertEquals(text, expectedNumbers(text), describeNumbers(SAtom.fromString(text)));
+        }
+
+        /**
+         * The parser creates the same atoms.
+         */
+        assertEquals(-2.5e-3, SList.parse("X", "(-2.5e-3)").get(0).asList().get(0).asAtom().asDouble().get(), 0.0);
+        assertEquals(42L, (long) SList.parse("X", "42").get(0).asAtom().asLong().get());
+    }
+
+
+    /**
+     * Test: 20261019011525846301
+     *
+     * <p>
+     * Method: <code>isInt()</code>, <code>asIntOrElse(int)</code>, <code>asIntValue()</code>, etc.
+     * </p>
+     *
+     * <p>
+     * Case: The primitive accessors agree with the boxed accessors,
+     * and the boxed accessors agree with <code>valueOf()</code>,
+     * even for the inputs that are not converted in advance.
+     * </p>
+     */
+    @Test
+    public void test20261019011525846301 ()
+    {
+        System.out.println("Test: 20261019011525846301");
+
+        final List<String> inputs = Arrays.asList("0", "-0", "-00", "17", "-17", "2147483647", "2147483648", "-2147483648", "-2147483649",
+                                                  "9223372036854775807", "-9223372036854775808", "9223372036854775808",
+                                                  "00000000000000000000000000042", "\u0661\u0662", "+", "-", "", "foo", "max", "MIN",
+                                                  "1.5", "-2.5e-3", "1e400", "1f", "1D", "0x1p3", "0X.8P1", "0x1", "0xp1", "0x1.p-2d",
+                                                  "NaN", "-Infinity", "inf", "-nan", ".", "1.e", "1e+", " 1", "1 ", "1_000");
+
+        for (String text : inputs)
+        {
+            final SAtom atom = SAtom.fromString(text);
+
+            assertEquals(text, atom.asInt().isPresent(), atom.isInt());
+            assertEquals(text, atom.asLong().isPresent(), atom.isLong());
+            assertEquals(text, atom.asDouble().isPresent(), atom.isDouble());
+
+            assertEquals(text, (int) atom.asInt().orElse(-7), atom.asIntOrElse(-7));
+            assertEquals(text, (long) atom.asLong().orElse(-7L), atom.asLongOrElse(-7L));
+            assertEquals(text, Double.doubleToLongBits(atom.asDouble().orElse(-7.0)), Double.doubleToLongBits(atom.asDoubleOrElse(-7.0)));
+
+            assertEquals(text, atom.asInt().isPresent() ? OptionalInt.of(atom.asInt().get()) : OptionalInt.empty(), atom.asIntValue());
+            assertEquals(text, atom.asLong().isPresent() ? OptionalLong.of(atom.asLong().get()) : OptionalLong.empty(), atom.asLongValue());
+            assertEquals(text, atom.asDouble().isPresent() ? OptionalDouble.of(atom.asDouble().get()) : OptionalDouble.empty(), atom.asDoubleValue());
+
+            /**
+             * The validators agree with valueOf(), except for the special names,
+             * and the whitespace, which causes asDouble() to see a quoted string.
+             */
+            if (text.matches("(?i)max|min|[-]?(inf|nan)") == false && text.trim().equals(text))
+            {
+                assertEquals(text, expectedNumbers(text), describeNumbers(atom));
+            }
+        }
+    }
+
+
+    /**
+     * This method describes every conversion of an atom.
+     */
+    private static String describeConversions (final SAtom atom)
+    {
+        return Arrays.asList(atom.asBoolean(), atom.asChar(), atom.asByte(), atom.asShort(),
+                             atom.asInt(), atom.asLong(), atom.asFloat(), atom.asDouble()).toString();
+    }
+
+    /**
+     * Test: 20261019021840377201
+     *
+     * <p>
+     * Method: <code>asBoolean()</code>, <code>asChar()</code>, <code>asInt()</code>, etc
+     * </p>
+     *
+     * <p>
+     * Case: The conversions are computed once, including the names of the special values,
+     * and the conversions that fail, and are the same, when the atom is shared by threads.
+     * </p>
+     *
+     * @throws java.lang.InterruptedException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261019021840377201 ()
+            throws InterruptedException
+    {
+        System.out.println("Test: 20261019021840377201");
+
+        final List<String> inputs = Arrays.asList("0", "1", "65", "-1", "65536", "1.5", "1e400", "max", "MINIMUM", "inf", "-nan",
+                                                  "yes", "off", "foo", "", "'x y'", "9223372036854775807", "9223372036854775808");
+
+        for (String text : inputs)
+        {
+            final SAtom atom = SAtom.fromString(text);
+
+            assertTrue(text, atom.asBoolean() == atom.asBoolean());
+            assertTrue(text, atom.asChar() == atom.asChar());
+            assertTrue(text, atom.asByte() == atom.asByte());
+            assertTrue(text, atom.asShort() == atom.asShort());
+            assertTrue(text, atom.asInt() == atom.asInt());
+            assertTrue(text, atom.asLong() == atom.asLong());
+            assertTrue(text, atom.asFloat() == atom.asFloat());
+            assertTrue(text, atom.asDouble() == atom.asDouble());
+        }
+
+        final SAtom max = SAtom.fromString("max");
+        assertEquals(Optional.of(Character.MAX_VALUE), max.asChar());
+        assertEquals(Optional.of(Byte.MAX_VALUE), max.asByte());
+        assertEquals(Optional.of(Short.MAX_VALUE), max.asShort());
+        assertEquals(Optional.of(Integer.MAX_VALUE), max.asInt());
+        assertEquals(Optional.of(Long.MAX_VALUE), max.asLong());
+        assertFalse(max.asDouble().isPresent());
+        assertEquals(Optional.of('A'), SAtom.fromString("65").asChar());
+        assertFalse(SAtom.fromString("65536").asChar().isPresent());
+        assertFalse(SAtom.fromString("9223372036854775808").asLong().isPresent());
+        assertTrue(SAtom.fromString("-nan").asDouble().get().isNaN());
+
+        /**
+         * Every thread converts the same atoms, which were never converted before.
+         */
+        final List<SAtom> shared = new ArrayList<>();
+        inputs.forEach(x -> shared.add(SAtom.fromString(x)));
+
+        final List<String> expected = new ArrayList<>();
+        inputs.forEach(x -> expected.add(describeConversions(SAtom.fromString(x))));
+
+        final List<Thread> threads = new ArrayList<>();
+        final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+
+        for (int i = 0; i < 8; i++)
+        {
+            final Thread thread = new Thread(() ->
+            {
+                for (int k = 0; k < shared.size(); k++)
+                {
+                    if (expected.get(k).equals(describeConversions(shared.get(k))) == false)
+                    {
+                        failures.add(inputs.get(k));
+                    }
+                }
+            });
+
+            threads.add(thread);
+        }
+
+        threads.forEach(Thread::start);
+
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        assertEquals(Collections.emptyList(), failures);
+    }
+
+
+    /**
+     * Test: 20261019024512068801
+     *
+     * <p>
+     * Method: <code>toString()</code>
+     * </p>
+     *
+     * <p>
+     * Case: The content() is quoted, if, and only if, the content() is empty,
+     * or contains whitespace, parentheses, at-signs, single-quotes, or double-quotes,
+     * regardless of where those characters occur.
+     * </p>
+     */
+    @Test
+    public void test20261019024512068801 ()
+    {
+        System.out.println("Test: 20261019024512068801");
+
+        final String alphabet = "ab1-#\\ \t\r\n\u000B\f()@'\"\u00A0\u2028\u00E9";
+        final Random random = new Random(17);
+
+        for (int i = 0; i < 2000; i++)
+        {
+            final StringBuilder text = new StringBuilder();
+            final int length = random.nextInt(6);
+
+            for (int k = 0; k < length; k++)
+            {
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+
+            final String content = text.toString();
+            final boolean bare = content.matches("[^\\s\\t\\r\\n()@'\"]+");
+            final SAtom atom = SAtom.fromString(content);
+
+            assertEquals(content, bare ? content : "'" + atom.escaped() + "'", atom.toString());
+        }
+    }
 }
@@ -16,8 +16,20 @@
 package com.mackenziehigh.sexpr;
 
 import com.mackenziehigh.sexpr.SList.Mutator;
+import com.mackenziehigh.sexpr.exceptions.ParseLimitExceededException;
 import com.mackenziehigh.sexpr.exceptions.ParsingFailedException;
 import com.mackenziehigh.sexpr.internal.Parser;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -28,8 +40,11 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 import static org.junit.Assert.*;
 import org.junit.Test;
 
@@ -2335,4 +2350,1389 @@ public class SListTest
 
         assertTrue(SList.of().mutator() instanceof Mutator);
     }
+
+    /**
+     * Test: 20261018114502113427
+     *
+     * <p>
+     * Method: <code>parse(Reader)</code> and <code>parse(String, Reader)</code>
+     * </p>
+     *
+     * <p>
+     * Case: normal
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018114502113427 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018114502113427");
+
+        final SList tree1 = SList.parse(new StringReader("(A B)\n(X 'Y Z')"));
+        assertEquals("((A B) (X 'Y Z'))", tree1.toString());
+        assertEquals("null", tree1.get(1).location().source());
+
+        final SList tree2 = SList.parse("Venus", new StringReader("(A B)\n(X 'Y Z')"));
+        assertEquals(tree1, tree2);
+        assertEquals("Venus", tree2.get(1).location().source());
+        assertEquals(2, tree2.get(1).location().line());
+        assertEquals(1, tree2.get(1).location().column());
+        assertEquals(4, tree2.get(1).asList().get(1).location().column());
+
+        /**
+         * The input is larger than the buffer inside of the lexer;
+         * therefore, the lexer must refill the buffer many times.
+         */
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 100_000; i++)
+        {
+            text.append("(item ").append(i).append(" 'value ").append(i).append("')\n");
+        }
+        final SList tree3 = SList.parse("Venus", new StringReader(text.toString()));
+        assertEquals(SList.parse("Venus", text.toString()), tree3);
+        assertEquals(100_000, tree3.size());
+        assertEquals(100_000, tree3.last().location().line());
+    }
+
+    /**
+     * Test: 20261018114502113512
+     *
+     * <p>
+     * Method: <code>parse(Reader)</code>
+     * </p>
+     *
+     * <p>
+     * Case: syntax error
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test (expected = ParsingFailedException.class)
+    public void test20261018114502113512 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018114502113512");
+
+        SList.parse(new StringReader("(A B"));
+    }
+
+    /**
+     * Test: 20261018114502113561
+     *
+     * <p>
+     * Method: <code>parse(InputStream, Charset)</code>
+     * </p>
+     *
+     * <p>
+     * Case: normal
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018114502113561 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018114502113561");
+
+        final String text = "(\u00C5ngstr\u00F6m \u03A9) ('\u2603')";
+
+        final InputStream in1 = new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+        assertEquals(SList.parse(text), SList.parse(in1, StandardCharsets.UTF_8));
+
+        final InputStream in2 = new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_16BE));
+        assertEquals(SList.parse(text), SList.parse(in2, StandardCharsets.UTF_16BE));
+    }
+
+    /**
+     * Test: 20261018114502113598
+     *
+     * <p>
+     * Method: <code>parse(InputStream, Charset)</code>
+     * </p>
+     *
+     * <p>
+     * Case: malformed input
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test (expected = CharacterCodingException.class)
+    public void test20261018114502113598 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018114502113598");
+
+        final byte[] bytes = new byte[]
+        {
+            '(', 'A', ' ', (byte) 0xC3, ')'
+        };
+
+        SList.parse(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Test: 20261018114502113634
+     *
+     * <p>
+     * Method: <code>parse(Path)</code> and <code>parseFile(File)</code>
+     * </p>
+     *
+     * <p>
+     * Case: normal
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018114502113634 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018114502113634");
+
+        final Path file = Files.createTempFile("test20261018114502113634", ".sexpr");
+
+        try
+        {
+            Files.write(file, "(A B)\r\n(X \u03A9)".getBytes(StandardCharsets.UTF_8));
+
+            final SList tree1 = SList.parse(file);
+            assertEquals("((A B) (X \u03A9))", tree1.toString());
+            assertEquals(file.toString(), tree1.location().source());
+            assertEquals(2, tree1.get(1).location().line());
+
+            final SList tree2 = SList.parseFile(file.toFile());
+            assertEquals(tree1, tree2);
+            assertEquals(file.toString(), tree2.get(1).location().source());
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Test: 20261018120927336140
+     *
+     * <p>
+     * Method: <code>parseMapped(Path)</code>
+     * </p>
+     *
+     * <p>
+     * Case: normal
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018120927336140 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018120927336140");
+
+        final Path file = Files.createTempFile("test20261018120927336140", ".sexpr");
+
+        try
+        {
+            final StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 10_000; i++)
+            {
+                text.append("(\u2603 ").append(i).append(" \"x\\ny\")\n");
+            }
+            Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+
+            final SList tree = SList.parseMapped(file);
+            assertEquals(SList.parse(file), tree);
+            assertEquals(file.toString(), tree.location().source());
+            assertEquals(10_000, tree.last().location().line());
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Test: 20261018150311592201
+     *
+     * <p>
+     * Method: <code>forms(String, Reader)</code> and <code>forms(Path)</code>
+     * </p>
+     *
+     * <p>
+     * Case: normal
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018150311592201 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018150311592201");
+
+        final String text = "(1 2) X\n# comment\n (3 (4))";
+        final SList tree = SList.parse("Mars", text);
+
+        final List<Sexpr<?>> forms1 = SList.forms("Mars", new StringReader(text)).collect(Collectors.toList());
+
+        assertEquals(3, forms1.size());
+        assertEquals("(1 2)", forms1.get(0).toString());
+        assertEquals("X", forms1.get(1).toString());
+        assertEquals("(3 (4))", forms1.get(2).toString());
+
+        for (int i = 0; i < tree.size(); i++)
+        {
+            assertEquals(tree.get(i), forms1.get(i));
+            assertEquals(tree.get(i).location().toString(), forms1.get(i).location().toString());
+        }
+
+        assertEquals(3, forms1.get(2).location().line());
+        assertEquals(2, forms1.get(2).location().column());
+        assertEquals(5, forms1.get(2).asList().get(1).location().column());
+
+        final Path file = Files.createTempFile("test20261018150311592201", ".sexpr");
+
+        try
+        {
+            Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+
+            try (Stream<Sexpr<?>> forms2 = SList.forms(file))
+            {
+                assertEquals(forms1, forms2.collect(Collectors.toList()));
+            }
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Test: 20261018150311592202
+     *
+     * <p>
+     * Method: <code>forms(Reader)</code>
+     * </p>
+     *
+     * <p>
+     * Case: The input is unbounded, but the forms are yielded one at a time.
+     * </p>
+     */
+    @Test
+    public void test20261018150311592202 ()
+    {
+        System.out.println("Test: 20261018150311592202");
+
+        final Reader infinite = new Reader()
+        {
+            private long count = 0;
+
+            private String record = "";
+
+            private int offset = 0;
+
+            @Override
+            public int read (final char[] cbuf,
+                             final int off,
+                             final int len)
+            {
+                if (offset == record.length())
+                {
+                    record = "(record " + (count++) + ")\n";
+                    offset = 0;
+                }
+
+                final int n = Math.min(len, record.length() - offset);
+                record.getChars(offset, offset + n, cbuf, off);
+                offset += n;
+                return n;
+            }
+
+            @Override
+            public void close ()
+            {
+                // Pass
+            }
+        };
+
+        final Iterator<Sexpr<?>> forms = SList.forms(infinite).iterator();
+
+        for (int i = 0; i < 10000; i++)
+        {
+            assertTrue(forms.hasNext());
+            assertEquals(SList.of(SAtom.fromString("record"), SAtom.fromInt(i)), forms.next());
+        }
+    }
+
+    /**
+     * Test: 20261018150311592203
+     *
+     * <p>
+     * Method: <code>forms(Reader)</code>
+     * </p>
+     *
+     * <p>
+     * Case: malformed input
+     * </p>
+     */
+    @Test
+    public void test20261018150311592203 ()
+    {
+        System.out.println("Test: 20261018150311592203");
+
+        final Iterator<Sexpr<?>> forms = SList.forms(new StringReader("(A) B\n (C")).iterator();
+
+        assertEquals("(A)", forms.next().toString());
+        assertEquals("B", forms.next().toString());
+
+        try
+        {
+            forms.next();
+            fail();
+        }
+        catch (ParsingFailedException ex)
+        {
+            assertEquals(2, ex.location().line());
+            assertEquals(2, ex.location().column());
+        }
+    }
+
+    /**
+     * Test: 20261018170405118301
+     *
+     * <p>
+     * Method: <code>parse(String, String, ParseOptions)</code> and <code>parse(Path, ParseOptions)</code>
+     * </p>
+     *
+     * <p>
+     * Case: Repeated atoms share their content, when interning is enabled.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018170405118301 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018170405118301");
+
+        final String text = "(define x) (define @'x' 'x' \"\u03A9\") (\u03A9 'a\\nb' 'a\\nb' define)";
+        final SymbolTable symbols = new SymbolTable();
+        final ParseOptions options = ParseOptions.newBuilder().symbolTable(symbols).build();
+
+        final SList plain = SList.parse("X", text);
+        final SList list1 = SList.parse("X", text, options);
+
+        final Path file = Files.createTempFile("test20261018170405118301", ".sexpr");
+        final SList list2;
+
+        try
+        {
+            Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+            list2 = SList.parse(file, options);
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+
+        for (SList list : Arrays.asList(list1, list2))
+        {
+            assertEquals(plain, list);
+            assertSame(list1.get(0).asList().get(0).asAtom().content(), list.get(0).asList().get(0).asAtom().content());
+            assertSame(list1.get(0).asList().get(0).asAtom().content(), list.get(1).asList().get(0).asAtom().content());
+            assertSame(list1.get(0).asList().get(0).asAtom().content(), list.get(2).asList().get(3).asAtom().content());
+            assertSame(list1.get(0).asList().get(1).asAtom().content(), list.get(1).asList().get(1).asAtom().content());
+            assertSame(list1.get(0).asList().get(1).asAtom().content(), list.get(1).asList().get(2).asAtom().content());
+            assertSame(list1.get(1).asList().get(3).asAtom().content(), list.get(2).asList().get(0).asAtom().content());
+            assertSame(list1.get(2).asList().get(1).asAtom().content(), list.get(2).asList().get(2).asAtom().content());
+        }
+
+        assertEquals(4, symbols.size());
+
+        /**
+         * Without a shared table, each parse interns the atoms separately.
+         */
+        final SList list3 = SList.parse("X", text, ParseOptions.newBuilder().internAtoms(true).build());
+        assertEquals(plain, list3);
+        assertSame(list3.get(0).asList().get(0).asAtom().content(), list3.get(1).asList().get(0).asAtom().content());
+        assertNotSame(list1.get(0).asList().get(0).asAtom().content(), list3.get(0).asList().get(0).asAtom().content());
+    }
+
+    /**
+     * Test: 20261018174812053501
+     *
+     * <p>
+     * Method: <code>parse(String, String, ParseOptions)</code>
+     * </p>
+     *
+     * <p>
+     * Case: The locations are not tracked.
+     * </p>
+     */
+    @Test
+    public void test20261018174812053501 ()
+    {
+        System.out.println("Test: 20261018174812053501");
+
+        final String text = "(A B)\n(A (B 'A'))";
+        final ParseOptions options1 = ParseOptions.newBuilder().trackLocations(false).build();
+        final ParseOptions options2 = ParseOptions.newBuilder().trackLocations(false).internAtoms(true).build();
+
+        final SList list1 = SList.parse("X", text, options1);
+        final SList list2 = SList.parse("X", text, options2);
+
+        assertEquals(SList.parse("X", text), list1);
+        assertEquals(SList.parse("X", text), list2);
+
+        list1.get(1).asList().traverse(x -> assertSame(SourceLocation.DEFAULT, x.location()), x -> {});
+        list2.get(1).asList().traverse(x -> assertSame(SourceLocation.DEFAULT, x.location()), x -> {});
+
+        /**
+         * Interned atoms are shared, since they are indistinguishable.
+         */
+        assertNotSame(list1.get(0).asList().get(0), list1.get(1).asList().get(0));
+        assertSame(list2.get(0).asList().get(0), list2.get(1).asList().get(0));
+        assertSame(list2.get(0).asList().get(0), list2.get(1).asList().get(1).asList().get(1));
+        assertSame(list2.get(0).asList().get(1), list2.get(1).asList().get(1).asList().get(0));
+
+        /**
+         * The location of a parsing error is still reported.
+         */
+        try
+        {
+            SList.parse("X", "(A)\n  )", options2);
+            fail();
+        }
+        catch (ParsingFailedException ex)
+        {
+            assertEquals(new SourceLocation("X", 2, 3), ex.location());
+        }
+    }
+
+    /**
+     * Test: 20261018174812053502
+     *
+     * <p>
+     * Method: <code>location()</code>
+     * </p>
+     *
+     * <p>
+     * Case: The location is recreated on demand, from the packed representation.
+     * </p>
+     */
+    @Test
+    public void test20261018174812053502 ()
+    {
+        System.out.println("Test: 20261018174812053502");
+
+        final SourceLocation location = new SourceLocation("Y", Integer.MAX_VALUE, -1);
+        final SList list = SList.of(location, SAtom.fromString(new SourceLocation("Z", 0, Integer.MIN_VALUE), "A"));
+
+        assertEquals(location, list.location());
+        assertEquals(location.hashCode(), list.location().hashCode());
+        assertEquals(Integer.MAX_VALUE, list.location().line());
+        assertEquals(-1, list.location().column());
+        assertEquals(0, list.get(0).location().line());
+        assertEquals(Integer.MIN_VALUE, list.get(0).location().column());
+        assertEquals("Z", list.get(0).location().source());
+        assertNotEquals(new SourceLocation("Y", Integer.MAX_VALUE, 0), list.location());
+        assertSame(SourceLocation.DEFAULT, SList.of().location());
+    }
+
+    /**
+     * Test: 20261018182236410602
+     *
+     * <p>
+     * Method: <code>parse(String, String, ParseOptions)</code> and <code>parseMapped(Path, ParseOptions)</code>
+     * </p>
+     *
+     * <p>
+     * Case: The content of the atoms is sliced from the input.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018182236410602 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018182236410602");
+
+        final String text = "(define @'x y' 'a\\nb' \"c d\" \u03A9 '\u03A9')\n(A (B))";
+        final ParseOptions options = ParseOptions.newBuilder().lazyAtoms(true).build();
+        final SList expected = SList.parse("X", text);
+
+        final SList list1 = SList.parse("X", text, options);
+        final SList list2 = Parser.parse("X", ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)), options);
+        final SList list3;
+
+        final Path file = Files.createTempFile("test20261018182236410602", ".sexpr");
+
+        try
+        {
+            Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+            list3 = SList.parseMapped(file, options);
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+
+        for (SList list : Arrays.asList(list1, list2, list3))
+        {
+            assertTrue(list.get(0).asList().get(0).asAtom().contentEquals("define"));
+            assertEquals(expected, list);
+            assertEquals(expected.toString(), list.toString());
+            assertEquals(expected.hashCode(), list.hashCode());
+            assertEquals(1, list.get(0).asList().get(2).location().line());
+            assertEquals(16, list.get(0).asList().get(2).location().column());
+            assertEquals(2, list.get(1).asList().get(1).location().line());
+        }
+
+        /**
+         * Malformed escape-sequences are still detected during parsing.
+         */
+        try
+        {
+            SList.parse("X", "(A '\\q')", options);
+            fail();
+        }
+        catch (IllegalArgumentException ex)
+        {
+            assertTrue(true);
+        }
+    }
+
+
+    /**
+     * This method parses an input that is expected to exceed a limit.
+     *
+     * @return the exception that was thrown.
+     */
+    private static ParseLimitExceededException exceeded (final Callable<?> parse)
+            throws Exception
+    {
+        try
+        {
+            parse.call();
+            fail();
+            return null;
+        }
+        catch (ParseLimitExceededException ex)
+        {
+            return ex;
+        }
+    }
+
+    /**
+     * Test: 20261018201133581301
+     *
+     * <p>
+     * Method: <code>parse(String, String, ParseOptions)</code>
+     * </p>
+     *
+     * <p>
+     * Case: The depth, atom-length, node-count, and input-size limits of small inputs.
+     * </p>
+     *
+     * @throws java.lang.Exception if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018201133581301 ()
+            throws Exception
+    {
+        System.out.println("Test: 20261018201133581301");
+
+        final String text = "(a (b (c)))\n@'xyz' 'abc'";
+
+        /**
+         * Each limit is exactly met.
+         */
+        final ParseOptions met = ParseOptions.newBuilder()
+                .maxDepth(3)
+                .maxAtomLength(6)
+                .maxNodeCount(8)
+                .maxInputSize(text.length())
+                .build();
+
+        assertEquals(SList.parse("X", text), SList.parse("X", text, met));
+
+        /**
+         * Each limit is exceeded.
+         */
+        final ParseLimitExceededException ex1 = exceeded(() -> SList.parse("X", text, ParseOptions.newBuilder().maxDepth(2).build()));
+        assertEquals(ParseLimitExceededException.Limit.MAX_DEPTH, ex1.limit());
+        assertEquals(new SourceLocation("X", 1, 7), ex1.location());
+
+        final ParseLimitExceededException ex2 = exceeded(() -> SList.parse("X", text, ParseOptions.newBuilder().maxAtomLength(5).build()));
+        assertEquals(ParseLimitExceededException.Limit.MAX_ATOM_LENGTH, ex2.limit());
+        assertEquals(new SourceLocation("X", 2, 1), ex2.location());
+
+        final ParseLimitExceededException ex3 = exceeded(() -> SList.parse("X", text, ParseOptions.newBuilder().maxNodeCount(7).build()));
+        assertEquals(ParseLimitExceededException.Limit.MAX_NODE_COUNT, ex3.limit());
+        assertEquals(new SourceLocation("X", 2, 8), ex3.location());
+
+        final ParseLimitExceededException ex4 = exceeded(() -> SList.parse("X", text, ParseOptions.newBuilder().maxInputSize(text.length() - 1).build()));
+        assertEquals(ParseLimitExceededException.Limit.MAX_INPUT_SIZE, ex4.limit());
+        assertEquals(new SourceLocation("X", 2, 8), ex4.location());
+        assertTrue(ex4 instanceof ParsingFailedException);
+
+        /**
+         * The same limits apply to UTF-8 input.
+         */
+        final ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        assertEquals(SList.parse("X", text), Parser.parse("X", bytes, met));
+        assertEquals(ex1.location(), exceeded(() -> Parser.parse("X", bytes, ParseOptions.newBuilder().maxDepth(2).build())).location());
+        assertEquals(ex2.location(), exceeded(() -> Parser.parse("X", bytes, ParseOptions.newBuilder().maxAtomLength(5).build())).location());
+        assertEquals(ex3.location(), exceeded(() -> Parser.parse("X", bytes, ParseOptions.newBuilder().maxNodeCount(7).build())).location());
+        assertEquals(ex4.location(), exceeded(() -> Parser.parse("X", bytes, ParseOptions.newBuilder().maxInputSize(text.length() - 1).build())).location());
+
+        /**
+         * Limits must be positive.
+         */
+        try
+        {
+            ParseOptions.newBuilder().maxDepth(0);
+            fail();
+        }
+        catch (IllegalArgumentException ex)
+        {
+            assertTrue(true);
+        }
+    }
+
+    /**
+     * Test: 20261018201133581302
+     *
+     * <p>
+     * Method: <code>parse(String, Reader, ParseOptions)</code> and <code>parse(String, InputStream, Charset, ParseOptions)</code>
+     * </p>
+     *
+     * <p>
+     * Case: The limits are enforced while a large input is still being read.
+     * </p>
+     *
+     * @throws java.lang.Exception if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018201133581302 ()
+            throws Exception
+    {
+        System.out.println("Test: 20261018201133581302");
+
+        final StringBuilder builder = new StringBuilder("(ok)\n(");
+
+        while (builder.length() < 1_000_000)
+        {
+            builder.append("abcdefghijklmnopqrstuvwxyz");
+        }
+
+        builder.append(")");
+
+        final String text = builder.toString();
+        final byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+
+        /**
+         * A reader that counts how much of the input was actually read.
+         */
+        final int[] read = new int[1];
+
+        final Reader reader = new StringReader(text)
+        {
+            @Override
+            public int read (final char[] buffer,
+                             final int offset,
+                             final int length)
+                    throws IOException
+            {
+                final int count = super.read(buffer, offset, length);
+                read[0] += Math.max(0, count);
+                return count;
+            }
+        };
+
+        final ParseOptions options1 = ParseOptions.newBuilder().maxAtomLength(1000).build();
+        final ParseLimitExceededException ex1 = exceeded(() -> SList.parse("X", reader, options1));
+        assertEquals(ParseLimitExceededException.Limit.MAX_ATOM_LENGTH, ex1.limit());
+        assertEquals(new SourceLocation("X", 2, 2), ex1.location());
+        assertTrue(read[0] < 100_000);
+
+        final ParseLimitExceededException ex2 = exceeded(() -> Parser.parse("X", new ByteArrayInputStream(utf8), StandardCharsets.UTF_8, options1));
+        assertEquals(ex1.location(), ex2.location());
+
+        final ParseOptions options2 = ParseOptions.newBuilder().maxInputSize(100_000).build();
+        final ParseLimitExceededException ex3 = exceeded(() -> SList.parse("X", new StringReader(text), options2));
+        assertEquals(ParseLimitExceededException.Limit.MAX_INPUT_SIZE, ex3.limit());
+
+        final ParseLimitExceededException ex4 = exceeded(() -> Parser.parse("X", new ByteArrayInputStream(utf8), StandardCharsets.UTF_8, options2));
+        assertEquals(ParseLimitExceededException.Limit.MAX_INPUT_SIZE, ex4.limit());
+
+        /**
+         * The streaming reader enforces the limits too.
+         */
+        try (SexprReader events = SexprReader.open("X", new StringReader("((()))"), ParseOptions.newBuilder().maxDepth(2).build()))
+        {
+            assertEquals(SexprReader.Event.START_LIST, events.next());
+            assertEquals(SexprReader.Event.START_LIST, events.next());
+            assertEquals(ParseLimitExceededException.Limit.MAX_DEPTH, exceeded(() -> events.next()).limit());
+        }
+    }
+
+
+    private static byte[] gzip (final String text)
+            throws IOException
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes))
+        {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Test: 20261018211420664401
+     *
+     * <p>
+     * Method: <code>parseCompressed(Path)</code>
+     * </p>
+     *
+     * <p>
+     * Case: GZIP files, including concatenated members, and uncompressed files.
+     * </p>
+     *
+     * @throws java.lang.Exception if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018211420664401 ()
+            throws Exception
+    {
+        System.out.println("Test: 20261018211420664401");
+
+        final Path file = Files.createTempFile("test20261018211420664401", ".sexpr.gz");
+
+        try
+        {
+            final ByteArrayOutputStream members = new ByteArrayOutputStream();
+            members.write(gzip("(A B)\n(X "));
+            members.write(gzip("\u03A9)"));
+            Files.write(file, members.toByteArray());
+
+            final SList tree = SList.parseCompressed(file);
+            assertEquals("((A B) (X \u03A9))", tree.toString());
+            assertEquals(file.toString(), tree.location().source());
+            assertEquals(2, tree.get(1).location().line());
+
+            Files.write(file, "(A B)\n(X \u03A9)".getBytes(StandardCharsets.UTF_8));
+            assertEquals(tree, SList.parseCompressed(file));
+
+            Files.write(file, new byte[0]);
+            assertTrue(SList.parseCompressed(file).isEmpty());
+
+            /**
+             * The limit on the size of the input applies to the decompressed text.
+             */
+            final StringBuilder text = new StringBuilder();
+
+            for (int i = 0; i < 100000; i++)
+            {
+                text.append("(x)");
+            }
+
+            Files.write(file, gzip(text.toString()));
+
+            final ParseOptions options = ParseOptions.newBuilder().maxInputSize(100000).build();
+            assertEquals(ParseLimitExceededException.Limit.MAX_INPUT_SIZE,
+                         exceeded(() -> SList.parseCompressed(file, options)).limit());
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Test: 20261018211420664402
+     *
+     * <p>
+     * Method: <code>formsCompressed(Path)</code>
+     * </p>
+     *
+     * <p>
+     * Case: normal
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018211420664402 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018211420664402");
+
+        final Path file = Files.createTempFile("test20261018211420664402", ".sexpr.gz");
+
+        try
+        {
+            final StringBuilder text = new StringBuilder();
+
+            for (int i = 0; i < 50000; i++)
+            {
+                text.append("(form ").append(i).append(")\n");
+            }
+
+            Files.write(file, gzip(text.toString()));
+
+            try (Stream<Sexpr<?>> forms = SList.formsCompressed(file))
+            {
+                final List<Sexpr<?>> list = forms.collect(Collectors.toList());
+                assertEquals(50000, list.size());
+                assertEquals("(form 49999)", list.get(49999).toString());
+                assertEquals(50000, list.get(49999).location().line());
+            }
+
+            try (SexprReader reader = SexprReader.openCompressed(file))
+            {
+                assertEquals(SexprReader.Event.START_LIST, reader.next());
+                assertEquals(SexprReader.Event.ATOM, reader.next());
+                assertEquals("form", reader.atomText());
+            }
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+
+    /**
+     * Test: 20261018214650287103
+     *
+     * <p>
+     * Method: <code>lazyOf</code>
+     * </p>
+     *
+     * <p>
+     * Case: The elements are obtained once, when first needed, and must match the metrics.
+     * </p>
+     */
+    @Test
+    public void test20261018214650287103 ()
+    {
+        System.out.println("Test: 20261018214650287103");
+
+        final int[] calls = new int[1];
+        final SList lazy = SList.lazyOf(SourceLocation.DEFAULT, 4, 3, 2, () ->
+                                {
+                                    ++calls[0];
+                                    return Arrays.asList(SAtom.fromString("A"), SList.of(SAtom.fromString("B")));
+                                });
+
+        assertEquals(4, lazy.treeSize());
+        assertEquals(3, lazy.treeHeight());
+        assertEquals(2, lazy.treeLeafCount());
+        assertEquals(0, calls[0]);
+
+        assertEquals(2, lazy.size());
+        assertEquals("(A (B))", lazy.toString());
+        assertEquals(SList.parse("A (B)"), lazy);
+        assertEquals(1, calls[0]);
+
+        final SList wrong = SList.lazyOf(SourceLocation.DEFAULT, 5, 3, 2, () -> Arrays.asList(SAtom.fromString("A")));
+
+        try
+        {
+            wrong.size();
+            fail();
+        }
+        catch (IllegalStateException ex)
+        {
+            assertEquals("The elements do not match the metrics of the lazy list.", ex.getMessage());
+        }
+    }
+
+
+    /**
+     * Test: 20261018223105418803
+     *
+     * <p>
+     * Method: <code>countForms(Path)</code> and <code>formsWithHead(Path, String)</code>
+     * </p>
+     *
+     * <p>
+     * Case: The forms are found by the structural pre-scan, rather than by parsing,
+     * including the locations of the matching lists, and the malformed inputs.
+     * </p>
+     *
+     * @throws java.lang.Exception if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018223105418803 ()
+            throws Exception
+    {
+        System.out.println("Test: 20261018223105418803");
+
+        final Path file = Files.createTempFile("test20261018223105418803", ".sexpr");
+
+        try
+        {
+            final String text = "(rule a 1)\n x \n('rule' b)\n(other (rule c))\n(@'rule' d) # (rule\n(rulez e)\r\n  (rule\n \u03A9)";
+            Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+
+            assertEquals(7, SList.countForms(file));
+
+            final List<Sexpr<?>> expected = SList.parse(file).stream().filter(x -> x.isList()
+                                                                                  && x.asList().get(0).asAtom().content().equals("rule"))
+                    .collect(Collectors.toList());
+            final List<Sexpr<?>> actual;
+
+            try (Stream<Sexpr<?>> forms = SList.formsWithHead(file, "rule"))
+            {
+                actual = forms.collect(Collectors.toList());
+            }
+
+            assertEquals(4, actual.size());
+            assertEquals(expected, actual);
+            assertEquals(expected.get(3).location(), actual.get(3).location());
+            assertEquals(expected.get(3).asList().get(1).location(), actual.get(3).asList().get(1).location());
+            assertEquals(8, actual.get(3).asList().get(1).location().line());
+
+            try (Stream<Sexpr<?>> forms = SList.formsWithHead(file, "rul"))
+            {
+                assertEquals(0, forms.count());
+            }
+
+            /**
+             * Unbalanced parentheses are reported in the same way as the parser reports them.
+             */
+            Files.write(file, "(rule a)\n(rule b".getBytes(StandardCharsets.UTF_8));
+
+            String expectedFailure = null;
+
+            try
+            {
+                SList.parseMapped(file);
+                fail();
+            }
+            catch (ParsingFailedException ex)
+            {
+                expectedFailure = ex.getMessage();
+            }
+
+            try
+            {
+                SList.countForms(file);
+                fail();
+            }
+            catch (ParsingFailedException ex)
+            {
+                assertEquals(expectedFailure, ex.getMessage());
+            }
+
+            try (Stream<Sexpr<?>> forms = SList.formsWithHead(file, "rule"))
+            {
+                final Iterator<Sexpr<?>> iter = forms.iterator();
+                assertEquals("(rule a)", iter.next().toString());
+                iter.next();
+                fail();
+            }
+            catch (ParsingFailedException ex)
+            {
+                assertEquals(expectedFailure, ex.getMessage());
+            }
+
+            Files.write(file, new byte[0]);
+            assertEquals(0, SList.countForms(file));
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+
+    /**
+     * Test: 20261018231552906101
+     *
+     * <p>
+     * Method: <code>parse(String, CharSequence)</code>
+     * </p>
+     *
+     * <p>
+     * Case: The common kinds of character sequences, both short and long,
+     * produce the same trees as strings do, including the locations.
+     * </p>
+     */
+    @Test
+    public void test20261018231552906101 ()
+    {
+        System.out.println("Test: 20261018231552906101");
+
+        final StringBuilder text = new StringBuilder();
+
+        for (int i = 0; i < 2000; i++)
+        {
+            text.append("(entry ").append(i).append(" 'quoted \\t value' @'raw')\r\n");
+        }
+
+        final String shortText = text.substring(0, text.indexOf("(entry 5 ")) + "x";
+        final CharSequence custom = new CharSequence()
+        {
+            @Override
+            public int length ()
+            {
+                return shortText.length();
+            }
+
+            @Override
+            public char charAt (final int index)
+            {
+                return shortText.charAt(index);
+            }
+
+            @Override
+            public CharSequence subSequence (final int start,
+                                             final int end)
+            {
+                return shortText.subSequence(start, end);
+            }
+        };
+
+        final SList expectedLong = SList.parse("T", text.toString());
+        final SList expectedShort = SList.parse("T", shortText);
+
+        assertEquals(expectedLong, SList.parse("T", (CharSequence) text));
+        assertEquals(expectedLong.get(1999).location(), SList.parse("T", (CharSequence) text).get(1999).location());
+        assertEquals(expectedLong, SList.parse("T", new StringBuffer(text)));
+        assertEquals(expectedLong, SList.parse("T", java.nio.CharBuffer.wrap(text)));
+        assertEquals(expectedShort, SList.parse("T", new StringBuilder(shortText)));
+        assertEquals(expectedShort, SList.parse("T", java.nio.CharBuffer.wrap("??" + shortText).position(2)));
+        assertEquals(expectedShort, SList.parse("T", custom));
+        assertEquals(expectedLong, SList.parse("T", (CharSequence) text, ParseOptions.newBuilder().lazyLists(true).build()));
+
+        /**
+         * Lazy atoms do not refer to the sequence, which may be modified after the parse.
+         */
+        final StringBuilder mutable = new StringBuilder("(alpha beta)");
+        final SList lazy = SList.parse("T", mutable, ParseOptions.newBuilder().lazyAtoms(true).build());
+        mutable.setLength(0);
+        mutable.append("(gamma delta)");
+        assertEquals("((alpha beta))", lazy.toString());
+    }
+
+    /**
+     * Test: 20261018231552906102
+     *
+     * <p>
+     * Method: <code>parse(String, ByteBuffer)</code> and <code>parse(String, byte[], int, int)</code>
+     * </p>
+     *
+     * <p>
+     * Case: Heap buffers, direct buffers, and ranges of arrays are parsed in place,
+     * both short and long, including malformed input.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018231552906102 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018231552906102");
+
+        final StringBuilder text = new StringBuilder();
+
+        for (int i = 0; i < 2000; i++)
+        {
+            text.append("(entry ").append(i).append(" '\u03A9 \\t value' @'raw')\n");
+        }
+
+        for (String input : Arrays.asList("(A B) \u03A9 (C (D))", text.toString()))
+        {
+            final SList expected = SList.parse("T", input);
+            final byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+
+            final byte[] padded = new byte[bytes.length + 6];
+            System.arraycopy(bytes, 0, padded, 3, bytes.length);
+            Arrays.fill(padded, 0, 3, (byte) '(');
+            Arrays.fill(padded, bytes.length + 3, padded.length, (byte) ')');
+
+            final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+            direct.put(bytes).flip();
+
+            final ByteBuffer heap = ByteBuffer.wrap(padded, 3, bytes.length);
+
+            assertEquals(expected, SList.parse("T", heap));
+            assertEquals(3, heap.position());
+            assertEquals(expected, SList.parse("T", direct));
+            assertEquals(0, direct.position());
+            assertEquals(expected, SList.parse("T", padded, 3, bytes.length));
+            assertEquals(expected.get(1).location(), SList.parse("T", padded, 3, bytes.length).get(1).location());
+
+            final ParseOptions lazy = ParseOptions.newBuilder().lazyAtoms(true).build();
+            assertEquals(expected, SList.parse("T", direct, lazy));
+        }
+
+        /**
+         * Malformed input does not affect the next parse on the same thread.
+         */
+        try
+        {
+            SList.parse("T", new byte[]{'(', 'A', ' ', (byte) 0xFF, ')'}, 0, 5);
+            fail();
+        }
+        catch (CharacterCodingException ex)
+        {
+            assertTrue(true);
+        }
+
+        try
+        {
+            SList.parse("T", "(A (B)".getBytes(StandardCharsets.UTF_8), 0, 6);
+            fail();
+        }
+        catch (ParsingFailedException ex)
+        {
+            assertEquals(1, ex.location().line());
+        }
+
+        assertEquals("((X))", SList.parse("T", "(X)".getBytes(StandardCharsets.UTF_8), 0, 3).toString());
+    }
+
+
+    /**
+     * Test: 20261019003817264401
+     *
+     * <p>
+     * Method: <code>copyOf(SourceLocation, Iterable)</code>
+     * </p>
+     *
+     * <p>
+     * Case: A range of an array is copied, so the array can be reused,
+     * and the metrics are the same as those of the other factories.
+     * </p>
+     */
+    @Test
+    public void test20261019003817264401 ()
+    {
+        System.out.println("Test: 20261019003817264401");
+
+        final Sexpr<?>[] array =
+        {
+            SAtom.fromInt(1), SList.of(SAtom.fromInt(2), SList.of(SAtom.fromInt(3))), SAtom.fromInt(4), SAtom.fromInt(5)
+        };
+
+        final SourceLocation location = new SourceLocation("X", 3, 7);
+        final SList list = SList.copyOf(location, Arrays.asList(array).subList(1, 3));
+        array[1] = SAtom.fromInt(6);
+
+        assertEquals("((2 (3)) 4)", list.toString());
+        assertEquals(location, list.location());
+        assertEquals(2, list.size());
+
+        final SList same = SList.parse("X", "((2 (3)) 4)").get(0).asList();
+        assertEquals(same, list);
+        assertEquals(same.hashCode(), list.hashCode());
+        assertEquals(same.treeSize(), list.treeSize());
+        assertEquals(same.treeHeight(), list.treeHeight());
+        assertEquals(same.treeLeafCount(), list.treeLeafCount());
+        assertEquals(6, list.treeSize());
+        assertEquals(4, list.treeHeight());
+        assertEquals(3, list.treeLeafCount());
+
+        final Iterator<Sexpr<?>> iter = list.iterator();
+        assertEquals(list.get(0), iter.next());
+        assertEquals(list.get(1), iter.next());
+        assertFalse(iter.hasNext());
+
+        try
+        {
+            SList.copyOf(location, Arrays.asList(new Sexpr<?>[1]));
+            fail();
+        }
+        catch (NullPointerException ex)
+        {
+            assertTrue(true);
+        }
+    }
+
+
+    /**
+     * Test: 20261019045220731702
+     *
+     * <p>
+     * Method: <code>parseFile(File)</code> and <code>parse(Path)</code>
+     * </p>
+     *
+     * <p>
+     * Case: The method parseFile() converts the line terminators to line-feeds,
+     * and terminates the last line, as it always has; whereas, the method parse(Path)
+     * preserves the line terminators of the file.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261019045220731702 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261019045220731702");
+
+        final Path file = Files.createTempFile("test20261019045220731702", ".sexpr");
+
+        try
+        {
+            Files.write(file, "(A 'x\r\ny' \"p\rq\")\r\n(B 'z')".getBytes(StandardCharsets.UTF_8));
+
+            final SList lines = SList.parseFile(file.toFile());
+            assertEquals("x\ny", lines.get(0).asList().get(1).asAtom().content());
+            assertEquals("p\nq", lines.get(0).asList().get(2).asAtom().content());
+            assertEquals(4, lines.get(1).location().line());
+            assertEquals(SList.parse(file.toString(), "(A 'x\ny' \"p\nq\")\n(B 'z')\n"), lines);
+
+            final SList exact = SList.parse(file);
+            assertEquals("x\r\ny", exact.get(0).asList().get(1).asAtom().content());
+            assertEquals("p\rq", exact.get(0).asList().get(2).asAtom().content());
+            assertEquals(4, exact.get(1).location().line());
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+
+    /**
+     * Test: 20261019064055182901
+     *
+     * <p>
+     * Method: <code>parse(String, CharSequence, ParseOptions)</code>
+     * and <code>parse(String, ByteBuffer, ParseOptions)</code>
+     * </p>
+     *
+     * <p>
+     * Case: The root keeps its location, when the locations are not tracked.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261019064055182901 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261019064055182901");
+
+        final String text = "(A B)\n(A (B 'A'))";
+        final ByteBuffer utf8 = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        final SourceLocation expected = new SourceLocation("X", 0, 0);
+
+        final List<ParseOptions> options = Arrays.asList(ParseOptions.newBuilder().trackLocations(false).build(),
+                                                         ParseOptions.newBuilder().trackLocations(false).lazyLists(true).build(),
+                                                         ParseOptions.newBuilder().trackLocations(false).lazyAtoms(true).build());
+
+        for (ParseOptions option : options)
+        {
+            final List<SList> roots = Arrays.asList(SList.parse("X", text, option),
+                                                    SList.parse("X", new StringBuilder(text), option),
+                                                    SList.parse("X", utf8.duplicate(), option));
+
+            for (SList root : roots)
+            {
+                assertEquals(expected, root.location());
+                assertEquals(SList.parse("X", text).location(), root.location());
+
+                for (Sexpr<?> child : root)
+                {
+                    child.traverse(x -> assertSame(SourceLocation.DEFAULT, x.location()), x -> {});
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Test: 20261019071526340801
+     *
+     * <p>
+     * Method: <code>parse(String, Reader, ParseOptions)</code>
+     * and <code>parse(String, ByteBuffer, ParseOptions)</code>
+     * </p>
+     *
+     * <p>
+     * Case: The input-size limit is reported at the start of the token that crosses it,
+     * regardless of whether the input is text or bytes, and of how the input is buffered.
+     * </p>
+     *
+     * @throws java.lang.Exception if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261019071526340801 ()
+            throws Exception
+    {
+        System.out.println("Test: 20261019071526340801");
+
+        /**
+         * The input is much larger than the buffer of the character lexer.
+         * The limit falls within the atom on line 1501.
+         */
+        final String text = String.join("", Collections.nCopies(3000, "(abcdefgh)\n"));
+        final ParseOptions options = ParseOptions.newBuilder().maxInputSize(11 * 1500 + 4).build();
+        final SourceLocation expected = new SourceLocation("X", 1501, 2);
+
+        /**
+         * This reader supplies a few characters at a time.
+         */
+        final Callable<Reader> trickle = () -> new Reader()
+        {
+            private final Reader input = new StringReader(text);
+
+            @Override
+            public int read (final char[] buffer,
+                             final int offset,
+                             final int length)
+                    throws IOException
+            {
+                return input.read(buffer, offset, Math.min(length, 7));
+            }
+
+            @Override
+            public void close ()
+            {
+                // Pass
+            }
+        };
+
+        final List<Callable<?>> parsers = Arrays.asList(() -> SList.parse("X", text, options),
+                                                        () -> SList.parse("X", new StringBuilder(text), options),
+                                                        () -> SList.parse("X", new StringReader(text), options),
+                                                        () -> SList.parse("X", trickle.call(), options),
+                                                        () -> SList.parse("X", ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)), options));
+
+        for (Callable<?> parser : parsers)
+        {
+            final ParseLimitExceededException ex = exceeded(parser);
+            assertEquals(ParseLimitExceededException.Limit.MAX_INPUT_SIZE, ex.limit());
+            assertEquals(expected, ex.location());
+        }
+
+        final Path file = Files.createTempFile("test20261019071526340801", ".sexpr");
+
+        try
+        {
+            Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+
+            final ParseLimitExceededException ex = exceeded(() -> SList.parse(file, options));
+            assertEquals(new SourceLocation(file.toString(), 1501, 2), ex.location());
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
 }
@@ -0,0 +1,389 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr;
+
+import com.mackenziehigh.sexpr.exceptions.ParsingFailedException;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class SexprLoaderTest
+{
+    private static void deleteAll (final Path directory)
+            throws IOException
+    {
+        try (Stream<Path> paths = Files.walk(directory))
+        {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList()))
+            {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Test: 20261018203514770101
+     *
+     * <p>
+     * Method: <code>loadDirectory</code>
+     * </p>
+     *
+     * <p>
+     * Case: The errors of individual files are collected, rather than aborting the batch.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018203514770101 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018203514770101");
+
+        final Path directory = Files.createTempDirectory("test20261018203514770101");
+
+        try
+        {
+            Files.createDirectory(directory.resolve("nested"));
+
+            for (int i = 0; i < 20; i++)
+            {
+                final String text = "(file " + i + ")";
+                Files.write(directory.resolve((i % 2 == 0 ? "nested/" : "") + i + ".sexpr"), text.getBytes(StandardCharsets.UTF_8));
+            }
+
+            Files.write(directory.resolve("bad.sexpr"), "(unbalanced".getBytes(StandardCharsets.UTF_8));
+            Files.write(directory.resolve("ignored.txt"), "(ignored".getBytes(StandardCharsets.UTF_8));
+
+            final SexprLoader loader = SexprLoader.newBuilder().maxInFlightBytes(64).build();
+
+            final Map<String, SexprLoader.Result> results = loader
+                    .loadDirectory(directory, "**.sexpr")
+                    .collect(Collectors.toMap(x -> x.file().getFileName().toString(), Function.identity()));
+
+            assertEquals(21, results.size());
+
+            for (int i = 0; i < 20; i++)
+            {
+                final SexprLoader.Result result = results.get(i + ".sexpr");
+                assertTrue(result.isSuccess());
+                assertFalse(result.error().isPresent());
+                assertEquals("((file " + i + "))", result.tree().get().toString());
+                assertEquals(result.file().toString(), result.tree().get().location().source());
+            }
+
+            final SexprLoader.Result bad = results.get("bad.sexpr");
+            assertFalse(bad.isSuccess());
+            assertFalse(bad.tree().isPresent());
+            assertTrue(bad.error().get() instanceof ParsingFailedException);
+        }
+        finally
+        {
+            deleteAll(directory);
+        }
+    }
+
+    /**
+     * Test: 20261018203514770102
+     *
+     * <p>
+     * Method: <code>load</code>
+     * </p>
+     *
+     * <p>
+     * Case: The bytes in flight never exceed the bound,
+     * except when a single file is larger than the bound.
+     * </p>
+     *
+     * @throws java.lang.Exception if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018203514770102 ()
+            throws Exception
+    {
+        System.out.println("Test: 20261018203514770102");
+
+        final Path directory = Files.createTempDirectory("test20261018203514770102");
+
+        try
+        {
+            final Path small = directory.resolve("small.sexpr");
+            final Path large = directory.resolve("large.sexpr");
+            Files.write(small, "(0123)".getBytes(StandardCharsets.UTF_8));
+            Files.write(large, "(0123456789 0123456789)".getBytes(StandardCharsets.UTF_8));
+
+            /**
+             * The tasks only run when the test says so.
+             */
+            final Deque<Runnable> started = new ArrayDeque<>();
+
+            final SexprLoader loader = SexprLoader
+                    .newBuilder()
+                    .executor(started::add)
+                    .maxInFlightBytes(12)
+                    .build();
+
+            final List<CompletableFuture<SList>> futures = new ArrayList<>();
+            futures.add(loader.load(small));
+            futures.add(loader.load(small));
+            futures.add(loader.load(large));
+            futures.add(loader.load(small));
+
+            /**
+             * The files are measured first.
+             */
+            assertEquals(4, started.size());
+            started.poll().run();
+            started.poll().run();
+            started.poll().run();
+            started.poll().run();
+
+            assertEquals(2, started.size());
+            started.poll().run();
+            assertEquals(1, started.size());
+            started.poll().run();
+            assertEquals(1, started.size());
+            started.poll().run();
+            assertEquals(1, started.size());
+            started.poll().run();
+            assertEquals(0, started.size());
+
+            for (CompletableFuture<SList> future : futures)
+            {
+                assertTrue(future.isDone());
+            }
+
+            assertEquals("((0123))", futures.get(0).get().toString());
+            assertEquals("((0123456789 0123456789))", futures.get(2).get().toString());
+        }
+        finally
+        {
+            deleteAll(directory);
+        }
+    }
+
+    /**
+     * Test: 20261018203514770103
+     *
+     * <p>
+     * Method: <code>load</code>
+     * </p>
+     *
+     * <p>
+     * Case: A missing file completes exceptionally.
+     * </p>
+     *
+     * @throws java.lang.InterruptedException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018203514770103 ()
+            throws InterruptedException
+    {
+        System.out.println("Test: 20261018203514770103");
+
+        final SexprLoader loader = SexprLoader.newBuilder().build();
+
+        try
+        {
+            loader.load(Path.of("does-not-exist-20261018203514770103.sexpr")).get();
+            fail();
+        }
+        catch (ExecutionException ex)
+        {
+            assertTrue(ex.getCause() instanceof NoSuchFileException);
+        }
+    }
+
+
+    /**
+     * Test: 20261019052731904401
+     *
+     * <p>
+     * Method: <code>load</code>
+     * </p>
+     *
+     * <p>
+     * Case: The files are measured by the executor, rather than by the caller,
+     * and a file that cannot be measured does not block the files behind it.
+     * </p>
+     *
+     * @throws java.lang.Exception if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261019052731904401 ()
+            throws Exception
+    {
+        System.out.println("Test: 20261019052731904401");
+
+        final Path directory = Files.createTempDirectory("test20261019052731904401");
+
+        try
+        {
+            final Path file = directory.resolve("file.sexpr");
+            final Path missing = directory.resolve("missing.sexpr");
+            Files.write(file, "(0123)".getBytes(StandardCharsets.UTF_8));
+
+            final Deque<Runnable> started = new ArrayDeque<>();
+
+            final SexprLoader loader = SexprLoader
+                    .newBuilder()
+                    .executor(started::add)
+                    .maxInFlightBytes(12)
+                    .build();
+
+            final CompletableFuture<SList> first = loader.load(missing);
+            final CompletableFuture<SList> second = loader.load(file);
+
+            /**
+             * Nothing has touched the file-system yet.
+             */
+            assertEquals(2, started.size());
+            assertFalse(first.isDone());
+
+            /**
+             * The second file is measured first, but it waits its turn.
+             */
+            started.pollLast().run();
+            assertEquals(1, started.size());
+
+            started.poll().run();
+            assertTrue(first.isCompletedExceptionally());
+            assertEquals(1, started.size());
+
+            started.poll().run();
+            assertEquals("((0123))", second.get().toString());
+
+            try
+            {
+                first.get();
+                fail();
+            }
+            catch (ExecutionException ex)
+            {
+                assertTrue(ex.getCause() instanceof NoSuchFileException);
+            }
+        }
+        finally
+        {
+            deleteAll(directory);
+        }
+    }
+
+
+    /**
+     * Test: 20261019061408527301
+     *
+     * <p>
+     * Method: <code>loadAll</code>
+     * </p>
+     *
+     * <p>
+     * Case: An <code>Error</code> is reported as the outcome of the file,
+     * rather than leaving the stream waiting forever, and is then rethrown to the executor.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261019061408527301 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261019061408527301");
+
+        final Path directory = Files.createTempDirectory("test20261019061408527301");
+
+        try
+        {
+            final Path first = directory.resolve("first.sexpr");
+            final Path second = directory.resolve("second.sexpr");
+            Files.write(first, "(1)".getBytes(StandardCharsets.UTF_8));
+            Files.write(second, "(2)".getBytes(StandardCharsets.UTF_8));
+
+            /**
+             * Any use of this path, other than printing it, throws an Error.
+             */
+            final StackOverflowError injected = new StackOverflowError("injected");
+            final InvocationHandler handler = (proxy, method, args) ->
+            {
+                switch (method.getName())
+                {
+                    case "toString":
+                        return "poison.sexpr";
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        throw injected;
+                }
+            };
+
+            final Path poison = (Path) Proxy.newProxyInstance(Path.class.getClassLoader(), new Class<?>[] { Path.class }, handler);
+
+            /**
+             * The tasks run in the calling thread, which records the errors that escape them.
+             */
+            final List<Throwable> escaped = new ArrayList<>();
+
+            final SexprLoader loader = SexprLoader
+                    .newBuilder()
+                    .executor(task ->
+                    {
+                        try
+                        {
+                            task.run();
+                        }
+                        catch (Error ex)
+                        {
+                            escaped.add(ex);
+                        }
+                    })
+                    .build();
+
+            final Map<String, SexprLoader.Result> results = loader
+                    .loadAll(Arrays.asList(first, poison, second))
+                    .collect(Collectors.toMap(x -> x.file().toString(), Function.identity()));
+
+            assertEquals(3, results.size());
+            assertEquals("((1))", results.get(first.toString()).tree().get().toString());
+            assertEquals("((2))", results.get(second.toString()).tree().get().toString());
+            assertSame(injected, results.get("poison.sexpr").error().get());
+            assertEquals(Arrays.asList(injected), escaped);
+        }
+        finally
+        {
+            deleteAll(directory);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr;
+
+import com.mackenziehigh.sexpr.SexprReader.Event;
+import com.mackenziehigh.sexpr.exceptions.ParsingFailedException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class SexprReaderTest
+{
+    /**
+     * Test: 20261018140211482301
+     *
+     * <p>
+     * Method: <code>next()</code>, <code>atomText()</code>, and <code>location()</code>
+     * </p>
+     *
+     * <p>
+     * Case: normal
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018140211482301 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018140211482301");
+
+        final SexprReader reader = SexprReader.open("Mars", new StringReader("(A 'B\\nC')\n  @\"D\" # E\n()"));
+
+        assertNull(reader.event());
+
+        assertEquals(Event.START_LIST, reader.next());
+        assertEquals(1, reader.depth());
+        assertEquals("Mars", reader.location().source());
+        assertEquals(1, reader.location().line());
+        assertEquals(1, reader.location().column());
+
+        assertEquals(Event.ATOM, reader.next());
+        assertEquals("A", reader.atomText());
+        assertEquals(2, reader.location().column());
+
+        assertEquals(Event.ATOM, reader.next());
+        assertEquals("B\nC", reader.atomText());
+        assertEquals(4, reader.location().column());
+
+        assertEquals(Event.END_LIST, reader.next());
+        assertEquals(0, reader.depth());
+        assertEquals(10, reader.location().column());
+
+        assertEquals(Event.ATOM, reader.next());
+        assertEquals(Event.ATOM, reader.event());
+        assertEquals("D", reader.atomText());
+        assertEquals(2, reader.location().line());
+        assertEquals(3, reader.location().column());
+
+        assertEquals(Event.START_LIST, reader.next());
+        assertEquals(3, reader.location().line());
+        assertEquals(Event.END_LIST, reader.next());
+        assertEquals(Event.END, reader.next());
+        assertEquals(Event.END, reader.next());
+    }
+
+    /**
+     * Test: 20261018140211482302
+     *
+     * <p>
+     * Method: <code>skipChildren()</code>
+     * </p>
+     *
+     * <p>
+     * Case: normal
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018140211482302 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018140211482302");
+
+        final SexprReader reader = SexprReader.open(new StringReader("(A (B (C)) D) E"));
+
+        assertEquals(Event.START_LIST, reader.next());
+        assertEquals(Event.ATOM, reader.next());
+
+        /**
+         * Skipping has no effect, unless the reader is at the start of a list.
+         */
+        reader.skipChildren();
+        assertEquals(Event.ATOM, reader.event());
+        assertEquals("A", reader.atomText());
+
+        assertEquals(Event.START_LIST, reader.next());
+        reader.skipChildren();
+        assertEquals(Event.END_LIST, reader.event());
+        assertEquals(1, reader.depth());
+
+        assertEquals(Event.ATOM, reader.next());
+        assertEquals("D", reader.atomText());
+
+        assertEquals(Event.END_LIST, reader.next());
+        assertEquals(Event.ATOM, reader.next());
+        assertEquals("E", reader.atomText());
+        assertEquals(Event.END, reader.next());
+    }
+
+    /**
+     * Test: 20261018140211482303
+     *
+     * <p>
+     * Method: <code>next()</code>
+     * </p>
+     *
+     * <p>
+     * Case: unbalanced parentheses
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018140211482303 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018140211482303");
+
+        final SexprReader reader1 = SexprReader.open(new StringReader("(A)\n (B"));
+
+        try
+        {
+            while (reader1.next() != Event.END)
+            {
+                // Pass
+            }
+            fail();
+        }
+        catch (ParsingFailedException ex)
+        {
+            assertEquals(2, ex.location().line());
+            assertEquals(2, ex.location().column());
+        }
+
+        final SexprReader reader2 = SexprReader.open(new StringReader("(A)\n )"));
+
+        try
+        {
+            while (reader2.next() != Event.END)
+            {
+                // Pass
+            }
+            fail();
+        }
+        catch (ParsingFailedException ex)
+        {
+            assertEquals(2, ex.location().line());
+            assertEquals(2, ex.location().column());
+        }
+    }
+
+    /**
+     * Test: 20261018140211482304
+     *
+     * <p>
+     * Method: <code>atomText()</code>
+     * </p>
+     *
+     * <p>
+     * Case: not an atom
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test (expected = IllegalStateException.class)
+    public void test20261018140211482304 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018140211482304");
+
+        final SexprReader reader = SexprReader.open(new StringReader("(A)"));
+        reader.next();
+        reader.atomText();
+    }
+
+    /**
+     * Test: 20261018140211482305
+     *
+     * <p>
+     * Method: <code>open(InputStream, Charset)</code>
+     * </p>
+     *
+     * <p>
+     * Case: The events agree with the tree produced by the parser.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018140211482305 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018140211482305");
+
+        final String text = "(\u00C5ngstr\u00F6m (\u03A9 '\\u2603') 100) X";
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        final StringBuilder events = new StringBuilder();
+
+        try (SexprReader reader = SexprReader.open(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8))
+        {
+            while (reader.next() != Event.END)
+            {
+                switch (reader.event())
+                {
+                    case START_LIST:
+                        events.append('(');
+                        break;
+                    case END_LIST:
+                        events.setLength(events.length() - 1);
+                        events.append(')').append(' ');
+                        break;
+                    default:
+                        events.append(SAtom.fromString(reader.atomText()).toString()).append(' ');
+                        break;
+                }
+            }
+        }
+
+        final Reader chars = new StringReader(text);
+        assertEquals(SList.parse(chars).toString(), "(" + events.toString().trim() + ")");
+    }
+}
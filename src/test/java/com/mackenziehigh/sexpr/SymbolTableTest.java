@@ -0,0 +1,168 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class SymbolTableTest
+{
+    /**
+     * Test: 20261018170405118401
+     *
+     * <p>
+     * Method: <code>intern</code>
+     * </p>
+     *
+     * <p>
+     * Case: Equal symbols are the same object, regardless of the form of the input.
+     * </p>
+     */
+    @Test
+    public void test20261018170405118401 ()
+    {
+        System.out.println("Test: 20261018170405118401");
+
+        final SymbolTable table = new SymbolTable();
+
+        final String symbol = table.intern(new String("define"));
+        assertSame(symbol, table.intern(new String("define")));
+        assertSame(symbol, table.intern("(define)".toCharArray(), 1, 6));
+        assertSame(symbol, table.intern(ByteBuffer.wrap("((define".getBytes(StandardCharsets.US_ASCII)), 2, 6));
+
+        /**
+         * A symbol that is first interned from a buffer is a copy of the range.
+         */
+        final String other = table.intern("(record)".toCharArray(), 1, 6);
+        assertEquals("record", other);
+        assertSame(other, table.intern(new String("record")));
+        assertEquals("", table.intern(new char[0], 0, 0));
+
+        assertEquals(3, table.size());
+
+        /**
+         * Force the table to grow.
+         */
+        final List<String> symbols = new ArrayList<>();
+
+        for (int i = 0; i < 1000; i++)
+        {
+            symbols.add(table.intern(Integer.toString(i)));
+        }
+
+        for (int i = 0; i < 1000; i++)
+        {
+            assertSame(symbols.get(i), table.intern(Integer.toString(i).toCharArray(), 0, Integer.toString(i).length()));
+        }
+
+        assertSame(symbol, table.intern("define"));
+        assertEquals(1003, table.size());
+    }
+
+    /**
+     * Test: 20261018170405118402
+     *
+     * <p>
+     * Method: <code>intern</code>
+     * </p>
+     *
+     * <p>
+     * Case: The table stops growing, once it is full.
+     * </p>
+     */
+    @Test
+    public void test20261018170405118402 ()
+    {
+        System.out.println("Test: 20261018170405118402");
+
+        final SymbolTable table = new SymbolTable(2);
+        assertEquals(2, table.capacity());
+
+        final String a = table.intern(new String("A"));
+        final String b = table.intern(new String("B"));
+        final String c = table.intern(new String("C"));
+
+        assertSame(a, table.intern(new String("A")));
+        assertSame(b, table.intern(new String("B")));
+        assertNotSame(c, table.intern(new String("C")));
+        assertEquals("C", table.intern("C".toCharArray(), 0, 1));
+        assertEquals(2, table.size());
+    }
+
+    /**
+     * Test: 20261018170405118403
+     *
+     * <p>
+     * Method: <code>intern</code>
+     * </p>
+     *
+     * <p>
+     * Case: Concurrent threads obtain the same symbols.
+     * </p>
+     *
+     * @throws java.lang.InterruptedException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018170405118403 ()
+            throws InterruptedException
+    {
+        System.out.println("Test: 20261018170405118403");
+
+        final SymbolTable table = new SymbolTable();
+        final ConcurrentMap<String, String> first = new ConcurrentHashMap<>();
+        final List<Thread> threads = new ArrayList<>();
+        final List<String> failures = new ArrayList<>();
+
+        for (int t = 0; t < 4; t++)
+        {
+            threads.add(new Thread(() ->
+            {
+                for (int i = 0; i < 5000; i++)
+                {
+                    final String symbol = table.intern(("X" + (i % 2000)).toCharArray(), 0, ("X" + (i % 2000)).length());
+                    final String previous = first.putIfAbsent(symbol, symbol);
+
+                    if (previous != null && previous != symbol) // identity equality
+                    {
+                        synchronized (failures)
+                        {
+                            failures.add(symbol);
+                        }
+                    }
+                }
+            }));
+        }
+
+        for (Thread thread : threads)
+        {
+            thread.start();
+        }
+
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        assertTrue(failures.isEmpty());
+        assertEquals(2000, table.size());
+    }
+}
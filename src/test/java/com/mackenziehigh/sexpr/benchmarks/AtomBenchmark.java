@@ -0,0 +1,114 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.benchmarks;
+
+import com.mackenziehigh.sexpr.SAtom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of creating an atom, and of printing an atom for the first time.
+ *
+ * <p>
+ * The <code>create</code> benchmark only creates the atom, since the printable form is computed on demand,
+ * whereas the <code>createEagerly</code> baseline also matches the content against the regular-expression
+ * that the constructor formerly used, in order to decide whether the content needed quotes.
+ * The <code>print</code> benchmark creates the atom and then prints the atom,
+ * which is compared to the <code>printRegex</code> baseline, which makes the same decision using the regular-expression.
+ * Run with <code>-prof gc</code> in order to compare the bytes allocated per atom.
+ * </p>
+ */
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.NANOSECONDS)
+@Warmup (iterations = 3)
+@Measurement (iterations = 5)
+@Fork (value = 1)
+@State (Scope.Thread)
+public class AtomBenchmark
+{
+    private static final int COUNT = 1024;
+
+    private static final String BARE = "[^\\s\\t\\r\\n()@'\"]+";
+
+    private final String[] inputs = new String[COUNT];
+
+    private int next = 0;
+
+    @Setup (Level.Trial)
+    public void setup ()
+    {
+        for (int i = 0; i < COUNT; i++)
+        {
+            switch (i % 4)
+            {
+                case 0:
+                    inputs[i] = "symbol-" + i;
+                    break;
+                case 1:
+                    inputs[i] = Integer.toString(i * 31);
+                    break;
+                case 2:
+                    inputs[i] = "user-name-" + i + "@example";
+                    break;
+                default:
+                    inputs[i] = "A longer string, with spaces, number " + i;
+                    break;
+            }
+        }
+    }
+
+    private String nextInput ()
+    {
+        next = (next + 1) & (COUNT - 1);
+        return inputs[next];
+    }
+
+    @Benchmark
+    public SAtom create ()
+    {
+        return SAtom.fromString(nextInput());
+    }
+
+    @Benchmark
+    public boolean createEagerly ()
+    {
+        final SAtom atom = SAtom.fromString(nextInput());
+        return atom.content().matches(BARE);
+    }
+
+    @Benchmark
+    public String print ()
+    {
+        return SAtom.fromString(nextInput()).toString();
+    }
+
+    @Benchmark
+    public String printRegex ()
+    {
+        final SAtom atom = SAtom.fromString(nextInput());
+        return atom.content().matches(BARE) ? atom.content() : "'" + atom.escaped() + "'";
+    }
+}
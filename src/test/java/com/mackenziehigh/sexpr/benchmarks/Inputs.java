@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.benchmarks;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Generators of synthetic inputs for the benchmarks.
+ *
+ * <p>
+ * This class is public, since benchmarks of package-private classes
+ * must reside in the same package as those classes.
+ * </p>
+ */
+public final class Inputs
+{
+    private static final String[] KEYWORDS =
+    {
+        "define", "record", "field", "type", "int", "string", "list", "optional", "default", "doc"
+    };
+
+    private Inputs ()
+    {
+        // Pass
+    }
+
+    /**
+     * This method generates a DSL-like text containing a mix of
+     * nested lists, keywords, numbers, quoted strings, and comments.
+     *
+     * @param size is the approximate number of characters to generate.
+     * @param seed seeds the random-number generator.
+     * @return the generated text.
+     */
+    public static String generate (final long size,
+                                   final long seed)
+    {
+        final StringBuilder text = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 8, size + 256));
+        final Random random = new Random(seed);
+
+        while (text.length() < size)
+        {
+            appendForm(text, random);
+        }
+
+        return text.toString();
+    }
+
+    /**
+     * This method generates a file in the same manner as <code>generate(long, long)</code>,
+     * without holding the entire text in memory.
+     *
+     * @param file is where the text will be written.
+     * @param size is the approximate number of bytes to generate.
+     * @param seed seeds the random-number generator.
+     * @throws IOException if the file cannot be written.
+     */
+    static void generate (final Path file,
+                          final long size,
+                          final long seed)
+            throws IOException
+    {
+        final Random random = new Random(seed);
+        final StringBuilder form = new StringBuilder();
+        long written = 0;
+
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8))
+        {
+            while (written < size)
+            {
+                form.setLength(0);
+                appendForm(form, random);
+                out.append(form);
+                written += form.length();
+            }
+        }
+    }
+
+    private static void appendForm (final StringBuilder text,
+                                    final Random random)
+    {
+        text.append("# record number ").append(random.nextInt(1000)).append('\n');
+        text.append("(define record-").append(random.nextInt(100_000)).append('\n');
+
+        final int fields = 1 + random.nextInt(8);
+
+        for (int i = 0; i < fields; i++)
+        {
+            text.append("    (field ")
+                    .append(KEYWORDS[random.nextInt(KEYWORDS.length)])
+                    .append(' ')
+                    .append(random.nextInt(1_000_000))
+                    .append(" (default ")
+                    .append(random.nextDouble())
+                    .append(") (doc \"Field number ")
+                    .append(i)
+                    .append(" of the record.\"))\n");
+        }
+
+        text.append(")\n\n");
+    }
+}
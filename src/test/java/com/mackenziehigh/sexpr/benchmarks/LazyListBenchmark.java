@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.benchmarks;
+
+import com.mackenziehigh.sexpr.ParseOptions;
+import com.mackenziehigh.sexpr.SList;
+import com.mackenziehigh.sexpr.Sexpr;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures parsing an input, of which only the heads of the top-level forms are examined,
+ * with and without creating the elements of lists on demand.
+ */
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MILLISECONDS)
+@Warmup (iterations = 3)
+@Measurement (iterations = 5)
+@Fork (value = 1, jvmArgs = "-Xmx2g")
+@State (Scope.Benchmark)
+public class LazyListBenchmark
+{
+    /**
+     * This is the size of the generated input in megabytes.
+     */
+    @Param ("16")
+    public int inputSizeMB;
+
+    private String input;
+
+    private final ParseOptions lazy = ParseOptions.newBuilder().lazyLists(true).build();
+
+    @Setup (Level.Trial)
+    public void setup ()
+    {
+        input = Inputs.generate(inputSizeMB * 1024L * 1024L, 1L);
+    }
+
+    private static int heads (final SList tree)
+    {
+        int count = 0;
+
+        for (Sexpr<?> form : tree)
+        {
+            if (form.isList() && !form.asList().isEmpty() && form.asList().get(0).isAtom())
+            {
+                ++count;
+            }
+        }
+
+        return count;
+    }
+
+    @Benchmark
+    public int eager ()
+    {
+        return heads(SList.parse("input", input, ParseOptions.DEFAULT));
+    }
+
+    @Benchmark
+    public int lazy ()
+    {
+        return heads(SList.parse("input", input, lazy));
+    }
+}
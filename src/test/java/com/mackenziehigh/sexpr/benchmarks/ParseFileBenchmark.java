@@ -0,0 +1,178 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.benchmarks;
+
+import com.mackenziehigh.sexpr.ParseOptions;
+import com.mackenziehigh.sexpr.SList;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the throughput and the peak memory usage
+ * of the file-based parsing methods in <code>SList</code>.
+ *
+ * <p>
+ * The <code>megabytes</code> secondary result is the throughput in MB/s.
+ * Each benchmark runs in a separate JVM; therefore, the peak resident-set-size,
+ * which is printed at the end of each fork, is attributable to that benchmark alone.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class ParseFileBenchmark
+{
+    /**
+     * This is the size of the generated input file in megabytes.
+     */
+    @Param ("256")
+    public int fileSizeMB;
+
+    private static final ParseOptions INTERNED = ParseOptions.newBuilder().internAtoms(true).build();
+
+    private Path file;
+
+    private long fileSize;
+
+    /**
+     * Counts the number of megabytes parsed, which JMH reports as MB/s.
+     */
+    @State (Scope.Thread)
+    @AuxCounters (AuxCounters.Type.OPERATIONS)
+    public static class Throughput
+    {
+        public double megabytes;
+    }
+
+    @Setup (Level.Trial)
+    public void setup ()
+            throws IOException
+    {
+        file = Files.createTempFile("ParseFileBenchmark", ".sexpr");
+        Inputs.generate(file, fileSizeMB * 1024L * 1024L, 1L);
+        fileSize = Files.size(file);
+    }
+
+    @TearDown (Level.Trial)
+    public void tearDown ()
+            throws IOException
+    {
+        Files.deleteIfExists(file);
+        System.out.println();
+        System.out.println("Peak RSS: " + peakResidentSetSize());
+    }
+
+    @Benchmark
+    public SList parseFile (final Throughput counters)
+            throws IOException
+    {
+        final SList result = SList.parseFile(file.toFile());
+        counters.megabytes += fileSize / 1e6;
+        return result;
+    }
+
+    /**
+     * This is the baseline, which decodes the file into the character lexer.
+     */
+    @Benchmark
+    public SList parseReader (final Throughput counters)
+            throws IOException
+    {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8))
+        {
+            final SList result = SList.parse(reader);
+            counters.megabytes += fileSize / 1e6;
+            return result;
+        }
+    }
+
+    /**
+     * This is the same as <code>parseFile</code>, except that the atoms are interned,
+     * which is best compared using the allocation-rate reported by the GC profiler.
+     */
+    @Benchmark
+    public SList parseInterned (final Throughput counters)
+            throws IOException
+    {
+        final SList result = SList.parse(file, INTERNED);
+        counters.megabytes += fileSize / 1e6;
+        return result;
+    }
+
+    @Benchmark
+    public SList parseMapped (final Throughput counters)
+            throws IOException
+    {
+        final SList result = SList.parseMapped(file);
+        counters.megabytes += fileSize / 1e6;
+        return result;
+    }
+
+    @Benchmark
+    public SList parseParallel (final Throughput counters)
+            throws IOException
+    {
+        final SList result = SList.parseParallel(file);
+        counters.megabytes += fileSize / 1e6;
+        return result;
+    }
+
+    /**
+     * The peak resident-set-size is only available on Linux.
+     *
+     * @return the high-water-mark of the resident-set-size of this process.
+     */
+    private static String peakResidentSetSize ()
+            throws IOException
+    {
+        final Path status = Paths.get("/proc/self/status");
+
+        if (Files.isReadable(status))
+        {
+            for (String line : Files.readAllLines(status))
+            {
+                if (line.startsWith("VmHWM:"))
+                {
+                    return line.substring("VmHWM:".length()).trim();
+                }
+            }
+        }
+
+        return "unavailable";
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.benchmarks;
+
+import com.mackenziehigh.sexpr.SList;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the latency of parsing many small (roughly 100 byte) strings, such as commands.
+ *
+ * <p>
+ * The <code>parseString</code> benchmark reuses the parser of the current thread,
+ * whereas the <code>parseReader</code> baseline creates a new parser for each string.
+ * The <code>parseBytes</code> and <code>parseBuilder</code> benchmarks parse the same inputs,
+ * as they arrive from a transport, or from templating code, which are compared to
+ * the <code>decodeBytes</code> and <code>buildString</code> baselines, which convert them to strings first.
+ * Run with <code>-prof gc</code> in order to compare the bytes allocated per parse.
+ * </p>
+ */
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.NANOSECONDS)
+@Warmup (iterations = 3)
+@Measurement (iterations = 5)
+@Fork (value = 1)
+@State (Scope.Thread)
+public class SmallInputBenchmark
+{
+    private static final int COUNT = 1024;
+
+    private final String[] inputs = new String[COUNT];
+
+    private final ByteBuffer[] buffers = new ByteBuffer[COUNT];
+
+    private final StringBuilder[] builders = new StringBuilder[COUNT];
+
+    private int next = 0;
+
+    @Setup (Level.Trial)
+    public void setup ()
+    {
+        for (int i = 0; i < COUNT; i++)
+        {
+            inputs[i] = String.format("(set user-%04d (name 'User %04d') (ttl %d) (flags read write) (group admins) (level 3) \"n%05d\")",
+                                      i, i, 300 + i, i * 7);
+            final byte[] bytes = inputs[i].getBytes(StandardCharsets.UTF_8);
+            buffers[i] = ByteBuffer.allocateDirect(bytes.length);
+            buffers[i].put(bytes).flip();
+            builders[i] = new StringBuilder(inputs[i]);
+        }
+    }
+
+    private String nextInput ()
+    {
+        next = (next + 1) & (COUNT - 1);
+        return inputs[next];
+    }
+
+    @Benchmark
+    public SList parseString ()
+    {
+        return SList.parse("command", nextInput());
+    }
+
+    @Benchmark
+    public SList parseReader ()
+            throws IOException
+    {
+        return SList.parse("command", new StringReader(nextInput()));
+    }
+
+    @Benchmark
+    public SList parseBytes ()
+            throws IOException
+    {
+        next = (next + 1) & (COUNT - 1);
+        return SList.parse("command", buffers[next]);
+    }
+
+    @Benchmark
+    public SList decodeBytes ()
+    {
+        next = (next + 1) & (COUNT - 1);
+        return SList.parse("command", StandardCharsets.UTF_8.decode(buffers[next].duplicate()).toString());
+    }
+
+    @Benchmark
+    public SList parseBuilder ()
+    {
+        next = (next + 1) & (COUNT - 1);
+        return SList.parse("command", builders[next]);
+    }
+
+    @Benchmark
+    public SList buildString ()
+    {
+        next = (next + 1) & (COUNT - 1);
+        return SList.parse("command", builders[next].toString());
+    }
+}
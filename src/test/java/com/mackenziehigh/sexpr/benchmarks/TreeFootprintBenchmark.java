@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.benchmarks;
+
+import com.mackenziehigh.sexpr.ParseOptions;
+import com.mackenziehigh.sexpr.SList;
+import java.lang.ref.Reference;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the heap retained by a parsed tree, given different parsing options.
+ *
+ * <p>
+ * The <code>retainedMB</code> secondary result is the growth of the used heap,
+ * after a full garbage-collection, caused by holding the tree.
+ * The primary result, which is the time needed to parse, is of secondary interest.
+ * </p>
+ */
+@BenchmarkMode (Mode.SingleShotTime)
+@OutputTimeUnit (TimeUnit.MILLISECONDS)
+@Warmup (iterations = 2)
+@Measurement (iterations = 5)
+@Fork (value = 1, jvmArgs = "-Xmx2g")
+@State (Scope.Benchmark)
+public class TreeFootprintBenchmark
+{
+    /**
+     * This is the size of the generated input in megabytes.
+     */
+    @Param ("16")
+    public int inputSizeMB;
+
+    /**
+     * These are the parsing options: full, noLocations, interned, interned-noLocations, or lazy.
+     */
+    @Param (
+            {
+                "full", "noLocations", "interned", "interned-noLocations", "lazy"
+            })
+    public String options;
+
+    private String input;
+
+    private ParseOptions parseOptions;
+
+    /**
+     * Reports the retained heap in megabytes.
+     */
+    @State (Scope.Thread)
+    @AuxCounters (AuxCounters.Type.EVENTS)
+    public static class Footprint
+    {
+        public double retainedMB;
+    }
+
+    @Setup (Level.Trial)
+    public void setup ()
+    {
+        input = Inputs.generate(inputSizeMB * 1024L * 1024L, 1L);
+
+        parseOptions = ParseOptions.newBuilder()
+                .internAtoms(options.startsWith("interned"))
+                .trackLocations(!options.endsWith("noLocations"))
+                .lazyAtoms(options.equals("lazy"))
+                .build();
+    }
+
+    @Benchmark
+    public void parse (final Footprint footprint)
+    {
+        final long before = usedHeap();
+        final SList tree = SList.parse("input", input, parseOptions);
+        final long after = usedHeap();
+
+        Reference.reachabilityFence(tree);
+
+        footprint.retainedMB = (after - before) / 1e6;
+    }
+
+    private static long usedHeap ()
+    {
+        final Runtime runtime = Runtime.getRuntime();
+
+        for (int i = 0; i < 3; i++)
+        {
+            System.gc();
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,14 @@
+/**
+ * JMH Micro-Benchmarks.
+ *
+ * <p>
+ * The benchmarks are compiled along with the tests, but they are not executed by the build.
+ * In order to run them, first build the test classpath, then invoke the JMH runner:
+ * </p>
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ * java -cp target/classes:target/test-classes:$(cat target/classpath.txt) org.openjdk.jmh.Main ParseFileBenchmark
+ * </pre>
+ */
+package com.mackenziehigh.sexpr.benchmarks;
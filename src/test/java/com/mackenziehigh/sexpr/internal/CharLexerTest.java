@@ -0,0 +1,198 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import com.mackenziehigh.sexpr.SymbolTable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class CharLexerTest
+{
+    private static final String[] ALPHABET =
+    {
+        "(", ")", "'", "\"", "@", "#", "\\", " ", "\t", "\r", "\n", "\r\n", "\u000B", "\u000C",
+        "a", "b", "1", "\u00E9", "\u0085", "\u2028", "\u2029", "\u20AC", "\uD83D\uDE00"
+    };
+
+    /**
+     * This method creates a reader that supplies a single character at a time,
+     * which forces the lexers to refill in the middle of every token.
+     */
+    private static Reader trickle (final String text)
+    {
+        return new StringReader(text)
+        {
+            @Override
+            public int read (final char[] buffer,
+                             final int offset,
+                             final int length)
+                    throws IOException
+            {
+                return super.read(buffer, offset, Math.min(1, length));
+            }
+        };
+    }
+
+    /**
+     * This method describes every token, including the position and the look-ahead.
+     */
+    private static String describe (final Tokenizer lexer,
+                                     final String text)
+            throws IOException
+    {
+        final StringBuilder result = new StringBuilder();
+        final SymbolTable symbols = new SymbolTable();
+
+        while (true)
+        {
+            final int token = lexer.yylex();
+            final int offset = lexer instanceof Lexer ? ((Lexer) lexer).offset() : ((CharLexer) lexer).offset();
+            final int reach = lexer instanceof Lexer ? ((Lexer) lexer).reach() : ((CharLexer) lexer).reach();
+
+            result.append(token);
+            result.append(" @").append(lexer.line()).append(':').append(lexer.column());
+            result.append(" [").append(offset).append(", ").append(reach).append(") ");
+
+            if (token == Tokenizer.YYEOF)
+            {
+                return result.toString();
+            }
+
+            final String yytext = lexer.yytext();
+            result.append(yytext);
+            assertEquals(text.substring(offset, offset + yytext.length()), yytext);
+            assertEquals(yytext, lexer.yytext(symbols, 0, 0));
+            result.append('\n');
+        }
+    }
+
+    /**
+     * Test: 20261018191503227701
+     *
+     * <p>
+     * Case: The hand-written lexer and the generated lexer agree on random inputs.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018191503227701 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018191503227701");
+
+        final Random random = new Random(17);
+
+        for (int i = 0; i < 3000; i++)
+        {
+            final StringBuilder text = new StringBuilder();
+            final int length = random.nextInt(40);
+
+            for (int k = 0; k < length; k++)
+            {
+                text.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+            }
+
+            final String input = text.toString();
+            final String expected = describe(new Lexer(new StringReader(input)), input);
+
+            assertEquals(input, expected, describe(new CharLexer(new StringReader(input)), input));
+            assertEquals(input, expected, describe(new CharLexer(trickle(input)), input));
+        }
+    }
+
+    /**
+     * Test: 20261018191503227702
+     *
+     * <p>
+     * Case: Tokens that are longer than the initial buffer.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018191503227702 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018191503227702");
+
+        final StringBuilder text = new StringBuilder("(");
+
+        for (int i = 0; i < 40000; i++)
+        {
+            text.append((char) ('a' + i % 26));
+        }
+
+        text.append(" '");
+
+        for (int i = 0; i < 40000; i++)
+        {
+            text.append(i % 100 == 0 ? "\\'\n" : "x");
+        }
+
+        text.append("' # comment\r\n\"unterminated ").append(text.substring(1, 20000)).append(')');
+
+        final String input = text.toString();
+        final String expected = describe(new Lexer(new StringReader(input)), input);
+
+        assertEquals(expected, describe(new CharLexer(new StringReader(input)), input));
+        assertEquals(expected, describe(new CharLexer(trickle(input)), input));
+    }
+
+    /**
+     * Test: 20261018191503227703
+     *
+     * <p>
+     * Method: <code>slice</code>
+     * </p>
+     *
+     * <p>
+     * Case: The slices refer to the retained input, even after the buffer was refilled.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018191503227703 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018191503227703");
+
+        final String input = "(alpha 'be\\'ta' @\"gamma\" \"delta\")";
+        final CharLexer lexer = new CharLexer(trickle(input));
+
+        assertNull(lexer.slice(0, 0, false));
+
+        lexer.retain(input);
+
+        assertEquals(Tokenizer.OPEN, lexer.yylex());
+        assertEquals(Tokenizer.FORM5, lexer.yylex());
+        assertEquals("alpha", lexer.slice(0, 0, false).toString());
+        assertEquals(Tokenizer.FORM3, lexer.yylex());
+        assertNull(lexer.slice(1, 1, true));
+        assertEquals("be\\'ta", lexer.slice(1, 1, false).toString());
+        assertEquals(Tokenizer.FORM2, lexer.yylex());
+        assertEquals("gamma", lexer.slice(2, 1, false).toString());
+        assertEquals(Tokenizer.FORM4, lexer.yylex());
+        assertEquals("delta", lexer.slice(1, 1, true).toString());
+        assertEquals(Tokenizer.CLOSE, lexer.yylex());
+        assertEquals(Tokenizer.YYEOF, lexer.yylex());
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import com.mackenziehigh.sexpr.ParseOptions;
+import com.mackenziehigh.sexpr.SList;
+import com.mackenziehigh.sexpr.Sexpr;
+import com.mackenziehigh.sexpr.SourceLocation;
+import com.mackenziehigh.sexpr.exceptions.ParsingFailedException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class LazyTreeTest
+{
+    private static final String[] ALPHABET =
+    {
+        "(", "(", ")", ")", "'", "\"", "@", "#", "\\", " ", " ", "\r", "\n", "\r\n",
+        "a", "b", "1", "\u00E9", "\u2028", "'x y'", "\"p\\nq\"", "@'r s'", "# note\n"
+    };
+
+    private static final ParseOptions LAZY = ParseOptions.newBuilder().lazyLists(true).build();
+
+    /**
+     * This method creates a string that describes a tree, including the locations and metrics.
+     */
+    private static String describe (final Sexpr<?> tree)
+    {
+        final StringBuilder result = new StringBuilder();
+
+        tree.traverse(x ->
+        {
+            result.append(x.isAtom() ? x.asAtom().content() : "(");
+            result.append(" @").append(x.location());
+            result.append(" #").append(x.treeSize()).append('/').append(x.treeHeight()).append('/').append(x.treeLeafCount());
+            result.append(' ');
+        },
+                      x -> result.append(x.isList() ? ")" : ""));
+
+        return result.toString();
+    }
+
+    /**
+     * Test: 20261018214650287101
+     *
+     * <p>
+     * Method: <code>parse</code>
+     * </p>
+     *
+     * <p>
+     * Case: The lazy trees are the same as the trees built by the usual parser,
+     * including the malformed inputs, which fail in the same way during parsing.
+     * </p>
+     */
+    @Test
+    public void test20261018214650287101 ()
+    {
+        System.out.println("Test: 20261018214650287101");
+
+        final Random random = new Random(23);
+
+        for (int i = 0; i < 3000; i++)
+        {
+            final StringBuilder text = new StringBuilder();
+            final int length = random.nextInt(40);
+
+            for (int k = 0; k < length; k++)
+            {
+                text.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+            }
+
+            final String input = text.toString();
+
+            String expected = null;
+
+            try
+            {
+                final SList eager = Parser.parse("T", input, ParseOptions.DEFAULT);
+                final SList lazy = Parser.parse("T", input, LAZY);
+
+                /**
+                 * The metrics are available, before the elements are created.
+                 */
+                assertEquals(input, eager.treeSize(), lazy.treeSize());
+                assertEquals(input, eager.treeHeight(), lazy.treeHeight());
+                assertEquals(input, eager.treeLeafCount(), lazy.treeLeafCount());
+
+                assertEquals(input, describe(eager), describe(lazy));
+                assertEquals(input, eager, lazy);
+                continue;
+            }
+            catch (ParsingFailedException | IllegalArgumentException ex)
+            {
+                expected = ex.toString();
+            }
+
+            try
+            {
+                Parser.parse("T", input, LAZY);
+                fail(input);
+            }
+            catch (ParsingFailedException | IllegalArgumentException ex)
+            {
+                assertEquals(input, expected, ex.toString());
+            }
+        }
+    }
+
+    /**
+     * Test: 20261018214650287102
+     *
+     * <p>
+     * Method: <code>parse</code>
+     * </p>
+     *
+     * <p>
+     * Case: The lists are accessed out of order, in an input that is larger than the buffer of the lexer,
+     * along with the other options.
+     * </p>
+     */
+    @Test
+    public void test20261018214650287102 ()
+    {
+        System.out.println("Test: 20261018214650287102");
+
+        final StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < 2000; i++)
+        {
+            builder.append("(entry ").append(i).append(" (key 'value ").append(i).append("')\r\n  (nested (deeper x)))\n");
+        }
+
+        final String input = builder.toString();
+        final SList eager = Parser.parse("T", input, ParseOptions.DEFAULT);
+        final SList lazy = Parser.parse("T", input, LAZY);
+
+        assertEquals(2000, lazy.size());
+        assertEquals(describe(eager.get(1999)), describe(lazy.get(1999)));
+        assertEquals(describe(eager.get(0)), describe(lazy.get(0)));
+        assertEquals(describe(eager.get(1000).asList().get(3)), describe(lazy.get(1000).asList().get(3)));
+        assertEquals(describe(eager), describe(lazy));
+
+        final ParseOptions others = ParseOptions.newBuilder()
+                .lazyLists(true)
+                .lazyAtoms(true)
+                .internAtoms(true)
+                .trackLocations(false)
+                .build();
+        final SList shared = Parser.parse("T", input, others);
+        assertEquals(eager, shared);
+        assertSame(shared.get(5).asList().get(0), shared.get(6).asList().get(0));
+        assertEquals(SourceLocation.DEFAULT, shared.get(7).location());
+    }
+
+
+    /**
+     * Test: 20261019041733650103
+     *
+     * <p>
+     * Method: <code>parse</code>
+     * </p>
+     *
+     * <p>
+     * Case: Many threads race to materialize the same lazy lists,
+     * which is safe, and each thread sees the same elements.
+     * </p>
+     *
+     * @throws java.lang.InterruptedException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261019041733650103 ()
+            throws InterruptedException
+    {
+        System.out.println("Test: 20261019041733650103");
+
+        final StringBuilder text = new StringBuilder();
+
+        for (int i = 0; i < 200; i++)
+        {
+            text.append("(form ").append(i).append(" (nested 'x y' (deeper ").append(i).append(")) \"z\")\n");
+        }
+
+        final String expected = describe(SList.parse("T", text.toString()));
+        final int threadCount = 8;
+
+        for (int round = 0; round < 20; round++)
+        {
+            final SList tree = SList.parse("T", text.toString(), LAZY);
+            final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+            final List<String> results = Collections.synchronizedList(new ArrayList<>());
+            final List<Thread> threads = new ArrayList<>();
+
+            for (int i = 0; i < threadCount; i++)
+            {
+                threads.add(new Thread(() ->
+                {
+                    try
+                    {
+                        barrier.await();
+                        results.add(describe(tree));
+                    }
+                    catch (InterruptedException | BrokenBarrierException | RuntimeException ex)
+                    {
+                        results.add(ex.toString());
+                    }
+                }));
+            }
+
+            threads.forEach(Thread::start);
+
+            for (Thread thread : threads)
+            {
+                thread.join();
+            }
+
+            assertEquals(threadCount, results.size());
+            results.forEach(x -> assertEquals(expected, x));
+            assertEquals(SList.parse("T", text.toString()).hashCode(), tree.hashCode());
+        }
+    }
+}
@@ -21,8 +21,15 @@ package com.mackenziehigh.sexpr.internal;
  * <a href="http://www.jflex.de/">JFlex</a> 1.4.3
  * on 9/3/18, 9:32 PM from the specification file
  * <tt>Lexer.txt</tt>
+ *
+ * <p>
+ * This lexer is no longer used by the parser, which uses the <code>CharLexer</code> instead.
+ * It is kept as the reference implementation, which the <code>CharLexer</code> is tested against.
+ * Unlike the original output of JFlex, unmatched characters are not echoed to standard-output.
+ * </p>
  */
 final class Lexer
+        implements Tokenizer
 {
 
     /**
@@ -311,7 +318,132 @@ final class Lexer
     private boolean zzEOFDone;
 
     /* user code: */
-    final LexerStack stack = new LexerStack();
+    /**
+     * This is one past the index of the furthest character that was examined,
+     * where the end of the input counts as a character.
+     */
+    private int reach = 0;
+
+    /**
+     * This is the entire input, if it is retained, so that tokens can be sliced from it.
+     */
+    private CharSequence input = null;
+
+    /**
+     * This method sets the position of the first character of the input.
+     *
+     * @param line is the one-based line-number of the first character.
+     * @param column is the one-based column-number of the first character.
+     */
+    void setPosition (final int line,
+                      final int column)
+    {
+        yyline = line - 1;
+        yycolumn = column - 1;
+    }
+
+    /**
+     * This method retrieves the index of the first character of the most recent token.
+     *
+     * @return the index of the token.
+     */
+    int offset ()
+    {
+        return yychar;
+    }
+
+    /**
+     * This method retrieves how far the lexer has looked ahead so far.
+     *
+     * <p>
+     * The tokens that have been matched so far only depend on the characters before this index.
+     * </p>
+     *
+     * @return one past the index of the furthest character that was examined.
+     */
+    int reach ()
+    {
+        return reach;
+    }
+
+    @Override
+    public int length ()
+    {
+        return yylength();
+    }
+
+    @Override
+    public void setLimits (final int maxTokenLength,
+                           final long maxInputSize)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int line ()
+    {
+        return yyline + 1;
+    }
+
+    @Override
+    public int column ()
+    {
+        return yycolumn + 1;
+    }
+
+    /**
+     * This method retains the entire input, so that tokens can be sliced from it.
+     *
+     * @param text is the same text that the reader of this lexer supplies.
+     */
+    void retain (final CharSequence text)
+    {
+        input = text;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CharSequence slice (final int prefix,
+                               final int suffix,
+                               final boolean escapes)
+    {
+        final int begin = zzStartRead + prefix;
+        final int end = zzMarkedPos - suffix;
+
+        if (input == null)
+        {
+            return null;
+        }
+
+        for (int i = begin; escapes && i < end; i++)
+        {
+            if (zzBuffer[i] == '\\')
+            {
+                return null;
+            }
+        }
+
+        return new TextSlice(input, yychar + prefix, end - begin);
+    }
+
+    /**
+     * This method retrieves part of the text of the most recent token,
+     * which is looked up in a symbol-table directly from the buffer.
+     *
+     * @param symbols will intern the text.
+     * @param prefix is the number of leading characters to exclude.
+     * @param suffix is the number of trailing characters to exclude.
+     * @return the interned text.
+     */
+    @Override
+    public String yytext (final com.mackenziehigh.sexpr.SymbolTable symbols,
+                          final int prefix,
+                          final int suffix)
+    {
+        return symbols.intern(zzBuffer, zzStartRead + prefix, zzMarkedPos - zzStartRead - prefix - suffix);
+    }
 
     /**
      * Creates a new scanner
@@ -587,6 +719,8 @@ final class Lexer
         {
             zzMarkedPosL = zzMarkedPos;
 
+            yychar += zzMarkedPosL - zzStartRead;
+
             boolean zzR = false;
             for (zzCurrentPosL = zzStartRead; zzCurrentPosL < zzMarkedPosL;
                  zzCurrentPosL++)
@@ -721,17 +855,19 @@ zzForAction:
             // store back cached position
             zzMarkedPos = zzMarkedPosL;
 
+            // remember how far ahead the scanner looked, including the end of file
+            reach = Math.max(reach, yychar + zzCurrentPosL - zzStartRead + (zzInput == YYEOF ? 1 : 0));
+
             switch (zzAction < 0 ? zzAction : ZZ_ACTION[zzAction])
             {
                 case 2:
-                {
-                    System.out.print(yytext());
+                { // SKIP
                 }
                 case 10:
                     break;
                 case 5:
                 {
-                    stack.parenOpen(yyline + 1, yycolumn + 1);
+                    return OPEN;
                 }
                 case 11:
                     break;
@@ -742,37 +878,37 @@ zzForAction:
                     break;
                 case 9:
                 {
-                    stack.pushAtomForm2(yytext(), yyline + 1, yycolumn + 1);
+                    return FORM2;
                 }
                 case 13:
                     break;
                 case 3:
                 {
-                    stack.parenClose();
+                    return CLOSE;
                 }
                 case 14:
                     break;
                 case 6:
                 {
-                    stack.pushAtomForm3(yytext(), yyline + 1, yycolumn + 1);
+                    return FORM3;
                 }
                 case 15:
                     break;
                 case 7:
                 {
-                    stack.pushAtomForm4(yytext(), yyline + 1, yycolumn + 1);
+                    return FORM4;
                 }
                 case 16:
                     break;
                 case 1:
                 {
-                    stack.pushAtomForm5(yytext(), yyline + 1, yycolumn + 1);
+                    return FORM5;
                 }
                 case 17:
                     break;
                 case 8:
                 {
-                    stack.pushAtomForm1(yytext(), yyline + 1, yycolumn + 1);
+                    return FORM1;
                 }
                 case 18:
                     break;
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import com.mackenziehigh.sexpr.benchmarks.Inputs;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the throughput of the hand-written lexer to the generated lexer,
+ * which it replaced, when tokenizing (but not parsing) a string.
+ *
+ * <p>
+ * The <code>megabytes</code> secondary result is the throughput in MB/s.
+ * This benchmark resides here, rather than with the other benchmarks,
+ * because the lexers are package-private.
+ * </p>
+ */
+@BenchmarkMode (Mode.Throughput)
+@OutputTimeUnit (TimeUnit.SECONDS)
+@Warmup (iterations = 3)
+@Measurement (iterations = 5)
+@Fork (value = 1)
+@State (Scope.Benchmark)
+public class LexerBenchmark
+{
+    /**
+     * This is the size of the generated input in megabytes.
+     */
+    @Param ("16")
+    public int inputSizeMB;
+
+    private String input;
+
+    /**
+     * Counts the number of megabytes scanned, which JMH reports as MB/s.
+     */
+    @State (Scope.Thread)
+    @AuxCounters (AuxCounters.Type.OPERATIONS)
+    public static class Throughput
+    {
+        public double megabytes;
+    }
+
+    @Setup (Level.Trial)
+    public void setup ()
+    {
+        input = Inputs.generate(inputSizeMB * 1024L * 1024L, 1L);
+    }
+
+    @Benchmark
+    public long generated (final Throughput counters)
+            throws IOException
+    {
+        return scan(new Lexer(new StringReader(input)), counters);
+    }
+
+    @Benchmark
+    public long handWritten (final Throughput counters)
+            throws IOException
+    {
+        return scan(new CharLexer(new StringReader(input)), counters);
+    }
+
+    /**
+     * This method consumes every token, and its position, as the parser would.
+     */
+    private long scan (final Tokenizer lexer,
+                       final Throughput counters)
+            throws IOException
+    {
+        long checksum = 0;
+        int token;
+
+        while ((token = lexer.yylex()) != Tokenizer.YYEOF)
+        {
+            checksum += token + lexer.line() + lexer.column();
+        }
+
+        counters.megabytes += input.length() / 1e6;
+        return checksum;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Random;
+import java.util.Scanner;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class LineReaderTest
+{
+    private static final String[] SNIPPETS =
+    {
+        "a", "bc", " ", "'", "\r", "\n", "\r\n", "\n\r", "\u0085", "\u2028", "\u2029", "\u00E9"
+    };
+
+    /**
+     * This method joins the lines, like the original <code>parseFile()</code>.
+     */
+    private static String joinBufferedLines (final String text)
+            throws IOException
+    {
+        final StringBuilder result = new StringBuilder();
+        final BufferedReader reader = new BufferedReader(new StringReader(text));
+
+        for (String line = reader.readLine(); line != null; line = reader.readLine())
+        {
+            result.append(line).append('\n');
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * This method joins the lines, like the original <code>parseResource()</code>.
+     */
+    private static String joinScannedLines (final String text)
+    {
+        final StringBuilder result = new StringBuilder();
+
+        try (Scanner scanner = new Scanner(text))
+        {
+            while (scanner.hasNextLine())
+            {
+                result.append(scanner.nextLine()).append('\n');
+            }
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * This method reads everything, in chunks of random sizes.
+     */
+    private static String readAll (final Reader reader,
+                                   final Random random)
+            throws IOException
+    {
+        final StringBuilder result = new StringBuilder();
+        final char[] buffer = new char[8];
+
+        while (true)
+        {
+            final int count = reader.read(buffer, 0, 1 + random.nextInt(buffer.length));
+
+            if (count < 0)
+            {
+                return result.toString();
+            }
+
+            result.append(buffer, 0, count);
+        }
+    }
+
+    /**
+     * Test: 20261019045220731701
+     *
+     * <p>
+     * Method: <code>read(char[], int, int)</code>
+     * </p>
+     *
+     * <p>
+     * Case: The result is the same as joining the lines, regardless of where the reads are split,
+     * including a CR LF that is split between two reads.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261019045220731701 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261019045220731701");
+
+        final Random random = new Random(19);
+
+        for (int i = 0; i < 5000; i++)
+        {
+            final StringBuilder text = new StringBuilder();
+            final int length = random.nextInt(12);
+
+            for (int k = 0; k < length; k++)
+            {
+                text.append(SNIPPETS[random.nextInt(SNIPPETS.length)]);
+            }
+
+            final String input = text.toString();
+            final String description = input.replace("\r", "\\r").replace("\n", "\\n");
+
+            assertEquals(description, joinBufferedLines(input), readAll(new LineReader(new StringReader(input), false), random));
+            assertEquals(description, joinScannedLines(input), readAll(new LineReader(new StringReader(input), true), random));
+        }
+    }
+}
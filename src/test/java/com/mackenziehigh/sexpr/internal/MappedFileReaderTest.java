@@ -0,0 +1,154 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class MappedFileReaderTest
+{
+    private static String readAll (final Reader reader,
+                                   final int chunkSize)
+            throws IOException
+    {
+        final StringBuilder result = new StringBuilder();
+        final char[] buffer = new char[chunkSize];
+
+        int count;
+        while ((count = reader.read(buffer, 0, buffer.length)) >= 0)
+        {
+            result.append(buffer, 0, count);
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Test: 20261018120314552101
+     *
+     * <p>
+     * Case: multi-byte characters straddle the window boundaries.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018120314552101 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018120314552101");
+
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++)
+        {
+            text.append("(a\u00C5\u2603\uD83D\uDE00 ").append(i).append(")\n");
+        }
+
+        final Path file = Files.createTempFile("test20261018120314552101", ".sexpr");
+
+        try
+        {
+            Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+
+            /**
+             * Try several window sizes, so that every possible split of
+             * a multi-byte sequence occurs at the end of some window.
+             */
+            for (int windowSize = 16; windowSize < 24; windowSize++)
+            {
+                try (Reader reader = new MappedFileReader(file, StandardCharsets.UTF_8, windowSize))
+                {
+                    assertEquals(text.toString(), readAll(reader, 7));
+                }
+            }
+
+            try (Reader reader = new MappedFileReader(file, StandardCharsets.UTF_8))
+            {
+                assertEquals(text.toString(), readAll(reader, 4096));
+            }
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Test: 20261018120314552187
+     *
+     * <p>
+     * Case: empty file.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018120314552187 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018120314552187");
+
+        final Path file = Files.createTempFile("test20261018120314552187", ".sexpr");
+
+        try (Reader reader = new MappedFileReader(file, StandardCharsets.UTF_8))
+        {
+            assertEquals(-1, reader.read(new char[8], 0, 8));
+            assertEquals(-1, reader.read(new char[8], 0, 8));
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Test: 20261018120314552233
+     *
+     * <p>
+     * Case: truncated multi-byte sequence at the end of the file.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test (expected = CharacterCodingException.class)
+    public void test20261018120314552233 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018120314552233");
+
+        final Path file = Files.createTempFile("test20261018120314552233", ".sexpr");
+
+        Files.write(file, new byte[]
+                {
+                    'A', (byte) 0xE2, (byte) 0x98
+                });
+
+        try (Reader reader = new MappedFileReader(file, StandardCharsets.UTF_8))
+        {
+            readAll(reader, 8);
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+}
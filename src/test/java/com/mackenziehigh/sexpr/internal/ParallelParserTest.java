@@ -0,0 +1,197 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import com.mackenziehigh.sexpr.SList;
+import com.mackenziehigh.sexpr.Sexpr;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class ParallelParserTest
+{
+    private static final String[] ATOMS =
+    {
+        "abc", "1", "'x y'", "'a\\'b'", "'(\\')'", "\"q)\"", "\"a\\\"(\"", "@'(('", "@\"))\"", "\u03A9", "\uD83D\uDE00", "'\\n'"
+    };
+
+    private static final String[] SPACES =
+    {
+        " ", "\n", "\r\n", "\r", "\t", " # comment ( \n", "\u2028"
+    };
+
+    private static void generate (final Random random,
+                                  final StringBuilder out,
+                                  final int depth)
+    {
+        final int count = random.nextInt(depth == 0 ? 30 : 5);
+
+        for (int i = 0; i < count; i++)
+        {
+            if (depth < 4 && random.nextInt(3) == 0)
+            {
+                out.append('(');
+                generate(random, out, depth + 1);
+                out.append(')');
+            }
+            else
+            {
+                out.append(ATOMS[random.nextInt(ATOMS.length)]);
+            }
+
+            out.append(SPACES[random.nextInt(SPACES.length)]);
+        }
+    }
+
+    /**
+     * This method creates a string that describes a tree, including the locations.
+     */
+    private static String describe (final Sexpr<?> tree)
+    {
+        final StringBuilder result = new StringBuilder();
+
+        tree.traverse(x ->
+        {
+            result.append(x.isAtom() ? x.asAtom().content() : "(");
+            result.append(" @").append(x.location()).append(' ');
+        },
+                      x -> result.append(x.isList() ? ")" : ""));
+
+        return result.toString();
+    }
+
+    private static String sequential (final String text)
+    {
+        try
+        {
+            return describe(Parser.parse("X", text));
+        }
+        catch (RuntimeException ex)
+        {
+            return ex.toString();
+        }
+    }
+
+    private static String parallel (final String text,
+                                    final int chunkSize)
+            throws IOException
+    {
+        try
+        {
+            final ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+            return describe(ParallelParser.parse("X", bytes, ForkJoinPool.commonPool(), chunkSize));
+        }
+        catch (RuntimeException ex)
+        {
+            return ex.toString();
+        }
+    }
+
+    /**
+     * Test: 20261018153307261401
+     *
+     * <p>
+     * Case: The parallel parser and the sequential parser agree on random inputs,
+     * even when the chunks are as small as possible.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018153307261401 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018153307261401");
+
+        final Random random = new Random(17);
+
+        for (int i = 0; i < 500; i++)
+        {
+            final StringBuilder text = new StringBuilder();
+            generate(random, text, 0);
+
+            /**
+             * Sometimes, unbalance the parentheses.
+             */
+            if (i % 10 == 1)
+            {
+                text.insert(random.nextInt(text.length() + 1), '(');
+            }
+            else if (i % 10 == 2)
+            {
+                text.insert(random.nextInt(text.length() + 1), ')');
+            }
+
+            final String input = text.toString();
+            final String expected = sequential(input);
+
+            assertEquals(input, expected, parallel(input, 1));
+            assertEquals(input, expected, parallel(input, 16));
+            assertEquals(input, expected, parallel(input, Integer.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Test: 20261018153307261402
+     *
+     * <p>
+     * Method: <code>SList.parseParallel(Path)</code> and <code>SList.parseParallel(String, String)</code>
+     * </p>
+     *
+     * <p>
+     * Case: The input is large enough to be split into multiple chunks by default.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018153307261402 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018153307261402");
+
+        final Random random = new Random(19);
+        final StringBuilder text = new StringBuilder();
+
+        while (text.length() < 8 * ParallelParser.MIN_CHUNK_SIZE)
+        {
+            text.append('(');
+            generate(random, text, 1);
+            text.append(")\n");
+        }
+
+        final String input = text.toString();
+        assertEquals(describe(SList.parse("X", input)), describe(SList.parseParallel("X", input)));
+
+        final Path file = Files.createTempFile("test20261018153307261402", ".sexpr");
+
+        try
+        {
+            Files.write(file, input.getBytes(StandardCharsets.UTF_8));
+            assertEquals(describe(SList.parse(file)), describe(SList.parseParallel(file)));
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+}
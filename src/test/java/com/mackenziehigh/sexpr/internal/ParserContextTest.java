@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import com.mackenziehigh.sexpr.ParseOptions;
+import com.mackenziehigh.sexpr.SList;
+import com.mackenziehigh.sexpr.Sexpr;
+import com.mackenziehigh.sexpr.SourceLocation;
+import com.mackenziehigh.sexpr.exceptions.ParsingFailedException;
+import java.io.IOException;
+import java.io.StringReader;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class ParserContextTest
+{
+    /**
+     * This method creates a string that describes a tree, including the locations.
+     */
+    private static String describe (final Sexpr<?> tree)
+    {
+        final StringBuilder result = new StringBuilder();
+
+        tree.traverse(x ->
+        {
+            result.append(x.isAtom() ? x.asAtom().content() : "(");
+            result.append(" @").append(x.location()).append(' ');
+        },
+                      x -> result.append(x.isList() ? ")" : ""));
+
+        return result.toString();
+    }
+
+    /**
+     * This is the result of parsing a string without reusing anything.
+     */
+    private static String expected (final String source,
+                                    final String text)
+            throws IOException
+    {
+        return describe(Parser.parse(source, new StringReader(text)));
+    }
+
+    /**
+     * Test: 20261018194417602101
+     *
+     * <p>
+     * Method: <code>parse</code>
+     * </p>
+     *
+     * <p>
+     * Case: A reused context produces the same trees as a new parser,
+     * including after a failure and after an input that is longer than the buffer.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018194417602101 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018194417602101");
+
+        final ParserContext context = new ParserContext();
+
+        final String first = "(cmd 'arg 1' \"arg\\n2\")\r\n(x (y z))";
+        assertEquals(expected("A", first), describe(context.parse("A", first, ParseOptions.DEFAULT)));
+
+        try
+        {
+            context.parse("B", "(unbalanced (", ParseOptions.DEFAULT);
+            fail();
+        }
+        catch (ParsingFailedException ex)
+        {
+            assertEquals(new SourceLocation("B", 1, 13), ex.location());
+        }
+
+        final String second = "(cmd 2)";
+        assertEquals(expected("C", second), describe(context.parse("C", second, ParseOptions.DEFAULT)));
+
+        final StringBuilder builder = new StringBuilder();
+
+        while (builder.length() <= 2 * ParserContext.MAX_POOLED_LENGTH)
+        {
+            builder.append("(line ").append(builder.length()).append(" 'some text')\n");
+        }
+
+        builder.append("(last)");
+
+        final String third = builder.toString();
+        assertEquals(expected("D", third), describe(context.parse("D", third, ParseOptions.DEFAULT)));
+
+        assertEquals(expected("E", first), describe(context.parse("E", first, ParseOptions.DEFAULT)));
+    }
+
+    /**
+     * Test: 20261018194417602102
+     *
+     * <p>
+     * Method: <code>parse</code>
+     * </p>
+     *
+     * <p>
+     * Case: The options of one parse do not affect the next parse.
+     * </p>
+     */
+    @Test
+    public void test20261018194417602102 ()
+    {
+        System.out.println("Test: 20261018194417602102");
+
+        final ParserContext context = new ParserContext();
+
+        final ParseOptions options = ParseOptions.newBuilder().internAtoms(true).trackLocations(false).build();
+        final SList shared = context.parse("A", "(x x)", options);
+        assertSame(shared.get(0).asList().get(0), shared.get(0).asList().get(1));
+        assertEquals(SourceLocation.DEFAULT, shared.get(0).location());
+
+        final SList separate = context.parse("B", "(x x)", ParseOptions.DEFAULT);
+        assertNotSame(separate.get(0).asList().get(0), separate.get(0).asList().get(1));
+        assertEquals(new SourceLocation("B", 1, 1), separate.get(0).location());
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import com.mackenziehigh.sexpr.benchmarks.Inputs;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares counting the top-level forms using the structural index
+ * to counting them using the byte lexer, which the parallel parser previously used.
+ *
+ * <p>
+ * The <code>megabytes</code> secondary result is the throughput in MB/s.
+ * This benchmark resides here, rather than with the other benchmarks,
+ * because the index and the lexer are package-private.
+ * </p>
+ */
+@BenchmarkMode (Mode.Throughput)
+@OutputTimeUnit (TimeUnit.SECONDS)
+@Warmup (iterations = 3)
+@Measurement (iterations = 5)
+@Fork (value = 1)
+@State (Scope.Benchmark)
+public class StructuralIndexBenchmark
+{
+    /**
+     * This is the size of the generated input in megabytes.
+     */
+    @Param ("16")
+    public int inputSizeMB;
+
+    private ByteBuffer input;
+
+    /**
+     * Counts the number of megabytes scanned, which JMH reports as MB/s.
+     */
+    @State (Scope.Thread)
+    @AuxCounters (AuxCounters.Type.OPERATIONS)
+    public static class Throughput
+    {
+        public double megabytes;
+    }
+
+    @Setup (Level.Trial)
+    public void setup ()
+    {
+        final byte[] bytes = Inputs.generate(inputSizeMB * 1024L * 1024L, 1L).getBytes(StandardCharsets.UTF_8);
+        input = ByteBuffer.allocateDirect(bytes.length);
+        input.put(bytes).flip();
+    }
+
+    @Benchmark
+    public int lexer (final Throughput counters)
+            throws IOException
+    {
+        final Utf8Lexer lexer = new Utf8Lexer(input.duplicate(), ByteWindows.none());
+        int count = 0;
+        int depth = 0;
+        int token;
+
+        while ((token = lexer.yylex()) != Tokenizer.YYEOF)
+        {
+            count += depth == 0 && token != Tokenizer.CLOSE ? 1 : 0;
+            depth += token == Tokenizer.OPEN ? 1 : token == Tokenizer.CLOSE ? -1 : 0;
+        }
+
+        counters.megabytes += input.limit() / 1e6;
+        return count;
+    }
+
+    @Benchmark
+    public int index (final Throughput counters)
+    {
+        final StructuralIndex index = StructuralIndex.of(input);
+        counters.megabytes += input.limit() / 1e6;
+        return index.isBalanced() ? index.forms() : -1;
+    }
+}
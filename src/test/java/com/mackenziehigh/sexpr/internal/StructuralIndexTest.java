@@ -0,0 +1,175 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class StructuralIndexTest
+{
+    private static final String[] ALPHABET =
+    {
+        "(", "(", ")", ")", "'", "\"", "@", "#", "\\", "\\\\", " ", "\t", "\r", "\n", "\r\n", "\u000B",
+        "a", "b", "1", "xyz", "\u00E9", "\u0085", "\u2028", "\u20AC", "\uD83D\uDE00",
+        "'x y'", "\"p\\\"q\"", "@'r s'", "@\"(\"", "# note )\n"
+    };
+
+    /**
+     * This method describes the tokens found by the lexer,
+     * along with the line-number and column-number of each.
+     */
+    private static String viaLexer (final byte[] bytes)
+            throws IOException
+    {
+        final Utf8Lexer lexer = new Utf8Lexer(ByteBuffer.wrap(bytes), ByteWindows.none());
+        final StringBuilder result = new StringBuilder();
+        int token;
+
+        while ((token = lexer.yylex()) != Tokenizer.YYEOF)
+        {
+            final char kind = token == Tokenizer.OPEN ? '(' : token == Tokenizer.CLOSE ? ')' : 'A';
+            result.append(kind).append(lexer.offset()).append('@').append(lexer.line()).append(':').append(lexer.column()).append(' ');
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * This method describes the structural bytes found by the index,
+     * along with the line-number and column-number of each.
+     */
+    private static String viaIndex (final byte[] bytes)
+    {
+        final StructuralIndex index = StructuralIndex.of(ByteBuffer.wrap(bytes));
+        final StringBuilder result = new StringBuilder();
+
+        for (int offset = index.following(0); offset >= 0; offset = index.following(offset + 1))
+        {
+            final char kind = index.isList(offset) ? '(' : index.isAtom(offset) ? 'A' : ')';
+            index.locate(offset);
+            result.append(kind).append(offset).append('@').append(index.line()).append(':').append(index.column()).append(' ');
+        }
+
+        return result.toString();
+    }
+
+    private static boolean balanced (final String text)
+    {
+        int depth = 0;
+
+        for (char c : text.toCharArray())
+        {
+            depth += c == '(' ? 1 : c == ')' ? -1 : 0;
+
+            if (depth < 0)
+            {
+                return false;
+            }
+        }
+
+        return depth == 0;
+    }
+
+    /**
+     * Test: 20261018223105418801
+     *
+     * <p>
+     * Case: The index agrees with the lexer on random inputs,
+     * which are long enough to span multiple blocks.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018223105418801 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018223105418801");
+
+        final Random random = new Random(29);
+
+        for (int i = 0; i < 3000; i++)
+        {
+            final StringBuilder text = new StringBuilder();
+            final int length = random.nextInt(i % 2 == 0 ? 40 : 200);
+
+            for (int k = 0; k < length; k++)
+            {
+                text.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+            }
+
+            final byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+            final String expected = viaLexer(bytes);
+            assertEquals(text.toString(), expected, viaIndex(bytes));
+
+            /**
+             * The index is balanced, if the structural parentheses, which the lexer found, are balanced.
+             */
+            final String parens = expected.replaceAll("[^()]", "");
+            assertEquals(text.toString(), balanced(parens), StructuralIndex.of(ByteBuffer.wrap(bytes)).isBalanced());
+        }
+    }
+
+    /**
+     * Test: 20261018223105418802
+     *
+     * <p>
+     * Case: Skipping lists, and counting the top-level forms, in an input that spans many blocks.
+     * </p>
+     */
+    @Test
+    public void test20261018223105418802 ()
+    {
+        System.out.println("Test: 20261018223105418802");
+
+        final StringBuilder text = new StringBuilder();
+
+        for (int i = 0; i < 500; i++)
+        {
+            text.append("(entry ").append(i).append(" (key ')' \"(\" @'((') # ) comment\n  (nested (deeper x))) atom").append(i).append(' ');
+        }
+
+        final ByteBuffer bytes = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+        final StructuralIndex index = StructuralIndex.of(bytes);
+
+        assertTrue(index.isBalanced());
+        assertEquals(1000, index.forms());
+
+        final int first = index.first();
+        assertEquals(0, first);
+        assertTrue(index.isList(first));
+
+        final int second = index.next(first);
+        assertTrue(index.isAtom(second));
+        assertEquals(')', bytes.get(index.skip(first) - 1));
+        assertEquals("atom0", text.substring(second, second + 5));
+        assertEquals("(entry 1 ", text.substring(index.next(second), index.next(second) + 9));
+
+        /**
+         * The position of the buffer is the origin of the offsets.
+         */
+        bytes.position(index.next(second));
+        assertEquals(998, StructuralIndex.of(bytes).forms());
+
+        assertFalse(StructuralIndex.of(ByteBuffer.wrap("(()".getBytes(StandardCharsets.UTF_8))).isBalanced());
+        assertFalse(StructuralIndex.of(ByteBuffer.wrap("())(".getBytes(StandardCharsets.UTF_8))).isBalanced());
+        assertEquals(0, StructuralIndex.of(ByteBuffer.allocate(0)).forms());
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2017 Michael Mackenzie High
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mackenziehigh.sexpr.internal;
+
+import com.mackenziehigh.sexpr.SList;
+import com.mackenziehigh.sexpr.Sexpr;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class Utf8LexerTest
+{
+    private static final String[] ALPHABET =
+    {
+        "(", ")", "'", "\"", "@", "#", "\\", " ", "\t", "\r", "\n", "\r\n", "\u000B", "\u000C",
+        "a", "b", "1", "\u00E9", "\u0085", "\u2028", "\u2029", "\u20AC", "\uD83D\uDE00"
+    };
+
+    /**
+     * This method creates a string that describes a tree, including the locations.
+     */
+    private static String describe (final Sexpr<?> tree)
+    {
+        final StringBuilder result = new StringBuilder();
+
+        tree.traverse(x ->
+        {
+            result.append(x.isAtom() ? x.asAtom().content() : "(");
+            result.append(" @").append(x.location().line()).append(':').append(x.location().column()).append(' ');
+        },
+                      x -> result.append(x.isList() ? ")" : ""));
+
+        return result.toString();
+    }
+
+    private static String viaChars (final String text)
+    {
+        try
+        {
+            return describe(Parser.parse("X", text));
+        }
+        catch (RuntimeException ex)
+        {
+            return ex.toString();
+        }
+    }
+
+    private static String viaBytes (final String text,
+                                    final int windowSize)
+            throws IOException
+    {
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        try
+        {
+            if (windowSize == 0)
+            {
+                return describe(Parser.parse("X", ByteBuffer.wrap(bytes)));
+            }
+            else
+            {
+                final StreamWindows windows = new StreamWindows(new ByteArrayInputStream(bytes), windowSize);
+                return describe(Parser.parse("X", new Utf8Lexer(windows.first(), windows)));
+            }
+        }
+        catch (RuntimeException ex)
+        {
+            return ex.toString();
+        }
+    }
+
+    /**
+     * This method creates windows that grow by a single byte at a time,
+     * which forces the lexer to refill in the middle of every token.
+     */
+    private static ByteWindows trickle (final byte[] bytes)
+    {
+        return new ByteWindows()
+        {
+            private int base = 0;
+
+            @Override
+            public ByteBuffer next (final ByteBuffer current,
+                                    final int keep)
+            {
+                if (base + current.limit() == bytes.length)
+                {
+                    return null;
+                }
+
+                base += keep;
+                final int end = base + current.limit() - keep + 1;
+                return ByteBuffer.wrap(Arrays.copyOfRange(bytes, base, end));
+            }
+        };
+    }
+
+    /**
+     * Test: 20261018130102334101
+     *
+     * <p>
+     * Case: The byte lexer and the character lexer agree on random inputs.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018130102334101 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018130102334101");
+
+        final Random random = new Random(13);
+
+        for (int i = 0; i < 2000; i++)
+        {
+            final StringBuilder text = new StringBuilder();
+            final int length = random.nextInt(40);
+
+            for (int k = 0; k < length; k++)
+            {
+                text.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+            }
+
+            final String input = text.toString();
+
+            final String expected = viaChars(input);
+
+            assertEquals(input, expected, viaBytes(input, 0));
+            assertEquals(input, expected, viaBytes(input, 1));
+            assertEquals(input, expected, viaBytes(input, 7));
+        }
+    }
+
+    /**
+     * Test: 20261018130102334102
+     *
+     * <p>
+     * Case: The lexer refills in the middle of every token.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018130102334102 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018130102334102");
+
+        final String text = "(alpha 'b\\'e\u00E9ta' @\"g\u20ACmma\"\r\n# comment \uD83D\uDE00\n(\"d\\\"elta\" \uD83D\uDE00x))";
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        final SList tree = Parser.parse("X", new Utf8Lexer(ByteBuffer.allocate(0), trickle(bytes)));
+
+        assertEquals(viaChars(text), describe(tree));
+    }
+
+    /**
+     * Test: 20261018130102334103
+     *
+     * <p>
+     * Case: Malformed UTF-8 causes an exception.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018130102334103 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018130102334103");
+
+        final byte[][] inputs =
+        {
+            { '(', 'a', (byte) 0xC3, ')' },
+            { '(', 'a', (byte) 0xFF, ')' },
+            { '(', '\'', (byte) 0xE2, (byte) 0x82, '\'', ')' },
+            { '#', (byte) 0x80, '\n' },
+        };
+
+        for (byte[] input : inputs)
+        {
+            try
+            {
+                Parser.parse("X", ByteBuffer.wrap(input));
+                fail();
+            }
+            catch (CharacterCodingException ex)
+            {
+                assertTrue(true);
+            }
+        }
+    }
+
+    /**
+     * Test: 20261018130102334104
+     *
+     * <p>
+     * Case: Columns count UTF-16 code-units and Unicode line-terminators within atoms start new lines.
+     * </p>
+     *
+     * @throws java.io.IOException if something goes unexpectedly wrong.
+     */
+    @Test
+    public void test20261018130102334104 ()
+            throws IOException
+    {
+        System.out.println("Test: 20261018130102334104");
+
+        final String text = "\uD83D\uDE00 a\u0085b c\u2028 \u00E9 d";
+        final SList tree = Parser.parse("X", ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(5, tree.size());
+        assertEquals("a\u0085b", tree.get(1).asAtom().content());
+        assertEquals(1, tree.get(0).location().line());
+        assertEquals(1, tree.get(0).location().column());
+        assertEquals(1, tree.get(1).location().line());
+        assertEquals(4, tree.get(1).location().column());
+        assertEquals(2, tree.get(2).location().line());
+        assertEquals(3, tree.get(2).location().column());
+        assertEquals(3, tree.get(3).location().line());
+        assertEquals(2, tree.get(3).location().column());
+        assertEquals(3, tree.get(4).location().line());
+        assertEquals(4, tree.get(4).location().column());
+        assertEquals(viaChars(text), describe(tree));
+    }
+}